@@ -0,0 +1,293 @@
+/*******************************************************************************
+ * Student:             Adam C. Dick, BSE
+ * Master's Thesis:     Validating and Updating Structural FE Models
+ *                      for Dynamic Analysis
+ * 
+ * Industry Partner:    Industrieanlagen-Betriebsgesellschaft mbH in Ottobrunn
+ * Supervisor:          Dr.-Ing. Manfred Kroiss
+ * 
+ * Academic Partner:    Technische Universitaet Muenchen
+ * Supervisor:          Dr.-Ing. Martin Ruess
+ ******************************************************************************/
+package de.iabg.math;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*******************************************************************************
+ * This class executes independent tasks, such as the tiles of a correlation
+ * matrix, on several threads.  The calling thread takes part in the execution,
+ * and each thread takes the next remaining task until all tasks are complete,
+ * so that tiles of different cost are balanced between the threads.  The
+ * tasks should write to disjoint parts of their results, so that the results
+ * do not depend on the number of threads.
+ * 
+ * The threads are created when they are first needed and are daemon threads,
+ * so that they do not prevent the application from exiting.  A parallelism of
+ * one executes all tasks on the calling thread.  The parallelism of the shared
+ * executor is given by the system property {@value #PARALLELISM_PROPERTY},
+ * such as {@code -Dde.iabg.parallelism=8}, and defaults to the number of
+ * available processors.
+ * 
+ * Tasks which are executed from a thread of a pool, such as a parallel
+ * multiplication within a parallel tile, are executed on that thread, since
+ * waiting for other threads of the pool could block all of its threads.  If a
+ * task fails, the remaining tasks are skipped, and the failure is thrown once
+ * all running tasks are complete, so that no task writes to the results after
+ * the caller has returned.
+ * 
+ * @author  Adam C. Dick, BSE
+ * @version November 15, 2008
+ ******************************************************************************/
+public class ParallelExecutor {
+    /** The thread pool of this executor */
+    protected ExecutorService executorService_;
+    
+    /** Whether the current thread belongs to the pool of an executor */
+    protected static final ThreadLocal<Boolean> IS_POOL_THREAD =
+            new ThreadLocal<Boolean>();
+    
+    /** The number of threads which execute the tasks */
+    protected int parallelism_;
+    
+    /** The system property of the parallelism of the shared executor */
+    public static final String PARALLELISM_PROPERTY = "de.iabg.parallelism";
+    
+    /** The executor which is shared by all matrices by default */
+    protected static ParallelExecutor sharedExecutor_;
+    
+    
+    
+    /***************************************************************************
+     * Constructs an executor with one thread for each available processor.
+     **************************************************************************/
+    public ParallelExecutor() {
+        this(Runtime.getRuntime().availableProcessors());
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Constructs an executor with the given number of threads.
+     * 
+     * @param   parallelism the number of threads which execute the tasks
+     **************************************************************************/
+    public ParallelExecutor(int parallelism) {
+        super();
+        
+        this.setParallelism(parallelism);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Executes the given tasks and returns when all of them are complete.  If
+     * a task fails, the remaining tasks are skipped and the failure is thrown
+     * to the caller once the running tasks are complete.  Tasks which are
+     * executed from a thread of a pool are executed on that thread.
+     * 
+     * @param   tasks   the tasks to be executed
+     * @throws  IllegalStateException   if the calling thread is interrupted
+     **************************************************************************/
+    public void execute(final List<? extends Runnable> tasks) {
+        final AtomicInteger     nextTask    = new AtomicInteger();
+        final int               nTasks      = tasks.size();
+        ExecutorService         executorService;
+        List<Future<?>>         futures;
+        Runnable                worker;
+        Throwable               failure         = null;
+        boolean                 isInterrupted   = false;
+        int                     nWorkers;
+        
+        nWorkers = Math.min(this.getParallelism(), nTasks);
+        
+        if (nWorkers <= 1 || Boolean.TRUE.equals(IS_POOL_THREAD.get())) {
+            for (Runnable task : tasks) {
+                task.run();
+            }
+            
+            return;
+        }
+        
+        worker = new Runnable() {
+            public void run() {
+                int taskIndex;
+                
+                while ((taskIndex = nextTask.getAndIncrement()) < nTasks) {
+                    tasks.get(taskIndex).run();
+                }
+            } // eom
+        };
+        
+        executorService = this.getExecutorService();
+        futures         = new ArrayList<Future<?>>(nWorkers - 1);
+        
+        for (int i = 1; i < nWorkers; i++) {
+            futures.add(executorService.submit(worker));
+        }
+        
+        try {
+            worker.run();
+        }
+        catch (RuntimeException e) {
+            nextTask.set(nTasks);
+            failure = e;
+        }
+        catch (Error e) {
+            nextTask.set(nTasks);
+            failure = e;
+        }
+        
+        for (Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                }
+                catch (InterruptedException e) {
+                    nextTask.set(nTasks);
+                    isInterrupted = true;
+                }
+                catch (ExecutionException e) {
+                    nextTask.set(nTasks);
+                    
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                    
+                    break;
+                }
+            }
+        }
+        
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+            
+            if (failure == null) {
+                throw new IllegalStateException("Execution was interrupted");
+            }
+        }
+        
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        
+        if (failure != null) {
+            throw new IllegalStateException("Execution failed", failure);
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the thread pool of this executor, which is created when it is
+     * first needed.  The pool has one thread less than the parallelism, since
+     * the calling thread also executes tasks.
+     * 
+     * @return  the thread pool of this executor
+     **************************************************************************/
+    protected synchronized ExecutorService getExecutorService() {
+        if (executorService_ == null) {
+            executorService_ = Executors.newFixedThreadPool(
+                    Math.max(parallelism_ - 1, 1), new ThreadFactory() {
+                private int nThreads_ = 0;
+                
+                public Thread newThread(final Runnable runnable) {
+                    Thread thread = new Thread(new Runnable() {
+                        public void run() {
+                            IS_POOL_THREAD.set(Boolean.TRUE);
+                            runnable.run();
+                        } // eom
+                    }, "ParallelExecutor-" + (++nThreads_));
+                    
+                    thread.setDaemon(true);
+                    
+                    return thread;
+                } // eom
+            });
+        }
+        
+        return executorService_;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the number of threads which execute the tasks.
+     * 
+     * @return  the parallelism of this executor
+     **************************************************************************/
+    public synchronized int getParallelism() {
+        return parallelism_;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the executor which is shared by all matrices by default.  It is
+     * created with the parallelism of the system property
+     * {@value #PARALLELISM_PROPERTY}, or with one thread for each available
+     * processor if the property is not set.
+     * 
+     * @return  the shared executor
+     * @throws  IllegalArgumentException    if the property is not a positive
+     *                                      integer
+     **************************************************************************/
+    public static synchronized ParallelExecutor getSharedExecutor() {
+        Integer parallelism;
+        
+        if (sharedExecutor_ == null) {
+            parallelism = Integer.getInteger(PARALLELISM_PROPERTY,
+                    Runtime.getRuntime().availableProcessors());
+            sharedExecutor_ = new ParallelExecutor(parallelism.intValue());
+        }
+        
+        return sharedExecutor_;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Sets the number of threads which execute the tasks.  The existing
+     * threads are stopped once their current tasks are complete.
+     * 
+     * @param   parallelism the number of threads which execute the tasks
+     * @throws  IllegalArgumentException    if the parallelism is not positive
+     **************************************************************************/
+    public synchronized void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Parallelism %d is not positive", parallelism));
+        }
+        
+        if (parallelism != parallelism_) {
+            this.shutdown();
+            parallelism_ = parallelism;
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Stops the threads of this executor once their current tasks are
+     * complete.  New threads are created if further tasks are executed.
+     **************************************************************************/
+    public synchronized void shutdown() {
+        if (executorService_ != null) {
+            executorService_.shutdown();
+            executorService_ = null;
+        }
+    } // eom
+} // eoc
\ No newline at end of file
@@ -13,8 +13,6 @@ package de.iabg.math;
 
 import de.iabg.swing.KeyList;
 
-import java.util.Arrays;
-
 /*******************************************************************************
  * This {@code Matrix} is designed as a standard fully populated matrix. This
  * matrix stores all values in a single row-major array, where each subsequent
@@ -107,6 +105,93 @@ public class RectangularMatrix extends AbstractMatrix {
     
     
     
+    /***************************************************************************
+     * Rearranges the columns of this matrix so that the column at each
+     * position is the column at the given index of this matrix.  Columns may
+     * be repeated or omitted, thus changing the number of columns.  The
+     * indices are resolved into runs of consecutive columns, which are copied
+     * into each row with {@link System#arraycopy}.
+     * 
+     * @param   columnIndices   the index of the column for each new position
+     **************************************************************************/
+    public void permuteColumns(int[] columnIndices) {
+        int[]       runSources      = new int[columnIndices.length];
+        int[]       runTargets      = new int[columnIndices.length];
+        int[]       runLengths      = new int[columnIndices.length];
+        String[]    columnNames;
+        double[]    values;
+        int         nColumns        = columnIndices.length;
+        int         nRuns           = 0;
+        int         iRow;
+        int         nRow;
+        
+        columnNames = new String[nColumns];
+        values      = new double[nRows_ * nColumns];
+        
+        for (int j = 0; j < nColumns; j++) {
+            columnNames[j] = columnNames_[columnIndices[j]];
+            
+            if (nRuns > 0 && columnIndices[j] == runSources[nRuns - 1] +
+                    runLengths[nRuns - 1]) {
+                runLengths[nRuns - 1]++;
+            }
+            else {
+                runSources[nRuns]   = columnIndices[j];
+                runTargets[nRuns]   = j;
+                runLengths[nRuns]   = 1;
+                nRuns++;
+            }
+        }
+        
+        for (int i = 0; i < nRows_; i++) {
+            iRow = i * nColumns_;
+            nRow = i * nColumns;
+            
+            for (int k = 0; k < nRuns; k++) {
+                System.arraycopy(values_, iRow + runSources[k], values,
+                        nRow + runTargets[k], runLengths[k]);
+            }
+        }
+        
+        columnNames_    = columnNames;
+        nColumns_       = nColumns;
+        values_         = values;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Rearranges the rows of this matrix so that the row at each position is
+     * the row at the given index of this matrix.  Rows may be repeated or
+     * omitted, thus changing the number of rows.  Each row is copied with
+     * {@link System#arraycopy}.
+     * 
+     * @param   rowIndices  the index of the row for each new position
+     **************************************************************************/
+    public void permuteRows(int[] rowIndices) {
+        String[]    rowNames;
+        double[]    values;
+        int         nRows       = rowIndices.length;
+        int         iRow;
+        int         nRow;
+        
+        rowNames    = new String[nRows];
+        values      = new double[nRows * nColumns_];
+        
+        for (int i = 0; i < nRows; i++) {
+            rowNames[i] = rowNames_[rowIndices[i]];
+            iRow        = rowIndices[i] * nColumns_;
+            nRow        = i * nColumns_;
+            System.arraycopy(values_, iRow, values, nRow, nColumns_);
+        }
+        
+        rowNames_   = rowNames;
+        nRows_      = nRows;
+        values_     = values;
+    } // eom
+    
+    
+    
     /***************************************************************************
      **************************************************************************/
     public void setColumnCount(int nColumns) {
@@ -154,44 +239,7 @@ public class RectangularMatrix extends AbstractMatrix {
      * @param   columnKeys  the new order of the column names
      **************************************************************************/
     public void sortColumns(KeyList columnKeys) {
-        String[]    columnNames;
-        double[]    values;
-        int         nColumns        = 0;
-        int         nValues         = 0;
-        
-        for (String column : columnNames_) {
-            if (columnKeys.contains(column)) {
-                nColumns++;
-            }
-        }
-        
-        columnNames = new String[nColumns];
-        values      = new double[nRows_ * nColumns];
-        nColumns    = 0;
-        
-        for (String columnKey : columnKeys.values()) {
-            for (int i = 0; i < nColumns_; i++) {
-                if (columnKey.equals(columnNames_[i])) {
-                    columnNames[nColumns] = columnNames_[i];
-                    nColumns++;
-                }
-            }
-        }
-        
-        for (int i = 0; i < nRows_; i++) {
-            for (String columnKey : columnKeys.values()) {
-                for (int j = 0; j < nColumns_; j++) {
-                    if (columnKey.equals(columnNames_[j])) {
-                        values[nValues] = values_[(i * nColumns_) + j];
-                        nValues++;
-                    }
-                }
-            }
-        }
-        
-        columnNames_    = columnNames;
-        nColumns_       = nColumns;
-        values_         = values;
+        this.permuteColumns(this.getColumnIndicesOf(columnKeys));
     } // eom
     
     
@@ -208,37 +256,7 @@ public class RectangularMatrix extends AbstractMatrix {
      * @param   rowKeys  the new order of the row names
      **************************************************************************/
     public void sortRows(KeyList rowKeys) {
-        String[]    rowNames;
-        double[]    values;
-        int         nRows       = 0;
-        int         iRow;
-        int         nRow;
-        
-        for (String row : rowKeys.values()) {
-            if (Arrays.asList(rowNames_).contains(row)) {
-                nRows++;
-            }
-        }
-        
-        rowNames    = new String[nRows];
-        values      = new double[nRows * nColumns_];
-        nRows       = 0;
-        
-        for (String rowKey : rowKeys.values()) {
-            for (int i = 0; i < nRows_; i++) {
-                if (rowKey.equals(rowNames_[i])) {
-                    rowNames[nRows] = rowNames_[i];
-                    iRow            = i * nColumns_;
-                    nRow            = nRows * nColumns_;
-                    System.arraycopy(values_, iRow, values, nRow, nColumns_);
-                    nRows++;
-                }
-            }
-        }
-        
-        rowNames_   = rowNames;
-        nRows_      = nRows;
-        values_     = values;
+        this.permuteRows(this.getRowIndicesOf(rowKeys));
     } // eom
     
     
@@ -257,6 +275,7 @@ public class RectangularMatrix extends AbstractMatrix {
         columnName                  = columnNames_[firstIndex];
         columnNames_[firstIndex]    = columnNames_[lastIndex];
         columnNames_[lastIndex]     = columnName;
+        this.clearColumnIndex();
         
         for (int i = 0; i < nRows_; i++) {
             rowIndex                        = i * nColumns_;
@@ -281,6 +300,7 @@ public class RectangularMatrix extends AbstractMatrix {
         rowName                 = rowNames_[firstIndex];
         rowNames_[firstIndex]   = rowNames_[lastIndex];
         rowNames_[lastIndex]    = rowName;
+        this.clearRowIndex();
         
         firstIndex  *= nColumns_;
         lastIndex   *= nColumns_;
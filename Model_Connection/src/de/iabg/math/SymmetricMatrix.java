@@ -14,16 +14,23 @@ package de.iabg.math;
 /*******************************************************************************
  * This {@code Matrix} is designed as a mathematically symmetric matrix.  This
  * matrix stores only half of the values of this matrix in a lower triangular
- * array of arrays.  The values of the upper triangle can be accessed by
- * transposing their indices.  This structure is used to reduce storage
- * requirements for large symmetric arrays.
+ * array.  The values of the upper triangle can be accessed by transposing their
+ * indices.  This structure is used to reduce storage requirements for large
+ * symmetric arrays.
+ * 
+ * The lower triangle is packed row by row into a single array, so that row
+ * {@code i} holds {@code i + 1} values and starts at {@code i * (i + 1) / 2}.
+ * This is the packed lower storage of LAPACK transposed into rows.  Thus, a
+ * matrix of any dimension occupies one array instead of one array per row,
+ * and the rows are adjacent in memory, so that a traversal of the triangle
+ * in storage order reads a single contiguous block.
  * 
  * @author  Adam C. Dick, BSE
  * @version September 10, 2008
  ******************************************************************************/
 public class SymmetricMatrix extends AbstractMatrix {
-    /** A triangular array of arrays containing all values */
-    protected double[][] values_;
+    /** A packed triangular array containing all values */
+    protected double[] values_;
     
     
     
@@ -39,11 +46,7 @@ public class SymmetricMatrix extends AbstractMatrix {
         columnNames_    = new String[dimension];
         nRows_          = dimension;
         nColumns_       = dimension;
-        values_         = new double[nRows_][];
-        
-        for (int i = 0; i < nRows_; i++) {
-            values_[i] = new double[i + 1];
-        }
+        values_         = new double[this.getPackedLength(nRows_)];
     } // eom
     
     
@@ -55,11 +58,44 @@ public class SymmetricMatrix extends AbstractMatrix {
         nColumns_       = 0;
         rowNames_       = new String[nRows_];
         columnNames_    = new String[nColumns_];
-        values_         = new double[nRows_][];
+        values_         = new double[this.getPackedLength(nRows_)];
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the position of the value at the given row and column in the
+     * packed triangular array.  The row index must not be smaller than the
+     * column index.
+     * 
+     * @param   rowIndex    the row index of the lower triangle
+     * @param   columnIndex the column index of the lower triangle
+     * @return  the position of the value in the packed array
+     **************************************************************************/
+    protected int getPackedIndex(int rowIndex, int columnIndex) {
+        return (int) ((rowIndex * (rowIndex + 1L)) / 2) + columnIndex;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the length of the packed triangular array of a symmetric matrix
+     * of the given dimension.
+     * 
+     * @param   dimension   the dimension of the symmetric matrix
+     * @return  the number of values in the lower triangle
+     * @throws  IllegalArgumentException    if the lower triangle cannot be
+     *                                      stored in a single array
+     **************************************************************************/
+    protected int getPackedLength(int dimension) {
+        long length = (dimension * (dimension + 1L)) / 2;
         
-        for (int i = 0; i < nRows_; i++) {
-            values_[i] = new double[i + 1];
+        if (length > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format(
+                    "Dimension %d is too large to be packed", dimension));
         }
+        
+        return (int) length;
     } // eom
     
     
@@ -68,10 +104,10 @@ public class SymmetricMatrix extends AbstractMatrix {
      **************************************************************************/
     public double getValueAt(int rowIndex, int columnIndex) {
         if (rowIndex > columnIndex) {
-            return values_[rowIndex][columnIndex];
+            return values_[this.getPackedIndex(rowIndex, columnIndex)];
         }
         else {
-            return values_[columnIndex][rowIndex];
+            return values_[this.getPackedIndex(columnIndex, rowIndex)];
         }
     } // eom
     
@@ -94,11 +130,13 @@ public class SymmetricMatrix extends AbstractMatrix {
             result.append(String.format(" %15s", rowNames_[i]));
             
             for (int j = 0; j < i; j++) {
-                result.append(String.format(" % 11.8e", values_[i][j]));
+                result.append(String.format(" % 11.8e",
+                        values_[this.getPackedIndex(i, j)]));
             }
             
             for (int j = i; j < nColumns_; j++) {
-                result.append(String.format(" % 11.8e", values_[j][i]));
+                result.append(String.format(" % 11.8e",
+                        values_[this.getPackedIndex(j, i)]));
             }
             
             result.append(String.format("%n"));
@@ -116,11 +154,7 @@ public class SymmetricMatrix extends AbstractMatrix {
         columnNames_    = new String[nColumns];
         nRows_          = nColumns;
         nColumns_       = nColumns;
-        values_         = new double[nRows_][];
-        
-        for (int i = 0; i < nRows_; i++) {
-            values_[i] = new double[i + 1];
-        }
+        values_         = new double[this.getPackedLength(nRows_)];
     } // eom
     
     
@@ -132,11 +166,7 @@ public class SymmetricMatrix extends AbstractMatrix {
         columnNames_    = new String[nRows];
         nRows_          = nRows;
         nColumns_       = nRows;
-        values_         = new double[nRows_][];
-        
-        for (int i = 0; i < nRows_; i++) {
-            values_[i] = new double[i + 1];
-        }
+        values_         = new double[this.getPackedLength(nRows_)];
     } // eom
     
     
@@ -145,21 +175,23 @@ public class SymmetricMatrix extends AbstractMatrix {
      **************************************************************************/
     public void setValueAt(double value, int rowIndex, int columnIndex) {
         if (rowIndex > columnIndex) {
-            values_[rowIndex][columnIndex] = value;
+            values_[this.getPackedIndex(rowIndex, columnIndex)] = value;
         }
         else {
-            values_[columnIndex][rowIndex] = value;
+            values_[this.getPackedIndex(columnIndex, rowIndex)] = value;
         }
     } // eom
     
     
     
     /***************************************************************************
-     * Returns the values of the cells of this matrix as a triangular array.
+     * Returns the values of the cells of this matrix as a packed triangular
+     * array.  The value at row {@code i} and column {@code j}, where {@code j}
+     * is not greater than {@code i}, is stored at {@code i * (i + 1) / 2 + j}.
      * 
      * @return  the values of the cells of this matrix
      **************************************************************************/
-    public double[][] values() {
+    public double[] values() {
         return values_;
     } // eom
 } // eoc
\ No newline at end of file
@@ -50,14 +50,15 @@ import javax.vecmath.Color3f;
  * a more in-depth summary of the connection algorithm may clarify some
  * conceptual issues.  There exist two {@link NodeMatrix} objects, one for the
  * {@code First Nodes} and one for the {@code Last Nodes}.  A
- * {@link NodeCorrelationMatrix} is created by calling
- * {@link NodeMatrix#getReducedDistanceCorrelation(de.iabg.mesh.NodeMatrix,
- * de.iabg.swing.KeyList, de.iabg.swing.KeyList)} and using the
- * {@code First Nodes}, {@code Last Nodes}, and their corresponding node keys
- * as arguments.  Once that has been completed, a {@link NodeConnectionMatrix}
- * with a maximum distance tolerance is created by calling
- * {@link NodeCorrelationMatrix#getPreferredConnection(double)}.  In these two
- * steps, the two {@code NodeMatrix} objects are connected.
+ * {@link NodeConnectionMatrix} with a maximum distance tolerance is created by
+ * calling {@link NodeMatrix#getReducedDistanceConnection(
+ * de.iabg.mesh.NodeMatrix, de.iabg.swing.KeyList, de.iabg.swing.KeyList,
+ * double)} and using the {@code First Nodes}, {@code Last Nodes}, and their
+ * corresponding node keys as arguments.  The {@code Last Nodes} are indexed in
+ * a {@link NodeTree}, so that only the nodes within the tolerance are compared
+ * and the distances between all nodes are never stored.  The resulting
+ * connection is the same as the one returned by
+ * {@link NodeCorrelationMatrix#getPreferredConnection(double)}.
  * 
  * To render the connected nodes in Java3D, a similar procedure is done as in
  * {@link DefaultMeshModel} for edges, triangles and quadrilaterals.  The scene
@@ -142,12 +143,11 @@ public class DefaultMeshConnectionModel
     /***************************************************************************
      **************************************************************************/
     public void connectNodes(double tolerance) {
-        NodeCorrelationMatrix   nodeCorrelations;
-        NodeMatrix              firstNodes;
-        KeyList                 firstNodeKeys;
-        NodeMatrix              lastNodes;
-        KeyList                 lastNodeKeys;
-        long                    time;
+        NodeMatrix  firstNodes;
+        KeyList     firstNodeKeys;
+        NodeMatrix  lastNodes;
+        KeyList     lastNodeKeys;
+        long        time;
         
         firstNodes      = firstMeshPanel_.getNodes();
         firstNodeKeys   = firstMeshPanel_.getSelectedNodeKeys();
@@ -156,9 +156,8 @@ public class DefaultMeshConnectionModel
         
         this.fireLogChanged("Connecting nodes:");
         time = System.currentTimeMillis();
-        nodeCorrelations = firstNodes.getReducedDistanceCorrelation(lastNodes,
-                firstNodeKeys, lastNodeKeys);
-        nodeConnections_ = nodeCorrelations.getPreferredConnection(tolerance);
+        nodeConnections_ = firstNodes.getReducedDistanceConnection(lastNodes,
+                firstNodeKeys, lastNodeKeys, tolerance);
         time = (System.currentTimeMillis() - time) / 1000L;
         this.fireLogChanged("Computed: " +
                 nodeConnections_.getConnectionCount() +
@@ -16,8 +16,11 @@ import de.iabg.j3d.ColorConstants;
 import de.iabg.j3d.event.SceneEvent;
 import de.iabg.j3d.event.SceneListener;
 
+import de.iabg.math.ParallelExecutor;
+
 import de.iabg.mesh.io.NastranBulkDataReader;
 import de.iabg.mesh.io.NastranSetReader;
+import de.iabg.mesh.io.ParallelNastranBulkDataReader;
 
 import de.iabg.swing.KeyList;
 import de.iabg.swing.KeyMap;
@@ -108,6 +111,9 @@ public class DefaultMeshModel
     /** Storage for the nodes */
     protected NodeMatrix nodes_;
     
+    /** The length in bytes from which a geometry file is parsed in parallel */
+    protected static final long PARALLEL_GEOMETRY_FILE_LENGTH = 1L << 26;
+    
     /** Storage for the quadrilaterals */
     protected NodeConnectionMatrix quads_;
     
@@ -555,7 +561,16 @@ public class DefaultMeshModel
         quads_.clear();
         
         this.fireLogChanged("Opening source file: " + fileName);
-        geometryReader = new NastranBulkDataReader(geometryFile_);
+        
+        if ((geometryFile_.length() >= PARALLEL_GEOMETRY_FILE_LENGTH) &&
+                (ParallelExecutor.getSharedExecutor().getParallelism() > 1)) {
+            this.fireLogChanged("Parallel: reading source file in chunks");
+            geometryReader = new ParallelNastranBulkDataReader(geometryFile_);
+        }
+        else {
+            geometryReader = new NastranBulkDataReader(geometryFile_);
+        }
+        
         geometryReader.readFile();
         
         time = System.currentTimeMillis();
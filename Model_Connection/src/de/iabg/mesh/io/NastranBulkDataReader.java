@@ -21,9 +21,6 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 
-import java.util.ArrayList;
-import java.util.Scanner;
-
 /*******************************************************************************
  * This implementation of {@link GeometryReader} parses a Nastran file
  * containing geometry data, namely nodes, edges, triangles, and quadrilaterals.
@@ -34,6 +31,18 @@ import java.util.Scanner;
  * latest version of the MSC.Nastran Quick Reference Guide for more information
  * for the file format.
  * 
+ * The file is parsed in a single pass.  Each card is collected with its
+ * continuation lines and parsed as soon as the next card begins, while the
+ * cards which contain no geometry are skipped without being collected.  The
+ * names and coordinates of the parsed cards are appended to arrays which grow
+ * as needed, from which the {@code import} methods fill the given matrices.
+ * Thus, neither the lines of the file nor a count of each card type must be
+ * kept.
+ * 
+ * Each card is collected in a {@link NastranCardTokenizer}, which is reused
+ * for every card and splits the card into fields without creating a string
+ * for each field.  Only the node names are copied into strings.
+ * 
  * @author  Adam C. Dick, BSE
  * @version September 13, 2008
  ******************************************************************************/
@@ -42,11 +51,8 @@ public class NastranBulkDataReader extends FileReader
     /** A constant for comments */
     protected static final int COMMENT_FORMAT = 1000;
     
-    /** A list for the data from the file */
-    protected ArrayList<String> data_;
-    
-    /** Storage for the edges */
-    protected NodeConnectionMatrix edges_;
+    /** The first and last node names of each parsed edge */
+    protected String[] edgeNodeNames_;
     
     /** A constant for free continuation lines */
     protected static final int FREE_CONTINUATION_FORMAT = 1001;
@@ -54,17 +60,35 @@ public class NastranBulkDataReader extends FileReader
     /** A constant for free lines */
     protected static final int FREE_FIELD_FORMAT = 1002;
     
+    /** The initial number of parsed cards of each type which can be stored */
+    protected static final int INITIAL_CARD_CAPACITY = 1024;
+    
     /** A constant for large continuation lines */
     protected static final int LARGE_CONTINUATION_FORMAT = 1003;
     
     /** A constant for large lines */
     protected static final int LARGE_FIELD_FORMAT = 1004;
     
-    /** Storage for the nodes */
-    protected NodeMatrix nodes_;
+    /** The number of parsed edges */
+    protected int nEdges_;
+    
+    /** The number of parsed nodes */
+    protected int nNodes_;
+    
+    /** The x, y, and z coordinates of each parsed node */
+    protected double[] nodeCoordinates_;
+    
+    /** The names of the parsed nodes */
+    protected String[] nodeNames_;
+    
+    /** The number of parsed quadrilaterals */
+    protected int nQuadrilaterals_;
     
-    /** Storage for the quadrilaterals */
-    protected NodeConnectionMatrix quads_;
+    /** The number of parsed triangles */
+    protected int nTriangles_;
+    
+    /** The four corner node names of each parsed quadrilateral */
+    protected String[] quadNodeNames_;
     
     /** A constant for small continuation lines */
     protected static final int SMALL_CONTINUATION_FORMAT = 1005;
@@ -72,8 +96,11 @@ public class NastranBulkDataReader extends FileReader
     /** A constant for small lines */
     protected static final int SMALL_FIELD_FORMAT = 1006;
     
-    /** Storage for the triangles*/
-    protected NodeConnectionMatrix triangles_;
+    /** The tokenizer in which each card is collected */
+    protected NastranCardTokenizer tokenizer_;
+    
+    /** The three corner node names of each parsed triangle */
+    protected String[] triangleNodeNames_;
     
     
     
@@ -86,385 +113,418 @@ public class NastranBulkDataReader extends FileReader
     public NastranBulkDataReader(File file)
             throws FileNotFoundException {
         super(file);
+        
+        tokenizer_ = new NastranCardTokenizer();
+        this.clearCards();
     } // eom
     
     
     
     /***************************************************************************
-     * Parses a free edge from the given line and adds it to the stored edges at
-     * the given index.
+     * Parses the given card, which has been collected with its continuation
+     * lines, if it contains a node, an edge, a triangle, or a quadrilateral.
      * 
-     * @param   edgeIndex   the index of the edge
-     * @param   line        the line to be parsed
+     * @param   card    the tokenizer of the card to be parsed
      **************************************************************************/
-    protected void addFreeEdge(int edgeIndex, String line) {
-        Scanner scanner;
-        String  firstNode;
-        String  lastNode;
-        
-        scanner = new Scanner(line);
-        scanner.useDelimiter(",");
-        
-        scanner.next();
-        scanner.next();
-        scanner.next();
-        
-        firstNode   = scanner.next().trim();
-        lastNode    = scanner.next().trim();
-        
-        edges_.setFirstNodeNameAt(firstNode, edgeIndex);
-        edges_.setLastNodeNameAt(lastNode, edgeIndex);
+    protected void addCard(NastranCardTokenizer card) {
+        int format = this.getFormat(card);
+        
+        if (card.startsWith("GRID")) {
+            switch (format) {
+                case FREE_FIELD_FORMAT:
+                    this.addFreeNode(card);
+                    break;
+                case LARGE_FIELD_FORMAT:
+                    this.addLargeNode(card);
+                    break;
+                case SMALL_FIELD_FORMAT:
+                    this.addSmallNode(card);
+                    break;
+                default:
+            }
+        }
+        else if (card.startsWith("CBAR") || card.startsWith("CBEAM")) {
+            switch (format) {
+                case FREE_FIELD_FORMAT:
+                    this.addFreeEdge(card);
+                    break;
+                case LARGE_FIELD_FORMAT:
+                    this.addLargeEdge(card);
+                    break;
+                case SMALL_FIELD_FORMAT:
+                    this.addSmallEdge(card);
+                    break;
+                default:
+            }
+        }
+        else if (card.startsWith("CQUAD4")) {
+            switch (format) {
+                case FREE_FIELD_FORMAT:
+                    this.addFreeQuadrilateral(card);
+                    break;
+                case LARGE_FIELD_FORMAT:
+                    this.addLargeQuadrilateral(card);
+                    break;
+                case SMALL_FIELD_FORMAT:
+                    this.addSmallQuadrilateral(card);
+                    break;
+                default:
+            }
+        }
+        else if (card.startsWith("CTRIA3")) {
+            switch (format) {
+                case FREE_FIELD_FORMAT:
+                    this.addFreeTriangle(card);
+                    break;
+                case LARGE_FIELD_FORMAT:
+                    this.addLargeTriangle(card);
+                    break;
+                case SMALL_FIELD_FORMAT:
+                    this.addSmallTriangle(card);
+                    break;
+                default:
+            }
+        }
     } // eom
     
     
     
     /***************************************************************************
-     * Parses a free node from the given line and adds it to the stored nodes at
-     * the given index.
+     * Parses a free edge from the given card and appends it to the parsed
+     * edges.
      * 
-     * @param   nodeIndex   the index of the node
-     * @param   line        the line to be parsed
+     * @param   card    the tokenizer of the card to be parsed
      **************************************************************************/
-    protected void addFreeNode(int nodeIndex, String line) {
-        Scanner scanner;
-        String  name;
-        double  x;
-        double  y;
-        double  z;
-        
-        scanner = new Scanner(line);
-        scanner.useDelimiter(",");
-        
-        scanner.next();
-        name = scanner.next().trim();
-        
-        scanner.next();
-        x = Double.parseDouble((scanner.next().trim()));
-        y = Double.parseDouble((scanner.next().trim()));
-        z = Double.parseDouble((scanner.next().trim()));
+    protected void addFreeEdge(NastranCardTokenizer card) {
+        card.splitFreeFields(0);
         
-        nodes_.setNodeNameAt(name, nodeIndex);
-        nodes_.setXCoordinateAt(x, nodeIndex);
-        nodes_.setYCoordinateAt(y, nodeIndex);
-        nodes_.setZCoordinateAt(z, nodeIndex);
+        this.appendEdge(card.getField(3), card.getField(4));
     } // eom
     
     
     
     /***************************************************************************
-     * Parses a free quadrilateral from the given line and adds it to the stored
-     * quadrilaterals at the given index.
+     * Parses a free node from the given card and appends it to the parsed
+     * nodes.
      * 
-     * @param   quadIndex   the index of the quadrilateral
-     * @param   line        the line to be parsed
+     * @param   card    the tokenizer of the card to be parsed
      **************************************************************************/
-    protected void addFreeQuadrilateral(int quadIndex, String line) {
-        Scanner scanner;
-        String  firstNode;
-        String  secondNode;
-        String  thirdNode;
-        String  fourthNode;
+    protected void addFreeNode(NastranCardTokenizer card) {
+        card.splitFreeFields(0);
         
-        scanner = new Scanner(line);
-        scanner.useDelimiter(",");
-        
-        scanner.next();
-        scanner.next();
-        scanner.next();
-        
-        firstNode   = scanner.next().trim();
-        secondNode  = scanner.next().trim();
-        thirdNode   = scanner.next().trim();
-        fourthNode   = scanner.next().trim();
-        
-        quads_.setFirstNodeNameAt(firstNode, 4 * quadIndex + 0);
-        quads_.setLastNodeNameAt(secondNode, 4 * quadIndex + 0);
-        quads_.setFirstNodeNameAt(secondNode, 4 * quadIndex + 1);
-        quads_.setLastNodeNameAt(thirdNode, 4 * quadIndex + 1);
-        quads_.setFirstNodeNameAt(thirdNode, 4 * quadIndex + 2);
-        quads_.setLastNodeNameAt(fourthNode, 4 * quadIndex + 2);
-        quads_.setFirstNodeNameAt(fourthNode, 4 * quadIndex + 3);
-        quads_.setLastNodeNameAt(firstNode, 4 * quadIndex + 3);
+        this.appendNode(card.getField(1), card.parseDoubleField(3),
+                card.parseDoubleField(4), card.parseDoubleField(5));
     } // eom
     
     
     
     /***************************************************************************
-     * Parses a free triangle from the given line and adds it to the stored
-     * triangles at the given index.
+     * Parses a free quadrilateral from the given card and appends it to the
+     * parsed quadrilaterals.
      * 
-     * @param   triangleIndex   the index of the triangle
-     * @param   line            the line to be parsed
+     * @param   card    the tokenizer of the card to be parsed
      **************************************************************************/
-    protected void addFreeTriangle(int triangleIndex, String line) {
-        Scanner scanner;
-        String  firstNode;
-        String  secondNode;
-        String  thirdNode;
-        
-        scanner = new Scanner(line);
-        scanner.useDelimiter(",");
+    protected void addFreeQuadrilateral(NastranCardTokenizer card) {
+        card.splitFreeFields(0);
         
-        scanner.next();
-        scanner.next();
-        scanner.next();
-        
-        firstNode   = scanner.next().trim();
-        secondNode  = scanner.next().trim();
-        thirdNode   = scanner.next().trim();
-        
-        triangles_.setFirstNodeNameAt(firstNode, 3 * triangleIndex + 0);
-        triangles_.setLastNodeNameAt(secondNode, 3 * triangleIndex + 0);
-        triangles_.setFirstNodeNameAt(secondNode, 3 * triangleIndex + 1);
-        triangles_.setLastNodeNameAt(thirdNode, 3 * triangleIndex + 1);
-        triangles_.setFirstNodeNameAt(thirdNode, 3 * triangleIndex + 2);
-        triangles_.setLastNodeNameAt(firstNode, 3 * triangleIndex + 2);
+        this.appendQuadrilateral(card.getField(3), card.getField(4),
+                card.getField(5), card.getField(6));
     } // eom
     
     
     
     /***************************************************************************
-     * Parses a large edge from the given line and adds it to the stored edges
-     * at the given index.
+     * Parses a free triangle from the given card and appends it to the parsed
+     * triangles.
      * 
-     * @param   edgeIndex   the index of the edge
-     * @param   line        the line to be parsed
+     * @param   card    the tokenizer of the card to be parsed
      **************************************************************************/
-    protected void addLargeEdge(int edgeIndex, String line) {
-        String firstNode;
-        String lastNode;
+    protected void addFreeTriangle(NastranCardTokenizer card) {
+        card.splitFreeFields(0);
         
-        firstNode   = line.substring(40, 56).trim();
-        lastNode    = line.substring(56, 72).trim();
-        
-        edges_.setFirstNodeNameAt(firstNode, edgeIndex);
-        edges_.setLastNodeNameAt(lastNode, edgeIndex);
+        this.appendTriangle(card.getField(3), card.getField(4),
+                card.getField(5));
     } // eom
     
     
     
     /***************************************************************************
-     * Parses a large node from the given line and adds it to the stored nodes
-     * at the given index.
+     * Parses a large edge from the given card and appends it to the parsed
+     * edges.
      * 
-     * @param   nodeIndex   the index of the node
-     * @param   line        the line to be parsed
+     * @param   card    the tokenizer of the card to be parsed
      **************************************************************************/
-    protected void addLargeNode(int nodeIndex, String line) {
-        String name;
-        double x;
-        double y;
-        double z;
+    protected void addLargeEdge(NastranCardTokenizer card) {
+        card.splitLargeFields();
         
-        name    = line.substring(8, 24).trim();
-        x       = Double.parseDouble(line.substring(40, 56).trim());
-        y       = Double.parseDouble(line.substring(56, 72).trim());
-        z       = Double.parseDouble(line.substring(72, 88).trim());
+        this.appendEdge(card.getField(3), card.getField(4));
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Parses a large node from the given card and appends it to the parsed
+     * nodes.
+     * 
+     * @param   card    the tokenizer of the card to be parsed
+     **************************************************************************/
+    protected void addLargeNode(NastranCardTokenizer card) {
+        card.splitLargeFields();
         
-        nodes_.setNodeNameAt(name, nodeIndex);
-        nodes_.setXCoordinateAt(x, nodeIndex);
-        nodes_.setYCoordinateAt(y, nodeIndex);
-        nodes_.setZCoordinateAt(z, nodeIndex);
+        this.appendNode(card.getField(1), card.parseDoubleField(3),
+                card.parseDoubleField(4), card.parseDoubleField(5));
     } // eom
     
     
     
     /***************************************************************************
-     * Parses a large quadrilateral from the given line and adds it to the
-     * stored quadrilaterals at the given index.
+     * Parses a large quadrilateral from the given card and appends it to the
+     * parsed quadrilaterals.
      * 
-     * @param   quadIndex   the index of the quadrilateral
-     * @param   line        the line to be parsed
+     * @param   card    the tokenizer of the card to be parsed
      **************************************************************************/
-    protected void addLargeQuadrilateral(int quadIndex, String line) {
-        String firstNode;
-        String secondNode;
-        String thirdNode;
-        String fourthNode;
+    protected void addLargeQuadrilateral(NastranCardTokenizer card) {
+        card.splitLargeFields();
         
-        firstNode   = line.substring(40, 56).trim();
-        secondNode  = line.substring(56, 72).trim();
-        thirdNode   = line.substring(72, 88).trim();
-        fourthNode  = line.substring(88, 104).trim();
+        this.appendQuadrilateral(card.getField(3), card.getField(4),
+                card.getField(5), card.getField(6));
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Parses a large triangle from the given card and appends it to the parsed
+     * triangles.
+     * 
+     * @param   card    the tokenizer of the card to be parsed
+     **************************************************************************/
+    protected void addLargeTriangle(NastranCardTokenizer card) {
+        card.splitLargeFields();
         
-        quads_.setFirstNodeNameAt(firstNode, 4 * quadIndex + 0);
-        quads_.setLastNodeNameAt(secondNode, 4 * quadIndex + 0);
-        quads_.setFirstNodeNameAt(secondNode, 4 * quadIndex + 1);
-        quads_.setLastNodeNameAt(thirdNode, 4 * quadIndex + 1);
-        quads_.setFirstNodeNameAt(thirdNode, 4 * quadIndex + 2);
-        quads_.setLastNodeNameAt(fourthNode, 4 * quadIndex + 2);
-        quads_.setFirstNodeNameAt(fourthNode, 4 * quadIndex + 3);
-        quads_.setLastNodeNameAt(firstNode, 4 * quadIndex + 3);
+        this.appendTriangle(card.getField(3), card.getField(4),
+                card.getField(5));
     } // eom
     
     
     
     /***************************************************************************
-     * Parses a large triangle from the given line and adds it to the stored
-     * triangles at the given index.
+     * Parses a small edge from the given card and appends it to the parsed
+     * edges.
      * 
-     * @param   triangleIndex   the index of the triangle
-     * @param   line            the line to be parsed
+     * @param   card    the tokenizer of the card to be parsed
      **************************************************************************/
-    protected void addLargeTriangle(int triangleIndex, String line) {
-        String firstNode;
-        String secondNode;
-        String thirdNode;
+    protected void addSmallEdge(NastranCardTokenizer card) {
+        card.splitSmallFields();
         
-        firstNode   = line.substring(40, 56).trim();
-        secondNode  = line.substring(56, 72).trim();
-        thirdNode   = line.substring(72, 88).trim();
+        this.appendEdge(card.getField(3), card.getField(4));
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Parses a small node from the given card and appends it to the parsed
+     * nodes.
+     * 
+     * @param   card    the tokenizer of the card to be parsed
+     **************************************************************************/
+    protected void addSmallNode(NastranCardTokenizer card) {
+        card.splitSmallFields();
         
-        triangles_.setFirstNodeNameAt(firstNode, 3 * triangleIndex + 0);
-        triangles_.setLastNodeNameAt(secondNode, 3 * triangleIndex + 0);
-        triangles_.setFirstNodeNameAt(secondNode, 3 * triangleIndex + 1);
-        triangles_.setLastNodeNameAt(thirdNode, 3 * triangleIndex + 1);
-        triangles_.setFirstNodeNameAt(thirdNode, 3 * triangleIndex + 2);
-        triangles_.setLastNodeNameAt(firstNode, 3 * triangleIndex + 2);
+        this.appendNode(card.getField(1), card.parseDoubleField(3),
+                card.parseDoubleField(4), card.parseDoubleField(5));
     } // eom
     
     
     
     /***************************************************************************
-     * Parses a small edge from the given line and adds it to the stored edges
-     * at the given index.
+     * Parses a small quadrilateral from the given card and appends it to the
+     * parsed quadrilaterals.
      * 
-     * @param   edgeIndex   the index of the edge
-     * @param   line        the line to be parsed
+     * @param   card    the tokenizer of the card to be parsed
      **************************************************************************/
-    protected void addSmallEdge(int edgeIndex, String line) {
-        String firstNode;
-        String lastNode;
+    protected void addSmallQuadrilateral(NastranCardTokenizer card) {
+        card.splitSmallFields();
         
-        firstNode   = line.substring(24, 32).trim();
-        lastNode    = line.substring(32, 40).trim();
+        this.appendQuadrilateral(card.getField(3), card.getField(4),
+                card.getField(5), card.getField(6));
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Parses a small triangle from the given card and appends it to the parsed
+     * triangles.
+     * 
+     * @param   card    the tokenizer of the card to be parsed
+     **************************************************************************/
+    protected void addSmallTriangle(NastranCardTokenizer card) {
+        card.splitSmallFields();
         
-        edges_.setFirstNodeNameAt(firstNode, edgeIndex);
-        edges_.setLastNodeNameAt(lastNode, edgeIndex);
+        this.appendTriangle(card.getField(3), card.getField(4),
+                card.getField(5));
     } // eom
     
     
     
     /***************************************************************************
-     * Parses a small node from the given line and adds it to the stored nodes
-     * at the given index.
+     * Appends the parsed cards of the given reader to the parsed cards of this
+     * reader, in the order in which they were parsed.
      * 
-     * @param   nodeIndex   the index of the node
-     * @param   line        the line to be parsed
+     * @param   cards   the reader whose parsed cards are appended
      **************************************************************************/
-    protected void addSmallNode(int nodeIndex, String line) {
-        String name;
-        double x;
-        double y;
-        double z;
+    protected void appendCards(NastranBulkDataReader cards) {
+        for (int i = 0; i < cards.nNodes_; i++) {
+            this.appendNode(cards.nodeNames_[i],
+                    cards.nodeCoordinates_[3 * i + 0],
+                    cards.nodeCoordinates_[3 * i + 1],
+                    cards.nodeCoordinates_[3 * i + 2]);
+        }
+        
+        for (int i = 0; i < cards.nEdges_; i++) {
+            this.appendEdge(cards.edgeNodeNames_[2 * i + 0],
+                    cards.edgeNodeNames_[2 * i + 1]);
+        }
         
-        name    = line.substring(8, 16).trim();
-        x       = Double.parseDouble(line.substring(24, 32).trim());
-        y       = Double.parseDouble(line.substring(32, 40).trim());
-        z       = Double.parseDouble(line.substring(40, 48).trim());
+        for (int i = 0; i < cards.nTriangles_; i++) {
+            this.appendTriangle(cards.triangleNodeNames_[3 * i + 0],
+                    cards.triangleNodeNames_[3 * i + 1],
+                    cards.triangleNodeNames_[3 * i + 2]);
+        }
         
-        nodes_.setNodeNameAt(name, nodeIndex);
-        nodes_.setXCoordinateAt(x, nodeIndex);
-        nodes_.setYCoordinateAt(y, nodeIndex);
-        nodes_.setZCoordinateAt(z, nodeIndex);
+        for (int i = 0; i < cards.nQuadrilaterals_; i++) {
+            this.appendQuadrilateral(cards.quadNodeNames_[4 * i + 0],
+                    cards.quadNodeNames_[4 * i + 1],
+                    cards.quadNodeNames_[4 * i + 2],
+                    cards.quadNodeNames_[4 * i + 3]);
+        }
     } // eom
     
     
     
     /***************************************************************************
-     * Parses a small quadrilateral from the given line and adds it to the
-     * stored quadrilaterals at the given index.
+     * Appends an edge between the given nodes to the parsed edges.
      * 
-     * @param   quadIndex   the index of the quadrilateral
-     * @param   line        the line to be parsed
+     * @param   firstNode   the name of the first node
+     * @param   lastNode    the name of the last node
      **************************************************************************/
-    protected void addSmallQuadrilateral(int quadIndex, String line) {
-        String firstNode;
-        String secondNode;
-        String thirdNode;
-        String fourthNode;
+    protected void appendEdge(String firstNode, String lastNode) {
+        edgeNodeNames_ = this.growNames(edgeNodeNames_, 2 * (nEdges_ + 1));
         
-        firstNode   = line.substring(24, 32).trim();
-        secondNode  = line.substring(32, 40).trim();
-        thirdNode   = line.substring(40, 48).trim();
-        fourthNode  = line.substring(48, 56).trim();
-        
-        quads_.setFirstNodeNameAt(firstNode, 4 * quadIndex + 0);
-        quads_.setLastNodeNameAt(secondNode, 4 * quadIndex + 0);
-        quads_.setFirstNodeNameAt(secondNode, 4 * quadIndex + 1);
-        quads_.setLastNodeNameAt(thirdNode, 4 * quadIndex + 1);
-        quads_.setFirstNodeNameAt(thirdNode, 4 * quadIndex + 2);
-        quads_.setLastNodeNameAt(fourthNode, 4 * quadIndex + 2);
-        quads_.setFirstNodeNameAt(fourthNode, 4 * quadIndex + 3);
-        quads_.setLastNodeNameAt(firstNode, 4 * quadIndex + 3);
+        edgeNodeNames_[2 * nEdges_ + 0] = firstNode;
+        edgeNodeNames_[2 * nEdges_ + 1] = lastNode;
+        nEdges_++;
     } // eom
     
     
     
     /***************************************************************************
-     * Parses a small triangle from the given line and adds it to the stored
-     * triangles at the given index.
+     * Appends a node to the parsed nodes.
      * 
-     * @param   triangleIndex   the index of the triangle
-     * @param   line            the line to be parsed
+     * @param   name    the name of the node
+     * @param   x       the x-coordinate of the node
+     * @param   y       the y-coordinate of the node
+     * @param   z       the z-coordinate of the node
      **************************************************************************/
-    protected void addSmallTriangle(int triangleIndex, String line) {
-        String firstNode;
-        String secondNode;
-        String thirdNode;
+    protected void appendNode(String name, double x, double y, double z) {
+        nodeNames_          = this.growNames(nodeNames_, nNodes_ + 1);
+        nodeCoordinates_    = this.growValues(nodeCoordinates_,
+                3 * (nNodes_ + 1));
+        
+        nodeNames_[nNodes_]                 = name;
+        nodeCoordinates_[3 * nNodes_ + 0]   = x;
+        nodeCoordinates_[3 * nNodes_ + 1]   = y;
+        nodeCoordinates_[3 * nNodes_ + 2]   = z;
+        nNodes_++;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Appends a quadrilateral of the given corner nodes to the parsed
+     * quadrilaterals.
+     * 
+     * @param   firstNode   the name of the first corner node
+     * @param   secondNode  the name of the second corner node
+     * @param   thirdNode   the name of the third corner node
+     * @param   fourthNode  the name of the fourth corner node
+     **************************************************************************/
+    protected void appendQuadrilateral(String firstNode, String secondNode,
+            String thirdNode, String fourthNode) {
+        int quadIndex = 4 * nQuadrilaterals_;
         
-        firstNode   = line.substring(24, 32).trim();
-        secondNode  = line.substring(32, 40).trim();
-        thirdNode   = line.substring(40, 48).trim();
+        quadNodeNames_ = this.growNames(quadNodeNames_, quadIndex + 4);
         
-        triangles_.setFirstNodeNameAt(firstNode, 3 * triangleIndex + 0);
-        triangles_.setLastNodeNameAt(secondNode, 3 * triangleIndex + 0);
-        triangles_.setFirstNodeNameAt(secondNode, 3 * triangleIndex + 1);
-        triangles_.setLastNodeNameAt(thirdNode, 3 * triangleIndex + 1);
-        triangles_.setFirstNodeNameAt(thirdNode, 3 * triangleIndex + 2);
-        triangles_.setLastNodeNameAt(firstNode, 3 * triangleIndex + 2);
+        quadNodeNames_[quadIndex + 0]   = firstNode;
+        quadNodeNames_[quadIndex + 1]   = secondNode;
+        quadNodeNames_[quadIndex + 2]   = thirdNode;
+        quadNodeNames_[quadIndex + 3]   = fourthNode;
+        nQuadrilaterals_++;
     } // eom
     
     
     
     /***************************************************************************
-     * If the length of the given line is less than 72 characters, white space
-     * characters are appended to the line until it reaches that size.
+     * Appends a triangle of the given corner nodes to the parsed triangles.
      * 
-     * @param   line    the line to be filled
-     * @return  the new line that has been filled
+     * @param   firstNode   the name of the first corner node
+     * @param   secondNode  the name of the second corner node
+     * @param   thirdNode   the name of the third corner node
      **************************************************************************/
-    protected String fillFields(String line) {
-        StringBuilder   filledLine = new StringBuilder(line);
-        int             lineLength = 72;
+    protected void appendTriangle(String firstNode, String secondNode,
+            String thirdNode) {
+        int triangleIndex = 3 * nTriangles_;
         
-        while (filledLine.length() < lineLength) {
-            filledLine.append(" ");
-        }
+        triangleNodeNames_ = this.growNames(triangleNodeNames_,
+                triangleIndex + 3);
         
-        return filledLine.toString();
+        triangleNodeNames_[triangleIndex + 0]   = firstNode;
+        triangleNodeNames_[triangleIndex + 1]   = secondNode;
+        triangleNodeNames_[triangleIndex + 2]   = thirdNode;
+        nTriangles_++;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Removes all parsed cards.
+     **************************************************************************/
+    protected void clearCards() {
+        nEdges_             = 0;
+        nNodes_             = 0;
+        nQuadrilaterals_    = 0;
+        nTriangles_         = 0;
+        edgeNodeNames_      = new String[2 * INITIAL_CARD_CAPACITY];
+        nodeCoordinates_    = new double[3 * INITIAL_CARD_CAPACITY];
+        nodeNames_          = new String[INITIAL_CARD_CAPACITY];
+        quadNodeNames_      = new String[4 * INITIAL_CARD_CAPACITY];
+        triangleNodeNames_  = new String[3 * INITIAL_CARD_CAPACITY];
     } // eom
     
     
     
     /***************************************************************************
-     * Returns the number of edges in the data.
+     * If the length of the given line is less than the given length, white
+     * space characters are appended to the line until it reaches that size.
+     * Otherwise, the given line is returned.
      * 
-     * @return  the number of edges
+     * @param   line        the line to be filled
+     * @param   lineLength  the length of the filled line
+     * @return  the new line that has been filled
      **************************************************************************/
-    protected int getEdgeCount() {
-        int nEdges = 0;
+    protected String fillFields(String line, int lineLength) {
+        StringBuilder filledLine;
         
-        for (String line : data_) {
-            if (line.toUpperCase().startsWith("CBAR")) {
-                nEdges++;
-            }
-            else if (line.toUpperCase().startsWith("CBEAM")) {
-                nEdges++;
-            }
+        if (line.length() >= lineLength) {
+            return line;
         }
         
-        return nEdges;
+        filledLine = new StringBuilder(line);
+        
+        while (filledLine.length() < lineLength) {
+            filledLine.append(" ");
+        }
+        
+        return filledLine.toString();
     } // eom
     
     
@@ -502,58 +562,68 @@ public class NastranBulkDataReader extends FileReader
     
     
     /***************************************************************************
-     * Returns the number of nodes in the data.
+     * Returns the format of the given card, which begins with the name of a
+     * node, an edge, a triangle, or a quadrilateral.
      * 
-     * @return  the number of nodes
+     * @param   card    the tokenizer of the card to be parsed
+     * @return  the card format
      **************************************************************************/
-    protected int getNodeCount() {
-        int nNodes = 0;
-        
-        for (String line : data_) {
-            if (line.toUpperCase().startsWith("GRID")) {
-                nNodes++;
-            }
+    protected int getFormat(NastranCardTokenizer card) {
+        if (card.indexOf(',', 0) >= 0) {
+            return FREE_FIELD_FORMAT;
+        }
+        else if (card.indexOf('*', 0) >= 0) {
+            return LARGE_FIELD_FORMAT;
+        }
+        else {
+            return SMALL_FIELD_FORMAT;
         }
-        
-        return nNodes;
     } // eom
     
     
     
     /***************************************************************************
-     * Returns the number of quadrilaterals in the data.
+     * Returns the given array, or a copy of it with twice its length if it is
+     * shorter than the given length.
      * 
-     * @return  the number of quadrilaterals
+     * @param   names   the array of names
+     * @param   length  the required length
+     * @return  an array of at least the required length with the same names
      **************************************************************************/
-    protected int getQuadrilateralCount() {
-        int nQuadrilaterals = 0;
+    protected String[] growNames(String[] names, int length) {
+        String[] grownNames;
         
-        for (String line : data_) {
-            if (line.toUpperCase().startsWith("CQUAD4")) {
-                nQuadrilaterals++;
-            }
+        if (length <= names.length) {
+            return names;
         }
         
-        return nQuadrilaterals;
+        grownNames = new String[Math.max(2 * names.length, length)];
+        System.arraycopy(names, 0, grownNames, 0, names.length);
+        
+        return grownNames;
     } // eom
     
     
     
     /***************************************************************************
-     * Returns the number of triangles in the data.
+     * Returns the given array, or a copy of it with twice its length if it is
+     * shorter than the given length.
      * 
-     * @return  the number of triangles
+     * @param   values  the array of values
+     * @param   length  the required length
+     * @return  an array of at least the required length with the same values
      **************************************************************************/
-    protected int getTriangleCount() {
-        int nTriangles = 0;
+    protected double[] growValues(double[] values, int length) {
+        double[] grownValues;
         
-        for (String line : data_) {
-            if (line.toUpperCase().startsWith("CTRIA3")) {
-                nTriangles++;
-            }
+        if (length <= values.length) {
+            return values;
         }
         
-        return nTriangles;
+        grownValues = new double[Math.max(2 * values.length, length)];
+        System.arraycopy(values, 0, grownValues, 0, values.length);
+        
+        return grownValues;
     } // eom
     
     
@@ -561,29 +631,11 @@ public class NastranBulkDataReader extends FileReader
     /***************************************************************************
      **************************************************************************/
     public void importEdges(NodeConnectionMatrix edges) {
-        edges_ = edges;
-        edges_.setConnectionCount(this.getEdgeCount());
-        
-        int edgeIndex = 0;
-        
-        for (String line : data_) {
-            if (line.toUpperCase().startsWith("CBAR") ||
-                    line.toUpperCase().startsWith("CBEAM")) {
-                switch (this.getFormat(line)) {
-                    case FREE_FIELD_FORMAT:
-                        this.addFreeEdge(edgeIndex, line);
-                        break;
-                    case LARGE_FIELD_FORMAT:
-                        this.addLargeEdge(edgeIndex, line);
-                        break;
-                    case SMALL_FIELD_FORMAT:
-                        this.addSmallEdge(edgeIndex, line);
-                        break;
-                    default:
-                }
-                
-                edgeIndex++;
-            }
+        edges.setConnectionCount(nEdges_);
+        
+        for (int i = 0; i < nEdges_; i++) {
+            edges.setFirstNodeNameAt(edgeNodeNames_[2 * i + 0], i);
+            edges.setLastNodeNameAt(edgeNodeNames_[2 * i + 1], i);
         }
     } // eom
     
@@ -592,28 +644,13 @@ public class NastranBulkDataReader extends FileReader
     /***************************************************************************
      **************************************************************************/
     public void importNodes(NodeMatrix nodes) {
-        nodes_ = nodes;
-        nodes_.setNodeCount(this.getNodeCount());
-        
-        int nodeIndex = 0;
-        
-        for (String line : data_) {
-            if (line.toUpperCase().startsWith("GRID")) {
-                switch (this.getFormat(line)) {
-                    case FREE_FIELD_FORMAT:
-                        this.addFreeNode(nodeIndex, line);
-                        break;
-                    case LARGE_FIELD_FORMAT:
-                        this.addLargeNode(nodeIndex, line);
-                        break;
-                    case SMALL_FIELD_FORMAT:
-                        this.addSmallNode(nodeIndex, line);
-                        break;
-                    default:
-                }
-                
-                nodeIndex++;
-            }
+        nodes.setNodeCount(nNodes_);
+        
+        for (int i = 0; i < nNodes_; i++) {
+            nodes.setNodeNameAt(nodeNames_[i], i);
+            nodes.setXCoordinateAt(nodeCoordinates_[3 * i + 0], i);
+            nodes.setYCoordinateAt(nodeCoordinates_[3 * i + 1], i);
+            nodes.setZCoordinateAt(nodeCoordinates_[3 * i + 2], i);
         }
     } // eom
     
@@ -622,28 +659,12 @@ public class NastranBulkDataReader extends FileReader
     /***************************************************************************
      **************************************************************************/
     public void importQuadrilaterals(NodeConnectionMatrix quads) {
-        quads_ = quads;
-        quads_.setConnectionCount(4 * this.getQuadrilateralCount());
-        
-        int quadIndex = 0;
-        
-        for (String line : data_) {
-            if (line.toUpperCase().startsWith("CQUAD4")) {
-                switch (this.getFormat(line)) {
-                    case FREE_FIELD_FORMAT:
-                        this.addFreeQuadrilateral(quadIndex, line);
-                        break;
-                    case LARGE_FIELD_FORMAT:
-                        this.addLargeQuadrilateral(quadIndex, line);
-                        break;
-                    case SMALL_FIELD_FORMAT:
-                        this.addSmallQuadrilateral(quadIndex, line);
-                        break;
-                    default:
-                }
-                
-                quadIndex++;
-            }
+        quads.setConnectionCount(4 * nQuadrilaterals_);
+        
+        for (int i = 0; i < 4 * nQuadrilaterals_; i++) {
+            quads.setFirstNodeNameAt(quadNodeNames_[i], i);
+            quads.setLastNodeNameAt(
+                    quadNodeNames_[(i % 4 == 3) ? i - 3 : i + 1], i);
         }
     } // eom
     
@@ -652,69 +673,99 @@ public class NastranBulkDataReader extends FileReader
     /***************************************************************************
      **************************************************************************/
     public void importTriangles(NodeConnectionMatrix triangles) {
-        triangles_ = triangles;
-        triangles_.setConnectionCount(3 * this.getTriangleCount());
-        
-        int triangleIndex = 0;
-        
-        for (String line : data_) {
-            if (line.toUpperCase().startsWith("CTRIA3")) {
-                switch (this.getFormat(line)) {
-                    case FREE_FIELD_FORMAT:
-                        this.addFreeTriangle(triangleIndex, line);
-                        break;
-                    case LARGE_FIELD_FORMAT:
-                        this.addLargeTriangle(triangleIndex, line);
-                        break;
-                    case SMALL_FIELD_FORMAT:
-                        this.addSmallTriangle(triangleIndex, line);
-                        break;
-                    default:
-                }
-                
-                triangleIndex++;
+        triangles.setConnectionCount(3 * nTriangles_);
+        
+        for (int i = 0; i < 3 * nTriangles_; i++) {
+            triangles.setFirstNodeNameAt(triangleNodeNames_[i], i);
+            triangles.setLastNodeNameAt(
+                    triangleNodeNames_[(i % 3 == 2) ? i - 2 : i + 1], i);
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns whether the given line begins a card which contains a node, an
+     * edge, a triangle, or a quadrilateral.
+     * 
+     * @param   line    the first line of a card
+     * @return  {@code true} if the card is parsed
+     **************************************************************************/
+    protected boolean isGeometryCard(String line) {
+        return NastranCardTokenizer.startsWith(line, "GRID") ||
+                NastranCardTokenizer.startsWith(line, "CBAR") ||
+                NastranCardTokenizer.startsWith(line, "CBEAM") ||
+                NastranCardTokenizer.startsWith(line, "CQUAD4") ||
+                NastranCardTokenizer.startsWith(line, "CTRIA3");
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Reads the lines of the given reader in a single pass, and parses each
+     * card which contains a node, an edge, a triangle, or a quadrilateral as
+     * soon as its continuation lines have been collected.  The lines of all
+     * other cards are skipped.  The parsed cards are appended to those which
+     * have already been parsed.
+     * 
+     * @param   reader              the reader of the lines to be parsed
+     * @throws  java.io.IOException if the lines could not be read
+     **************************************************************************/
+    protected void readCards(BufferedReader reader)
+            throws IOException {
+        boolean isCard = false;
+        String  line;
+        
+        line = reader.readLine();
+        while (line != null) {
+            switch (this.getFormat(this.fillFields(line, 8))) {
+                case FREE_CONTINUATION_FORMAT:
+                    if (isCard) {
+                        tokenizer_.appendTrimmed(line);
+                    }
+                    break;
+                case LARGE_CONTINUATION_FORMAT:
+                case SMALL_CONTINUATION_FORMAT:
+                    if (isCard) {
+                        tokenizer_.append(line, 8, 72);
+                    }
+                    break;
+                default:
+                    if (isCard) {
+                        this.addCard(tokenizer_);
+                    }
+                    
+                    isCard = this.isGeometryCard(line);
+                    tokenizer_.clear();
+                    
+                    if (isCard) {
+                        tokenizer_.append(line, 0, 72);
+                    }
             }
+            
+            line = reader.readLine();
+        }
+        
+        if (isCard) {
+            this.addCard(tokenizer_);
         }
     } // eom
     
     
     
     /***************************************************************************
+     * Reads the file in a single pass, as by
+     * {@link #readCards(java.io.BufferedReader)}.
      **************************************************************************/
     public void readFile()
             throws IOException {
-        data_                           = new ArrayList<String>();
-        BufferedReader  bufferedReader  = null;
-        String          line;
-        StringBuilder   commandLine;
+        BufferedReader bufferedReader = null;
+        
+        this.clearCards();
         
         try {
             bufferedReader = new BufferedReader(this);
-            
-            line = bufferedReader.readLine();
-            while (line != null) {
-                line = this.fillFields(line);
-                
-                switch (this.getFormat(line)) {
-                    case FREE_CONTINUATION_FORMAT:
-                        commandLine = new StringBuilder();
-                        commandLine.append(data_.get(data_.size() - 1));
-                        commandLine.append(line.trim());
-                        data_.set(data_.size() - 1, commandLine.toString());
-                        break;
-                    case LARGE_CONTINUATION_FORMAT:
-                    case SMALL_CONTINUATION_FORMAT:
-                        commandLine = new StringBuilder();
-                        commandLine.append(data_.get(data_.size() - 1));
-                        commandLine.append(line.substring(8));
-                        data_.set(data_.size() - 1, commandLine.toString());
-                        break;
-                    default:
-                        data_.add(line);
-                }
-                
-                line = bufferedReader.readLine();
-            }
+            this.readCards(bufferedReader);
         }
         finally {
             if (bufferedReader != null) {
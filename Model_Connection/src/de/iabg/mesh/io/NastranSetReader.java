@@ -23,7 +23,6 @@ import java.io.FileReader;
 import java.io.IOException;
 
 import java.util.ArrayList;
-import java.util.Scanner;
 
 /*******************************************************************************
  * This implementation of {@link KeyReader} parses a Nastran file containing
@@ -35,6 +34,10 @@ import java.util.Scanner;
  * version of the MSC.Nastran Quick Reference Guide for more information for
  * the file format.
  * 
+ * The names and node keys of each set are split by a
+ * {@link NastranCardTokenizer}, so that only the node keys themselves are
+ * copied into strings.
+ * 
  * @author  Adam C. Dick, BSE
  * @version September 26, 2008
  ******************************************************************************/
@@ -58,6 +61,9 @@ public class NastranSetReader extends FileReader
     /** A constant for sets */
     protected static final int SET_FORMAT = 1002;
     
+    /** The tokenizer which splits the names and node keys of each set */
+    protected NastranCardTokenizer tokenizer_;
+    
     /** A constant for undefined lines */
     protected static final int UNDEFINED_FORMAT = 1099;
     
@@ -72,36 +78,40 @@ public class NastranSetReader extends FileReader
     public NastranSetReader(File file)
             throws FileNotFoundException {
         super(file);
+        
+        tokenizer_ = new NastranCardTokenizer();
     } // eom
     
     
     
     /***************************************************************************
-     * Parses a node key from the given key and adds it to the stored node keys.
-     * The key may be a single key or a range.  If it is a range, the entire
-     * range is added to the node keys. 
+     * Parses a node key from the field at the given index and adds it to the
+     * stored node keys.  The key may be a single key or a range.  If it is a
+     * range, the entire range is added to the node keys.
      * 
-     * @param   key the key to be parsed
+     * @param   fieldIndex  the index of the field to be parsed
      **************************************************************************/
-    protected void addNodeKey(String key) {
-        String  firstString;
-        String  lastString;
-        Integer firstKey;
-        Integer lastKey;
+    protected void addNodeKey(int fieldIndex) {
+        int start;
+        int end;
+        int thruIndex;
+        int firstKey;
+        int lastKey;
+        
+        start       = tokenizer_.getFieldStart(fieldIndex);
+        end         = tokenizer_.getFieldEnd(fieldIndex);
+        thruIndex   = tokenizer_.indexOf("THRU", start, end);
         
-        if (key.toUpperCase().contains("THRU")) {
-            firstString = key.substring(0, key.toUpperCase().indexOf("T"));
-            lastString  = key.substring(key.toUpperCase().indexOf("U") + 1);
+        if (thruIndex >= 0) {
+            firstKey    = tokenizer_.parseInt(start, thruIndex);
+            lastKey     = tokenizer_.parseInt(thruIndex + 4, end);
             
-            firstKey    = Integer.parseInt(firstString.trim());
-            lastKey     = Integer.parseInt(lastString.trim());
-            while (firstKey <= lastKey) {
-                nodeKeys_.add(firstKey.toString());
-                firstKey++;
+            for (int key = firstKey; key <= lastKey; key++) {
+                nodeKeys_.add(Integer.toString(key));
             }
         }
         else {
-            nodeKeys_.add(key.trim());
+            nodeKeys_.add(tokenizer_.getField(fieldIndex));
         }
     } // eom
     
@@ -115,28 +125,37 @@ public class NastranSetReader extends FileReader
      * @param   name    the name of the group
      **************************************************************************/
     protected void addNodeKeys(String line, String name) {
-        nodeKeys_               = new KeyList();
-        Scanner     scanner;
-        String      key;
+        int start;
+        int equalsIndex;
         
-        line    = line.substring(line.indexOf(" ") + 1).trim();
-        scanner = new Scanner(line);
-        scanner.useDelimiter("=");
+        nodeKeys_ = new KeyList();
+        
+        tokenizer_.clear();
+        tokenizer_.append(line);
+        
+        start       = tokenizer_.indexOf(' ', 0) + 1;
+        equalsIndex = tokenizer_.indexOf('=', start);
+        
+        if (equalsIndex < 0) {
+            equalsIndex = tokenizer_.length();
+        }
         
         if (name == null) {
-            name = scanner.next().trim();
+            name = tokenizer_.getString(start, equalsIndex);
         }
         else {
-            name = scanner.next().trim() + "_" + name.trim();
+            name = tokenizer_.getString(start, equalsIndex) + "_" +
+                    name.trim();
         }
         
-        line    = line.substring(line.indexOf("=") + 1).trim();
-        scanner = new Scanner(line);
-        scanner.useDelimiter(",");
+        if (equalsIndex < tokenizer_.length()) {
+            start = equalsIndex + 1;
+        }
+        
+        tokenizer_.splitFreeFields(start);
         
-        while (scanner.hasNext()) {
-            key = scanner.next().trim();
-            this.addNodeKey(key);
+        for (int i = 0; i < tokenizer_.getFieldCount(); i++) {
+            this.addNodeKey(i);
         }
         
         nodeKeyLists_.put(name, nodeKeys_);
@@ -151,13 +170,13 @@ public class NastranSetReader extends FileReader
      * @return  the line format
      **************************************************************************/
     protected int getFormat(String line) {
-        if (line.toUpperCase().startsWith("$ ELEMENTS")) {
+        if (NastranCardTokenizer.startsWith(line, "$ ELEMENTS")) {
             return ELEMENT_FORMAT;
         }
-        else if (line.toUpperCase().startsWith("$ NODES")) {
+        else if (NastranCardTokenizer.startsWith(line, "$ NODES")) {
             return NODE_FORMAT;
         }
-        else if (line.toUpperCase().startsWith("SET")) {
+        else if (NastranCardTokenizer.startsWith(line, "SET")) {
             return SET_FORMAT;
         }
         else {
@@ -170,20 +189,31 @@ public class NastranSetReader extends FileReader
     /***************************************************************************
      * Parses and returns the node key list name from the given line.
      * 
-     * @param   line    the line to be parsed
+     * @param   line                        the line to be parsed
      * @return  the name of the node key list
+     * @throws  IllegalArgumentException    if the line contains no name
      **************************************************************************/
     protected String getNodeKeyListName(String line) {
-        Scanner scanner;
-        String  name;
+        int start;
+        int end;
+        
+        tokenizer_.clear();
+        tokenizer_.append(line);
         
-        scanner = new Scanner(line);
-        scanner.useDelimiter(":");
+        start = tokenizer_.indexOf(':', 0) + 1;
         
-        scanner.next();
-        name = scanner.next().trim();
+        if (start == 0) {
+            throw new IllegalArgumentException(String.format(
+                    "No node key list name: %s", line));
+        }
+        
+        end = tokenizer_.indexOf(':', start);
+        
+        if (end < 0) {
+            end = tokenizer_.length();
+        }
         
-        return name;
+        return tokenizer_.getString(start, end);
     } // eom
     
     
@@ -226,7 +256,6 @@ public class NastranSetReader extends FileReader
         data_                           = new ArrayList<String>();
         BufferedReader  bufferedReader  = null;
         String          line;
-        StringBuilder   commandLine;
         
         try {
             bufferedReader = new BufferedReader(this);
@@ -235,15 +264,15 @@ public class NastranSetReader extends FileReader
             while (line != null) {
                 switch (this.getFormat(line)) {
                     case SET_FORMAT:
-                        commandLine = new StringBuilder();
-                        commandLine.append(line.trim());
+                        tokenizer_.clear();
+                        tokenizer_.appendTrimmed(line);
                         
-                        while (line.trim().endsWith(",")) {
-                            line = bufferedReader.readLine();
-                            commandLine.append(line.trim());
+                        while (tokenizer_.endsWith(',') &&
+                                (line = bufferedReader.readLine()) != null) {
+                            tokenizer_.appendTrimmed(line);
                         }
                         
-                        data_.add(commandLine.toString());
+                        data_.add(tokenizer_.toString());
                         break;
                     default:
                         data_.add(line);
@@ -0,0 +1,252 @@
+/*******************************************************************************
+ * Student:             Adam C. Dick, BSE
+ * Master's Thesis:     Validating and Updating Structural FE Models
+ *                      for Dynamic Analysis
+ * 
+ * Industry Partner:    Industrieanlagen-Betriebsgesellschaft mbH in Ottobrunn
+ * Supervisor:          Dr.-Ing. Manfred Kroiss
+ * 
+ * Academic Partner:    Technische Universitaet Muenchen
+ * Supervisor:          Dr.-Ing. Martin Ruess
+ ******************************************************************************/
+package de.iabg.mesh.io;
+
+import de.iabg.math.ParallelExecutor;
+
+import java.io.BufferedReader;
+import java.io.CharArrayReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+
+import java.nio.channels.FileChannel;
+
+import java.nio.charset.Charset;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*******************************************************************************
+ * This {@link NastranBulkDataReader} parses a large Nastran file in several
+ * chunks at once.  The file is split into chunks of roughly equal length, and
+ * each chunk boundary is moved forward to the start of the next card, so that
+ * no card is split from its continuation lines.  Each chunk is then mapped
+ * into memory and parsed by its own {@code NastranBulkDataReader} on the
+ * threads of a {@link ParallelExecutor}.  Finally, the parsed cards of the
+ * chunks are appended in the order of the file, so that the nodes, edges,
+ * triangles, and quadrilaterals are imported exactly as by a sequential
+ * {@code NastranBulkDataReader}.
+ * 
+ * @author  Adam C. Dick, BSE
+ * @version November 26, 2008
+ ******************************************************************************/
+public class ParallelNastranBulkDataReader extends NastranBulkDataReader {
+    /** The approximate length in bytes of each parsed chunk */
+    protected long chunkLength_;
+    
+    /** The default length in bytes of each parsed chunk */
+    protected static final long DEFAULT_CHUNK_LENGTH = 1L << 24;
+    
+    /** The executor which parses the chunks in parallel */
+    protected ParallelExecutor executor_;
+    
+    /** The file to be parsed */
+    protected File file_;
+    
+    
+    
+    /***************************************************************************
+     * Constructs a {@code ParallelNastranBulkDataReader} from the given file.
+     * The chunks are parsed by the shared executor.
+     * 
+     * @param   file                            the file to be imported
+     * @throws  java.io.FileNotFoundException   if the file could not be found
+     **************************************************************************/
+    public ParallelNastranBulkDataReader(File file)
+            throws FileNotFoundException {
+        super(file);
+        
+        chunkLength_    = DEFAULT_CHUNK_LENGTH;
+        executor_       = ParallelExecutor.getSharedExecutor();
+        file_           = file;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the position of the first card which starts at or after the
+     * given position of the file.  Comments also start a card, while blank
+     * lines and continuation lines do not.
+     * 
+     * @param   randomFile          the file to be searched
+     * @param   position            the position at which the search starts
+     * @return  the position of the next card, or the length of the file if no
+     *          card follows
+     * @throws  java.io.IOException if the file could not be read
+     **************************************************************************/
+    protected long findCardStart(RandomAccessFile randomFile, long position)
+            throws IOException {
+        long    cardStart;
+        String  line;
+        
+        if (position <= 0L) {
+            return 0L;
+        }
+        
+        randomFile.seek(position - 1L);
+        randomFile.readLine();
+        
+        cardStart   = randomFile.getFilePointer();
+        line        = randomFile.readLine();
+        
+        while (line != null) {
+            switch (this.getFormat(this.fillFields(line, 8))) {
+                case FREE_CONTINUATION_FORMAT:
+                case LARGE_CONTINUATION_FORMAT:
+                case SMALL_CONTINUATION_FORMAT:
+                    break;
+                default:
+                    return cardStart;
+            }
+            
+            cardStart   = randomFile.getFilePointer();
+            line        = randomFile.readLine();
+        }
+        
+        return randomFile.length();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the approximate length in bytes of each parsed chunk.
+     * 
+     * @return  the chunk length
+     **************************************************************************/
+    public long getChunkLength() {
+        return chunkLength_;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the executor which parses the chunks in parallel.
+     * 
+     * @return  the executor of this reader
+     **************************************************************************/
+    public ParallelExecutor getExecutor() {
+        return executor_;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Reads the file in chunks which are mapped into memory and parsed in
+     * parallel, as described in the class API.
+     **************************************************************************/
+    public void readFile()
+            throws IOException {
+        final List<NastranBulkDataReader>   chunkCards;
+        final Charset                       charset;
+        final FileChannel                   channel;
+        List<Runnable>                      tasks;
+        RandomAccessFile                    randomFile;
+        long                                chunkStart;
+        long                                chunkEnd;
+        long                                fileLength;
+        
+        this.clearCards();
+        this.close();
+        
+        randomFile  = new RandomAccessFile(file_, "r");
+        
+        try {
+            channel     = randomFile.getChannel();
+            charset     = Charset.defaultCharset();
+            chunkCards  = new ArrayList<NastranBulkDataReader>();
+            tasks       = new ArrayList<Runnable>();
+            fileLength  = randomFile.length();
+            chunkStart  = 0L;
+            
+            while (chunkStart < fileLength) {
+                chunkEnd = this.findCardStart(randomFile,
+                        chunkStart + chunkLength_);
+                
+                final int   chunkIndex  = chunkCards.size();
+                final long  position    = chunkStart;
+                final long  size        = chunkEnd - chunkStart;
+                
+                chunkCards.add(null);
+                tasks.add(new Runnable() {
+                    public void run() {
+                        NastranBulkDataReader   cards;
+                        MappedByteBuffer        bytes;
+                        CharBuffer              chars;
+                        
+                        try {
+                            bytes = channel.map(FileChannel.MapMode.READ_ONLY,
+                                    position, size);
+                            chars = charset.decode(bytes);
+                            cards = new NastranBulkDataReader(file_);
+                            cards.close();
+                            cards.readCards(new BufferedReader(
+                                    new CharArrayReader(chars.array(),
+                                    chars.arrayOffset() + chars.position(),
+                                    chars.remaining())));
+                        }
+                        catch (IOException e) {
+                            throw new IllegalStateException(String.format(
+                                    "Could not parse %d bytes at %d of %s",
+                                    size, position, file_), e);
+                        }
+                        
+                        chunkCards.set(chunkIndex, cards);
+                    } // eom
+                });
+                
+                chunkStart = chunkEnd;
+            }
+            
+            executor_.execute(tasks);
+        }
+        finally {
+            randomFile.close();
+        }
+        
+        for (NastranBulkDataReader cards : chunkCards) {
+            this.appendCards(cards);
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Replaces the approximate length in bytes of each parsed chunk.
+     * 
+     * @param   chunkLength                 the chunk length
+     * @throws  IllegalArgumentException    if the chunk length is not positive
+     **************************************************************************/
+    public void setChunkLength(long chunkLength) {
+        if (chunkLength <= 0L) {
+            throw new IllegalArgumentException(String.format(
+                    "Chunk length must be positive: %d", chunkLength));
+        }
+        
+        chunkLength_ = chunkLength;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Replaces the executor which parses the chunks in parallel.
+     * 
+     * @param   executor    the executor of this reader
+     **************************************************************************/
+    public void setExecutor(ParallelExecutor executor) {
+        executor_ = executor;
+    } // eom
+} // eoc
\ No newline at end of file
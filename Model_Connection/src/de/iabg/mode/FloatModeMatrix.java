@@ -0,0 +1,411 @@
+/*******************************************************************************
+ * Student:             Adam C. Dick, BSE
+ * Master's Thesis:     Validating and Updating Structural FE Models
+ *                      for Dynamic Analysis
+ * 
+ * Industry Partner:    Industrieanlagen-Betriebsgesellschaft mbH in Ottobrunn
+ * Supervisor:          Dr.-Ing. Manfred Kroiss
+ * 
+ * Academic Partner:    Technische Universitaet Muenchen
+ * Supervisor:          Dr.-Ing. Martin Ruess
+ ******************************************************************************/
+package de.iabg.mode;
+
+/*******************************************************************************
+ * This {@link ModeMatrix} stores its mode shape coordinates in single
+ * precision, which halves the memory of a large mode shape matrix and the
+ * memory traffic of its correlations.  The mode shapes of tests and FE models
+ * have only about six significant digits, so that little is lost by rounding
+ * them to single precision.
+ * 
+ * The dot product and the Modal Assurance Criterion of two single-precision
+ * matrices are computed directly from their single-precision values, but
+ * every product is summed in double precision.  If the other matrix stores
+ * double values, or if the modes are weighted by a mass matrix, the values of
+ * this matrix are instead widened to double precision one block of at most
+ * {@link #WIDENED_BLOCK_LENGTH} values at a time, so that the other matrix
+ * loses no precision and this matrix is never widened as a whole.
+ * 
+ * The double array of {@code RectangularMatrix} is not used, so the
+ * {@link #values()} method returns an empty array.
+ * 
+ * @author  Adam C. Dick, BSE
+ * @version November 22, 2008
+ ******************************************************************************/
+public class FloatModeMatrix extends ModeMatrix {
+    /** The single-precision values of all cells */
+    protected float[] floatValues_;
+    
+    /** The largest number of values of a block which is widened at once */
+    public static final int WIDENED_BLOCK_LENGTH = 1 << 20;
+    
+    
+    
+    /***************************************************************************
+     * Constructs a default {@code FloatModeMatrix} with no modes or nodes.
+     **************************************************************************/
+    public FloatModeMatrix() {
+        this(0, 0);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Constructs a {@code FloatModeMatrix} containing the given number of modes
+     * and nodes.
+     * 
+     * @param   nModes  the number of modes in this matrix
+     * @param   nNodes  the number of nodes in this matrix
+     **************************************************************************/
+    public FloatModeMatrix(int nModes, int nNodes) {
+        super();
+        
+        this.setNodeCount(nNodes);
+        this.setRowCount(nModes);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Constructs a single-precision copy of the given {@code ModeMatrix}.
+     * 
+     * @param   modes   the {@code ModeMatrix} to be copied
+     **************************************************************************/
+    public FloatModeMatrix(ModeMatrix modes) {
+        this(modes.getModeCount(), modes.getNodeCount());
+        
+        System.arraycopy(modes.getRowNames(), 0, rowNames_, 0, nRows_);
+        System.arraycopy(modes.getColumnNames(), 0, columnNames_, 0,
+                nColumns_);
+        System.arraycopy(modes.modeFrequencies_, 0, modeFrequencies_, 0,
+                nRows_);
+        modes.copyValuesTo(floatValues_);
+        
+        multiplier_ = modes.getMultiplier();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    public void clear() {
+        nRows_              = 0;
+        nColumns_           = 0;
+        rowNames_           = new String[nRows_];
+        columnNames_        = new String[nColumns_];
+        floatValues_        = new float[nRows_ * nColumns_];
+        modeFrequencies_    = new double[nRows_];
+        
+        this.clearCachedProducts();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    protected void copyRowValuesTo(int rowIndex, int columnIndex,
+            double[] values, int offset, int nValues) {
+        int iRow = (rowIndex * nColumns_) + columnIndex;
+        
+        for (int j = 0; j < nValues; j++) {
+            values[offset + j] = floatValues_[iRow + j];
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    protected void copyValuesTo(double[] values) {
+        for (int i = 0; i < nRows_ * nColumns_; i++) {
+            values[i] = floatValues_[i];
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    protected void copyValuesTo(float[] values) {
+        System.arraycopy(floatValues_, 0, values, 0, nRows_ * nColumns_);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    protected ModeMatrix createModes(int nModes, int nNodes) {
+        ModeMatrix modes = new FloatModeMatrix(nModes, nNodes);
+        
+        modes.setMultiplier(multiplier_);
+        
+        return modes;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the values of this matrix in double precision.  The values of
+     * this matrix are widened into a new array.
+     * 
+     * @return  the values of the cells of this matrix
+     **************************************************************************/
+    @Override
+    protected double[] doubleValues() {
+        double[] values = new double[nRows_ * nColumns_];
+        
+        this.copyValuesTo(values);
+        
+        return values;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the values of this matrix in single precision.  The array is the
+     * storage of this matrix and must not be changed.
+     * 
+     * @return  the values of the cells of this matrix
+     **************************************************************************/
+    @Override
+    protected float[] floatValues() {
+        return floatValues_;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the number of rows of each block of rows in which the
+     * correlations visit the modes of this matrix.  Each block holds at most
+     * {@link #WIDENED_BLOCK_LENGTH} values, but at least one row.
+     * 
+     * @return  the number of rows of each block
+     **************************************************************************/
+    @Override
+    protected int getBlockRowCount() {
+        return Math.max(1, WIDENED_BLOCK_LENGTH / Math.max(1, nColumns_));
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Widens the values of the given consecutive rows of this matrix into the
+     * given array, which is allocated if it is {@code null} or too short.
+     * 
+     * @param   firstRow    the index of the first row
+     * @param   nRows       the number of rows
+     * @param   values      the array into which the rows are widened
+     * @return  the array containing the given rows
+     **************************************************************************/
+    @Override
+    protected double[] getRowBlock(int firstRow, int nRows, double[] values) {
+        int offset = firstRow * nColumns_;
+        
+        if (values == null || values.length < nRows * nColumns_) {
+            values = new double[nRows * nColumns_];
+        }
+        
+        for (int i = 0; i < nRows * nColumns_; i++) {
+            values[i] = floatValues_[offset + i];
+        }
+        
+        return values;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    public double getValueAt(int rowIndex, int columnIndex) {
+        if (rowIndex < 0 || rowIndex >= nRows_) {
+            throw new ArrayIndexOutOfBoundsException(rowIndex);
+        }
+        
+        if (columnIndex < 0 || columnIndex >= nColumns_) {
+            throw new ArrayIndexOutOfBoundsException(columnIndex);
+        }
+        
+        return floatValues_[(rowIndex * nColumns_) + columnIndex];
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns whether the values of this matrix are stored in single
+     * precision.
+     * 
+     * @return  {@code true}, because this matrix stores float values
+     **************************************************************************/
+    @Override
+    public boolean isSinglePrecision() {
+        return true;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    public void permuteColumns(int[] columnIndices) {
+        String[]    columnNames;
+        float[]     values;
+        int         nColumns        = columnIndices.length;
+        int         iRow;
+        int         nRow;
+        
+        columnNames = new String[nColumns];
+        values      = new float[nRows_ * nColumns];
+        
+        for (int j = 0; j < nColumns; j++) {
+            columnNames[j] = columnNames_[columnIndices[j]];
+        }
+        
+        for (int i = 0; i < nRows_; i++) {
+            iRow = i * nColumns_;
+            nRow = i * nColumns;
+            
+            for (int j = 0; j < nColumns; j++) {
+                values[nRow + j] = floatValues_[iRow + columnIndices[j]];
+            }
+        }
+        
+        columnNames_    = columnNames;
+        nColumns_       = nColumns;
+        floatValues_    = values;
+        
+        this.clearCachedProducts();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    public void permuteRows(int[] rowIndices) {
+        String[]    rowNames;
+        double[]    modeFrequencies;
+        float[]     values;
+        int         nRows           = rowIndices.length;
+        
+        rowNames        = new String[nRows];
+        modeFrequencies = new double[nRows];
+        values          = new float[nRows * nColumns_];
+        
+        for (int i = 0; i < nRows; i++) {
+            rowNames[i]         = rowNames_[rowIndices[i]];
+            modeFrequencies[i]  = modeFrequencies_[rowIndices[i]];
+            System.arraycopy(floatValues_, rowIndices[i] * nColumns_, values,
+                    i * nColumns_, nColumns_);
+        }
+        
+        rowNames_           = rowNames;
+        modeFrequencies_    = modeFrequencies;
+        nRows_              = nRows;
+        floatValues_        = values;
+        
+        this.clearCachedProducts();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    public void setNodeCount(int nNodes) {
+        columnNames_    = new String[nNodes * N_COMPONENTS];
+        nColumns_       = nNodes * N_COMPONENTS;
+        floatValues_    = new float[nRows_ * nNodes * N_COMPONENTS];
+        
+        this.clearCachedProducts();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    protected void setRowBlock(int firstRow, int nRows, double[] values) {
+        int offset = firstRow * nColumns_;
+        
+        for (int i = 0; i < nRows * nColumns_; i++) {
+            floatValues_[offset + i] = (float) values[i];
+        }
+        
+        this.clearCachedProducts();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    public void setRowCount(int nRows) {
+        rowNames_           = new String[nRows];
+        modeFrequencies_    = new double[nRows];
+        nRows_              = nRows;
+        floatValues_        = new float[nRows_ * nColumns_];
+        
+        this.clearCachedProducts();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Sets the value at the given row and column, which is rounded to single
+     * precision.
+     * 
+     * @param   value       the new value
+     * @param   rowIndex    the row index
+     * @param   columnIndex the column index
+     **************************************************************************/
+    @Override
+    public void setValueAt(double value, int rowIndex, int columnIndex) {
+        if (rowIndex < 0 || rowIndex >= nRows_) {
+            throw new ArrayIndexOutOfBoundsException(rowIndex);
+        }
+        
+        if (columnIndex < 0 || columnIndex >= nColumns_) {
+            throw new ArrayIndexOutOfBoundsException(columnIndex);
+        }
+        
+        floatValues_[(rowIndex * nColumns_) + columnIndex] = (float) value;
+        
+        this.clearCachedProducts();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    public void swapRows(int firstIndex, int lastIndex) {
+        float[]     row             = new float[nColumns_];
+        String      rowName;
+        double      modeFrequency;
+        
+        rowName                 = rowNames_[firstIndex];
+        rowNames_[firstIndex]   = rowNames_[lastIndex];
+        rowNames_[lastIndex]    = rowName;
+        this.clearRowIndex();
+        
+        modeFrequency                   = modeFrequencies_[firstIndex];
+        modeFrequencies_[firstIndex]    = modeFrequencies_[lastIndex];
+        modeFrequencies_[lastIndex]     = modeFrequency;
+        
+        firstIndex  *= nColumns_;
+        lastIndex   *= nColumns_;
+        
+        System.arraycopy(floatValues_, firstIndex, row, 0, nColumns_);
+        System.arraycopy(floatValues_, lastIndex, floatValues_, firstIndex,
+                nColumns_);
+        System.arraycopy(row, 0, floatValues_, lastIndex, nColumns_);
+        
+        this.clearCachedProducts();
+    } // eom
+} // eoc
\ No newline at end of file
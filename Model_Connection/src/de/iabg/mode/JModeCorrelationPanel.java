@@ -541,6 +541,18 @@ public class JModeCorrelationPanel extends JPanel
     
     
     
+    /***************************************************************************
+     * Sets the largest ratio of the higher to the lower frequency of a pair of
+     * modes which is correlated.  An infinite ratio correlates all pairs.
+     * 
+     * @param   frequencyRatio  the new frequency ratio
+     **************************************************************************/
+    public void setFrequencyRatio(double frequencyRatio) {
+        correlationModel_.setFrequencyRatio(frequencyRatio);
+    } // eom
+    
+    
+    
     /***************************************************************************
      * Sets the value of the lower tolerance to the given value.  The lower
      * tolerance cannot be greater than the upper tolerance.
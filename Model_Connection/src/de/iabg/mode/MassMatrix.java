@@ -11,8 +11,11 @@
  ******************************************************************************/
 package de.iabg.mode;
 
+import de.iabg.math.MatrixMultiplier;
 import de.iabg.math.SymmetricMatrix;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /*******************************************************************************
  * This {@code Matrix} is designed to store the influence values of a given mass
  * matrix.  This matrix has several convenience methods that wrap methods from
@@ -28,13 +31,48 @@ import de.iabg.math.SymmetricMatrix;
  * {@code Matrix}. The values of this {@code Matrix} can therefore also be
  * accessed by calling the {@link #values()} method.
  * 
+ * The mass influences are applied to modes by
+ * {@link #multiply(MatrixMultiplier, double[], int, int)}.  Lumped (diagonal)
+ * and node-block-diagonal mass matrices are detected by
+ * {@link #getStructure()} and only their diagonal blocks are multiplied, so
+ * that the product takes linear time per mode.  All other mass matrices are
+ * multiplied by {@link #multiplyGeneral(MatrixMultiplier, double[], int, int)},
+ * which may be overridden by subclasses with a different storage, such as the
+ * {@link SparseMassMatrix}.  The structure is detected once and kept until a
+ * mass influence is set through this matrix, so the values must not be
+ * changed directly through the array returned by {@link #values()}.
+ * 
  * @author  Adam C. Dick, BSE
  * @version September 13, 2008
  ******************************************************************************/
 public class MassMatrix extends SymmetricMatrix {
+    /** A constant for mass influences only within the 3x3 block of each node */
+    public static final int BLOCK_DIAGONAL_STRUCTURE = 3;
+    
+    /** A constant for mass influences only on the diagonal */
+    public static final int DIAGONAL_STRUCTURE = 2;
+    
+    /** A constant for mass influences between any nodes */
+    public static final int GENERAL_STRUCTURE = 1;
+    
+    /** The identifier which distinguishes this matrix from all others */
+    protected final long identifier_;
+    
+    /** The number of changes of the mass influences */
+    protected long modificationCount_;
+    
     /** The number of components in 3D space */
     protected static final int N_COMPONENTS = 3;
     
+    /** The identifier of the most recently constructed mass matrix */
+    protected static final AtomicLong NEXT_IDENTIFIER = new AtomicLong();
+    
+    /** The detected structure of the mass influences */
+    protected int structure_;
+    
+    /** A constant for mass influences whose structure is not yet detected */
+    protected static final int UNKNOWN_STRUCTURE = 0;
+    
     /** The index of the x-coordinate */
     protected static final int X_INDEX = 0;
     
@@ -62,6 +100,8 @@ public class MassMatrix extends SymmetricMatrix {
      **************************************************************************/
     public MassMatrix(int nNodes) {
         super(nNodes * N_COMPONENTS);
+        
+        identifier_ = NEXT_IDENTIFIER.incrementAndGet();
     } // eom
     
     
@@ -77,13 +117,93 @@ public class MassMatrix extends SymmetricMatrix {
         System.arraycopy(masses.rowNames_, 0, rowNames_, 0, nRows_);
         System.arraycopy(masses.columnNames_, 0, columnNames_, 0, nColumns_);
         
+        masses.copyMassesTo(this);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Copies the mass influences of this matrix into the given matrix, which
+     * must have at least as many nodes as this matrix.  Only the nonzero mass
+     * influences are set.
+     * 
+     * @param   masses  the {@code MassMatrix} into which the values are copied
+     **************************************************************************/
+    protected void copyMassesTo(MassMatrix masses) {
+        int k = 0;
+        
         for (int i = 0; i < nRows_; i++) {
-            System.arraycopy(masses.values_[i], 0, values_[i], 0, i + 1);
+            for (int j = 0; j <= i; j++) {
+                if (values_[k] != 0.0) {
+                    masses.setValueAt(values_[k], i, j);
+                }
+                
+                k++;
+            }
         }
     } // eom
     
     
     
+    /***************************************************************************
+     * Detects the structure of the mass influences of this matrix by
+     * traversing the lower triangle.
+     * 
+     * @return  the structure of the mass influences
+     **************************************************************************/
+    protected int detectStructure() {
+        int structure   = DIAGONAL_STRUCTURE;
+        int k           = 0;
+        
+        for (int i = 0; i < nRows_; i++) {
+            for (int j = 0; j < i; j++) {
+                if (values_[k + j] != 0.0) {
+                    if ((i / N_COMPONENTS) != (j / N_COMPONENTS)) {
+                        return GENERAL_STRUCTURE;
+                    }
+                    
+                    structure = BLOCK_DIAGONAL_STRUCTURE;
+                }
+            }
+            
+            k += i + 1;
+        }
+        
+        return structure;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the packed lower triangles of the diagonal blocks of this
+     * matrix, which are stored one after another.
+     * 
+     * @param   blockSize   the dimension of each diagonal block
+     * @return  the lower triangles of the diagonal blocks
+     **************************************************************************/
+    protected double[] getBlockValues(int blockSize) {
+        double[]    blockValues;
+        int         iBlock;
+        int         m           = 0;
+        
+        blockValues = new double[(nRows_ / blockSize) *
+                ((blockSize * (blockSize + 1)) / 2)];
+        
+        for (int i = 0; i < nRows_ / blockSize; i++) {
+            iBlock = i * blockSize;
+            
+            for (int k = 0; k < blockSize; k++) {
+                for (int l = 0; l <= k; l++) {
+                    blockValues[m++] = this.getValueAt(iBlock + k, iBlock + l);
+                }
+            }
+        }
+        
+        return blockValues;
+    } // eom
+    
+    
+    
     /***************************************************************************
      * Returns the number of nodes in this matrix.
      * 
@@ -106,6 +226,24 @@ public class MassMatrix extends SymmetricMatrix {
     
     
     
+    /***************************************************************************
+     * Returns the structure of the mass influences of this matrix, which is
+     * one of {@link #DIAGONAL_STRUCTURE}, {@link #BLOCK_DIAGONAL_STRUCTURE},
+     * or {@link #GENERAL_STRUCTURE}.  The structure is detected when it is
+     * first requested after the mass influences have been changed.
+     * 
+     * @return  the structure of the mass influences
+     **************************************************************************/
+    public int getStructure() {
+        if (structure_ == UNKNOWN_STRUCTURE) {
+            structure_ = this.detectStructure();
+        }
+        
+        return structure_;
+    } // eom
+    
+    
+    
     /***************************************************************************
      * A convenience method which gets the xx-mass influence value at the given
      * {@code First Node} and {@code Last Node} indices.
@@ -242,6 +380,54 @@ public class MassMatrix extends SymmetricMatrix {
     
     
     
+    /***************************************************************************
+     * Multiplies this mass matrix by each row of the given row-major matrix,
+     * such as the values of a {@link ModeMatrix}.  The number of columns of
+     * the row-major matrix must not exceed the number of rows of this matrix.
+     * Only the diagonal blocks of a diagonal or block-diagonal matrix are
+     * multiplied.
+     * 
+     * @param   multiplier  the multiplier which computes the products
+     * @param   values      the values of the row-major matrix
+     * @param   nRows       the number of rows of the row-major matrix
+     * @param   nColumns    the number of columns of the row-major matrix
+     * @return  the product of this matrix and each row
+     **************************************************************************/
+    protected double[] multiply(MatrixMultiplier multiplier, double[] values,
+            int nRows, int nColumns) {
+        switch (this.getStructure()) {
+            case DIAGONAL_STRUCTURE:
+                return multiplier.multiplyBlockDiagonal(
+                        this.getBlockValues(1), 1, values, nRows, nColumns);
+            case BLOCK_DIAGONAL_STRUCTURE:
+                return multiplier.multiplyBlockDiagonal(
+                        this.getBlockValues(N_COMPONENTS), N_COMPONENTS,
+                        values, nRows, nColumns);
+            default:
+                return this.multiplyGeneral(multiplier, values, nRows,
+                        nColumns);
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Multiplies this mass matrix by each row of the given row-major matrix
+     * without regard to its structure.
+     * 
+     * @param   multiplier  the multiplier which computes the products
+     * @param   values      the values of the row-major matrix
+     * @param   nRows       the number of rows of the row-major matrix
+     * @param   nColumns    the number of columns of the row-major matrix
+     * @return  the product of this matrix and each row
+     **************************************************************************/
+    protected double[] multiplyGeneral(MatrixMultiplier multiplier,
+            double[] values, int nRows, int nColumns) {
+        return multiplier.multiplySymmetric(values_, values, nRows, nColumns);
+    } // eom
+    
+    
+    
     /***************************************************************************
      **************************************************************************/
     @Override
@@ -282,12 +468,9 @@ public class MassMatrix extends SymmetricMatrix {
                 result.append(String.format(" %15s", "Z-Component"));
             }
             
-            for (int j = 0; j < i; j++) {
-                result.append(String.format(" % 11.8e", values_[i][j]));
-            }
-            
-            for (int j = i; j < nColumns_; j++) {
-                result.append(String.format(" % 11.8e", values_[j][i]));
+            for (int j = 0; j < nColumns_; j++) {
+                result.append(String.format(" % 11.8e",
+                        this.getValueAt(i, j)));
             }
             
             result.append(String.format("%n"));
@@ -334,11 +517,9 @@ public class MassMatrix extends SymmetricMatrix {
         columnNames_    = new String[nNodes * N_COMPONENTS];
         nRows_          = nNodes * N_COMPONENTS;
         nColumns_       = nNodes * N_COMPONENTS;
-        values_         = new double[nRows_][];
-        
-        for (int i = 0; i < nRows_; i++) {
-            values_[i] = new double[i + 1];
-        }
+        structure_      = UNKNOWN_STRUCTURE;
+        modificationCount_++;
+        values_         = new double[this.getPackedLength(nRows_)];
     } // eom
     
     
@@ -373,6 +554,18 @@ public class MassMatrix extends SymmetricMatrix {
     
     
     
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    public void setValueAt(double value, int rowIndex, int columnIndex) {
+        super.setValueAt(value, rowIndex, columnIndex);
+        
+        structure_ = UNKNOWN_STRUCTURE;
+        modificationCount_++;
+    } // eom
+    
+    
+    
     /***************************************************************************
      * A convenience method which sets the given xx-mass influence value at the
      * given {@code First Node} and {@code Last Node} indices.
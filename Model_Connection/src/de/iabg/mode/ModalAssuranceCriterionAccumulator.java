@@ -0,0 +1,456 @@
+/*******************************************************************************
+ * Student:             Adam C. Dick, BSE
+ * Master's Thesis:     Validating and Updating Structural FE Models
+ *                      for Dynamic Analysis
+ * 
+ * Industry Partner:    Industrieanlagen-Betriebsgesellschaft mbH in Ottobrunn
+ * Supervisor:          Dr.-Ing. Manfred Kroiss
+ * 
+ * Academic Partner:    Technische Universitaet Muenchen
+ * Supervisor:          Dr.-Ing. Martin Ruess
+ ******************************************************************************/
+package de.iabg.mode;
+
+import de.iabg.swing.KeyList;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*******************************************************************************
+ * This class accumulates the Modal Assurance Criterion of the selected modes
+ * of two {@link ModeMatrix} objects over a set of connected nodes, which may
+ * be changed one node at a time.  The dot product of each pair of modes and
+ * the product of each mode with itself are sums over the connected nodes, so
+ * that connecting or disconnecting a single node only adds or subtracts the
+ * contribution of this node to each sum.  Thus, each change of the nodes is
+ * proportional to the number of mode pairs instead of also the number of
+ * nodes.
+ * 
+ * The sums are first computed for the given node connection by
+ * {@link ModeMatrix#getReducedDotProduct(de.iabg.mode.ModeMatrix,
+ * de.iabg.swing.KeyList, de.iabg.swing.KeyList, de.iabg.swing.KeyList,
+ * de.iabg.swing.KeyList)}.  The sums of disconnected nodes are subtracted, so
+ * the rounding errors grow slowly with the number of changes.  A new
+ * accumulator computes the sums again from the connected nodes.
+ * 
+ * The correlation may be restricted to the pairs of modes whose frequencies
+ * lie within a given ratio of each other, as by
+ * {@link ModeMatrix#getReducedModalAssuranceCriterion(de.iabg.mode.ModeMatrix,
+ * de.iabg.swing.KeyList, de.iabg.swing.KeyList, de.iabg.swing.KeyList,
+ * de.iabg.swing.KeyList, double)}.  The sums of all other pairs are neither
+ * computed nor accumulated, and their correlation stays zero after any change
+ * of the nodes.
+ * 
+ * The accumulator reads the current values of both matrices, so it should not
+ * be kept after the modes or nodes of either matrix have been changed.
+ * 
+ * @author  Adam C. Dick, BSE
+ * @version November 25, 2008
+ ******************************************************************************/
+public class ModalAssuranceCriterionAccumulator {
+    /** The dot product of each pair of selected modes */
+    protected double[] dotProducts_;
+    
+    /** The rows of the selected modes of the {@code First Modes} */
+    protected int[] firstModeIndices_;
+    
+    /** The {@code First Modes} */
+    protected ModeMatrix firstModes_;
+    
+    /** The product of each selected mode of the {@code First Modes} */
+    protected double[] firstProducts_;
+    
+    /** The largest frequency ratio of correlated modes, or infinity */
+    protected double frequencyRatio_;
+    
+    /** The rows of the selected modes of the {@code Last Modes} */
+    protected int[] lastModeIndices_;
+    
+    /** The {@code Last Modes} */
+    protected ModeMatrix lastModes_;
+    
+    /** The product of each selected mode of the {@code Last Modes} */
+    protected double[] lastProducts_;
+    
+    /** The names and frequencies of the correlated modes */
+    protected ModeCorrelationMatrix modeCorrelation_;
+    
+    /** The connected nodes, mapped from the first to the last node name */
+    protected Map<String, String> nodeConnections_;
+    
+    
+    
+    /***************************************************************************
+     * Constructs a {@code ModalAssuranceCriterionAccumulator} of the given
+     * modes over the given connected nodes.  The nodes at the same index of
+     * both node lists are connected.
+     * 
+     * @param   firstModes      the {@code First Modes}
+     * @param   lastModes       the {@code Last Modes}
+     * @param   firstModeKeys   the selected modes of the {@code First Modes}
+     * @param   firstNodeKeys   the connected nodes of the {@code First Modes}
+     * @param   lastModeKeys    the selected modes of the {@code Last Modes}
+     * @param   lastNodeKeys    the connected nodes of the {@code Last Modes}
+     * @throws  IllegalArgumentException    if the node lists have a different
+     *                                      number of nodes
+     **************************************************************************/
+    public ModalAssuranceCriterionAccumulator(ModeMatrix firstModes,
+            ModeMatrix lastModes, KeyList firstModeKeys, KeyList firstNodeKeys,
+            KeyList lastModeKeys, KeyList lastNodeKeys) {
+        this(firstModes, lastModes, firstModeKeys, firstNodeKeys, lastModeKeys,
+                lastNodeKeys, Double.POSITIVE_INFINITY);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Constructs a {@code ModalAssuranceCriterionAccumulator} of the given
+     * modes over the given connected nodes, which only correlates the pairs
+     * of modes whose frequencies lie within the given ratio of each other.
+     * The nodes at the same index of both node lists are connected.
+     * 
+     * @param   firstModes      the {@code First Modes}
+     * @param   lastModes       the {@code Last Modes}
+     * @param   firstModeKeys   the selected modes of the {@code First Modes}
+     * @param   firstNodeKeys   the connected nodes of the {@code First Modes}
+     * @param   lastModeKeys    the selected modes of the {@code Last Modes}
+     * @param   lastNodeKeys    the connected nodes of the {@code Last Modes}
+     * @param   frequencyRatio  the largest ratio of the higher to the lower
+     *                          frequency of a pair of modes, or infinity
+     * @throws  IllegalArgumentException    if the node lists have a different
+     *                                      number of nodes, or the ratio is
+     *                                      less than one
+     **************************************************************************/
+    public ModalAssuranceCriterionAccumulator(ModeMatrix firstModes,
+            ModeMatrix lastModes, KeyList firstModeKeys, KeyList firstNodeKeys,
+            KeyList lastModeKeys, KeyList lastNodeKeys,
+            double frequencyRatio) {
+        super();
+        
+        if (firstNodeKeys.size() != lastNodeKeys.size()) {
+            throw new IllegalArgumentException(String.format(
+                    "%d nodes cannot be connected with %d nodes",
+                    firstNodeKeys.size(), lastNodeKeys.size()));
+        }
+        
+        if (!(frequencyRatio >= 1.0)) {
+            throw new IllegalArgumentException(String.format(
+                    "%g is not a valid frequency ratio", frequencyRatio));
+        }
+        
+        frequencyRatio_     = frequencyRatio;
+        firstModes_         = firstModes;
+        lastModes_          = lastModes;
+        firstModeIndices_   = firstModes.getRowIndicesOf(firstModeKeys);
+        lastModeIndices_    = lastModes.getRowIndicesOf(lastModeKeys);
+        nodeConnections_    = new LinkedHashMap<String, String>();
+        
+        for (int i = 0; i < firstNodeKeys.size(); i++) {
+            nodeConnections_.put(firstNodeKeys.get(i), lastNodeKeys.get(i));
+        }
+        
+        if (Double.isInfinite(frequencyRatio)) {
+            modeCorrelation_ = firstModes.getReducedDotProduct(lastModes,
+                    firstModeKeys, firstNodeKeys, lastModeKeys, lastNodeKeys);
+        }
+        else {
+            modeCorrelation_ = new ModeMatrixView(firstModes, firstModeKeys,
+                    firstNodeKeys).computeDotProduct(new ModeMatrixView(
+                    lastModes, lastModeKeys, lastNodeKeys), frequencyRatio);
+        }
+        
+        dotProducts_        = modeCorrelation_.values().clone();
+        firstProducts_      = firstModes.getReducedRowProducts(null,
+                firstModeKeys, firstNodeKeys);
+        lastProducts_       = lastModes.getReducedRowProducts(null,
+                lastModeKeys, lastNodeKeys);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Adds the contributions of the given node of each matrix to the sums of
+     * the selected modes.  The coordinates of each node are read from all
+     * columns of the node, which must be equally many in both matrices.
+     * 
+     * @param   firstNodeKey    the node of the {@code First Modes}
+     * @param   lastNodeKey     the node of the {@code Last Modes}
+     * @param   sign            {@code 1.0} to add or {@code -1.0} to subtract
+     *                          the contributions
+     * @throws  IllegalArgumentException    if either node is not found, or the
+     *                                      nodes have a different number of
+     *                                      columns
+     **************************************************************************/
+    protected void accumulateNode(String firstNodeKey, String lastNodeKey,
+            double sign) {
+        int[]       firstColumns    = this.getNodeColumns(firstModes_,
+                firstNodeKey);
+        int[]       lastColumns     = this.getNodeColumns(lastModes_,
+                lastNodeKey);
+        double[]    firstValues;
+        double[]    lastValues;
+        int         nFirstModes     = firstModeIndices_.length;
+        int         nLastModes      = lastModeIndices_.length;
+        int         nColumns        = firstColumns.length;
+        double      product;
+        
+        if (firstColumns.length != lastColumns.length) {
+            throw new IllegalArgumentException(String.format(
+                    "Node %s cannot be connected with node %s", firstNodeKey,
+                    lastNodeKey));
+        }
+        
+        firstValues = this.getNodeValues(firstModes_, firstModeIndices_,
+                firstColumns);
+        lastValues  = this.getNodeValues(lastModes_, lastModeIndices_,
+                lastColumns);
+        
+        for (int i = 0; i < nFirstModes; i++) {
+            for (int k = 0; k < nColumns; k++) {
+                firstProducts_[i] += sign * firstValues[(i * nColumns) + k] *
+                        firstValues[(i * nColumns) + k];
+            }
+        }
+        
+        for (int j = 0; j < nLastModes; j++) {
+            for (int k = 0; k < nColumns; k++) {
+                lastProducts_[j] += sign * lastValues[(j * nColumns) + k] *
+                        lastValues[(j * nColumns) + k];
+            }
+        }
+        
+        for (int i = 0; i < nFirstModes; i++) {
+            for (int j = 0; j < nLastModes; j++) {
+                if (!this.isCorrelated(i, j)) {
+                    continue;
+                }
+                
+                product = 0.0;
+                
+                for (int k = 0; k < nColumns; k++) {
+                    product += firstValues[(i * nColumns) + k] *
+                            lastValues[(j * nColumns) + k];
+                }
+                
+                dotProducts_[(i * nLastModes) + j] += sign * product;
+            }
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Connects the given nodes and adds their contributions to the Modal
+     * Assurance Criterion.
+     * 
+     * @param   firstNodeKey    the node of the {@code First Modes}
+     * @param   lastNodeKey     the node of the {@code Last Modes}
+     * @throws  IllegalArgumentException    if the first node is already
+     *                                      connected, or the nodes cannot be
+     *                                      connected
+     **************************************************************************/
+    public void addNode(String firstNodeKey, String lastNodeKey) {
+        if (nodeConnections_.containsKey(firstNodeKey)) {
+            throw new IllegalArgumentException(String.format(
+                    "Node %s is already connected", firstNodeKey));
+        }
+        
+        this.accumulateNode(firstNodeKey, lastNodeKey, 1.0);
+        nodeConnections_.put(firstNodeKey, lastNodeKey);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns whether the given node of the {@code First Modes} is connected.
+     * 
+     * @param   firstNodeKey    the node of the {@code First Modes}
+     * @return  {@code true} if the node is connected
+     **************************************************************************/
+    public boolean containsNode(String firstNodeKey) {
+        return nodeConnections_.containsKey(firstNodeKey);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the connected nodes of the {@code First Modes} in the order in
+     * which they were connected.
+     * 
+     * @return  the connected nodes of the {@code First Modes}
+     **************************************************************************/
+    public KeyList getFirstNodeKeys() {
+        KeyList firstNodeKeys = new KeyList();
+        
+        firstNodeKeys.addAll(nodeConnections_.keySet());
+        
+        return firstNodeKeys;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the connected nodes of the {@code Last Modes} in the order in
+     * which they were connected.
+     * 
+     * @return  the connected nodes of the {@code Last Modes}
+     **************************************************************************/
+    public KeyList getLastNodeKeys() {
+        KeyList lastNodeKeys = new KeyList();
+        
+        lastNodeKeys.addAll(nodeConnections_.values());
+        
+        return lastNodeKeys;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the Modal Assurance Criterion of the selected modes over the
+     * connected nodes.  The names and frequencies of the modes are the same
+     * as those of {@link ModeMatrix#getReducedModalAssuranceCriterion(
+     * de.iabg.mode.ModeMatrix, de.iabg.swing.KeyList, de.iabg.swing.KeyList,
+     * de.iabg.swing.KeyList, de.iabg.swing.KeyList)}.  The correlation of the
+     * pairs of modes beyond the frequency ratio is zero.
+     * 
+     * @return  the matrix of the Modal Assurance Criterion correlation
+     **************************************************************************/
+    public ModeCorrelationMatrix getModalAssuranceCriterion() {
+        ModeCorrelationMatrix   correlation = new ModeCorrelationMatrix(
+                modeCorrelation_);
+        double[]                values      = correlation.values();
+        int                     nLastModes  = lastModeIndices_.length;
+        
+        System.arraycopy(dotProducts_, 0, values, 0, dotProducts_.length);
+        firstModes_.normalizeCorrelation(correlation, firstProducts_,
+                lastProducts_);
+        
+        for (int i = 0; i < firstModeIndices_.length; i++) {
+            for (int j = 0; j < nLastModes; j++) {
+                if (!this.isCorrelated(i, j)) {
+                    values[(i * nLastModes) + j] = 0.0;
+                }
+            }
+        }
+        
+        return correlation;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the number of connected nodes.
+     * 
+     * @return  the number of connected nodes
+     **************************************************************************/
+    public int getNodeCount() {
+        return nodeConnections_.size();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the columns of the given node in the given mode shape matrix.
+     * 
+     * @param   modes   the mode shape matrix
+     * @param   nodeKey the name of the node
+     * @return  the columns of the node
+     * @throws  IllegalArgumentException    if the node is not found
+     **************************************************************************/
+    protected int[] getNodeColumns(ModeMatrix modes, String nodeKey) {
+        int[]   columns;
+        int     firstColumn     = modes.getColumnIndexOf(nodeKey);
+        int     nColumns        = 0;
+        
+        if (firstColumn < 0) {
+            throw new IllegalArgumentException(String.format(
+                    "Node %s is not found", nodeKey));
+        }
+        
+        for (int j = firstColumn; j >= 0; j = modes.getNextColumnIndexOf(j)) {
+            nColumns++;
+        }
+        
+        columns     = new int[nColumns];
+        nColumns    = 0;
+        
+        for (int j = firstColumn; j >= 0; j = modes.getNextColumnIndexOf(j)) {
+            columns[nColumns++] = j;
+        }
+        
+        return columns;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the coordinates of the given columns in each of the given
+     * modes.  The coordinates of each mode are stored in consecutive values.
+     * 
+     * @param   modes       the mode shape matrix
+     * @param   modeIndices the rows of the selected modes
+     * @param   columns     the columns of a node
+     * @return  the coordinates of the node in each selected mode
+     **************************************************************************/
+    protected double[] getNodeValues(ModeMatrix modes, int[] modeIndices,
+            int[] columns) {
+        double[] values = new double[modeIndices.length * columns.length];
+        
+        for (int i = 0; i < modeIndices.length; i++) {
+            for (int k = 0; k < columns.length; k++) {
+                values[(i * columns.length) + k] = modes.getValueAt(
+                        modeIndices[i], columns[k]);
+            }
+        }
+        
+        return values;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns whether the given pair of selected modes is correlated, which
+     * is the case if their frequencies lie within the frequency ratio of each
+     * other.
+     * 
+     * @param   firstIndex  the index of the selected mode of the
+     *                      {@code First Modes}
+     * @param   lastIndex   the index of the selected mode of the
+     *                      {@code Last Modes}
+     * @return  {@code true} if the pair of modes is correlated
+     **************************************************************************/
+    protected boolean isCorrelated(int firstIndex, int lastIndex) {
+        double firstFrequency;
+        double lastFrequency;
+        
+        if (Double.isInfinite(frequencyRatio_)) {
+            return true;
+        }
+        
+        firstFrequency  = modeCorrelation_.getFirstModeFrequencyAt(firstIndex);
+        lastFrequency   = modeCorrelation_.getLastModeFrequencyAt(lastIndex);
+        
+        return lastFrequency <= firstFrequency * frequencyRatio_ &&
+                firstFrequency <= lastFrequency * frequencyRatio_;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Disconnects the given node and subtracts its contributions from the
+     * Modal Assurance Criterion.
+     * 
+     * @param   firstNodeKey    the node of the {@code First Modes}
+     * @throws  IllegalArgumentException    if the node is not connected
+     **************************************************************************/
+    public void removeNode(String firstNodeKey) {
+        if (!nodeConnections_.containsKey(firstNodeKey)) {
+            throw new IllegalArgumentException(String.format(
+                    "Node %s is not connected", firstNodeKey));
+        }
+        
+        this.accumulateNode(firstNodeKey, nodeConnections_.get(firstNodeKey),
+                -1.0);
+        nodeConnections_.remove(firstNodeKey);
+    } // eom
+} // eoc
\ No newline at end of file
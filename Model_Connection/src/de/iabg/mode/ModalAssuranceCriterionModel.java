@@ -30,7 +30,8 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.media.j3d.BranchGroup;
 
@@ -68,6 +69,12 @@ import javax.vecmath.Color3f;
  * To render the correlated modes in Java3D, instances of
  * {@link ModeCorrelationScene2D} and {@code ModeCorrelationScene3D} are used.
  * 
+ * The effect of single node connections on the correlation can be examined by
+ * {@link #toggleNodeConnection(String, String)}, which connects or
+ * disconnects one pair of nodes at a time.  Each toggle updates the sums of
+ * a {@link ModalAssuranceCriterionAccumulator} instead of correlating the
+ * modes over all connected nodes again.
+ * 
  * @author  Adam C. Dick, BSE
  * @version September 13, 2008
  ******************************************************************************/
@@ -82,6 +89,9 @@ public class ModalAssuranceCriterionModel
     /** The {@code TableModel} of the currently stored mode correlations */
     protected ModeCorrelationTableModel correlationModel_;
     
+    /** The largest frequency ratio of correlated modes, or infinity */
+    protected double frequencyRatio_;
+    
     /** The {@code First Mode} panel */
     protected JModePanel firstModePanel_;
     
@@ -94,6 +104,12 @@ public class ModalAssuranceCriterionModel
     /** The {@link JMeshConnectionPanel} */
     protected JMeshConnectionPanel meshConnectionPanel_;
     
+    /** The accumulated correlation of the toggled node connections */
+    protected ModalAssuranceCriterionAccumulator nodeAccumulator_;
+    
+    /** The modes, nodes, and changes from which the accumulator was built */
+    protected List<Object> nodeAccumulatorKey_;
+    
     
     
     /***************************************************************************
@@ -113,6 +129,7 @@ public class ModalAssuranceCriterionModel
         meshConnectionPanel_    = meshConnectionPanel;
         listenerList_           = new EventListenerList();
         correlationModel_       = new ModeCorrelationTableModel();
+        frequencyRatio_         = Double.POSITIVE_INFINITY;
     } // eom
     
     
@@ -155,12 +172,32 @@ public class ModalAssuranceCriterionModel
         lastNodeKeys    = nodeConnection.getLastNodeKeys();
         
         this.fireLogChanged("Correlating modes:");
+        
+        if (firstModes.isBlocked() || lastModes.isBlocked()) {
+            this.fireLogChanged("Streaming: Modal Assurance Criterion in " +
+                    "tiles of " + ModeMatrixView.DEFAULT_TILE_NODE_COUNT +
+                    " nodes");
+        }
+        
         time = System.currentTimeMillis();
-        modeCorrelation = firstModes.getReducedModalAssuranceCriterion(
-                lastModes, firstModeKeys, firstNodeKeys, lastModeKeys,
-                lastNodeKeys);
+        
+        if (Double.isInfinite(frequencyRatio_)) {
+            modeCorrelation = firstModes.getReducedModalAssuranceCriterion(
+                    lastModes, firstModeKeys, firstNodeKeys, lastModeKeys,
+                    lastNodeKeys);
+        }
+        else {
+            this.fireLogChanged("Pruning: mode pairs beyond a frequency " +
+                    "ratio of " + frequencyRatio_);
+            modeCorrelation = firstModes.getReducedModalAssuranceCriterion(
+                    lastModes, firstModeKeys, firstNodeKeys, lastModeKeys,
+                    lastNodeKeys, frequencyRatio_);
+        }
+        
         correlationModel_.setModeCorrelation(modeCorrelation);
-        time = (System.currentTimeMillis() - time) / 1000L;
+        nodeAccumulator_    = null;
+        nodeAccumulatorKey_ = null;
+        time                = (System.currentTimeMillis() - time) / 1000L;
         this.fireLogChanged("Computed: Modal Assurance Criterion " +
                 "(total time: " + time + " seconds)");
         this.fireScene3DChanged(this);
@@ -314,6 +351,18 @@ public class ModalAssuranceCriterionModel
     
     
     
+    /***************************************************************************
+     * Returns the largest ratio of the higher to the lower frequency of a
+     * pair of correlated modes.
+     * 
+     * @return  the frequency ratio, or infinity if all pairs are correlated
+     **************************************************************************/
+    public double getFrequencyRatio() {
+        return frequencyRatio_;
+    } // eom
+    
+    
+    
     /***************************************************************************
      **************************************************************************/
     public JModePanel getLastMode() {
@@ -454,19 +503,18 @@ public class ModalAssuranceCriterionModel
         boolean     isConsistent    = false;
         KeyList     firstNodeKeys;
         KeyList     lastNodeKeys;
-        String[]    firstNodeNames;
-        String[]    lastNodeNames;
+        ModeMatrix  firstModes;
+        ModeMatrix  lastModes;
         
         firstNodeKeys   = meshConnectionPanel_.getNodeConnections().
                 getFirstNodeKeys();
         lastNodeKeys    = meshConnectionPanel_.getNodeConnections().
                 getLastNodeKeys();
-        firstNodeNames  = firstModePanel_.getModes().getNodeNames();
-        lastNodeNames   = lastModePanel_.getModes().getNodeNames();
+        firstModes      = firstModePanel_.getModes();
+        lastModes       = lastModePanel_.getModes();
         
-        if (Arrays.asList(firstNodeNames).containsAll(firstNodeKeys.values())) {
-            if (Arrays.asList(lastNodeNames).containsAll(
-                    lastNodeKeys.values())) {
+        if (firstModes.containsAllColumns(firstNodeKeys.values())) {
+            if (lastModes.containsAllColumns(lastNodeKeys.values())) {
                 isConsistent = true;
             }
         }
@@ -542,6 +590,35 @@ public class ModalAssuranceCriterionModel
     
     
     
+    /***************************************************************************
+     * Sets the largest ratio of the higher to the lower frequency of a pair of
+     * modes which is correlated by {@link #correlateModes()} and
+     * {@link #toggleNodeConnection(String, String)}.  The correlation of all
+     * other pairs is zero, and only the pairs within the ratio are computed.
+     * An infinite ratio correlates all pairs.
+     * 
+     * @param   frequencyRatio  the new frequency ratio
+     * @throws  IllegalArgumentException    if the ratio is less than one
+     **************************************************************************/
+    public void setFrequencyRatio(double frequencyRatio) {
+        if (!(frequencyRatio >= 1.0)) {
+            throw new IllegalArgumentException(String.format(
+                    "%g is not a valid frequency ratio", frequencyRatio));
+        }
+        
+        frequencyRatio_ = frequencyRatio;
+        
+        if (Double.isInfinite(frequencyRatio_)) {
+            this.fireLogChanged("Set: all mode pairs are correlated");
+        }
+        else {
+            this.fireLogChanged("Set: mode pairs within a frequency ratio " +
+                    "of " + frequencyRatio_ + " are correlated");
+        }
+    } // eom
+    
+    
+    
     /***************************************************************************
      **************************************************************************/
     public void setLowerTolerance(double lowerTolerance) {
@@ -560,6 +637,76 @@ public class ModalAssuranceCriterionModel
     
     
     
+    /***************************************************************************
+     * Connects the given nodes if the first node is not connected, or
+     * disconnects the first node otherwise, and updates the Modal Assurance
+     * Criterion accordingly.  The first toggle after the modes have been
+     * correlated starts from the node connections of the
+     * {@link JMeshConnectionPanel}, while the node connections themselves are
+     * not changed.  Correlating the modes again discards all toggles, as does
+     * a change of either matrix, of the selected modes, of the node
+     * connections of the panel, or of the frequency ratio, after which the
+     * next toggle starts from the current node connections again.
+     * 
+     * @param   firstNodeKey    the node of the {@code First Mesh}
+     * @param   lastNodeKey     the node of the {@code Last Mesh}, which is
+     *                          ignored if the first node is disconnected
+     * @return  {@code true} if the first node is connected afterwards
+     **************************************************************************/
+    public boolean toggleNodeConnection(String firstNodeKey,
+            String lastNodeKey) {
+        NodeConnectionMatrix    nodeConnection  =
+                meshConnectionPanel_.getNodeConnections();
+        ModeMatrix              firstModes      = firstModePanel_.getModes();
+        KeyList                 firstModeKeys   =
+                firstModePanel_.getSelectedModeKeys();
+        KeyList                 firstNodeKeys   =
+                nodeConnection.getFirstNodeKeys();
+        ModeMatrix              lastModes       = lastModePanel_.getModes();
+        KeyList                 lastModeKeys    =
+                lastModePanel_.getSelectedModeKeys();
+        KeyList                 lastNodeKeys    =
+                nodeConnection.getLastNodeKeys();
+        List<Object>            key             = new ArrayList<Object>();
+        
+        key.add(firstModes);
+        key.add(firstModes.modificationCount_);
+        key.add(lastModes);
+        key.add(lastModes.modificationCount_);
+        key.add(new ArrayList<String>(firstModeKeys.values()));
+        key.add(new ArrayList<String>(firstNodeKeys.values()));
+        key.add(new ArrayList<String>(lastModeKeys.values()));
+        key.add(new ArrayList<String>(lastNodeKeys.values()));
+        key.add(frequencyRatio_);
+        
+        if (nodeAccumulator_ == null || !key.equals(nodeAccumulatorKey_)) {
+            nodeAccumulator_    = new ModalAssuranceCriterionAccumulator(
+                    firstModes, lastModes, firstModeKeys, firstNodeKeys,
+                    lastModeKeys, lastNodeKeys, frequencyRatio_);
+            nodeAccumulatorKey_ = key;
+        }
+        
+        if (nodeAccumulator_.containsNode(firstNodeKey)) {
+            nodeAccumulator_.removeNode(firstNodeKey);
+            this.fireLogChanged("Disconnected: node " + firstNodeKey + " (" +
+                    nodeAccumulator_.getNodeCount() + " nodes)");
+        }
+        else {
+            nodeAccumulator_.addNode(firstNodeKey, lastNodeKey);
+            this.fireLogChanged("Connected: node " + firstNodeKey + " to " +
+                    lastNodeKey + " (" + nodeAccumulator_.getNodeCount() +
+                    " nodes)");
+        }
+        
+        correlationModel_.setModeCorrelation(
+                nodeAccumulator_.getModalAssuranceCriterion());
+        this.fireScene3DChanged(this);
+        
+        return nodeAccumulator_.containsNode(firstNodeKey);
+    } // eom
+    
+    
+    
     /***************************************************************************
      * Returns a formatted string containing the data of the {@code First Mesh},
      * {@code Last Mesh}, {@code First Mode}, {@code Last Mode}, mass matrices,
@@ -310,6 +310,17 @@ public interface ModeCorrelationModel
     
     
     
+    /***************************************************************************
+     * Sets the largest ratio of the higher to the lower frequency of a pair of
+     * modes which is correlated.  An infinite ratio correlates all pairs.
+     * 
+     * @param   frequencyRatio  the new frequency ratio
+     * @throws  IllegalArgumentException    if the ratio is less than one
+     **************************************************************************/
+    public void setFrequencyRatio(double frequencyRatio);
+    
+    
+    
     /***************************************************************************
      * Sets the value of the lower tolerance to the given value.  The lower
      * tolerance cannot be greater than the upper tolerance.
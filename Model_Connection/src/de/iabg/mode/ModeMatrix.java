@@ -11,11 +11,17 @@
  ******************************************************************************/
 package de.iabg.mode;
 
+import de.iabg.math.MatrixMultiplier;
 import de.iabg.math.RectangularMatrix;
 
 import de.iabg.swing.KeyList;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import java.util.concurrent.atomic.AtomicLong;
 
 /*******************************************************************************
  * This {@code Matrix} is designed to store the mode shape coordinates of a
@@ -34,16 +40,60 @@ import java.util.Arrays;
  * that some of the methods defined in {@link RectangularMatrix} must be
  * overridden to include changes to this data.
  * 
+ * The products of each mode with itself, which normalize the reduced Modal
+ * Assurance Criterion and Orthogonality Check, are cached for the most
+ * recently used selections of nodes and mass matrices.  Thus, a repeated
+ * correlation of the same nodes only computes the mixed products of the
+ * selected modes.  The cache is cleared whenever the values, the modes, or
+ * the nodes of this matrix are changed.
+ * 
+ * The values are stored in double precision.  Large mode shape matrices may
+ * instead be stored in single precision by a {@link FloatModeMatrix}, which
+ * can be correlated with a {@code ModeMatrix} of either precision.
+ * 
  * @author  Adam C. Dick, BSE
  * @version September 13, 2008
  ******************************************************************************/
 public class ModeMatrix extends RectangularMatrix {
+    /** The identifier which distinguishes this matrix from all others */
+    protected final long identifier_;
+    
+    /** The largest number of mixed products which are cached */
+    protected static final int MIXED_PRODUCT_CACHE_SIZE = 1 << 22;
+    
+    /** The modes of the other matrix whose mixed products are cached */
+    protected boolean[] mixedColumns_;
+    
+    /** The identifiers and changes of the matrices and the cached nodes */
+    protected List<Object> mixedKey_;
+    
+    /** The cached mixed products of all modes of both matrices */
+    protected double[] mixedProducts_;
+    
+    /** The modes of this matrix whose mixed products are cached */
+    protected boolean[] mixedRows_;
+    
     /** The mode frequencies of this mode shape matrix */
     protected double[] modeFrequencies_;
     
+    /** The number of changes of the values, modes, or nodes of this matrix */
+    protected long modificationCount_;
+    
+    /** The multiplier which computes the correlations of this matrix */
+    protected MatrixMultiplier multiplier_;
+    
     /** The number of components in 3D space */
     protected static final int N_COMPONENTS = 3;
     
+    /** The identifier of the most recently constructed mode shape matrix */
+    protected static final AtomicLong NEXT_IDENTIFIER = new AtomicLong();
+    
+    /** The number of selections whose row products are cached */
+    protected static final int ROW_PRODUCT_CACHE_SIZE = 8;
+    
+    /** The cached row products, keyed by changes, masses, and nodes */
+    protected Map<List<Object>, double[]> rowProducts_;
+    
     /** The index of the x-coordinate */
     protected static final int X_INDEX = 0;
     
@@ -74,7 +124,9 @@ public class ModeMatrix extends RectangularMatrix {
     public ModeMatrix(int nModes, int nNodes) {
         super(nModes, nNodes * N_COMPONENTS);
         
-        modeFrequencies_ = new double[nRows_];
+        identifier_         = NEXT_IDENTIFIER.incrementAndGet();
+        modeFrequencies_    = new double[nRows_];
+        multiplier_         = new MatrixMultiplier();
     } // eom
     
     
@@ -89,9 +141,11 @@ public class ModeMatrix extends RectangularMatrix {
         
         System.arraycopy(modes.rowNames_, 0, rowNames_, 0, nRows_);
         System.arraycopy(modes.columnNames_, 0, columnNames_, 0, nColumns_);
-        System.arraycopy(modes.values_, 0, values_, 0, nRows_ * nColumns_);
+        modes.copyValuesTo(values_);
         System.arraycopy(modes.modeFrequencies_, 0, modeFrequencies_, 0,
                 nRows_);
+        
+        multiplier_ = modes.multiplier_;
     } // eom
     
     
@@ -108,6 +162,39 @@ public class ModeMatrix extends RectangularMatrix {
         columnNames_        = new String[nColumns_];
         values_             = new double[nRows_ * nColumns_];
         modeFrequencies_    = new double[nRows_];
+        
+        this.clearCachedProducts();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Clears the index of the column names.  This method overrides the
+     * previous implementation to also clear the cached row products and
+     * mixed products, which depend on the names of the nodes.
+     **************************************************************************/
+    @Override
+    protected void clearColumnIndex() {
+        super.clearColumnIndex();
+        
+        this.clearCachedProducts();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Clears the cached products of each mode with itself and the cached
+     * mixed products, and counts the change of this matrix, which invalidates
+     * the mixed products cached by other matrices.  This method must be called
+     * whenever the values, the modes, or the nodes of this matrix are changed.
+     **************************************************************************/
+    protected void clearCachedProducts() {
+        rowProducts_    = null;
+        mixedKey_       = null;
+        mixedProducts_  = null;
+        mixedRows_      = null;
+        mixedColumns_   = null;
+        modificationCount_++;
     } // eom
     
     
@@ -123,43 +210,15 @@ public class ModeMatrix extends RectangularMatrix {
      * @return  the matrix of the dot product correlation
      **************************************************************************/
     public ModeCorrelationMatrix computeDotProduct(ModeMatrix modes) {
-        ModeCorrelationMatrix   correlation;
-        double                  mixedProduct;
-        double                  firstComponent;
-        double                  lastComponent;
-        int                     nFirstModes     = nRows_;
-        int                     nLastModes      = modes.nRows_;
+        ModeCorrelationMatrix correlation = this.createCorrelation(modes);
         
-        correlation = new ModeCorrelationMatrix(nFirstModes, nLastModes);
-        
-        for (int i = 0; i < nFirstModes; i++) {
-            if (rowNames_[i] != null) {
-                correlation.setFirstModeNameAt(rowNames_[i], i);
-            }
-            
-            correlation.setFirstModeFrequencyAt(modeFrequencies_[i], i);
+        if (this.isSinglePrecision() && modes.isSinglePrecision()) {
+            multiplier_.multiplyTransposed(this.floatValues(), nRows_,
+                    modes.floatValues(), modes.nRows_, nColumns_,
+                    correlation.values());
         }
-        
-        for (int i = 0; i < nLastModes; i++) {
-            if (modes.rowNames_[i] != null) {
-                correlation.setLastModeNameAt(modes.rowNames_[i], i);
-            }
-            
-            correlation.setLastModeFrequencyAt(modes.modeFrequencies_[i], i);
-        }
-        
-        for (int i = 0; i < nFirstModes; i++) {
-            for (int j = 0; j < nLastModes; j++) {
-                mixedProduct = 0.0;
-                
-                for (int k = 0; k < nColumns_; k++) {
-                    firstComponent  =  values_[(i * nColumns_) + k];
-                    lastComponent   =  modes.values_[(j * nColumns_) + k];
-                    mixedProduct    += firstComponent * lastComponent;
-                }
-                
-                correlation.setCorrelationAt(mixedProduct, i, j);
-            }
+        else {
+            this.multiplyBlocks(null, modes, correlation.values(), null);
         }
         
         return correlation;
@@ -182,66 +241,9 @@ public class ModeMatrix extends RectangularMatrix {
      **************************************************************************/
     public ModeCorrelationMatrix computeGeneralizedMass(MassMatrix masses,
             ModeMatrix modes) {
-        ModeCorrelationMatrix   correlation;
-        double[][]              massValues;
-        double                  mixedProduct;
-        double                  firstComponent;
-        double                  lastComponent;
-        double                  massComponent;
-        double                  firstMassProduct;
-        int                     nFirstModes         = nRows_;
-        int                     nLastModes          = modes.nRows_;
+        ModeCorrelationMatrix correlation = this.createCorrelation(modes);
         
-        correlation = new ModeCorrelationMatrix(nFirstModes, nLastModes);
-        massValues  = masses.values();
-        
-        for (int i = 0; i < nFirstModes; i++) {
-            if (rowNames_[i] != null) {
-                correlation.setFirstModeNameAt(rowNames_[i], i);
-            }
-            
-            correlation.setFirstModeFrequencyAt(modeFrequencies_[i], i);
-        }
-        
-        for (int i = 0; i < nLastModes; i++) {
-            if (modes.rowNames_[i] != null) {
-                correlation.setLastModeNameAt(modes.rowNames_[i], i);
-            }
-            
-            correlation.setLastModeFrequencyAt(modes.modeFrequencies_[i], i);
-        }
-        
-        for (int i = 0; i < nFirstModes; i++) {
-            for (int j = 0; j < nLastModes; j++) {
-                mixedProduct = 0.0;
-                
-                for (int k = 0; k < nColumns_; k++) {
-                    firstMassProduct = 0.0;
-                    
-                    for (int l = 0; l < k; l++) {
-                        firstComponent      =  values_[(i * nColumns_) + l];
-                        lastComponent       =
-                                modes.values_[(j * nColumns_) + l];
-                        massComponent       =  massValues[k][l];
-                        firstMassProduct    += firstComponent * massComponent;
-                    }
-                    
-                    for (int l = k; l < nColumns_; l++) {
-                        firstComponent      =  values_[(i * nColumns_) + l];
-                        lastComponent       =
-                                modes.values_[(j * nColumns_) + l];
-                        massComponent       =  massValues[l][k];
-                        firstMassProduct    += firstComponent * massComponent;
-                    }
-                    
-                    firstComponent  =  values_[(i * nColumns_) + k];
-                    lastComponent   =  modes.values_[(j * nColumns_) + k];
-                    mixedProduct    += firstMassProduct * lastComponent;
-                }
-                
-                correlation.setCorrelationAt(mixedProduct, i, j);
-            }
-        }
+        this.multiplyBlocks(masses, modes, correlation.values(), null);
         
         return correlation;
     } // eom
@@ -260,55 +262,32 @@ public class ModeMatrix extends RectangularMatrix {
      **************************************************************************/
     public ModeCorrelationMatrix computeModalAssuranceCriterion(
             ModeMatrix modes) {
-        ModeCorrelationMatrix   correlation;
-        double                  firstProduct;
-        double                  lastProduct;
-        double                  mixedProduct;
-        double                  normalProduct;
-        double                  firstComponent;
-        double                  lastComponent;
-        int                     nFirstModes     = nRows_;
-        int                     nLastModes      = modes.nRows_;
-        
-        correlation = new ModeCorrelationMatrix(nFirstModes, nLastModes);
+        ModeCorrelationMatrix   correlation     = this.createCorrelation(modes);
+        float[]                 firstValues;
+        float[]                 lastValues;
+        double[]                firstProducts;
+        double[]                lastProducts;
         
-        for (int i = 0; i < nFirstModes; i++) {
-            if (rowNames_[i] != null) {
-                correlation.setFirstModeNameAt(rowNames_[i], i);
-            }
+        if (this.isSinglePrecision() && modes.isSinglePrecision()) {
+            firstValues     = this.floatValues();
+            lastValues      = modes.floatValues();
+            firstProducts   = multiplier_.computeRowProducts(firstValues,
+                    firstValues, nRows_, nColumns_);
+            lastProducts    = multiplier_.computeRowProducts(lastValues,
+                    lastValues, modes.nRows_, nColumns_);
             
-            correlation.setFirstModeFrequencyAt(modeFrequencies_[i], i);
+            multiplier_.multiplyTransposed(firstValues, nRows_, lastValues,
+                    modes.nRows_, nColumns_, correlation.values());
         }
-        
-        for (int i = 0; i < nLastModes; i++) {
-            if (modes.rowNames_[i] != null) {
-                correlation.setLastModeNameAt(modes.rowNames_[i], i);
-            }
+        else {
+            firstProducts   = new double[nRows_];
+            lastProducts    = modes.computeRowProducts(null);
             
-            correlation.setLastModeFrequencyAt(modes.modeFrequencies_[i], i);
+            this.multiplyBlocks(null, modes, correlation.values(),
+                    firstProducts);
         }
         
-        for (int i = 0; i < nFirstModes; i++) {
-            for (int j = 0; j < nLastModes; j++) {
-                firstProduct    = 0.0;
-                lastProduct     = 0.0;
-                mixedProduct    = 0.0;
-                normalProduct   = 0.0;
-                
-                for (int k = 0; k < nColumns_; k++) {
-                    firstComponent  =  values_[(i * nColumns_) + k];
-                    lastComponent   =  modes.values_[(j * nColumns_) + k];
-                    firstProduct    += firstComponent * firstComponent;
-                    lastProduct     += lastComponent * lastComponent;
-                    mixedProduct    += firstComponent * lastComponent;
-                }
-                
-                normalProduct += mixedProduct * mixedProduct;
-                normalProduct /= firstProduct;
-                normalProduct /= lastProduct;
-                correlation.setCorrelationAt(normalProduct, i, j);
-            }
-        }
+        this.normalizeCorrelation(correlation, firstProducts, lastProducts);
         
         return correlation;
     } // eom
@@ -330,22 +309,124 @@ public class ModeMatrix extends RectangularMatrix {
      **************************************************************************/
     public ModeCorrelationMatrix computeOrthogonalityCheck(MassMatrix masses,
             ModeMatrix modes) {
+        ModeCorrelationMatrix   correlation     = this.createCorrelation(modes);
+        double[]                firstProducts   = new double[nRows_];
+        double[]                lastProducts    =
+                modes.computeRowProducts(masses);
+        
+        this.multiplyBlocks(masses, modes, correlation.values(),
+                firstProducts);
+        this.normalizeCorrelation(correlation, firstProducts, lastProducts);
+        
+        return correlation;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Computes the product of each mode of this {@code ModeMatrix} with
+     * itself.  If a {@link MassMatrix} is given, each mode is first weighted
+     * by the mass matrix, which should have the same node ordering as this
+     * matrix.  The modes are visited one block of rows at a time, so that the
+     * mass-weighted modes never have to be stored all at once.
+     * 
+     * @see     MassMatrix#multiply(MatrixMultiplier, double[], int, int)
+     * 
+     * @param   masses  the {@code MassMatrix} to be applied to the modes, or
+     *                  {@code null} if the modes are not weighted
+     * @return  the product of each mode with itself
+     **************************************************************************/
+    protected double[] computeRowProducts(MassMatrix masses) {
+        double[]    products        = new double[nRows_];
+        double[]    buffer          = null;
+        double[]    values;
+        double[]    massProducts;
+        int         nBlockRows      = this.getBlockRowCount();
+        int         nRows;
+        
+        for (int i = 0; i < nRows_; i += nBlockRows) {
+            nRows   = Math.min(nBlockRows, nRows_ - i);
+            values  = this.getRowBlock(i, nRows, buffer);
+            buffer  = values;
+            
+            if (masses == null) {
+                massProducts = values;
+            }
+            else {
+                massProducts = masses.multiply(multiplier_, values, nRows,
+                        nColumns_);
+            }
+            
+            System.arraycopy(multiplier_.computeRowProducts(massProducts,
+                    values, nRows, nColumns_), 0, products, i, nRows);
+        }
+        
+        return products;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Copies the given consecutive values of a row of this matrix into the
+     * given array in double precision.
+     * 
+     * @param   rowIndex    the index of the row
+     * @param   columnIndex the index of the first column
+     * @param   values      the array into which the values are copied
+     * @param   offset      the position of the first value in the array
+     * @param   nValues     the number of values
+     **************************************************************************/
+    protected void copyRowValuesTo(int rowIndex, int columnIndex,
+            double[] values, int offset, int nValues) {
+        System.arraycopy(values_, (rowIndex * nColumns_) + columnIndex, values,
+                offset, nValues);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Copies the values of this matrix into the given array, which must be at
+     * least as long as the number of values of this matrix.
+     * 
+     * @param   values  the array into which the values are copied
+     **************************************************************************/
+    protected void copyValuesTo(double[] values) {
+        System.arraycopy(values_, 0, values, 0, nRows_ * nColumns_);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Copies the values of this matrix into the given single-precision array,
+     * which must be at least as long as the number of values of this matrix.
+     * The values are rounded to single precision.
+     * 
+     * @param   values  the array into which the values are copied
+     **************************************************************************/
+    protected void copyValuesTo(float[] values) {
+        for (int i = 0; i < nRows_ * nColumns_; i++) {
+            values[i] = (float) values_[i];
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Creates an empty {@link ModeCorrelationMatrix} whose rows are the modes
+     * of this {@code ModeMatrix} and whose columns are the modes of the given
+     * {@code ModeMatrix}.  The names and frequencies of the modes are copied to
+     * the correlation.
+     * 
+     * @param   modes   the {@code ModeMatrix} that will be correlated to this
+     *                  {@code ModeMatrix}
+     * @return  the empty correlation of both mode matrices
+     **************************************************************************/
+    protected ModeCorrelationMatrix createCorrelation(ModeMatrix modes) {
         ModeCorrelationMatrix   correlation;
-        double[][]              massValues;
-        double                  firstProduct;
-        double                  lastProduct;
-        double                  mixedProduct;
-        double                  normalProduct;
-        double                  firstComponent;
-        double                  lastComponent;
-        double                  massComponent;
-        double                  firstMassProduct;
-        double                  lastMassProduct;
-        int                     nFirstModes         = nRows_;
-        int                     nLastModes          = modes.nRows_;
+        int                     nFirstModes     = nRows_;
+        int                     nLastModes      = modes.nRows_;
         
         correlation = new ModeCorrelationMatrix(nFirstModes, nLastModes);
-        massValues  = masses.values();
         
         for (int i = 0; i < nFirstModes; i++) {
             if (rowNames_[i] != null) {
@@ -363,46 +444,178 @@ public class ModeMatrix extends RectangularMatrix {
             correlation.setLastModeFrequencyAt(modes.modeFrequencies_[i], i);
         }
         
-        for (int i = 0; i < nFirstModes; i++) {
-            for (int j = 0; j < nLastModes; j++) {
-                firstProduct    = 0.0;
-                lastProduct     = 0.0;
-                mixedProduct    = 0.0;
-                normalProduct   = 0.0;
-                
-                for (int k = 0; k < nColumns_; k++) {
-                    firstMassProduct    = 0.0;
-                    lastMassProduct     = 0.0;
-                    
-                    for (int l = 0; l < k; l++) {
-                        firstComponent      =  values_[(i * nColumns_) + l];
-                        lastComponent       =
-                                modes.values_[(j * nColumns_) + l];
-                        massComponent       =  massValues[k][l];
-                        firstMassProduct    += firstComponent * massComponent;
-                        lastMassProduct     += lastComponent * massComponent;
-                    }
-                    
-                    for (int l = k; l < nColumns_; l++) {
-                        firstComponent      =  values_[(i * nColumns_) + l];
-                        lastComponent       =
-                                modes.values_[(j * nColumns_) + l];
-                        massComponent       =  massValues[l][k];
-                        firstMassProduct    += firstComponent * massComponent;
-                        lastMassProduct     += lastComponent * massComponent;
-                    }
-                    
-                    firstComponent  =  values_[(i * nColumns_) + k];
-                    lastComponent   =  modes.values_[(j * nColumns_) + k];
-                    firstProduct    += firstMassProduct * firstComponent;
-                    lastProduct     += lastMassProduct * lastComponent;
-                    mixedProduct    += firstMassProduct * lastComponent;
-                }
-                
-                normalProduct += mixedProduct * mixedProduct;
-                normalProduct /= firstProduct;
-                normalProduct /= lastProduct;
-                correlation.setCorrelationAt(normalProduct, i, j);
+        return correlation;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Creates an empty {@code ModeMatrix} of the given size, which stores its
+     * values on the heap in the same precision as this matrix and shares its
+     * multiplier.
+     * 
+     * @param   nModes  the number of modes in the new matrix
+     * @param   nNodes  the number of nodes in the new matrix
+     * @return  the new mode shape matrix
+     **************************************************************************/
+    protected ModeMatrix createModes(int nModes, int nNodes) {
+        ModeMatrix modes = new ModeMatrix(nModes, nNodes);
+        
+        modes.multiplier_ = multiplier_;
+        
+        return modes;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the values of this matrix in double precision.  The array is
+     * the storage of this matrix and must not be changed.
+     * 
+     * @return  the values of the cells of this matrix
+     **************************************************************************/
+    protected double[] doubleValues() {
+        return values_;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the values of this matrix in single precision.  The values of
+     * this matrix are rounded into a new array.
+     * 
+     * @return  the values of the cells of this matrix
+     **************************************************************************/
+    protected float[] floatValues() {
+        float[] values = new float[nRows_ * nColumns_];
+        
+        this.copyValuesTo(values);
+        
+        return values;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the number of rows of each block of rows in which the
+     * correlations visit the modes of this matrix.  The values of this matrix
+     * are stored in a single array, so the whole matrix is one block.
+     * 
+     * @return  the number of rows of each block
+     **************************************************************************/
+    protected int getBlockRowCount() {
+        return nRows_;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the indices at which the given array is {@code true}, in
+     * ascending order.
+     * 
+     * @param   marks   the marked indices
+     * @return  the indices of the marks
+     **************************************************************************/
+    protected int[] getMarkedIndices(boolean[] marks) {
+        int[]   indices;
+        int     nIndices    = 0;
+        
+        for (int i = 0; i < marks.length; i++) {
+            if (marks[i]) {
+                nIndices++;
+            }
+        }
+        
+        indices     = new int[nIndices];
+        nIndices    = 0;
+        
+        for (int i = 0; i < marks.length; i++) {
+            if (marks[i]) {
+                indices[nIndices++] = i;
+            }
+        }
+        
+        return indices;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the mixed products of the given modes of this matrix and the
+     * given {@code ModeMatrix} over the given nodes, which may be weighted by
+     * the given {@link MassMatrix}.  The mixed products are cached for the
+     * given matrices and nodes, so that a selection of fewer modes is copied
+     * from the cache, while a selection of further modes only computes the
+     * products of the modes which were not selected before.  The cache is
+     * replaced when the other matrix, the mass matrix, or the nodes change,
+     * and is not used if the products of all modes would be too many.  The
+     * cache is keyed by the identifiers and the numbers of changes of the
+     * other matrix and the mass matrix, so that it holds no reference to
+     * either of them.
+     * 
+     * @param   masses          the {@code MassMatrix} to be applied to the
+     *                          modes, or {@code null} if the modes are not
+     *                          weighted
+     * @param   modes           the {@code ModeMatrix} that will be correlated
+     *                          to this {@code ModeMatrix}
+     * @param   firstModeKeys   the new order of the modes of this matrix
+     * @param   firstNodeKeys   the new order of the nodes of this matrix
+     * @param   lastModeKeys    the new order of the modes of the given matrix
+     * @param   lastNodeKeys    the new order of the nodes of the given matrix
+     * @return  the matrix of the mixed products
+     **************************************************************************/
+    protected ModeCorrelationMatrix getMixedProducts(MassMatrix masses,
+            ModeMatrix modes, KeyList firstModeKeys, KeyList firstNodeKeys,
+            KeyList lastModeKeys, KeyList lastNodeKeys) {
+        ModeMatrixView          firstView;
+        ModeMatrixView          lastView;
+        ModeCorrelationMatrix   correlation;
+        List<Object>            key             = new ArrayList<Object>();
+        double[]                products;
+        int[]                   firstIndices;
+        int[]                   lastIndices;
+        int                     nLastModes      = modes.nRows_;
+        int                     iRow;
+        
+        firstView   = new ModeMatrixView(this, firstModeKeys, firstNodeKeys);
+        lastView    = new ModeMatrixView(modes, lastModeKeys, lastNodeKeys);
+        correlation = firstView.createCorrelation(lastView);
+        products    = correlation.values();
+        
+        firstIndices    = firstView.modeIndices_;
+        lastIndices     = lastView.modeIndices_;
+        
+        if ((long) nRows_ * nLastModes > MIXED_PRODUCT_CACHE_SIZE) {
+            System.arraycopy(this.multiplyModes(masses, modes, firstIndices,
+                    firstNodeKeys, lastIndices, lastNodeKeys), 0, products, 0,
+                    products.length);
+            
+            return correlation;
+        }
+        
+        key.add(modes.identifier_);
+        key.add(modes.modificationCount_);
+        key.add(masses == null ? 0L : masses.identifier_);
+        key.add(masses == null ? 0L : masses.modificationCount_);
+        key.add(new ArrayList<String>(firstNodeKeys.values()));
+        key.add(new ArrayList<String>(lastNodeKeys.values()));
+        
+        if (!key.equals(mixedKey_)) {
+            mixedKey_       = key;
+            mixedProducts_  = new double[nRows_ * nLastModes];
+            mixedRows_      = new boolean[nRows_];
+            mixedColumns_   = new boolean[nLastModes];
+        }
+        
+        this.updateMixedProducts(masses, modes, firstIndices, firstNodeKeys,
+                lastIndices, lastNodeKeys);
+        
+        for (int i = 0; i < firstIndices.length; i++) {
+            iRow = firstIndices[i] * nLastModes;
+            
+            for (int j = 0; j < lastIndices.length; j++) {
+                products[(i * lastIndices.length) + j] =
+                        mixedProducts_[iRow + lastIndices[j]];
             }
         }
         
@@ -457,6 +670,18 @@ public class ModeMatrix extends RectangularMatrix {
     
     
     
+    /***************************************************************************
+     * Returns the {@link MatrixMultiplier} which computes the correlations of
+     * this matrix.
+     * 
+     * @return  the multiplier of this matrix
+     **************************************************************************/
+    public MatrixMultiplier getMultiplier() {
+        return multiplier_;
+    } // eom
+    
+    
+    
     /***************************************************************************
      * Returns the number of nodes in this matrix.
      * 
@@ -480,10 +705,13 @@ public class ModeMatrix extends RectangularMatrix {
     
     
     /***************************************************************************
-     * Makes a copy of this {@code ModeMatrix} and the given one, sorts each by
-     * the corresponding given mode names and node names, and computes the
-     * resulting {@link ModeCorrelationMatrix} from
-     * {@link #computeDotProduct(de.iabg.mode.ModeMatrix)}.
+     * Gathers the given modes and nodes of this {@code ModeMatrix} and the
+     * given one, in the order of the given mode names and node names, and
+     * computes the resulting {@link ModeCorrelationMatrix} from
+     * {@link #computeDotProduct(de.iabg.mode.ModeMatrix)}.  The dot products
+     * are cached as by {@link #getMixedProducts(de.iabg.mode.MassMatrix,
+     * de.iabg.mode.ModeMatrix, de.iabg.swing.KeyList, de.iabg.swing.KeyList,
+     * de.iabg.swing.KeyList, de.iabg.swing.KeyList)}.
      * 
      * @param   modes           the {@code ModeMatrix} that will be correlated
      *                          to this {@code ModeMatrix}
@@ -496,25 +724,21 @@ public class ModeMatrix extends RectangularMatrix {
     public ModeCorrelationMatrix getReducedDotProduct(ModeMatrix modes,
             KeyList firstModeKeys, KeyList firstNodeKeys, KeyList lastModeKeys,
             KeyList lastNodeKeys) {
-        ModeMatrix firstModes   = new ModeMatrix(this);
-        ModeMatrix lastModes    = new ModeMatrix(modes);
-        
-        firstModes.sortModes(firstModeKeys);
-        firstModes.sortNodes(firstNodeKeys);
-        lastModes.sortModes(lastModeKeys);
-        lastModes.sortNodes(lastNodeKeys);
-        
-        return firstModes.computeDotProduct(lastModes);
+        return this.getMixedProducts(null, modes, firstModeKeys, firstNodeKeys,
+                lastModeKeys, lastNodeKeys);
     } // eom
     
     
     
     /***************************************************************************
-     * Makes a copy of this {@code ModeMatrix} and the given one, sorts each by
-     * the corresponding given mode names and node names, and computes the
-     * resulting {@link ModeCorrelationMatrix} from
+     * Gathers the given modes and nodes of this {@code ModeMatrix} and the
+     * given one, in the order of the given mode names and node names, and
+     * computes the resulting {@link ModeCorrelationMatrix} from
      * {@link #computeGeneralizedMass(de.iabg.mode.MassMatrix,
-     * de.iabg.mode.ModeMatrix)}.
+     * de.iabg.mode.ModeMatrix)}.  The generalized masses are cached as by
+     * {@link #getMixedProducts(de.iabg.mode.MassMatrix,
+     * de.iabg.mode.ModeMatrix, de.iabg.swing.KeyList, de.iabg.swing.KeyList,
+     * de.iabg.swing.KeyList, de.iabg.swing.KeyList)}.
      * 
      * @param   masses          the {@code MassMatrix} for the
      *                          {@code First Mode}
@@ -529,24 +753,22 @@ public class ModeMatrix extends RectangularMatrix {
     public ModeCorrelationMatrix getReducedGeneralizedMass(MassMatrix masses,
             ModeMatrix modes, KeyList firstModeKeys, KeyList firstNodeKeys,
             KeyList lastModeKeys, KeyList lastNodeKeys) {
-        ModeMatrix firstModes   = new ModeMatrix(this);
-        ModeMatrix lastModes    = new ModeMatrix(modes);
-        
-        firstModes.sortModes(firstModeKeys);
-        firstModes.sortNodes(firstNodeKeys);
-        lastModes.sortModes(lastModeKeys);
-        lastModes.sortNodes(lastNodeKeys);
-        
-        return firstModes.computeGeneralizedMass(masses, lastModes);
+        return this.getMixedProducts(masses, modes, firstModeKeys,
+                firstNodeKeys, lastModeKeys, lastNodeKeys);
     } // eom
     
     
     
     /***************************************************************************
-     * Makes a copy of this {@code ModeMatrix} and the given one, sorts each by
-     * the corresponding given mode names and node names, and computes the
-     * resulting {@link ModeCorrelationMatrix} from
-     * {@link #computeModalAssuranceCriterion(de.iabg.mode.ModeMatrix)}.
+     * Gathers the given modes and nodes of this {@code ModeMatrix} and the
+     * given one, in the order of the given mode names and node names, and
+     * computes the resulting {@link ModeCorrelationMatrix} from
+     * {@link #computeModalAssuranceCriterion(de.iabg.mode.ModeMatrix)}.  Only
+     * the dot products are computed from the selected modes, as by
+     * {@link #getReducedDotProduct(de.iabg.mode.ModeMatrix,
+     * de.iabg.swing.KeyList, de.iabg.swing.KeyList, de.iabg.swing.KeyList,
+     * de.iabg.swing.KeyList)}, while the products of each mode with itself
+     * are cached by both matrices.
      * 
      * @param   modes           the {@code ModeMatrix} that will be correlated
      *                          to this {@code ModeMatrix}
@@ -559,25 +781,69 @@ public class ModeMatrix extends RectangularMatrix {
     public ModeCorrelationMatrix getReducedModalAssuranceCriterion(
             ModeMatrix modes, KeyList firstModeKeys, KeyList firstNodeKeys,
             KeyList lastModeKeys, KeyList lastNodeKeys) {
-        ModeMatrix firstModes   = new ModeMatrix(this);
-        ModeMatrix lastModes    = new ModeMatrix(modes);
+        ModeCorrelationMatrix correlation = this.getReducedDotProduct(modes,
+                firstModeKeys, firstNodeKeys, lastModeKeys, lastNodeKeys);
         
-        firstModes.sortModes(firstModeKeys);
-        firstModes.sortNodes(firstNodeKeys);
-        lastModes.sortModes(lastModeKeys);
-        lastModes.sortNodes(lastNodeKeys);
+        this.normalizeCorrelation(correlation,
+                this.getReducedRowProducts(null, firstModeKeys, firstNodeKeys),
+                modes.getReducedRowProducts(null, lastModeKeys, lastNodeKeys));
         
-        return firstModes.computeModalAssuranceCriterion(lastModes);
+        return correlation;
     } // eom
     
     
     
     /***************************************************************************
-     * Makes a copy of this {@code ModeMatrix} and the given one, sorts each by
-     * the corresponding given mode names and node names, and computes the
-     * resulting {@link ModeCorrelationMatrix} from
+     * Computes the reduced Modal Assurance Criterion as by
+     * {@link #getReducedModalAssuranceCriterion(de.iabg.mode.ModeMatrix,
+     * de.iabg.swing.KeyList, de.iabg.swing.KeyList, de.iabg.swing.KeyList,
+     * de.iabg.swing.KeyList)}, but only for the pairs of modes whose
+     * frequencies lie within the given ratio of each other.  The correlation
+     * of all other pairs is zero, so they are never connected.  Only the dot
+     * products of the pairs within the ratio are computed, as by
+     * {@link ModeMatrixView#computeDotProduct(de.iabg.mode.ModeMatrixView,
+     * double)}.
+     * 
+     * @param   modes           the {@code ModeMatrix} that will be correlated
+     *                          to this {@code ModeMatrix}
+     * @param   firstModeKeys   the new order of the modes of this matrix
+     * @param   firstNodeKeys   the new order of the nodes of this matrix
+     * @param   lastModeKeys    the new order of the modes of the given matrix
+     * @param   lastNodeKeys    the new order of the nodes of the given matrix
+     * @param   frequencyRatio  the largest ratio of the higher to the lower
+     *                          frequency of a pair of modes
+     * @return  the matrix of the Modal Assurance Criterion correlation
+     * @throws  IllegalArgumentException    if the ratio is less than one
+     **************************************************************************/
+    public ModeCorrelationMatrix getReducedModalAssuranceCriterion(
+            ModeMatrix modes, KeyList firstModeKeys, KeyList firstNodeKeys,
+            KeyList lastModeKeys, KeyList lastNodeKeys,
+            double frequencyRatio) {
+        ModeMatrixView          firstView;
+        ModeMatrixView          lastView;
+        ModeCorrelationMatrix   correlation;
+        
+        firstView   = new ModeMatrixView(this, firstModeKeys, firstNodeKeys);
+        lastView    = new ModeMatrixView(modes, lastModeKeys, lastNodeKeys);
+        correlation = firstView.computeDotProduct(lastView, frequencyRatio);
+        
+        this.normalizeCorrelation(correlation,
+                this.getReducedRowProducts(null, firstModeKeys, firstNodeKeys),
+                modes.getReducedRowProducts(null, lastModeKeys, lastNodeKeys));
+        
+        return correlation;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Gathers the given modes and nodes of this {@code ModeMatrix} and the
+     * given one, in the order of the given mode names and node names, and
+     * computes the resulting {@link ModeCorrelationMatrix} from
      * {@link #computeOrthogonalityCheck(de.iabg.mode.MassMatrix,
-     * de.iabg.mode.ModeMatrix)}.
+     * de.iabg.mode.ModeMatrix)}.  Only the generalized masses are computed
+     * from the selected modes, while the mass-weighted products of each mode
+     * with itself are cached by both matrices.
      * 
      * @param   masses          the {@code MassMatrix} for the
      *                          {@code First Mode}
@@ -592,15 +858,101 @@ public class ModeMatrix extends RectangularMatrix {
     public ModeCorrelationMatrix getReducedOrthogonalityCheck(MassMatrix masses,
             ModeMatrix modes, KeyList firstModeKeys, KeyList firstNodeKeys,
             KeyList lastModeKeys, KeyList lastNodeKeys) {
-        ModeMatrix firstModes   = new ModeMatrix(this);
-        ModeMatrix lastModes    = new ModeMatrix(modes);
+        ModeCorrelationMatrix correlation = this.getReducedGeneralizedMass(
+                masses, modes, firstModeKeys, firstNodeKeys, lastModeKeys,
+                lastNodeKeys);
         
-        firstModes.sortModes(firstModeKeys);
-        firstModes.sortNodes(firstNodeKeys);
-        lastModes.sortModes(lastModeKeys);
-        lastModes.sortNodes(lastNodeKeys);
+        this.normalizeCorrelation(correlation,
+                this.getReducedRowProducts(masses, firstModeKeys,
+                firstNodeKeys), modes.getReducedRowProducts(masses,
+                lastModeKeys, lastNodeKeys));
         
-        return firstModes.computeOrthogonalityCheck(masses, lastModes);
+        return correlation;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the product of each of the given modes with itself over the
+     * given nodes, which may be weighted by the given {@link MassMatrix}.
+     * The products of all modes of this matrix are computed for the given
+     * nodes and mass matrix when they are first requested, tile by tile
+     * through a {@link ModeMatrixView}.  They are cached under the number of
+     * changes of this matrix, the identifier and the number of changes of the
+     * mass matrix, and the order of the nodes, so that the cache holds no
+     * reference to the mass matrix.
+     * 
+     * @param   masses      the {@code MassMatrix} to be applied to the modes,
+     *                      or {@code null} if the modes are not weighted
+     * @param   modeKeys    the order of the selected modes
+     * @param   nodeKeys    the order of the selected nodes
+     * @return  the product of each selected mode with itself
+     **************************************************************************/
+    protected double[] getReducedRowProducts(MassMatrix masses,
+            KeyList modeKeys, KeyList nodeKeys) {
+        List<Object>    key             = new ArrayList<Object>();
+        int[]           modeIndices     = this.getRowIndicesOf(modeKeys);
+        double[]        products        = new double[modeIndices.length];
+        double[]        rowProducts;
+        
+        key.add(modificationCount_);
+        key.add(masses == null ? 0L : masses.identifier_);
+        key.add(masses == null ? 0L : masses.modificationCount_);
+        key.addAll(nodeKeys.values());
+        
+        if (rowProducts_ == null) {
+            rowProducts_ = new LinkedHashMap<List<Object>, double[]>(16, 0.75f,
+                    true) {
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<List<Object>, double[]> eldest) {
+                    return this.size() > ROW_PRODUCT_CACHE_SIZE;
+                } // eom
+            };
+        }
+        
+        rowProducts = rowProducts_.get(key);
+        
+        if (rowProducts == null) {
+            rowProducts = new ModeMatrixView(this, nodeKeys).
+                    computeRowProducts(masses);
+            rowProducts_.put(key, rowProducts);
+        }
+        
+        for (int i = 0; i < modeIndices.length; i++) {
+            products[i] = rowProducts[modeIndices[i]];
+        }
+        
+        return products;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the values of the given consecutive rows of this matrix in
+     * double precision.  If all rows are requested, the values of this matrix
+     * are returned as by {@link #doubleValues()}.  Otherwise, the rows are
+     * copied into the given array, which is allocated if it is {@code null} or
+     * too short.
+     * 
+     * @param   firstRow    the index of the first row
+     * @param   nRows       the number of rows
+     * @param   values      the array into which the rows may be copied
+     * @return  an array whose first rows are the given rows
+     **************************************************************************/
+    protected double[] getRowBlock(int firstRow, int nRows, double[] values) {
+        if (firstRow == 0 && nRows == nRows_) {
+            return this.doubleValues();
+        }
+        
+        if (values == null || values.length < nRows * nColumns_) {
+            values = new double[nRows * nColumns_];
+        }
+        
+        System.arraycopy(this.doubleValues(), firstRow * nColumns_, values, 0,
+                nRows * nColumns_);
+        
+        return values;
     } // eom
     
     
@@ -647,6 +999,194 @@ public class ModeMatrix extends RectangularMatrix {
     
     
     
+    /***************************************************************************
+     * Returns whether this matrix is stored in more than one block of rows,
+     * so that its correlations are computed one block or tile at a time
+     * instead of directly from a single array.
+     * 
+     * @see     #getBlockRowCount()
+     * 
+     * @return  {@code true} if this matrix has more than one block of rows
+     **************************************************************************/
+    protected boolean isBlocked() {
+        return this.getBlockRowCount() < nRows_;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns whether the values of this matrix are stored in single
+     * precision.  The dot products and the Modal Assurance Criterion of two
+     * single-precision matrices are computed from the single-precision values
+     * of both, but are summed in double precision.  A single-precision matrix
+     * is correlated with a double-precision matrix in double precision, one
+     * widened block of rows at a time.
+     * 
+     * @return  {@code false}, because this matrix stores double values
+     **************************************************************************/
+    public boolean isSinglePrecision() {
+        return false;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Multiplies the modes of this {@code ModeMatrix} by the transpose of the
+     * modes of the given {@code ModeMatrix} and stores the mixed products in
+     * the given array.  If a {@link MassMatrix} is given, the modes of this
+     * matrix are first weighted by the mass matrix.  Both matrices are visited
+     * one block of rows at a time, so that a matrix which is not stored in a
+     * single array is correlated without being copied as a whole.
+     * 
+     * If the given row products are not {@code null}, the product of each
+     * (weighted) mode of this matrix with itself is stored in them as well.
+     * 
+     * @see     #getBlockRowCount()
+     * @see     #getRowBlock(int, int, double[])
+     * 
+     * @param   masses      the {@code MassMatrix} for the {@code First Mode},
+     *                      or {@code null} if the modes are not weighted
+     * @param   modes       the {@code ModeMatrix} that will be correlated to
+     *                      this {@code ModeMatrix}
+     * @param   products    the array in which the mixed products are stored
+     * @param   rowProducts the array in which the products of the modes of
+     *                      this matrix are stored, or {@code null}
+     **************************************************************************/
+    protected void multiplyBlocks(MassMatrix masses, ModeMatrix modes,
+            double[] products, double[] rowProducts) {
+        double[]    firstBuffer     = null;
+        double[]    lastBuffer      = null;
+        double[]    firstValues;
+        double[]    lastValues;
+        double[]    massProducts;
+        double[]    blockProducts;
+        int         nFirstBlockRows = this.getBlockRowCount();
+        int         nLastBlockRows  = modes.getBlockRowCount();
+        int         nLastModes      = modes.nRows_;
+        int         nFirstRows;
+        int         nLastRows;
+        
+        for (int i = 0; i < nRows_; i += nFirstBlockRows) {
+            nFirstRows  = Math.min(nFirstBlockRows, nRows_ - i);
+            firstValues = this.getRowBlock(i, nFirstRows, firstBuffer);
+            firstBuffer = firstValues;
+            
+            if (masses == null) {
+                massProducts = firstValues;
+            }
+            else {
+                massProducts = masses.multiply(multiplier_, firstValues,
+                        nFirstRows, nColumns_);
+            }
+            
+            if (rowProducts != null) {
+                System.arraycopy(multiplier_.computeRowProducts(massProducts,
+                        firstValues, nFirstRows, nColumns_), 0, rowProducts, i,
+                        nFirstRows);
+            }
+            
+            for (int j = 0; j < nLastModes; j += nLastBlockRows) {
+                nLastRows   = Math.min(nLastBlockRows, nLastModes - j);
+                lastValues  = modes.getRowBlock(j, nLastRows, lastBuffer);
+                lastBuffer  = lastValues;
+                
+                if (nFirstRows == nRows_ && nLastRows == nLastModes) {
+                    multiplier_.multiplyTransposed(massProducts, nFirstRows,
+                            lastValues, nLastRows, nColumns_, products);
+                }
+                else {
+                    blockProducts = multiplier_.multiplyTransposed(
+                            massProducts, nFirstRows, lastValues, nLastRows,
+                            nColumns_);
+                    
+                    for (int k = 0; k < nFirstRows; k++) {
+                        System.arraycopy(blockProducts, k * nLastRows,
+                                products, ((i + k) * nLastModes) + j,
+                                nLastRows);
+                    }
+                }
+            }
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Computes the mixed products of the given modes of this matrix and the
+     * given {@code ModeMatrix} over the given nodes, which may be weighted by
+     * the given {@link MassMatrix}.  The selected modes are gathered through
+     * a {@link ModeMatrixView}, unless the dot products of a blocked matrix
+     * are correlated tile by tile.
+     * 
+     * @param   masses          the {@code MassMatrix} to be applied to the
+     *                          modes, or {@code null} if the modes are not
+     *                          weighted
+     * @param   modes           the {@code ModeMatrix} that will be correlated
+     *                          to this {@code ModeMatrix}
+     * @param   firstIndices    the indices of the modes of this matrix
+     * @param   firstNodeKeys   the order of the nodes of this matrix
+     * @param   lastIndices     the indices of the modes of the given matrix
+     * @param   lastNodeKeys    the order of the nodes of the given matrix
+     * @return  the mixed products in the order of the given modes
+     **************************************************************************/
+    protected double[] multiplyModes(MassMatrix masses, ModeMatrix modes,
+            int[] firstIndices, KeyList firstNodeKeys, int[] lastIndices,
+            KeyList lastNodeKeys) {
+        ModeMatrixView  firstView   = new ModeMatrixView(this, firstNodeKeys);
+        ModeMatrixView  lastView    = new ModeMatrixView(modes, lastNodeKeys);
+        ModeMatrix      firstModes;
+        ModeMatrix      lastModes;
+        
+        firstView.setModeIndices(firstIndices);
+        lastView.setModeIndices(lastIndices);
+        
+        if (masses == null && (this.isBlocked() || modes.isBlocked())) {
+            return firstView.computeDotProduct(lastView).values();
+        }
+        
+        firstModes  = firstView.createModes();
+        lastModes   = lastView.createModes();
+        
+        if (masses == null) {
+            return firstModes.computeDotProduct(lastModes).values();
+        }
+        else {
+            return firstModes.computeGeneralizedMass(masses, lastModes).
+                    values();
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Normalizes the mixed products of the given correlation by the products
+     * of each mode with itself, so that each value of the correlation is the
+     * square of the mixed product divided by both of these products.
+     * 
+     * @param   correlation     the correlation containing the mixed products
+     * @param   firstProducts   the products of the modes of this matrix
+     * @param   lastProducts    the products of the modes of the given matrix
+     **************************************************************************/
+    protected void normalizeCorrelation(ModeCorrelationMatrix correlation,
+            double[] firstProducts, double[] lastProducts) {
+        double[]    mixedProducts   = correlation.values();
+        double      normalProduct;
+        int         nFirstModes     = firstProducts.length;
+        int         nLastModes      = lastProducts.length;
+        
+        for (int i = 0; i < nFirstModes; i++) {
+            for (int j = 0; j < nLastModes; j++) {
+                normalProduct   =  mixedProducts[(i * nLastModes) + j];
+                normalProduct   *= normalProduct;
+                normalProduct   /= firstProducts[i];
+                normalProduct   /= lastProducts[j];
+                mixedProducts[(i * nLastModes) + j] = normalProduct;
+            }
+        }
+    } // eom
+    
+    
+    
     /***************************************************************************
      **************************************************************************/
     @Override
@@ -678,7 +1218,7 @@ public class ModeMatrix extends RectangularMatrix {
             
             for (int j = 0; j < nColumns_; j++) {
                 result.append(String.format(" % 11.8e",
-                        values_[(i * nColumns_) + j]));
+                        this.getValueAt(i, j)));
             }
             
             result.append(String.format("%n"));
@@ -689,6 +1229,45 @@ public class ModeMatrix extends RectangularMatrix {
     
     
     
+    /***************************************************************************
+     * Rearranges the columns of this matrix according to the given column
+     * indices.  This method overrides the previous implementation to clear the
+     * cached row products.
+     * 
+     * @param   columnIndices   the index of the column for each new position
+     **************************************************************************/
+    @Override
+    public void permuteColumns(int[] columnIndices) {
+        super.permuteColumns(columnIndices);
+        
+        this.clearCachedProducts();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Rearranges the rows of this matrix according to the given row indices.
+     * This method overrides the previous implementation to include the mode
+     * frequencies.
+     * 
+     * @param   rowIndices  the index of the row for each new position
+     **************************************************************************/
+    @Override
+    public void permuteRows(int[] rowIndices) {
+        double[] modeFrequencies = new double[rowIndices.length];
+        
+        for (int i = 0; i < rowIndices.length; i++) {
+            modeFrequencies[i] = modeFrequencies_[rowIndices[i]];
+        }
+        
+        super.permuteRows(rowIndices);
+        modeFrequencies_ = modeFrequencies;
+        
+        this.clearCachedProducts();
+    } // eom
+    
+    
+    
     /***************************************************************************
      * This method does nothing and overrides the previous implementation
      * because the number of columns (coordinates) should not be directly
@@ -737,6 +1316,45 @@ public class ModeMatrix extends RectangularMatrix {
     
     
     
+    /***************************************************************************
+     * Sets the x, y, and z-translations of all nodes of the mode at the given
+     * index from the given array, which holds them in the order of the nodes.
+     * Thus, a mode can be filled at once, such as while a mode file is read.
+     * 
+     * @param   values      the new translations of the mode
+     * @param   modeIndex   the index of the mode to be changed
+     * @throws  ArrayIndexOutOfBoundsException  if the mode index is invalid
+     * @throws  IllegalArgumentException        if the array is shorter than
+     *                                          the number of columns
+     **************************************************************************/
+    public void setModeValuesAt(double[] values, int modeIndex) {
+        if (modeIndex < 0 || modeIndex >= nRows_) {
+            throw new ArrayIndexOutOfBoundsException(modeIndex);
+        }
+        
+        if (values.length < nColumns_) {
+            throw new IllegalArgumentException(String.format(
+                    "%d values cannot fill a mode of %d nodes",
+                    values.length, this.getNodeCount()));
+        }
+        
+        this.setRowBlock(modeIndex, 1, values);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Sets the {@link MatrixMultiplier} which computes the correlations of
+     * this matrix.
+     * 
+     * @param   multiplier  the multiplier of this matrix
+     **************************************************************************/
+    public void setMultiplier(MatrixMultiplier multiplier) {
+        multiplier_ = multiplier;
+    } // eom
+    
+    
+    
     /***************************************************************************
      * Sets the number of nodes to the specified amount.  The data of all cells
      * may be lost due to resizing of the matrix.
@@ -747,6 +1365,8 @@ public class ModeMatrix extends RectangularMatrix {
         columnNames_    = new String[nNodes * N_COMPONENTS];
         nColumns_       = nNodes * N_COMPONENTS;
         values_         = new double[nRows_ * nNodes * N_COMPONENTS];
+        
+        this.clearCachedProducts();
     } // eom
     
     
@@ -766,6 +1386,27 @@ public class ModeMatrix extends RectangularMatrix {
     
     
     
+    /***************************************************************************
+     * Sets the values of the given consecutive rows of this matrix from the
+     * given array.  If the array is the one returned by
+     * {@link #getRowBlock(int, int, double[])} for all rows, it is already the
+     * storage of this matrix and nothing is copied.
+     * 
+     * @param   firstRow    the index of the first row
+     * @param   nRows       the number of rows
+     * @param   values      the values of the rows
+     **************************************************************************/
+    protected void setRowBlock(int firstRow, int nRows, double[] values) {
+        if (values != values_) {
+            System.arraycopy(values, 0, values_, firstRow * nColumns_,
+                    nRows * nColumns_);
+        }
+        
+        this.clearCachedProducts();
+    } // eom
+    
+    
+    
     /***************************************************************************
      * Sets the number of rows to the specified amount.  This method overrides
      * the previous implementation to include the mode frequencies.  The data of
@@ -779,6 +1420,25 @@ public class ModeMatrix extends RectangularMatrix {
         modeFrequencies_    = new double[nRows];
         nRows_              = nRows;
         values_             = new double[nRows_ * nColumns_];
+        
+        this.clearCachedProducts();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Sets the value at the given row and column.  This method overrides the
+     * previous implementation to clear the cached row products.
+     * 
+     * @param   value       the new value
+     * @param   rowIndex    the row index
+     * @param   columnIndex the column index
+     **************************************************************************/
+    @Override
+    public void setValueAt(double value, int rowIndex, int columnIndex) {
+        super.setValueAt(value, rowIndex, columnIndex);
+        
+        this.clearCachedProducts();
     } // eom
     
     
@@ -850,54 +1510,26 @@ public class ModeMatrix extends RectangularMatrix {
     
     
     /***************************************************************************
-     * Sorts and resizes the number of rows in this matrix according to the
-     * order of the given row names.  This method overrides the previous
-     * implementation to include the mode frequencies.  The number of given row
-     * names may be smaller than the number of row names in this matrix, thus
-     * reducing the number of rows.  The number of given row names may also
-     * contain duplicate values, thus increasing the number of rows.  The
-     * corresponding cells of the given rows are also sorted in the same way.
-     * The data of any row which is omitted will be lost.
+     * Stores the given mixed products of the given modes in the cache of
+     * mixed products.
      * 
-     * @param   rowKeys  the new order of the row names
+     * @param   products        the mixed products of the given modes
+     * @param   firstIndices    the indices of the modes of this matrix
+     * @param   lastIndices     the indices of the modes of the other matrix
      **************************************************************************/
-    @Override
-    public void sortRows(KeyList rowKeys) {
-        String[]    rowNames;
-        double[]    modeFrequencies;
-        double[]    values;
-        int         nRows               = 0;
-        int         iRow;
-        int         nRow;
-        
-        for (String row : rowKeys.values()) {
-            if (Arrays.asList(rowNames_).contains(row)) {
-                nRows++;
-            }
-        }
+    protected void storeMixedProducts(double[] products, int[] firstIndices,
+            int[] lastIndices) {
+        int nLastModes  = mixedColumns_.length;
+        int iRow;
         
-        rowNames        = new String[nRows];
-        modeFrequencies = new double[nRows];
-        values          = new double[nRows * nColumns_];
-        nRows           = 0;
-        
-        for (String rowKey : rowKeys.values()) {
-            for (int i = 0; i < nRows_; i++) {
-                if (rowKey.equals(rowNames_[i])) {
-                    rowNames[nRows]         = rowNames_[i];
-                    modeFrequencies[nRows]  = modeFrequencies_[i];
-                    iRow                    = i * nColumns_;
-                    nRow                    = nRows * nColumns_;
-                    System.arraycopy(values_, iRow, values, nRow, nColumns_);
-                    nRows++;
-                }
+        for (int i = 0; i < firstIndices.length; i++) {
+            iRow = firstIndices[i] * nLastModes;
+            
+            for (int j = 0; j < lastIndices.length; j++) {
+                mixedProducts_[iRow + lastIndices[j]] =
+                        products[(i * lastIndices.length) + j];
             }
         }
-        
-        rowNames_           = rowNames;
-        modeFrequencies_    = modeFrequencies;
-        nRows_              = nRows;
-        values_             = values;
     } // eom
     
     
@@ -929,6 +1561,7 @@ public class ModeMatrix extends RectangularMatrix {
         rowName                 = rowNames_[firstIndex];
         rowNames_[firstIndex]   = rowNames_[lastIndex];
         rowNames_[lastIndex]    = rowName;
+        this.clearRowIndex();
         
         modeFrequency                   = modeFrequencies_[firstIndex];
         modeFrequencies_[firstIndex]    = modeFrequencies_[lastIndex];
@@ -940,5 +1573,72 @@ public class ModeMatrix extends RectangularMatrix {
         System.arraycopy(values_, firstIndex, row, 0, nColumns_);
         System.arraycopy(values_, lastIndex, values_, firstIndex, nColumns_);
         System.arraycopy(row, 0, values_, lastIndex, nColumns_);
+        
+        this.clearCachedProducts();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Computes the cached mixed products which are missing for the given
+     * modes.  The modes of this matrix which were not selected before are
+     * multiplied by all selected modes of the given matrix, while the modes
+     * of this matrix which were selected before are only multiplied by the
+     * newly selected modes of the given matrix.
+     * 
+     * @param   masses          the {@code MassMatrix} to be applied to the
+     *                          modes, or {@code null} if the modes are not
+     *                          weighted
+     * @param   modes           the {@code ModeMatrix} that will be correlated
+     *                          to this {@code ModeMatrix}
+     * @param   firstIndices    the indices of the modes of this matrix
+     * @param   firstNodeKeys   the order of the nodes of this matrix
+     * @param   lastIndices     the indices of the modes of the given matrix
+     * @param   lastNodeKeys    the order of the nodes of the given matrix
+     **************************************************************************/
+    protected void updateMixedProducts(MassMatrix masses, ModeMatrix modes,
+            int[] firstIndices, KeyList firstNodeKeys, int[] lastIndices,
+            KeyList lastNodeKeys) {
+        boolean[]   newRows         = new boolean[nRows_];
+        boolean[]   newColumns      = new boolean[modes.nRows_];
+        boolean[]   columns         = new boolean[modes.nRows_];
+        int[]       oldRowIndices   = this.getMarkedIndices(mixedRows_);
+        int[]       newRowIndices;
+        int[]       newColumnIndices;
+        int[]       columnIndices;
+        
+        for (int i = 0; i < firstIndices.length; i++) {
+            newRows[firstIndices[i]] = !mixedRows_[firstIndices[i]];
+        }
+        
+        for (int j = 0; j < lastIndices.length; j++) {
+            newColumns[lastIndices[j]] = !mixedColumns_[lastIndices[j]];
+        }
+        
+        for (int j = 0; j < columns.length; j++) {
+            columns[j] = mixedColumns_[j] || newColumns[j];
+        }
+        
+        newRowIndices       = this.getMarkedIndices(newRows);
+        newColumnIndices    = this.getMarkedIndices(newColumns);
+        columnIndices       = this.getMarkedIndices(columns);
+        
+        if (newRowIndices.length > 0 && columnIndices.length > 0) {
+            this.storeMixedProducts(this.multiplyModes(masses, modes,
+                    newRowIndices, firstNodeKeys, columnIndices,
+                    lastNodeKeys), newRowIndices, columnIndices);
+        }
+        
+        if (oldRowIndices.length > 0 && newColumnIndices.length > 0) {
+            this.storeMixedProducts(this.multiplyModes(masses, modes,
+                    oldRowIndices, firstNodeKeys, newColumnIndices,
+                    lastNodeKeys), oldRowIndices, newColumnIndices);
+        }
+        
+        for (int i = 0; i < newRowIndices.length; i++) {
+            mixedRows_[newRowIndices[i]] = true;
+        }
+        
+        mixedColumns_ = columns;
     } // eom
 } // eoc
\ No newline at end of file
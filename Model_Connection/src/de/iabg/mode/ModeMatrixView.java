@@ -0,0 +1,824 @@
+/*******************************************************************************
+ * Student:             Adam C. Dick, BSE
+ * Master's Thesis:     Validating and Updating Structural FE Models
+ *                      for Dynamic Analysis
+ * 
+ * Industry Partner:    Industrieanlagen-Betriebsgesellschaft mbH in Ottobrunn
+ * Supervisor:          Dr.-Ing. Manfred Kroiss
+ * 
+ * Academic Partner:    Technische Universitaet Muenchen
+ * Supervisor:          Dr.-Ing. Martin Ruess
+ ******************************************************************************/
+package de.iabg.mode;
+
+import de.iabg.math.MatrixMultiplier;
+
+import de.iabg.swing.KeyList;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/*******************************************************************************
+ * This class is a read-only view of a subset of the modes and nodes of a
+ * {@link ModeMatrix}, in the order of the given mode names and node names.
+ * The view does not copy the mode shapes, but maps its own mode and node
+ * indices to those of the underlying matrix.  Thus, a reduced matrix is
+ * neither copied in full nor sorted before it is correlated.
+ * 
+ * The translations of single modes and nodes are read through the index maps.
+ * For a correlation, the selected values are gathered once into a packed
+ * {@code ModeMatrix} by {@link #createModes()}.  The consecutive columns of
+ * the underlying matrix, such as the x, y, and z translations of a node, are
+ * gathered in runs with {@link System#arraycopy}.  The packed matrix stores
+ * its values in the same precision as the underlying matrix.
+ * 
+ * Two views can also be correlated directly by the dot product, without
+ * gathering the packed matrices.  The selected nodes are then visited in
+ * tiles of {@link #getTileNodeCount()} nodes, whose values of the selected
+ * modes are gathered and whose partial products are summed into the
+ * correlation.  The products of each mode with itself, which normalize the
+ * Modal Assurance Criterion, are summed over the same tiles.  Thus, the
+ * memory of the correlation is bounded by the size of a tile instead of the
+ * size of the mode shape matrices, which is needed for a blocked matrix such
+ * as a {@link MappedModeMatrix}.
+ * 
+ * The dot products may also be restricted to the pairs of modes whose
+ * frequencies lie within a given ratio of each other, which are the only
+ * pairs that a frequency-based pairing of modes considers.  The modes of both
+ * views are then swept in order of their frequencies, so that each band of
+ * modes of this view is only multiplied by the window of modes of the other
+ * view whose frequencies may match, and the products of all other pairs are
+ * left at zero.
+ * 
+ * The view reads the current values of the underlying matrix, but its index
+ * maps are resolved when it is constructed.  A view should therefore not be
+ * kept after the modes or nodes of the underlying matrix have been changed.
+ * 
+ * @author  Adam C. Dick, BSE
+ * @version November 24, 2008
+ ******************************************************************************/
+public class ModeMatrixView {
+    /** The columns of the underlying matrix in the order of this view */
+    protected int[] columnIndices_;
+    
+    /** The default number of nodes of each tile of a tiled correlation */
+    public static final int DEFAULT_TILE_NODE_COUNT = 1024;
+    
+    /** The number of modes of each band of a frequency-restricted product */
+    protected static final int FREQUENCY_BAND_MODE_COUNT = 16;
+    
+    /** The number of modes of each block of mass-weighted row products */
+    protected static final int MASS_BLOCK_MODE_COUNT = 16;
+    
+    /** The rows of the underlying matrix in the order of this view */
+    protected int[] modeIndices_;
+    
+    /** The underlying mode shape matrix */
+    protected ModeMatrix modes_;
+    
+    /** The number of runs of consecutive columns */
+    protected int nRuns_;
+    
+    /** The number of nodes of each tile of a tiled correlation */
+    protected int nTileNodes_;
+    
+    /** The length of each run of consecutive columns */
+    protected int[] runLengths_;
+    
+    /** The first column of each run in the underlying matrix */
+    protected int[] runSources_;
+    
+    /** The first column of each run in this view */
+    protected int[] runTargets_;
+    
+    
+    
+    /***************************************************************************
+     * Constructs a view of all modes and the given nodes of the given
+     * {@code ModeMatrix}.  The modes keep their order.
+     * 
+     * @param   modes       the underlying mode shape matrix
+     * @param   nodeKeys    the order of the nodes of this view
+     **************************************************************************/
+    public ModeMatrixView(ModeMatrix modes, KeyList nodeKeys) {
+        this(modes, null, nodeKeys);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Constructs a view of the given modes and nodes of the given
+     * {@code ModeMatrix}.  The modes and nodes are selected in the same way as
+     * by {@link ModeMatrix#sortModes(de.iabg.swing.KeyList)} and
+     * {@link ModeMatrix#sortNodes(de.iabg.swing.KeyList)}.
+     * 
+     * @param   modes       the underlying mode shape matrix
+     * @param   modeKeys    the order of the modes of this view, or
+     *                      {@code null} for all modes
+     * @param   nodeKeys    the order of the nodes of this view
+     **************************************************************************/
+    public ModeMatrixView(ModeMatrix modes, KeyList modeKeys,
+            KeyList nodeKeys) {
+        super();
+        
+        modes_          = modes;
+        columnIndices_  = modes.getColumnIndicesOf(nodeKeys);
+        nTileNodes_     = DEFAULT_TILE_NODE_COUNT;
+        
+        if (modeKeys == null) {
+            modeIndices_ = new int[modes.getModeCount()];
+            
+            for (int i = 0; i < modeIndices_.length; i++) {
+                modeIndices_[i] = i;
+            }
+        }
+        else {
+            modeIndices_ = modes.getRowIndicesOf(modeKeys);
+        }
+        
+        this.createRuns();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Constructs a view of the given modes of the underlying matrix of the
+     * given {@code ModeMatrixView}.  The nodes and the tile size are the same
+     * as those of the given view.
+     * 
+     * @param   view        the view whose nodes are selected
+     * @param   modeIndices the rows of the underlying matrix in the order of
+     *                      this view
+     **************************************************************************/
+    protected ModeMatrixView(ModeMatrixView view, int[] modeIndices) {
+        super();
+        
+        modes_          = view.modes_;
+        columnIndices_  = view.columnIndices_;
+        nTileNodes_     = view.nTileNodes_;
+        modeIndices_    = modeIndices;
+        nRuns_          = view.nRuns_;
+        runLengths_     = view.runLengths_;
+        runSources_     = view.runSources_;
+        runTargets_     = view.runTargets_;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Computes a matrix of the dot products of each mode in this view and the
+     * given view, tile by tile.  The modes of this view are the rows of the
+     * returned {@link ModeCorrelationMatrix}, while the modes of the given
+     * view are the columns.
+     * 
+     * @param   view    the {@code ModeMatrixView} that will be correlated to
+     *                  this view
+     * @return  the matrix of the dot product correlation
+     **************************************************************************/
+    public ModeCorrelationMatrix computeDotProduct(ModeMatrixView view) {
+        ModeCorrelationMatrix correlation = this.createCorrelation(view);
+        
+        this.multiplyTiles(view, correlation.values());
+        
+        return correlation;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Computes a matrix of the dot products of the pairs of modes in this view
+     * and the given view whose frequencies lie within the given ratio of each
+     * other.  The dot products of all other pairs are zero.  The modes of both
+     * views are swept in order of their frequencies, and each band of modes
+     * of this view is multiplied by the window of modes of the given view
+     * whose frequencies may lie within the ratio of the band.
+     * 
+     * @param   view            the {@code ModeMatrixView} that will be
+     *                          correlated to this view
+     * @param   frequencyRatio  the largest ratio of the higher to the lower
+     *                          frequency of a pair of modes
+     * @return  the matrix of the dot product correlation
+     * @throws  IllegalArgumentException    if the ratio is less than one
+     **************************************************************************/
+    public ModeCorrelationMatrix computeDotProduct(ModeMatrixView view,
+            double frequencyRatio) {
+        ModeCorrelationMatrix   correlation;
+        double[]                products;
+        double[]                bandProducts;
+        int[]                   firstOrder      = this.getFrequencyOrder();
+        int[]                   lastOrder       = view.getFrequencyOrder();
+        int[]                   firstIndices;
+        int[]                   lastIndices;
+        int                     nFirstModes     = modeIndices_.length;
+        int                     nLastModes      = view.modeIndices_.length;
+        int                     lowIndex        = 0;
+        int                     highIndex       = 0;
+        int                     nBandModes;
+        int                     nWindowModes;
+        double                  firstFrequency;
+        double                  lastFrequency;
+        
+        if (!(frequencyRatio >= 1.0)) {
+            throw new IllegalArgumentException(String.format(
+                    "%g is not a valid frequency ratio", frequencyRatio));
+        }
+        
+        correlation = this.createCorrelation(view);
+        products    = correlation.values();
+        
+        for (int i = 0; i < nFirstModes; i += FREQUENCY_BAND_MODE_COUNT) {
+            nBandModes = Math.min(FREQUENCY_BAND_MODE_COUNT, nFirstModes - i);
+            
+            while (lowIndex < nLastModes && view.getModeFrequencyAt(
+                    lastOrder[lowIndex]) * frequencyRatio <
+                    this.getModeFrequencyAt(firstOrder[i])) {
+                lowIndex++;
+            }
+            
+            highIndex = Math.max(highIndex, lowIndex);
+            
+            while (highIndex < nLastModes && view.getModeFrequencyAt(
+                    lastOrder[highIndex]) <= this.getModeFrequencyAt(
+                    firstOrder[i + nBandModes - 1]) * frequencyRatio) {
+                highIndex++;
+            }
+            
+            nWindowModes = highIndex - lowIndex;
+            
+            if (nWindowModes == 0) {
+                continue;
+            }
+            
+            firstIndices    = new int[nBandModes];
+            lastIndices     = new int[nWindowModes];
+            
+            for (int k = 0; k < nBandModes; k++) {
+                firstIndices[k] = modeIndices_[firstOrder[i + k]];
+            }
+            
+            for (int k = 0; k < nWindowModes; k++) {
+                lastIndices[k] = view.modeIndices_[lastOrder[lowIndex + k]];
+            }
+            
+            bandProducts = new ModeMatrixView(this, firstIndices).multiplyModes(
+                    new ModeMatrixView(view, lastIndices));
+            
+            for (int k = 0; k < nBandModes; k++) {
+                firstFrequency = this.getModeFrequencyAt(firstOrder[i + k]);
+                
+                for (int l = 0; l < nWindowModes; l++) {
+                    lastFrequency = view.getModeFrequencyAt(
+                            lastOrder[lowIndex + l]);
+                    
+                    if (lastFrequency <= firstFrequency * frequencyRatio &&
+                            firstFrequency <= lastFrequency * frequencyRatio) {
+                        products[(firstOrder[i + k] * nLastModes) +
+                                lastOrder[lowIndex + l]] =
+                                bandProducts[(k * nWindowModes) + l];
+                    }
+                }
+            }
+        }
+        
+        return correlation;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Computes the product of each mode of this view with itself.  If a
+     * {@link MassMatrix} is given, each mode is first weighted by the mass
+     * matrix, which should have the same node ordering as this view.  The
+     * unweighted products are summed tile by tile, so that only one tile of
+     * nodes of the selected modes is gathered at once.  Since a mass matrix
+     * couples the nodes of a mode, the weighted products are instead computed
+     * for {@link #MASS_BLOCK_MODE_COUNT} modes at a time, each of which is
+     * gathered over all nodes of this view.
+     * 
+     * @param   masses  the {@code MassMatrix} to be applied to the modes, or
+     *                  {@code null} if the modes are not weighted
+     * @return  the product of each mode of this view with itself
+     **************************************************************************/
+    public double[] computeRowProducts(MassMatrix masses) {
+        MatrixMultiplier    multiplier      = modes_.getMultiplier();
+        int                 nModes          = modeIndices_.length;
+        int                 nTileColumns    =
+                nTileNodes_ * ModeMatrix.N_COMPONENTS;
+        double[]            products        = new double[nModes];
+        double[]            values;
+        double[]            blockProducts;
+        int[]               blockIndices;
+        int                 nBlockModes;
+        int                 nColumns;
+        
+        if (masses != null) {
+            for (int i = 0; i < nModes; i += MASS_BLOCK_MODE_COUNT) {
+                nBlockModes     = Math.min(MASS_BLOCK_MODE_COUNT, nModes - i);
+                blockIndices    = new int[nBlockModes];
+                
+                System.arraycopy(modeIndices_, i, blockIndices, 0,
+                        nBlockModes);
+                
+                blockProducts = new ModeMatrixView(this, blockIndices).
+                        createModes().computeRowProducts(masses);
+                System.arraycopy(blockProducts, 0, products, i, nBlockModes);
+            }
+            
+            return products;
+        }
+        
+        values = new double[nModes * nTileColumns];
+        
+        for (int j = 0; j < columnIndices_.length; j += nTileColumns) {
+            nColumns = Math.min(nTileColumns, columnIndices_.length - j);
+            
+            this.copyTileTo(j, nColumns, values);
+            
+            blockProducts = multiplier.computeRowProducts(values, values,
+                    nModes, nColumns);
+            
+            for (int i = 0; i < nModes; i++) {
+                products[i] += blockProducts[i];
+            }
+        }
+        
+        return products;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Gathers the given consecutive columns of this view for all modes of this
+     * view into the given array.  The values of each mode are stored as one
+     * row of the given number of columns.
+     * 
+     * @param   firstColumn the index of the first column of this view
+     * @param   nColumns    the number of columns
+     * @param   values      the array into which the values are gathered
+     **************************************************************************/
+    protected void copyTileTo(int firstColumn, int nColumns, double[] values) {
+        int firstRun    = this.getRunIndex(firstColumn);
+        int lastColumn  = firstColumn + nColumns;
+        int start;
+        int end;
+        
+        for (int i = 0; i < modeIndices_.length; i++) {
+            for (int k = firstRun; k < nRuns_ && runTargets_[k] < lastColumn;
+                    k++) {
+                start   = Math.max(runTargets_[k], firstColumn);
+                end     = Math.min(runTargets_[k] + runLengths_[k],
+                        lastColumn);
+                
+                modes_.copyRowValuesTo(modeIndices_[i],
+                        runSources_[k] + (start - runTargets_[k]), values,
+                        (i * nColumns) + (start - firstColumn), end - start);
+            }
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Creates an empty {@link ModeCorrelationMatrix} whose rows are the modes
+     * of this view and whose columns are the modes of the given view.  The
+     * names and frequencies of the modes are copied to the correlation.
+     * 
+     * @param   view    the {@code ModeMatrixView} that will be correlated to
+     *                  this view
+     * @return  the empty correlation of both views
+     * @throws  IllegalArgumentException    if the views have a different
+     *                                      number of nodes
+     **************************************************************************/
+    protected ModeCorrelationMatrix createCorrelation(ModeMatrixView view) {
+        ModeCorrelationMatrix   correlation;
+        int                     nFirstModes     = this.getModeCount();
+        int                     nLastModes      = view.getModeCount();
+        
+        if (columnIndices_.length != view.columnIndices_.length) {
+            throw new IllegalArgumentException(String.format(
+                    "%d nodes cannot be correlated with %d nodes",
+                    this.getNodeCount(), view.getNodeCount()));
+        }
+        
+        correlation = new ModeCorrelationMatrix(nFirstModes, nLastModes);
+        
+        for (int i = 0; i < nFirstModes; i++) {
+            if (this.getModeNameAt(i) != null) {
+                correlation.setFirstModeNameAt(this.getModeNameAt(i), i);
+            }
+            
+            correlation.setFirstModeFrequencyAt(this.getModeFrequencyAt(i), i);
+        }
+        
+        for (int i = 0; i < nLastModes; i++) {
+            if (view.getModeNameAt(i) != null) {
+                correlation.setLastModeNameAt(view.getModeNameAt(i), i);
+            }
+            
+            correlation.setLastModeFrequencyAt(view.getModeFrequencyAt(i), i);
+        }
+        
+        return correlation;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Gathers the selected modes and nodes into a new {@code ModeMatrix}.  The
+     * returned matrix has the names and frequencies of the selected modes,
+     * stores its values on the heap in the same precision as the underlying
+     * matrix, and shares the multiplier of the underlying matrix.  If the
+     * underlying matrix is stored in more than one block of rows, the modes
+     * are gathered one row at a time.
+     * 
+     * @return  the packed mode shapes of this view
+     **************************************************************************/
+    public ModeMatrix createModes() {
+        ModeMatrix  packedModes;
+        Object      values;
+        Object      packedValues;
+        boolean     isRowSource     = false;
+        int         nModes          = modes_.getModeCount();
+        int         nPackedModes    = modeIndices_.length;
+        int         nColumns        = modes_.getColumnCount();
+        int         nPackedColumns  = columnIndices_.length;
+        int         modeIndex;
+        int         iRow;
+        int         nRow;
+        
+        packedModes = modes_.createModes(nPackedModes,
+                nPackedColumns / ModeMatrix.N_COMPONENTS);
+        
+        if (modes_.isSinglePrecision()) {
+            values          = modes_.floatValues();
+            packedValues    = packedModes.floatValues();
+        }
+        else {
+            isRowSource     = modes_.isBlocked();
+            packedValues    = packedModes.getRowBlock(0, nPackedModes, null);
+            
+            if (isRowSource) {
+                values = new double[nColumns];
+            }
+            else {
+                values = modes_.getRowBlock(0, nModes, null);
+            }
+        }
+        
+        for (int i = 0; i < nPackedModes; i++) {
+            modeIndex   = modeIndices_[i];
+            iRow        = modeIndex * nColumns;
+            nRow        = i * nPackedColumns;
+            
+            if (modes_.getModeNameAt(modeIndex) != null) {
+                packedModes.setModeNameAt(modes_.getModeNameAt(modeIndex), i);
+            }
+            
+            packedModes.setModeFrequencyAt(
+                    modes_.getModeFrequencyAt(modeIndex), i);
+            
+            if (isRowSource) {
+                values  = modes_.getRowBlock(modeIndex, 1, (double[]) values);
+                iRow    = 0;
+            }
+            
+            for (int k = 0; k < nRuns_; k++) {
+                System.arraycopy(values, iRow + runSources_[k], packedValues,
+                        nRow + runTargets_[k], runLengths_[k]);
+            }
+        }
+        
+        if (!modes_.isSinglePrecision()) {
+            packedModes.setRowBlock(0, nPackedModes, (double[]) packedValues);
+        }
+        
+        for (int j = 0; j < nPackedColumns; j++) {
+            if (modes_.getColumnNameAt(columnIndices_[j]) != null) {
+                packedModes.setColumnNameAt(
+                        modes_.getColumnNameAt(columnIndices_[j]), j);
+            }
+        }
+        
+        return packedModes;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Resolves the column indices of this view into runs of consecutive
+     * columns of the underlying matrix.
+     **************************************************************************/
+    protected void createRuns() {
+        int nColumns = columnIndices_.length;
+        
+        runSources_ = new int[nColumns];
+        runTargets_ = new int[nColumns];
+        runLengths_ = new int[nColumns];
+        nRuns_      = 0;
+        
+        for (int j = 0; j < nColumns; j++) {
+            if (nRuns_ > 0 && columnIndices_[j] == runSources_[nRuns_ - 1] +
+                    runLengths_[nRuns_ - 1]) {
+                runLengths_[nRuns_ - 1]++;
+            }
+            else {
+                runSources_[nRuns_] = columnIndices_[j];
+                runTargets_[nRuns_] = j;
+                runLengths_[nRuns_] = 1;
+                nRuns_++;
+            }
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the modes of this view in ascending order of their frequencies.
+     * 
+     * @return  the indices of the modes of this view, sorted by frequency
+     **************************************************************************/
+    protected int[] getFrequencyOrder() {
+        Integer[]   order       = new Integer[modeIndices_.length];
+        int[]       indices     = new int[modeIndices_.length];
+        
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(Integer firstIndex, Integer lastIndex) {
+                return Double.compare(getModeFrequencyAt(firstIndex),
+                        getModeFrequencyAt(lastIndex));
+            } // eom
+        });
+        
+        for (int i = 0; i < order.length; i++) {
+            indices[i] = order[i];
+        }
+        
+        return indices;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the number of modes in this view.
+     * 
+     * @return  the number of modes
+     **************************************************************************/
+    public int getModeCount() {
+        return modeIndices_.length;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the frequency of the mode at the given index of this view.
+     * 
+     * @param   modeIndex   the index of the mode
+     * @return  the frequency of the mode
+     **************************************************************************/
+    public double getModeFrequencyAt(int modeIndex) {
+        return modes_.getModeFrequencyAt(modeIndices_[modeIndex]);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the name of the mode at the given index of this view.
+     * 
+     * @param   modeIndex   the index of the mode
+     * @return  the name of the mode
+     **************************************************************************/
+    public String getModeNameAt(int modeIndex) {
+        return modes_.getModeNameAt(modeIndices_[modeIndex]);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the underlying {@code ModeMatrix} of this view.
+     * 
+     * @return  the underlying mode shape matrix
+     **************************************************************************/
+    public ModeMatrix getModes() {
+        return modes_;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the number of nodes in this view.
+     * 
+     * @return  the number of nodes
+     **************************************************************************/
+    public int getNodeCount() {
+        return columnIndices_.length / ModeMatrix.N_COMPONENTS;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the name of the node at the given index of this view.
+     * 
+     * @param   nodeIndex   the index of the node
+     * @return  the name of the node
+     **************************************************************************/
+    public String getNodeNameAt(int nodeIndex) {
+        return modes_.getColumnNameAt(
+                columnIndices_[nodeIndex * ModeMatrix.N_COMPONENTS]);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the index of the run of consecutive columns which contains the
+     * given column of this view.
+     * 
+     * @param   columnIndex the index of the column of this view
+     * @return  the index of the run containing the column
+     **************************************************************************/
+    protected int getRunIndex(int columnIndex) {
+        int low     = 0;
+        int high    = nRuns_ - 1;
+        int middle;
+        
+        while (low < high) {
+            middle = (low + high + 1) >>> 1;
+            
+            if (runTargets_[middle] <= columnIndex) {
+                low = middle;
+            }
+            else {
+                high = middle - 1;
+            }
+        }
+        
+        return low;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the number of nodes of each tile of a tiled correlation.
+     * 
+     * @return  the number of nodes of each tile
+     **************************************************************************/
+    public int getTileNodeCount() {
+        return nTileNodes_;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the value of the underlying matrix at the given mode index and
+     * column index of this view.
+     * 
+     * @param   modeIndex   the index of the mode
+     * @param   columnIndex the index of the column
+     * @return  the value at the given indices
+     **************************************************************************/
+    protected double getValueAt(int modeIndex, int columnIndex) {
+        return modes_.getValueAt(modeIndices_[modeIndex],
+                columnIndices_[columnIndex]);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the x-translation at the given mode and node indices of this
+     * view.
+     * 
+     * @param   modeIndex   the index of the mode
+     * @param   nodeIndex   the index of the node
+     * @return  the x-translation at the given mode and node indices
+     **************************************************************************/
+    public double getXTranslationAt(int modeIndex, int nodeIndex) {
+        return this.getValueAt(modeIndex,
+                (nodeIndex * ModeMatrix.N_COMPONENTS) + ModeMatrix.X_INDEX);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the y-translation at the given mode and node indices of this
+     * view.
+     * 
+     * @param   modeIndex   the index of the mode
+     * @param   nodeIndex   the index of the node
+     * @return  the y-translation at the given mode and node indices
+     **************************************************************************/
+    public double getYTranslationAt(int modeIndex, int nodeIndex) {
+        return this.getValueAt(modeIndex,
+                (nodeIndex * ModeMatrix.N_COMPONENTS) + ModeMatrix.Y_INDEX);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the z-translation at the given mode and node indices of this
+     * view.
+     * 
+     * @param   modeIndex   the index of the mode
+     * @param   nodeIndex   the index of the node
+     * @return  the z-translation at the given mode and node indices
+     **************************************************************************/
+    public double getZTranslationAt(int modeIndex, int nodeIndex) {
+        return this.getValueAt(modeIndex,
+                (nodeIndex * ModeMatrix.N_COMPONENTS) + ModeMatrix.Z_INDEX);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Computes the dot products of the modes of this view and the given view.
+     * If either underlying matrix is blocked, the views are multiplied tile
+     * by tile, and otherwise the packed modes of both views are multiplied.
+     * 
+     * @param   view    the {@code ModeMatrixView} that will be correlated to
+     *                  this view
+     * @return  the dot products in the order of the modes of both views
+     **************************************************************************/
+    protected double[] multiplyModes(ModeMatrixView view) {
+        if (modes_.isBlocked() || view.modes_.isBlocked()) {
+            return this.computeDotProduct(view).values();
+        }
+        else {
+            return this.createModes().computeDotProduct(view.createModes()).
+                    values();
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Multiplies the modes of this view by the transpose of the modes of the
+     * given view, one tile of nodes at a time, and stores the mixed products
+     * in the given array.  The values of a tile are gathered for the modes of
+     * both views and the partial products of the tile are added to the
+     * products, so that only one tile of each view is held at once.
+     * 
+     * @param   view        the {@code ModeMatrixView} that will be correlated
+     *                      to this view
+     * @param   products    the array in which the mixed products are stored
+     **************************************************************************/
+    protected void multiplyTiles(ModeMatrixView view, double[] products) {
+        MatrixMultiplier    multiplier      = modes_.getMultiplier();
+        int                 nFirstModes     = modeIndices_.length;
+        int                 nLastModes      = view.modeIndices_.length;
+        int                 nTileColumns    =
+                nTileNodes_ * ModeMatrix.N_COMPONENTS;
+        double[]            firstValues     =
+                new double[nFirstModes * nTileColumns];
+        double[]            lastValues      =
+                new double[nLastModes * nTileColumns];
+        double[]            tileProducts    =
+                new double[nFirstModes * nLastModes];
+        int                 nColumns;
+        
+        for (int j = 0; j < columnIndices_.length; j += nTileColumns) {
+            nColumns = Math.min(nTileColumns, columnIndices_.length - j);
+            
+            this.copyTileTo(j, nColumns, firstValues);
+            view.copyTileTo(j, nColumns, lastValues);
+            
+            multiplier.multiplyTransposed(firstValues, nFirstModes,
+                    lastValues, nLastModes, nColumns, tileProducts);
+            
+            for (int k = 0; k < tileProducts.length; k++) {
+                products[k] += tileProducts[k];
+            }
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Selects the modes of this view by their indices in the underlying
+     * matrix.
+     * 
+     * @param   modeIndices the rows of the underlying matrix in the order of
+     *                      this view
+     **************************************************************************/
+    protected void setModeIndices(int[] modeIndices) {
+        modeIndices_ = modeIndices;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Sets the number of nodes of each tile of a tiled correlation.  Larger
+     * tiles need more memory, but gather longer runs of each mode.
+     * 
+     * @param   nTileNodes  the number of nodes of each tile
+     * @throws  IllegalArgumentException    if the number is not positive
+     **************************************************************************/
+    public void setTileNodeCount(int nTileNodes) {
+        if (nTileNodes <= 0) {
+            throw new IllegalArgumentException(String.format(
+                    "%d nodes cannot form a tile", nTileNodes));
+        }
+        
+        nTileNodes_ = nTileNodes;
+    } // eom
+} // eoc
\ No newline at end of file
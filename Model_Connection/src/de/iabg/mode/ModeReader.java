@@ -16,9 +16,11 @@ import java.io.IOException;
 /*******************************************************************************
  * This interface declares basic functionality for parsing a file containing
  * mode shape data.  In general, the user should call {@link #readFile()} so
- * that the parser reads and internally stores the data of the file.  The data
- * can then be safely parsed and extracted without having to stream file data
- * multiple times.
+ * that the parser reads the file, and then {@link #importModes(ModeMatrix)}
+ * to fill a {@link ModeMatrix} with its modes.  A parser may either store the
+ * data of the file when it is read, or only the number of modes and nodes and
+ * then stream the mode shapes into the given matrix when they are imported,
+ * so that a large file is never held on the heap.
  * 
  * @author  Adam C. Dick, BSE
  * @version September 11, 2008
@@ -29,18 +31,21 @@ public interface ModeReader {
     
     /***************************************************************************
      * Clears the given modes and replaces them with the data parsed from the
-     * internally stored file.  This method should be called after
-     * {@link #readFile()}, otherwise no data will be saved.
+     * file.  This method should be called after {@link #readFile()},
+     * otherwise no data will be saved.
      * 
-     * @param   modes   the {@link ModeMatrix} where the data will be stored
+     * @param   modes               the {@link ModeMatrix} where the data will
+     *                              be stored
+     * @throws  java.io.IOException if the file could not be read again
      **************************************************************************/
-    public void importModes(ModeMatrix modes);
+    public void importModes(ModeMatrix modes)
+            throws IOException;
     
     
     
     /***************************************************************************
-     * Internally saves the data from the file for later use.  The format of the
-     * lines may be altered as required to more easily parse the file.
+     * Reads the file, so that its modes can be imported.  The data or the
+     * layout of the file is saved internally for later use.
      * 
      * @throws  java.io.IOException if the file could not be read
      **************************************************************************/
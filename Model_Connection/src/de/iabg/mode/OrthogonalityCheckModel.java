@@ -32,6 +32,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 
 import java.util.Arrays;
+import java.util.HashSet;
 
 import javax.media.j3d.BranchGroup;
 
@@ -472,7 +473,9 @@ public class OrthogonalityCheckModel
             throws  FileNotFoundException,
                     IOException {
         MaterialReader  materialReader;
+        String          structure;
         long            time;
+        int             i;
         
         massFile_ = new File(fileName.trim());
         massMatrices_.clear();
@@ -486,6 +489,24 @@ public class OrthogonalityCheckModel
         time = (System.currentTimeMillis() - time) / 1000L;
         this.fireLogChanged("Read: " + massMatrices_.size() +
                 " mass matrices (total time: " + time + " seconds)");
+        
+        i = 0;
+        for (MassMatrix masses : massMatrices_.values()) {
+            switch (masses.getStructure()) {
+                case MassMatrix.DIAGONAL_STRUCTURE:
+                    structure = "diagonal (lumped)";
+                    break;
+                case MassMatrix.BLOCK_DIAGONAL_STRUCTURE:
+                    structure = "3x3 node-block-diagonal";
+                    break;
+                default:
+                    structure = "general";
+            }
+            
+            this.fireLogChanged("Detected: " + structure + " mass matrix " +
+                    massMatrices_.getElementAt(i++) + " with " +
+                    masses.getNodeCount() + " nodes");
+        }
     } // eom
     
     
@@ -496,8 +517,8 @@ public class OrthogonalityCheckModel
         boolean     isConsistent    = false;
         KeyList     firstNodeKeys;
         KeyList     lastNodeKeys;
-        String[]    firstNodeNames;
-        String[]    lastNodeNames;
+        ModeMatrix  firstModes;
+        ModeMatrix  lastModes;
         String[]    massNodeNames;
         int         nComponents     = 3;
         
@@ -505,14 +526,13 @@ public class OrthogonalityCheckModel
                 getFirstNodeKeys();
         lastNodeKeys    = meshConnectionPanel_.getNodeConnections().
                 getLastNodeKeys();
-        firstNodeNames  = firstModePanel_.getModes().getNodeNames();
-        lastNodeNames   = lastModePanel_.getModes().getNodeNames();
+        firstModes      = firstModePanel_.getModes();
+        lastModes       = lastModePanel_.getModes();
         massNodeNames   = massMatrices_.getSelectedMatrix().getNodeNames();
         
-        if (Arrays.asList(firstNodeNames).containsAll(firstNodeKeys.values())) {
-            if (Arrays.asList(lastNodeNames).containsAll(
-                    lastNodeKeys.values())) {
-                if (firstNodeKeys.values().containsAll(
+        if (firstModes.containsAllColumns(firstNodeKeys.values())) {
+            if (lastModes.containsAllColumns(lastNodeKeys.values())) {
+                if (new HashSet<String>(firstNodeKeys.values()).containsAll(
                         Arrays.asList(massNodeNames))) {
                     if (firstNodeKeys.size() ==
                             massNodeNames.length / nComponents) {
@@ -593,6 +613,17 @@ public class OrthogonalityCheckModel
     
     
     
+    /***************************************************************************
+     * Ignores the given frequency ratio, since the Orthogonality Check always
+     * correlates all pairs of modes.
+     * 
+     * @param   frequencyRatio  the new frequency ratio, which is ignored
+     **************************************************************************/
+    public void setFrequencyRatio(double frequencyRatio) {
+    } // eom
+    
+    
+    
     /***************************************************************************
      **************************************************************************/
     public void setLowerTolerance(double lowerTolerance) {
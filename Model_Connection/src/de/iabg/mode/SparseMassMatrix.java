@@ -0,0 +1,331 @@
+/*******************************************************************************
+ * Student:             Adam C. Dick, BSE
+ * Master's Thesis:     Validating and Updating Structural FE Models
+ *                      for Dynamic Analysis
+ * 
+ * Industry Partner:    Industrieanlagen-Betriebsgesellschaft mbH in Ottobrunn
+ * Supervisor:          Dr.-Ing. Manfred Kroiss
+ * 
+ * Academic Partner:    Technische Universitaet Muenchen
+ * Supervisor:          Dr.-Ing. Martin Ruess
+ ******************************************************************************/
+package de.iabg.mode;
+
+import de.iabg.math.MatrixMultiplier;
+
+/*******************************************************************************
+ * This {@link MassMatrix} stores only the nonzero mass influences of a sparse
+ * mass matrix, such as a test-analysis mass matrix read from DMIG entries.  The
+ * lower triangle is stored in compressed rows, in which each row holds the
+ * column indices and values of its stored mass influences in ascending order
+ * of the column indices.  Thus, the memory and the operations of a product
+ * with the modes grow with the number of nonzero mass influences instead of
+ * the square of the number of nodes.
+ * 
+ * The mass influences may be set in any order.  A value which is set in order
+ * of ascending columns of its row is appended, while any other value is
+ * inserted.  Setting a mass influence which is not stored to zero does not
+ * store it.
+ * 
+ * The packed triangular array of {@code SymmetricMatrix} is not used, so the
+ * {@link #values()} method returns an empty array.  A dense copy of this
+ * matrix can be constructed with {@link MassMatrix#MassMatrix(MassMatrix)}.
+ * 
+ * @author  Adam C. Dick, BSE
+ * @version November 21, 2008
+ ******************************************************************************/
+public class SparseMassMatrix extends MassMatrix {
+    /** The column indices of the stored values of each row */
+    protected int[][] columnIndices_;
+    
+    /** The number of stored values of each row */
+    protected int[] rowLengths_;
+    
+    /** The stored values of each row of the lower triangle */
+    protected double[][] rowValues_;
+    
+    /** The number of stored values */
+    protected long valueCount_;
+    
+    
+    
+    /***************************************************************************
+     * Constructs a default {@code SparseMassMatrix} with no nodes.
+     **************************************************************************/
+    public SparseMassMatrix() {
+        this(0);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Constructs a {@code SparseMassMatrix} containing the given number of
+     * nodes, in which no mass influences are stored.
+     * 
+     * @param   nNodes  the number of nodes in this matrix
+     **************************************************************************/
+    public SparseMassMatrix(int nNodes) {
+        super();
+        
+        this.setNodeCount(nNodes);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Constructs a sparse copy of the given {@code MassMatrix}.
+     * 
+     * @param   masses  the {@code MassMatrix} to be copied
+     **************************************************************************/
+    public SparseMassMatrix(MassMatrix masses) {
+        this(masses.getNodeCount());
+        
+        System.arraycopy(masses.getRowNames(), 0, rowNames_, 0, nRows_);
+        System.arraycopy(masses.getColumnNames(), 0, columnNames_, 0,
+                nColumns_);
+        
+        masses.copyMassesTo(this);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    public void clear() {
+        super.clear();
+        
+        this.createRows();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    protected void copyMassesTo(MassMatrix masses) {
+        for (int i = 0; i < nRows_; i++) {
+            for (int k = 0; k < rowLengths_[i]; k++) {
+                masses.setValueAt(rowValues_[i][k], i, columnIndices_[i][k]);
+            }
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Creates empty rows for the current number of rows of this matrix.
+     **************************************************************************/
+    protected void createRows() {
+        columnIndices_  = new int[nRows_][];
+        rowLengths_     = new int[nRows_];
+        rowValues_      = new double[nRows_][];
+        valueCount_     = 0;
+        
+        for (int i = 0; i < nRows_; i++) {
+            columnIndices_[i]   = new int[0];
+            rowValues_[i]       = new double[0];
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    protected int detectStructure() {
+        int structure = DIAGONAL_STRUCTURE;
+        
+        for (int i = 0; i < nRows_; i++) {
+            for (int k = 0; k < rowLengths_[i]; k++) {
+                if (columnIndices_[i][k] != i && rowValues_[i][k] != 0.0) {
+                    if ((i / N_COMPONENTS) !=
+                            (columnIndices_[i][k] / N_COMPONENTS)) {
+                        return GENERAL_STRUCTURE;
+                    }
+                    
+                    structure = BLOCK_DIAGONAL_STRUCTURE;
+                }
+            }
+        }
+        
+        return structure;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the fraction of the lower triangle of this matrix which is
+     * stored.
+     * 
+     * @return  the number of stored values divided by the size of the lower
+     *          triangle, or zero if this matrix is empty
+     **************************************************************************/
+    public double getDensity() {
+        if (nRows_ == 0) {
+            return 0.0;
+        }
+        else {
+            return valueCount_ / ((nRows_ * (nRows_ + 1.0)) / 2.0);
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the position of the given column in the stored values of the
+     * given row of the lower triangle.  If the column is not stored, the
+     * returned position is {@code -(insertionPoint + 1)}.
+     * 
+     * @param   rowIndex    the row index of the lower triangle
+     * @param   columnIndex the column index of the lower triangle
+     * @return  the position of the column in the row
+     **************************************************************************/
+    protected int getStoredIndex(int rowIndex, int columnIndex) {
+        int[]   columns = columnIndices_[rowIndex];
+        int     low     = 0;
+        int     high    = rowLengths_[rowIndex] - 1;
+        int     middle;
+        
+        if (high >= 0 && columns[high] < columnIndex) {
+            return -(high + 2);
+        }
+        
+        while (low <= high) {
+            middle = (low + high) >>> 1;
+            
+            if (columns[middle] < columnIndex) {
+                low = middle + 1;
+            }
+            else if (columns[middle] > columnIndex) {
+                high = middle - 1;
+            }
+            else {
+                return middle;
+            }
+        }
+        
+        return -(low + 1);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    public double getValueAt(int rowIndex, int columnIndex) {
+        int row     = Math.max(rowIndex, columnIndex);
+        int column  = Math.min(rowIndex, columnIndex);
+        int index   = this.getStoredIndex(row, column);
+        
+        if (index < 0) {
+            return 0.0;
+        }
+        else {
+            return rowValues_[row][index];
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the number of stored mass influences of the lower triangle.
+     * 
+     * @return  the number of stored values
+     **************************************************************************/
+    public long getValueCount() {
+        return valueCount_;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Inserts a value into the stored values of the given row of the lower
+     * triangle.  The arrays of the row are grown when they are full.
+     * 
+     * @param   value       the value to be inserted
+     * @param   rowIndex    the row index of the lower triangle
+     * @param   columnIndex the column index of the lower triangle
+     * @param   index       the position of the value in the row
+     **************************************************************************/
+    protected void insertValue(double value, int rowIndex, int columnIndex,
+            int index) {
+        int         length  = rowLengths_[rowIndex];
+        int[]       columns = columnIndices_[rowIndex];
+        double[]    values  = rowValues_[rowIndex];
+        
+        if (length == columns.length) {
+            columns = new int[Math.min(Math.max(2 * length, 4), rowIndex + 1)];
+            values  = new double[columns.length];
+            
+            System.arraycopy(columnIndices_[rowIndex], 0, columns, 0, length);
+            System.arraycopy(rowValues_[rowIndex], 0, values, 0, length);
+            
+            columnIndices_[rowIndex]    = columns;
+            rowValues_[rowIndex]        = values;
+        }
+        
+        System.arraycopy(columns, index, columns, index + 1, length - index);
+        System.arraycopy(values, index, values, index + 1, length - index);
+        
+        columns[index]          = columnIndex;
+        values[index]           = value;
+        rowLengths_[rowIndex]   = length + 1;
+        valueCount_++;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Multiplies this mass matrix by each row of the given row-major matrix
+     * without regard to its structure.  Only the stored mass influences are
+     * visited.
+     * 
+     * @see     MatrixMultiplier#multiplySparseSymmetric(int[][], double[][],
+     *          int[], double[], int, int)
+     **************************************************************************/
+    @Override
+    protected double[] multiplyGeneral(MatrixMultiplier multiplier,
+            double[] values, int nRows, int nColumns) {
+        return multiplier.multiplySparseSymmetric(columnIndices_, rowValues_,
+                rowLengths_, values, nRows, nColumns);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    public void setNodeCount(int nNodes) {
+        rowNames_       = new String[nNodes * N_COMPONENTS];
+        columnNames_    = new String[nNodes * N_COMPONENTS];
+        nRows_          = nNodes * N_COMPONENTS;
+        nColumns_       = nNodes * N_COMPONENTS;
+        structure_      = UNKNOWN_STRUCTURE;
+        modificationCount_++;
+        values_         = new double[0];
+        
+        this.createRows();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    public void setValueAt(double value, int rowIndex, int columnIndex) {
+        int row     = Math.max(rowIndex, columnIndex);
+        int column  = Math.min(rowIndex, columnIndex);
+        int index   = this.getStoredIndex(row, column);
+        
+        structure_ = UNKNOWN_STRUCTURE;
+        modificationCount_++;
+        
+        if (index >= 0) {
+            rowValues_[row][index] = value;
+        }
+        else if (value != 0.0) {
+            this.insertValue(value, row, column, -(index + 1));
+        }
+    } // eom
+} // eoc
\ No newline at end of file
@@ -11,6 +11,8 @@
  ******************************************************************************/
 package de.iabg.mode.io;
 
+import de.iabg.mesh.io.NastranCardTokenizer;
+
 import de.iabg.mode.ModeMatrix;
 import de.iabg.mode.ModeReader;
 
@@ -20,8 +22,6 @@ import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 
-import java.util.ArrayList;
-
 /*******************************************************************************
  * This implementation of {@link ModeReader} parses a Nastran file containing
  * mode shape data.  Refer to {@code ModeReader} class API for more details.
@@ -31,6 +31,19 @@ import java.util.ArrayList;
  * designed to read in all of this data.  Refer to the latest version of the
  * MSC.Nastran Quick Reference Guide for more information for the file format.
  * 
+ * The file is parsed in a single pass, in which each mode line and its node
+ * lines are read once.  The name and frequency of each mode and the names of
+ * the nodes are appended to arrays which grow as needed, while the
+ * translations of all modes are appended to a single buffer, one row of
+ * translations after another.  The buffer grows with the node lines of the
+ * first mode and by one row for each later mode, which must have as many
+ * nodes as the first.  Comments and continuation lines are skipped without
+ * being kept.  When the modes are imported, each row of the buffer is
+ * written into the given {@link ModeMatrix} at once.
+ * 
+ * The columns of each mode and node line are parsed by a
+ * {@link NastranCardTokenizer}, so that no string is created for a number.
+ * 
  * @author  Adam C. Dick, BSE
  * @version September 13, 2008
  ******************************************************************************/
@@ -39,21 +52,45 @@ public class NastranPunchReader extends FileReader
     /** A constant for comments */
     protected static final int COMMENT_FORMAT = 1000;
     
-    /** A list for the data from the file */
-    protected ArrayList<String> data_;
+    /** The initial number of modes and nodes which can be parsed */
+    protected static final int INITIAL_CAPACITY = 64;
     
     /** A constant for mode lines */
     protected static final int MODE_FORMAT = 1001;
     
+    /** The frequencies of the parsed modes */
+    protected double[] modeFrequencies_;
+    
+    /** The names of the parsed modes */
+    protected String[] modeNames_;
+    
     /** Storage for the modes */
     protected ModeMatrix modes_;
     
+    /** The x, y, and z-translations of the parsed modes, one after another */
+    protected double[] modeValues_;
+    
+    /** The number of parsed modes */
+    protected int nModes_;
+    
+    /** The number of nodes of the first parsed mode */
+    protected int nNodes_;
+    
     /** A constant for node continuation lines */
     protected static final int NODE_CONTINUOUS_FORMAT = 1002;
     
     /** A constant for node lines */
     protected static final int NODE_FORMAT = 1003;
     
+    /** The index of the next node line of the last parsed mode */
+    protected int nodeIndex_;
+    
+    /** The names of the parsed nodes */
+    protected String[] nodeNames_;
+    
+    /** The tokenizer which parses the columns of each line */
+    protected NastranCardTokenizer tokenizer_;
+    
     /** A constant for undefined lines */
     protected static final int UNDEFINED_FORMAT = 1099;
     
@@ -68,26 +105,125 @@ public class NastranPunchReader extends FileReader
     public NastranPunchReader(File file)
             throws FileNotFoundException {
         super(file);
+        
+        tokenizer_ = new NastranCardTokenizer();
+        
+        this.clearModes();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Parses the given mode line and appends its name and frequency to the
+     * parsed modes.  The previous mode is completed first, and the buffer
+     * grows by one row for the translations of a later mode.
+     * 
+     * @param   line                    the line to be parsed
+     * @throws  IllegalStateException   if the previous mode has fewer nodes
+     *                                  than the first mode
+     **************************************************************************/
+    protected void addMode(String line) {
+        double frequency;
+        
+        if (nModes_ > 0) {
+            this.endMode();
+        }
+        
+        tokenizer_.clear();
+        tokenizer_.append(line, 0, 72);
+        
+        frequency   = tokenizer_.parseDouble(14, 29);
+        frequency   = Math.sqrt(frequency) / (2 * Math.PI);
+        
+        modeNames_          = this.growNames(modeNames_, nModes_ + 1);
+        modeFrequencies_    = this.growValues(modeFrequencies_, nModes_ + 1);
+        
+        modeNames_[nModes_]         = tokenizer_.getString(37, 43);
+        modeFrequencies_[nModes_]   = frequency;
+        nModes_++;
+        
+        if (nModes_ > 1) {
+            modeValues_ = this.growValues(modeValues_, 3 * nNodes_ * nModes_);
+        }
+        
+        nodeIndex_ = 0;
     } // eom
     
     
     
     /***************************************************************************
-     * If the length of the given line is less than 72 characters, white space
-     * characters are appended to the line until it reaches that size.
+     * Parses the given node line and stores its name and its x, y, and
+     * z-translations at the next node of the last parsed mode.  The node lines
+     * of the first mode determine the number of nodes.
      * 
-     * @param   line    the line to be filled
-     * @return  the new line that has been filled
+     * @param   line                    the line to be parsed
+     * @throws  IllegalStateException   if no mode precedes the line, or if a
+     *                                  later mode has more nodes than the first
      **************************************************************************/
-    protected String fillFields(String line) {
-        StringBuilder   filledLine = new StringBuilder(line);
-        int             lineLength = 72;
+    protected void addNode(String line) {
+        int offset;
         
-        while (filledLine.length() < lineLength) {
-            filledLine.append(" ");
+        if (nModes_ == 0) {
+            throw new IllegalStateException(String.format(
+                    "Node line precedes the first mode: \"%s\"", line));
         }
         
-        return filledLine.toString();
+        if (nModes_ == 1) {
+            nodeNames_  = this.growNames(nodeNames_, nodeIndex_ + 1);
+            modeValues_ = this.growValues(modeValues_, 3 * (nodeIndex_ + 1));
+            nNodes_     = nodeIndex_ + 1;
+        }
+        else if (nodeIndex_ >= nNodes_) {
+            throw new IllegalStateException(String.format(
+                    "Mode %d has more than the %d nodes of the first mode",
+                    nModes_, nNodes_));
+        }
+        
+        tokenizer_.clear();
+        tokenizer_.append(line, 0, 72);
+        
+        offset = 3 * (nNodes_ * (nModes_ - 1) + nodeIndex_);
+        
+        if (nModes_ == 1) {
+            nodeNames_[nodeIndex_] = tokenizer_.getString(0, 10);
+        }
+        
+        modeValues_[offset + 0] = tokenizer_.parseDouble(18, 36);
+        modeValues_[offset + 1] = tokenizer_.parseDouble(36, 54);
+        modeValues_[offset + 2] = tokenizer_.parseDouble(54, 72);
+        nodeIndex_++;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Removes all parsed modes and nodes.
+     **************************************************************************/
+    protected void clearModes() {
+        modeFrequencies_    = new double[INITIAL_CAPACITY];
+        modeNames_          = new String[INITIAL_CAPACITY];
+        modeValues_         = new double[3 * INITIAL_CAPACITY];
+        nModes_             = 0;
+        nNodes_             = 0;
+        nodeIndex_          = 0;
+        nodeNames_          = new String[INITIAL_CAPACITY];
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Completes the last parsed mode after its last node line.  Each mode
+     * after the first must have as many nodes as the first mode.
+     * 
+     * @throws  IllegalStateException   if the last parsed mode has fewer nodes
+     *                                  than the first mode
+     **************************************************************************/
+    protected void endMode() {
+        if (nModes_ > 1 && nodeIndex_ < nNodes_) {
+            throw new IllegalStateException(String.format(
+                    "Mode %d has fewer than the %d nodes of the first mode",
+                    nModes_, nNodes_));
+        }
     } // eom
     
     
@@ -99,13 +235,13 @@ public class NastranPunchReader extends FileReader
      * @return  the line format
      **************************************************************************/
     protected int getFormat(String line) {
-        if (line.toUpperCase().startsWith("$EIGENVALUE")) {
+        if (NastranCardTokenizer.startsWith(line, "$EIGENVALUE")) {
             return MODE_FORMAT;
         }
         else if (line.startsWith("$")) {
             return COMMENT_FORMAT;
         }
-        else if (line.toUpperCase().startsWith("-CONT-")) {
+        else if (NastranCardTokenizer.startsWith(line, "-CONT-")) {
             return NODE_CONTINUOUS_FORMAT;
         }
         else if (line.startsWith(" ")) {
@@ -119,107 +255,109 @@ public class NastranPunchReader extends FileReader
     
     
     /***************************************************************************
-     * Returns the number of modes in the data.
+     * Returns the given array, or a copy of it with twice its length if it is
+     * shorter than the given length.
      * 
-     * @return  the number of modes
+     * @param   names   the array of names
+     * @param   length  the required length
+     * @return  an array of at least the required length with the same names
      **************************************************************************/
-    protected int getModeCount() {
-        int nModes = 0;
+    protected String[] growNames(String[] names, int length) {
+        String[] grownNames;
         
-        for (String line : data_) {
-            switch (this.getFormat(line)) {
-                case MODE_FORMAT:
-                    nModes++;
-                    break;
-                default:
-            }
+        if (length <= names.length) {
+            return names;
         }
         
-        return nModes;
+        grownNames = new String[Math.max(2 * names.length, length)];
+        System.arraycopy(names, 0, grownNames, 0, names.length);
+        
+        return grownNames;
     } // eom
     
     
     
     /***************************************************************************
-     * Returns the number of nodes in the data.
+     * Returns the given array, or a copy of it with twice its length if it is
+     * shorter than the given length.
      * 
-     * @return  the number of nodes
+     * @param   values  the array of values
+     * @param   length  the required length
+     * @return  an array of at least the required length with the same values
      **************************************************************************/
-    protected int getNodeCount() {
-        int iMode   = 0;
-        int nNodes  = 0;
+    protected double[] growValues(double[] values, int length) {
+        double[] grownValues;
         
-        nodeCount:
-            for (String line : data_) {
-                switch (this.getFormat(line)) {
-                    case COMMENT_FORMAT:
-                    case NODE_CONTINUOUS_FORMAT:
-                        break;
-                    case MODE_FORMAT:
-                        iMode++;
-                        if (iMode > 1) {
-                            break nodeCount;
-                        }
-                        
-                        break;
-                    case NODE_FORMAT:
-                        nNodes++;
-                        break;
-                    default:
-                }
-            }
+        if (length <= values.length) {
+            return values;
+        }
+        
+        grownValues = new double[Math.max(2 * values.length, length)];
+        System.arraycopy(values, 0, grownValues, 0, values.length);
         
-        return nNodes;
+        return grownValues;
     } // eom
     
     
     
     /***************************************************************************
+     * Fills the given matrix with the parsed modes.  Each row of the buffer is
+     * written into the matrix at once.
      **************************************************************************/
     public void importModes(ModeMatrix modes) {
+        double[] values = new double[3 * nNodes_];
+        
         modes_ = modes;
-        modes_.setModeCount(this.getModeCount());
-        modes_.setNodeCount(this.getNodeCount());
+        modes_.setModeCount(nModes_);
+        modes_.setNodeCount(nNodes_);
         
-        int modeIndex = -1;
-        int nodeIndex = 0;
+        for (int j = 0; j < nNodes_; j++) {
+            modes_.setNodeNameAt(nodeNames_[j], j);
+        }
         
-        for (String line : data_) {
-            switch (this.getFormat(line)) {
-                case MODE_FORMAT:
-                    modeIndex++;
-                    this.setModeAt(line, modeIndex);
-                    nodeIndex = 0;
-                    break;
-                case NODE_FORMAT:
-                    this.setNodeAt(line, modeIndex, nodeIndex);
-                    nodeIndex++;
-                    break;
-                default:
-            }
+        for (int i = 0; i < nModes_; i++) {
+            System.arraycopy(modeValues_, i * values.length, values, 0,
+                    values.length);
+            
+            modes_.setModeFrequencyAt(modeFrequencies_[i], i);
+            modes_.setModeNameAt(modeNames_[i], i);
+            modes_.setModeValuesAt(values, i);
         }
     } // eom
     
     
     
     /***************************************************************************
+     * Reads the file in a single pass, as described in the class API.
      **************************************************************************/
     public void readFile()
             throws IOException {
-        data_                           = new ArrayList<String>();
         BufferedReader  bufferedReader  = null;
         String          line;
         
+        this.clearModes();
+        
         try {
             bufferedReader = new BufferedReader(this);
             
             line = bufferedReader.readLine();
             while (line != null) {
-                line = this.fillFields(line);
-                data_.add(line);
+                switch (this.getFormat(line)) {
+                    case MODE_FORMAT:
+                        this.addMode(line);
+                        break;
+                    case NODE_FORMAT:
+                        this.addNode(line);
+                        break;
+                    default:
+                }
                 
                 line = bufferedReader.readLine();
             }
+            
+            if (nModes_ > 0) {
+                this.endMode();
+            }
         }
         finally {
             if (bufferedReader != null) {
@@ -227,52 +365,4 @@ public class NastranPunchReader extends FileReader
             }
         }
     } // eom
-    
-    
-    
-    /***************************************************************************
-     * Parses the given line and sets the mode name and frequency at the given
-     * mode index.
-     * 
-     * @param   line        the line to be parsed
-     * @param   modeIndex   the index of the mode
-     **************************************************************************/
-    protected void setModeAt(String line, int modeIndex) {
-        double frequency;
-        String name;
-        
-        frequency   = Double.parseDouble(line.substring(14, 29).trim());
-        frequency   = Math.sqrt(frequency) / (2 * Math.PI);
-        name        = line.substring(37, 43).trim();
-        
-        modes_.setModeFrequencyAt(frequency, modeIndex);
-        modes_.setModeNameAt(name, modeIndex);
-    } // eom
-    
-    
-    
-    /***************************************************************************
-     * Parses the given line and sets the x, y, and z-translations at the given
-     * mode and node indices.
-     * 
-     * @param   line        the line to be parsed
-     * @param   modeIndex   the index of the mode
-     * @param   nodeIndex   the index of the node
-     **************************************************************************/
-    protected void setNodeAt(String line, int modeIndex, int nodeIndex) {
-        String name;
-        double x;
-        double y;
-        double z;
-        
-        name    = line.substring(0, 10).trim();
-        x       = Double.parseDouble(line.substring(18, 36).trim());
-        y       = Double.parseDouble(line.substring(36, 54).trim());
-        z       = Double.parseDouble(line.substring(54, 72).trim());
-        
-        modes_.setNodeNameAt(name, nodeIndex);
-        modes_.setXTranslationAt(x, modeIndex, nodeIndex);
-        modes_.setYTranslationAt(y, modeIndex, nodeIndex);
-        modes_.setZTranslationAt(z, modeIndex, nodeIndex);
-    } // eom
 } // eoc
\ No newline at end of file
@@ -14,6 +14,7 @@ package de.iabg.mode.plaf;
 import de.iabg.mode.JModeCorrelationPanel;
 import de.iabg.mode.ModeCorrelationUI;
 
+import de.iabg.mode.event.FrequencyRatioChangeListener;
 import de.iabg.mode.event.LowerToleranceChangeListener;
 import de.iabg.mode.event.ModeConnectionSaveAction;
 import de.iabg.mode.event.ModeConnectionSaveAsAction;
@@ -35,6 +36,7 @@ import java.io.File;
 
 import javax.swing.Action;
 import javax.swing.JButton;
+import javax.swing.JCheckBox;
 import javax.swing.JFileChooser;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
@@ -122,6 +124,18 @@ public class ModalAssuranceCriterionUI
     /** A button to render the 3D correlation */
     protected JButton correlationShow3DButton_;
     
+    /** A check box to correlate all pairs of modes */
+    protected JCheckBox frequencyRatioCheckBox_;
+    
+    /** A label for the largest frequency ratio of correlated modes */
+    protected JLabel frequencyRatioLabel_;
+    
+    /** A listener for the largest frequency ratio of correlated modes */
+    protected FrequencyRatioChangeListener frequencyRatioListener_;
+    
+    /** A spinner for the largest frequency ratio of correlated modes */
+    protected JSpinner frequencyRatioSpinner_;
+    
     /** A label for the lower color tolerance */
     protected JLabel lowerToleranceLabel_;
     
@@ -302,6 +316,41 @@ public class ModalAssuranceCriterionUI
         gridBagConstraints.insets.set(5, 5, 0, 12);
         correlationPanel_.add(correlationMakeButton_, gridBagConstraints);
         
+        frequencyRatioLabel_            = new JLabel("Frequency Ratio:");
+        gridBagConstraints.gridx        = 0;
+        gridBagConstraints.gridy        = 1;
+        gridBagConstraints.gridheight   = 1;
+        gridBagConstraints.gridwidth    = 1;
+        gridBagConstraints.weightx      = 0;
+        gridBagConstraints.weighty      = 0;
+        gridBagConstraints.insets.set(5, 12, 0, 0);
+        correlationPanel_.add(frequencyRatioLabel_, gridBagConstraints);
+        
+        SpinnerModel frequencyRatioModel;
+        frequencyRatioModel = new SpinnerNumberModel(1.5, 1.0, 10.0, 0.1);
+        
+        frequencyRatioSpinner_          = new JSpinner();
+        frequencyRatioSpinner_.setModel(frequencyRatioModel);
+        frequencyRatioSpinner_.setEnabled(false);
+        gridBagConstraints.gridx        = 1;
+        gridBagConstraints.gridy        = 1;
+        gridBagConstraints.gridheight   = 1;
+        gridBagConstraints.gridwidth    = 1;
+        gridBagConstraints.weightx      = 1;
+        gridBagConstraints.weighty      = 0;
+        gridBagConstraints.insets.set(5, 12, 0, 0);
+        correlationPanel_.add(frequencyRatioSpinner_, gridBagConstraints);
+        
+        frequencyRatioCheckBox_         = new JCheckBox("No Limit", true);
+        gridBagConstraints.gridx        = 2;
+        gridBagConstraints.gridy        = 1;
+        gridBagConstraints.gridheight   = 1;
+        gridBagConstraints.gridwidth    = 1;
+        gridBagConstraints.weightx      = 0;
+        gridBagConstraints.weighty      = 0;
+        gridBagConstraints.insets.set(5, 5, 0, 0);
+        correlationPanel_.add(frequencyRatioCheckBox_, gridBagConstraints);
+        
         correlationOutputLabel_         = new JLabel("CSV Output File:");
         correlationOutputLabel_.setLabelFor(correlationOutputTextField_);
         gridBagConstraints.gridx        = 0;
@@ -555,6 +604,12 @@ public class ModalAssuranceCriterionUI
                 correlationPanel_, this);
         correlationMakeButton_.setAction(correlationMakeAction_);
         
+        frequencyRatioListener_ = new FrequencyRatioChangeListener(
+                correlationPanel_, frequencyRatioSpinner_,
+                frequencyRatioCheckBox_);
+        frequencyRatioSpinner_.addChangeListener(frequencyRatioListener_);
+        frequencyRatioCheckBox_.addItemListener(frequencyRatioListener_);
+        
         correlationSaveAction_ = new ModeCorrelationSaveAction(
                 correlationPanel_, this);
         correlationOutputTextField_.setAction(correlationSaveAction_);
@@ -776,6 +831,15 @@ public class ModalAssuranceCriterionUI
         correlationPanel_.remove(correlationMakeButton_);
         correlationMakeButton_ = null;
         
+        correlationPanel_.remove(frequencyRatioLabel_);
+        frequencyRatioLabel_ = null;
+        
+        correlationPanel_.remove(frequencyRatioSpinner_);
+        frequencyRatioSpinner_ = null;
+        
+        correlationPanel_.remove(frequencyRatioCheckBox_);
+        frequencyRatioCheckBox_ = null;
+        
         correlationPanel_.remove(correlationOutputLabel_);
         correlationOutputLabel_ = null;
         
@@ -872,6 +936,10 @@ public class ModalAssuranceCriterionUI
         correlationMakeButton_.removeActionListener(correlationMakeAction_);
         correlationMakeAction_ = null;
         
+        frequencyRatioSpinner_.removeChangeListener(frequencyRatioListener_);
+        frequencyRatioCheckBox_.removeItemListener(frequencyRatioListener_);
+        frequencyRatioListener_ = null;
+        
         correlationOutputTextField_.removeActionListener(
                 correlationSaveAction_);
         correlationSaveAction_ = null;
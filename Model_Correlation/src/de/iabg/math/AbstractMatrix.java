@@ -11,30 +11,150 @@
  ******************************************************************************/
 package de.iabg.math;
 
+import de.iabg.swing.KeyList;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 /*******************************************************************************
  * This default implementation of a {@code Matrix} provides basic methods and
  * storage for row and column names.  Storage of the cells is left to subclasses
  * to determine optimal behavior.
  * 
+ * The row and column names are looked up in hash indices, which map each name
+ * to its first index and link each index to the next one of the same name.  An
+ * index is built when it is first needed and is rebuilt after the names have
+ * been replaced.  Subclasses which change single names in place must call
+ * {@link #clearRowIndex()} or {@link #clearColumnIndex()}, and the arrays
+ * returned by {@link #getRowNames()} and {@link #getColumnNames()} must not be
+ * changed.
+ * 
  * @author  Adam C. Dick, BSE
  * @version September 10, 2008
  ******************************************************************************/
 public abstract class AbstractMatrix
         implements Matrix {
+    /** The first index of each column name */
+    protected Map<String, Integer> columnIndices_;
+    
     /** An array of column names */
     protected String[] columnNames_;
     
+    /** The column names from which the column index was built */
+    protected String[] indexedColumnNames_;
+    
+    /** The row names from which the row index was built */
+    protected String[] indexedRowNames_;
+    
     /** The number of columns */
     protected int nColumns_;
     
+    /** The next index of the same column name, or -1 for the last one */
+    protected int[] nextColumnIndices_;
+    
+    /** The next index of the same row name, or -1 for the last one */
+    protected int[] nextRowIndices_;
+    
     /** The number of rows */
     protected int nRows_;
     
+    /** The first index of each row name */
+    protected Map<String, Integer> rowIndices_;
+    
     /** An array of row names */
     protected String[] rowNames_;
     
     
     
+    /***************************************************************************
+     * Discards the index of the column names, which is rebuilt when it is next
+     * needed.  This method must be called whenever a column name is changed in
+     * place.
+     **************************************************************************/
+    protected void clearColumnIndex() {
+        indexedColumnNames_ = null;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Discards the index of the row names, which is rebuilt when it is next
+     * needed.  This method must be called whenever a row name is changed in
+     * place.
+     **************************************************************************/
+    protected void clearRowIndex() {
+        indexedRowNames_ = null;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns {@code true} if this matrix contains all of the given column
+     * names.
+     * 
+     * @param   columnNames the column names to be checked
+     * @return  {@code true} if this matrix contains all of the column names;
+     *          {@code false} otherwise
+     **************************************************************************/
+    public boolean containsAllColumns(Collection<String> columnNames) {
+        for (String columnName : columnNames) {
+            if (this.getColumnIndexOf(columnName) < 0) {
+                return false;
+            }
+        }
+        
+        return true;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns {@code true} if this matrix contains all of the given row names.
+     * 
+     * @param   rowNames    the row names to be checked
+     * @return  {@code true} if this matrix contains all of the row names;
+     *          {@code false} otherwise
+     **************************************************************************/
+    public boolean containsAllRows(Collection<String> rowNames) {
+        for (String rowName : rowNames) {
+            if (this.getRowIndexOf(rowName) < 0) {
+                return false;
+            }
+        }
+        
+        return true;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Fills the given map with the first index of each of the given names and
+     * returns the next index of the same name for each index.  The names are
+     * visited from the last to the first, so that the first index of each name
+     * remains in the map.
+     * 
+     * @param   names   the names to be indexed
+     * @param   indices the map to be filled with the first index of each name
+     * @return  the next index of the same name, or -1 for the last one
+     **************************************************************************/
+    protected int[] createIndex(String[] names,
+            Map<String, Integer> indices) {
+        int[]   nextIndices = new int[names.length];
+        Integer nextIndex;
+        
+        indices.clear();
+        
+        for (int i = names.length - 1; i >= 0; i--) {
+            nextIndex       = indices.put(names[i], i);
+            nextIndices[i]  = (nextIndex == null) ? -1 : nextIndex;
+        }
+        
+        return nextIndices;
+    } // eom
+    
+    
+    
     /***************************************************************************
      **************************************************************************/
     public int getColumnCount() {
@@ -46,16 +166,46 @@ public abstract class AbstractMatrix
     /***************************************************************************
      **************************************************************************/
     public int getColumnIndexOf(String columnName) {
-        int index = -1;
+        Integer index;
+        
+        this.updateColumnIndex();
+        index = columnIndices_.get(columnName);
+        
+        return (index == null) ? -1 : index;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the indices of all columns whose names are given, in the order of
+     * the given names.  Every column of a name is returned for each time the
+     * name is given, and names which are not found are skipped.
+     * 
+     * @param   columnKeys  the column names to be found
+     * @return  the indices of the columns
+     **************************************************************************/
+    public int[] getColumnIndicesOf(KeyList columnKeys) {
+        int[]   columnIndices;
+        int     nColumns        = 0;
+        
+        for (String columnKey : columnKeys.values()) {
+            for (int i = this.getColumnIndexOf(columnKey); i >= 0;
+                    i = nextColumnIndices_[i]) {
+                nColumns++;
+            }
+        }
         
-        for (int i = 0; i < columnNames_.length; i++) {
-            if (columnNames_[i].equals(columnName)) {
-                index = i;
-                break;
+        columnIndices   = new int[nColumns];
+        nColumns        = 0;
+        
+        for (String columnKey : columnKeys.values()) {
+            for (int i = this.getColumnIndexOf(columnKey); i >= 0;
+                    i = nextColumnIndices_[i]) {
+                columnIndices[nColumns++] = i;
             }
         }
         
-        return index;
+        return columnIndices;
     } // eom
     
     
@@ -76,6 +226,38 @@ public abstract class AbstractMatrix
     
     
     
+    /***************************************************************************
+     * Returns the index of the next column with the same name as the column at
+     * the given index.
+     * 
+     * @param   columnIndex the column index
+     * @return  the index of the next column with the same name; -1 if there is
+     *          no further column with this name
+     **************************************************************************/
+    public int getNextColumnIndexOf(int columnIndex) {
+        this.updateColumnIndex();
+        
+        return nextColumnIndices_[columnIndex];
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the index of the next row with the same name as the row at the
+     * given index.
+     * 
+     * @param   rowIndex    the row index
+     * @return  the index of the next row with the same name; -1 if there is no
+     *          further row with this name
+     **************************************************************************/
+    public int getNextRowIndexOf(int rowIndex) {
+        this.updateRowIndex();
+        
+        return nextRowIndices_[rowIndex];
+    } // eom
+    
+    
+    
     /***************************************************************************
      **************************************************************************/
     public int getRowCount() {
@@ -87,16 +269,46 @@ public abstract class AbstractMatrix
     /***************************************************************************
      **************************************************************************/
     public int getRowIndexOf(String rowName) {
-        int index = -1;
+        Integer index;
+        
+        this.updateRowIndex();
+        index = rowIndices_.get(rowName);
         
-        for (int i = 0; i < rowNames_.length; i++) {
-            if (rowNames_[i].equals(rowName)) {
-                index = i;
-                break;
+        return (index == null) ? -1 : index;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the indices of all rows whose names are given, in the order of
+     * the given names.  Every row of a name is returned for each time the name
+     * is given, and names which are not found are skipped.
+     * 
+     * @param   rowKeys the row names to be found
+     * @return  the indices of the rows
+     **************************************************************************/
+    public int[] getRowIndicesOf(KeyList rowKeys) {
+        int[]   rowIndices;
+        int     nRows       = 0;
+        
+        for (String rowKey : rowKeys.values()) {
+            for (int i = this.getRowIndexOf(rowKey); i >= 0;
+                    i = nextRowIndices_[i]) {
+                nRows++;
             }
         }
         
-        return index;
+        rowIndices  = new int[nRows];
+        nRows       = 0;
+        
+        for (String rowKey : rowKeys.values()) {
+            for (int i = this.getRowIndexOf(rowKey); i >= 0;
+                    i = nextRowIndices_[i]) {
+                rowIndices[nRows++] = i;
+            }
+        }
+        
+        return rowIndices;
     } // eom
     
     
@@ -137,6 +349,7 @@ public abstract class AbstractMatrix
      **************************************************************************/
     public void setColumnNameAt(String columnName, int columnIndex) {
         columnNames_[columnIndex] = columnName.trim();
+        this.clearColumnIndex();
     } // eom
     
     
@@ -145,6 +358,7 @@ public abstract class AbstractMatrix
      **************************************************************************/
     public void setRowNameAt(String rowName, int rowIndex) {
         rowNames_[rowIndex] = rowName.trim();
+        this.clearRowIndex();
     } // eom
     
     
@@ -166,4 +380,39 @@ public abstract class AbstractMatrix
         
         return result.toString();
     } // eom
+    
+    
+    
+    /***************************************************************************
+     * Builds the index of the column names if it has not been built for the
+     * current column names.
+     **************************************************************************/
+    protected void updateColumnIndex() {
+        if (indexedColumnNames_ != columnNames_) {
+            if (columnIndices_ == null) {
+                columnIndices_ = new HashMap<String, Integer>();
+            }
+            
+            nextColumnIndices_  = this.createIndex(columnNames_,
+                    columnIndices_);
+            indexedColumnNames_ = columnNames_;
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Builds the index of the row names if it has not been built for the
+     * current row names.
+     **************************************************************************/
+    protected void updateRowIndex() {
+        if (indexedRowNames_ != rowNames_) {
+            if (rowIndices_ == null) {
+                rowIndices_ = new HashMap<String, Integer>();
+            }
+            
+            nextRowIndices_     = this.createIndex(rowNames_, rowIndices_);
+            indexedRowNames_    = rowNames_;
+        }
+    } // eom
 } // eoc
\ No newline at end of file
@@ -13,8 +13,6 @@ package de.iabg.math;
 
 import de.iabg.swing.KeyList;
 
-import java.util.Arrays;
-
 /*******************************************************************************
  * This {@code Matrix} is designed as a strictly orthogonal matrix.  This matrix
  * assumes all off-diagonal values are zero and therefore does not store them.
@@ -118,6 +116,39 @@ public class DiagonalMatrix extends AbstractMatrix {
     
     
     
+    /***************************************************************************
+     * Rearranges the dimensions of this matrix so that the row, column and
+     * value at each position are the ones at the given index of this matrix.
+     * Dimensions may be repeated or omitted, thus changing the dimension of
+     * this matrix.
+     * 
+     * @param   rowIndices  the index of the dimension for each new position
+     **************************************************************************/
+    public void permuteRows(int[] rowIndices) {
+        String[]    rowNames;
+        String[]    columnNames;
+        double[]    values;
+        int         nRows       = rowIndices.length;
+        
+        rowNames    = new String[nRows];
+        columnNames = new String[nRows];
+        values      = new double[nRows];
+        
+        for (int i = 0; i < nRows; i++) {
+            rowNames[i]     = rowNames_[rowIndices[i]];
+            columnNames[i]  = columnNames_[rowIndices[i]];
+            values[i]       = values_[rowIndices[i]];
+        }
+        
+        rowNames_       = rowNames;
+        columnNames_    = columnNames;
+        nRows_          = nRows;
+        nColumns_       = nRows;
+        values_         = values;
+    } // eom
+    
+    
+    
     /***************************************************************************
      **************************************************************************/
     public void setColumnCount(int nColumns) {
@@ -195,40 +226,25 @@ public class DiagonalMatrix extends AbstractMatrix {
      * @param   rowKeys  the new order of the row names
      **************************************************************************/
     public void sortRows(KeyList rowKeys) {
-        String[]    rowNames;
-        String[]    columnNames;
-        double[]    values;
+        boolean[]   isSorted        = new boolean[nRows_];
+        int[]       rowIndices      = new int[rowKeys.size()];
+        int[]       sortedIndices;
         int         nRows           = 0;
+        int         rowIndex;
         
-        for (String row : rowNames_) {
-            if (rowKeys.contains(row)) {
+        for (String rowKey : rowKeys.values()) {
+            rowIndex = this.getRowIndexOf(rowKey);
+            
+            if (rowIndex >= 0 && !isSorted[rowIndex]) {
+                isSorted[rowIndex]  = true;
+                rowIndices[nRows]   = rowIndex;
                 nRows++;
             }
         }
         
-        rowNames    = new String[nRows];
-        columnNames = new String[nRows];
-        values      = new double[nRows];
-        nRows       = 0;
-        
-        for (String rowKey : rowKeys.values()) {
-            if (!Arrays.asList(rowNames).contains(rowKey)) {
-                for (int i = 0; i < nRows_; i++) {
-                    if (rowKey.equals(rowNames_[i])) {
-                        rowNames[nRows]     = rowNames_[i];
-                        columnNames[nRows]  = columnNames_[i];
-                        values[nRows]       = values_[i];
-                        nRows++;
-                        break;
-                    }
-                }
-            }
-        }
+        sortedIndices = new int[nRows];
+        System.arraycopy(rowIndices, 0, sortedIndices, 0, nRows);
         
-        rowNames_       = rowNames;
-        columnNames_    = columnNames;
-        nRows_          = nRows;
-        nColumns_       = nRows;
-        values_         = values;
+        this.permuteRows(sortedIndices);
     } // eom
 } // eoc
\ No newline at end of file
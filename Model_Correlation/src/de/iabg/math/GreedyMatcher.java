@@ -0,0 +1,293 @@
+/*******************************************************************************
+ * Student:             Adam C. Dick, BSE
+ * Master's Thesis:     Validating and Updating Structural FE Models
+ *                      for Dynamic Analysis
+ * 
+ * Industry Partner:    Industrieanlagen-Betriebsgesellschaft mbH in Ottobrunn
+ * Supervisor:          Dr.-Ing. Manfred Kroiss
+ * 
+ * Academic Partner:    Technische Universitaet Muenchen
+ * Supervisor:          Dr.-Ing. Martin Ruess
+ ******************************************************************************/
+package de.iabg.math;
+
+/*******************************************************************************
+ * This class matches the rows and columns of a correlation greedily.  The
+ * candidate pairs of a row and a column are taken in the order of their
+ * values, either ascending for distances or descending for similarities such
+ * as the Modal Assurance Criterion.  A pair is accepted if neither its row nor
+ * its column has already been matched, and skipped otherwise.  This is the
+ * same mapping that is obtained by repeatedly searching the remaining rows and
+ * columns for their best value, but the correlation is neither searched
+ * repeatedly nor permuted.
+ * 
+ * The candidate pairs are kept in a binary heap of their indices, which is
+ * built in linear time.  The heap is only consumed until every row or every
+ * column has been matched.  Pairs of a row or column that has already been
+ * matched are not removed from the heap, but are skipped when they reach the
+ * top of it.  Pairs with equal values are taken in the order of their rows and
+ * then their columns, so that the mapping is deterministic.  Pairs whose value
+ * is not a number are taken last.
+ * 
+ * The candidates are either all cells of a row-major correlation, or an
+ * arbitrary list of pairs, such as the nodes within a distance tolerance.
+ * 
+ * @author  Adam C. Dick, BSE
+ * @version November 18, 2008
+ ******************************************************************************/
+public class GreedyMatcher {
+    /** The column indices of the candidates, or {@code null} for all cells */
+    protected int[] columnIndices_;
+    
+    /** Whether the candidates are taken in the order of descending values */
+    protected boolean descending_;
+    
+    /** The heap of candidate indices */
+    protected int[] heap_;
+    
+    /** The number of candidates */
+    protected int nCandidates_;
+    
+    /** The number of columns of the correlation */
+    protected int nColumns_;
+    
+    /** The number of candidates remaining in the heap */
+    protected int nHeap_;
+    
+    /** The number of rows of the correlation */
+    protected int nRows_;
+    
+    /** The row indices of the candidates, or {@code null} for all cells */
+    protected int[] rowIndices_;
+    
+    /** The values of the candidates */
+    protected double[] values_;
+    
+    
+    
+    /***************************************************************************
+     * Constructs a matcher whose candidates are all cells of the given
+     * row-major correlation.
+     * 
+     * @param   values      the values of the correlation
+     * @param   nRows       the number of rows of the correlation
+     * @param   nColumns    the number of columns of the correlation
+     * @param   descending  {@code true} if the largest values are matched
+     *                      first; {@code false} if the smallest are
+     **************************************************************************/
+    public GreedyMatcher(double[] values, int nRows, int nColumns,
+            boolean descending) {
+        this(null, null, values, nRows * nColumns, nRows, nColumns,
+                descending);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Constructs a matcher whose candidates are the given pairs of rows and
+     * columns.
+     * 
+     * @param   rowIndices      the row index of each candidate
+     * @param   columnIndices   the column index of each candidate
+     * @param   values          the value of each candidate
+     * @param   nCandidates     the number of candidates
+     * @param   nRows           the number of rows of the correlation
+     * @param   nColumns        the number of columns of the correlation
+     * @param   descending      {@code true} if the largest values are matched
+     *                          first; {@code false} if the smallest are
+     **************************************************************************/
+    public GreedyMatcher(int[] rowIndices, int[] columnIndices,
+            double[] values, int nCandidates, int nRows, int nColumns,
+            boolean descending) {
+        super();
+        
+        if (values.length < nCandidates) {
+            throw new IllegalArgumentException(String.format(
+                    "%d values cannot hold %d candidates", values.length,
+                    nCandidates));
+        }
+        
+        columnIndices_  = columnIndices;
+        descending_     = descending;
+        nCandidates_    = nCandidates;
+        nColumns_       = nColumns;
+        nRows_          = nRows;
+        rowIndices_     = rowIndices;
+        values_         = values;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns a negative integer, zero, or a positive integer if the first
+     * candidate is to be matched before, together with, or after the last
+     * candidate.  Candidates without a value, such as the Modal Assurance
+     * Criterion of a mode without any displacement, are matched last.
+     * 
+     * @param   first   the index of the first candidate
+     * @param   last    the index of the last candidate
+     * @return  the order of both candidates
+     **************************************************************************/
+    protected int compare(int first, int last) {
+        boolean firstNaN    = Double.isNaN(values_[first]);
+        boolean lastNaN     = Double.isNaN(values_[last]);
+        int     comparison  = Double.compare(values_[first], values_[last]);
+        
+        if (firstNaN != lastNaN) {
+            comparison = firstNaN ? 1 : -1;
+        }
+        else if (descending_) {
+            comparison = -comparison;
+        }
+        
+        if (comparison == 0) {
+            comparison = this.getRowIndexOf(first) - this.getRowIndexOf(last);
+        }
+        
+        if (comparison == 0) {
+            comparison = this.getColumnIndexOf(first) -
+                    this.getColumnIndexOf(last);
+        }
+        
+        return comparison;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the column index of the given candidate.
+     * 
+     * @param   candidate   the index of the candidate
+     * @return  the column index of the candidate
+     **************************************************************************/
+    public int getColumnIndexOf(int candidate) {
+        if (columnIndices_ == null) {
+            return candidate % nColumns_;
+        }
+        
+        return columnIndices_[candidate];
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the row index of the given candidate.
+     * 
+     * @param   candidate   the index of the candidate
+     * @return  the row index of the candidate
+     **************************************************************************/
+    public int getRowIndexOf(int candidate) {
+        if (rowIndices_ == null) {
+            return candidate / nColumns_;
+        }
+        
+        return rowIndices_[candidate];
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Builds the heap of all candidates in linear time.
+     **************************************************************************/
+    protected void heapify() {
+        heap_   = new int[nCandidates_];
+        nHeap_  = nCandidates_;
+        
+        for (int i = 0; i < nCandidates_; i++) {
+            heap_[i] = i;
+        }
+        
+        for (int i = (nHeap_ / 2) - 1; i >= 0; i--) {
+            this.siftDown(i);
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Matches the rows and columns greedily and returns the indices of the
+     * accepted candidates in the order in which they were accepted.  Thus, the
+     * values of the returned candidates are sorted from best to worst.
+     * 
+     * @return  the indices of the matched candidates
+     **************************************************************************/
+    public int[] match() {
+        boolean[]   rowMatched      = new boolean[nRows_];
+        boolean[]   columnMatched   = new boolean[nColumns_];
+        int[]       matches         = new int[Math.min(nRows_, nColumns_)];
+        int[]       resizedMatches;
+        int         nMatches        = 0;
+        int         candidate;
+        int         rowIndex;
+        int         columnIndex;
+        
+        this.heapify();
+        
+        while (nMatches < matches.length && nHeap_ > 0) {
+            candidate   = this.poll();
+            rowIndex    = this.getRowIndexOf(candidate);
+            columnIndex = this.getColumnIndexOf(candidate);
+            
+            if (!rowMatched[rowIndex] && !columnMatched[columnIndex]) {
+                rowMatched[rowIndex]        = true;
+                columnMatched[columnIndex]  = true;
+                matches[nMatches++]         = candidate;
+            }
+        }
+        
+        heap_           = null;
+        resizedMatches  = new int[nMatches];
+        System.arraycopy(matches, 0, resizedMatches, 0, nMatches);
+        
+        return resizedMatches;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Removes and returns the best candidate of the heap.
+     * 
+     * @return  the index of the best candidate
+     **************************************************************************/
+    protected int poll() {
+        int candidate = heap_[0];
+        
+        nHeap_--;
+        
+        if (nHeap_ > 0) {
+            heap_[0] = heap_[nHeap_];
+            this.siftDown(0);
+        }
+        
+        return candidate;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Moves the candidate at the given position of the heap down until it is
+     * not worse than its children.
+     * 
+     * @param   position    the position of the candidate in the heap
+     **************************************************************************/
+    protected void siftDown(int position) {
+        int candidate   = heap_[position];
+        int child;
+        
+        while ((child = (2 * position) + 1) < nHeap_) {
+            if (child + 1 < nHeap_ &&
+                    this.compare(heap_[child + 1], heap_[child]) < 0) {
+                child++;
+            }
+            
+            if (this.compare(heap_[child], candidate) >= 0) {
+                break;
+            }
+            
+            heap_[position] = heap_[child];
+            position        = child;
+        }
+        
+        heap_[position] = candidate;
+    } // eom
+} // eoc
\ No newline at end of file
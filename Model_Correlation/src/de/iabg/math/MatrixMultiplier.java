@@ -0,0 +1,1104 @@
+/*******************************************************************************
+ * Student:             Adam C. Dick, BSE
+ * Master's Thesis:     Validating and Updating Structural FE Models
+ *                      for Dynamic Analysis
+ * 
+ * Industry Partner:    Industrieanlagen-Betriebsgesellschaft mbH in Ottobrunn
+ * Supervisor:          Dr.-Ing. Manfred Kroiss
+ * 
+ * Academic Partner:    Technische Universitaet Muenchen
+ * Supervisor:          Dr.-Ing. Martin Ruess
+ ******************************************************************************/
+package de.iabg.math;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*******************************************************************************
+ * This class multiplies row-major matrices, which are stored as single arrays
+ * in the same layout as the values of a {@link RectangularMatrix}.  The main
+ * operation is the product of one matrix and the transpose of another, so that
+ * each value of the product is the inner product of a row of the first matrix
+ * and a row of the last matrix.  This is the form of all mode correlations,
+ * whose modes are the rows of the correlated matrices.
+ * 
+ * The product is computed in blocks of rows and columns, which are small
+ * enough to remain in the processor cache while they are reused.  Within each
+ * block, two rows of the first matrix are multiplied with two rows of the last
+ * matrix at once, so that every loaded value is used twice.
+ * 
+ * The blocks of the product are independent of each other, so they are
+ * computed in parallel by a {@link ParallelExecutor}.  The columns of each
+ * value are always summed in the same order, so that the product does not
+ * depend on the number of threads.
+ * 
+ * @author  Adam C. Dick, BSE
+ * @version November 14, 2008
+ ******************************************************************************/
+public class MatrixMultiplier {
+    /** The default number of columns in each block */
+    public static final int DEFAULT_COLUMN_BLOCK_SIZE = 512;
+    
+    /** The default number of rows in each block */
+    public static final int DEFAULT_ROW_BLOCK_SIZE = 32;
+    
+    /** The number of columns in each block */
+    protected int columnBlockSize_;
+    
+    /** The executor which computes the blocks in parallel */
+    protected ParallelExecutor executor_;
+    
+    /** The number of rows in each block */
+    protected int rowBlockSize_;
+    
+    
+    
+    /***************************************************************************
+     * Constructs a multiplier with the default block sizes.
+     **************************************************************************/
+    public MatrixMultiplier() {
+        super();
+        
+        columnBlockSize_    = DEFAULT_COLUMN_BLOCK_SIZE;
+        executor_           = ParallelExecutor.getSharedExecutor();
+        rowBlockSize_       = DEFAULT_ROW_BLOCK_SIZE;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Checks that the given array holds at least the given number of rows and
+     * columns.
+     * 
+     * @param   values      the values of a matrix
+     * @param   nRows       the number of rows of the matrix
+     * @param   nColumns    the number of columns of the matrix
+     * @throws  IllegalArgumentException    if the array is too short
+     **************************************************************************/
+    protected void checkLength(double[] values, int nRows, int nColumns) {
+        if (values.length < nRows * nColumns) {
+            throw new IllegalArgumentException(String.format(
+                    "%d values cannot hold %d rows and %d columns",
+                    values.length, nRows, nColumns));
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Checks that the given array holds at least the given number of rows and
+     * columns.
+     * 
+     * @param   values      the values of a matrix
+     * @param   nRows       the number of rows of the matrix
+     * @param   nColumns    the number of columns of the matrix
+     * @throws  IllegalArgumentException    if the array is too short
+     **************************************************************************/
+    protected void checkLength(float[] values, int nRows, int nColumns) {
+        if (values.length < nRows * nColumns) {
+            throw new IllegalArgumentException(String.format(
+                    "%d values cannot hold %d rows and %d columns",
+                    values.length, nRows, nColumns));
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Computes the inner product of each row of the first matrix and the
+     * corresponding row of the last matrix, which is the diagonal of the
+     * product of the first matrix and the transpose of the last matrix.  Both
+     * matrices must have the same number of rows and columns.
+     * 
+     * Four rows are summed at once, so that four independent sums are in
+     * progress instead of a single one that has to wait for each previous
+     * addition.  Each row is still summed in the order of its columns, and
+     * the remaining rows are summed singly.
+     * 
+     * @param   firstValues the values of the first matrix
+     * @param   lastValues  the values of the last matrix
+     * @param   nRows       the number of rows of both matrices
+     * @param   nColumns    the number of columns of both matrices
+     * @return  the inner product of each pair of corresponding rows
+     **************************************************************************/
+    public double[] computeRowProducts(double[] firstValues,
+            double[] lastValues, int nRows, int nColumns) {
+        double[]    products    = new double[nRows];
+        double      product;
+        double      product0;
+        double      product1;
+        double      product2;
+        double      product3;
+        int         iRow;
+        int         iRow0;
+        int         iRow1;
+        int         iRow2;
+        int         iRow3;
+        int         i;
+        
+        this.checkLength(firstValues, nRows, nColumns);
+        this.checkLength(lastValues, nRows, nColumns);
+        
+        for (i = 0; i + 3 < nRows; i += 4) {
+            iRow0       = i * nColumns;
+            iRow1       = iRow0 + nColumns;
+            iRow2       = iRow1 + nColumns;
+            iRow3       = iRow2 + nColumns;
+            product0    = 0.0;
+            product1    = 0.0;
+            product2    = 0.0;
+            product3    = 0.0;
+            
+            for (int k = 0; k < nColumns; k++) {
+                product0 += firstValues[iRow0 + k] * lastValues[iRow0 + k];
+                product1 += firstValues[iRow1 + k] * lastValues[iRow1 + k];
+                product2 += firstValues[iRow2 + k] * lastValues[iRow2 + k];
+                product3 += firstValues[iRow3 + k] * lastValues[iRow3 + k];
+            }
+            
+            products[i]     = product0;
+            products[i + 1] = product1;
+            products[i + 2] = product2;
+            products[i + 3] = product3;
+        }
+        
+        for (; i < nRows; i++) {
+            iRow    = i * nColumns;
+            product = 0.0;
+            
+            for (int k = 0; k < nColumns; k++) {
+                product += firstValues[iRow + k] * lastValues[iRow + k];
+            }
+            
+            products[i] = product;
+        }
+        
+        return products;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Computes the inner product of each row of the first matrix and the
+     * corresponding row of the last matrix, which is the diagonal of the
+     * product of the first matrix and the transpose of the last matrix.  Both
+     * matrices must have the same number of rows and columns.
+     * 
+     * The values are stored in single precision, but they are multiplied and
+     * summed in double precision.  Four rows are summed at once, and the
+     * remaining rows are summed singly.
+     * 
+     * @param   firstValues the values of the first matrix
+     * @param   lastValues  the values of the last matrix
+     * @param   nRows       the number of rows of both matrices
+     * @param   nColumns    the number of columns of both matrices
+     * @return  the inner product of each pair of corresponding rows
+     **************************************************************************/
+    public double[] computeRowProducts(float[] firstValues,
+            float[] lastValues, int nRows, int nColumns) {
+        double[]    products    = new double[nRows];
+        double      product;
+        double      product0;
+        double      product1;
+        double      product2;
+        double      product3;
+        int         iRow;
+        int         iRow0;
+        int         iRow1;
+        int         iRow2;
+        int         iRow3;
+        int         i;
+        
+        this.checkLength(firstValues, nRows, nColumns);
+        this.checkLength(lastValues, nRows, nColumns);
+        
+        for (i = 0; i + 3 < nRows; i += 4) {
+            iRow0       = i * nColumns;
+            iRow1       = iRow0 + nColumns;
+            iRow2       = iRow1 + nColumns;
+            iRow3       = iRow2 + nColumns;
+            product0    = 0.0;
+            product1    = 0.0;
+            product2    = 0.0;
+            product3    = 0.0;
+            
+            for (int k = 0; k < nColumns; k++) {
+                product0 += (double) firstValues[iRow0 + k] *
+                        lastValues[iRow0 + k];
+                product1 += (double) firstValues[iRow1 + k] *
+                        lastValues[iRow1 + k];
+                product2 += (double) firstValues[iRow2 + k] *
+                        lastValues[iRow2 + k];
+                product3 += (double) firstValues[iRow3 + k] *
+                        lastValues[iRow3 + k];
+            }
+            
+            products[i]     = product0;
+            products[i + 1] = product1;
+            products[i + 2] = product2;
+            products[i + 3] = product3;
+        }
+        
+        for (; i < nRows; i++) {
+            iRow    = i * nColumns;
+            product = 0.0;
+            
+            for (int k = 0; k < nColumns; k++) {
+                product += (double) firstValues[iRow + k] *
+                        lastValues[iRow + k];
+            }
+            
+            products[i] = product;
+        }
+        
+        return products;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the number of columns in each block.
+     * 
+     * @return  the number of columns in each block
+     **************************************************************************/
+    public int getColumnBlockSize() {
+        return columnBlockSize_;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the executor which computes the blocks in parallel.
+     * 
+     * @return  the executor of this multiplier
+     **************************************************************************/
+    public ParallelExecutor getExecutor() {
+        return executor_;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the number of rows in each block.
+     * 
+     * @return  the number of rows in each block
+     **************************************************************************/
+    public int getRowBlockSize() {
+        return rowBlockSize_;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Adds the product of one block of the first matrix and the transpose of
+     * one block of the last matrix to the given array.  Two rows of each matrix
+     * are combined at once, and the remaining odd rows are combined singly.
+     * 
+     * @param   firstValues the values of the first matrix
+     * @param   lastValues  the values of the last matrix
+     * @param   nLastRows   the number of rows of the last matrix
+     * @param   nColumns    the number of columns of both matrices
+     * @param   products    the array in which the product is stored
+     * @param   iStart      the first row of the first matrix
+     * @param   iEnd        the row of the first matrix after the last one
+     * @param   jStart      the first row of the last matrix
+     * @param   jEnd        the row of the last matrix after the last one
+     * @param   kStart      the first column of both matrices
+     * @param   kEnd        the column of both matrices after the last one
+     **************************************************************************/
+    protected void multiplyBlock(double[] firstValues, double[] lastValues,
+            int nLastRows, int nColumns, double[] products, int iStart,
+            int iEnd, int jStart, int jEnd, int kStart, int kEnd) {
+        double  first0;
+        double  first1;
+        double  last0;
+        double  last1;
+        double  product00;
+        double  product01;
+        double  product10;
+        double  product11;
+        int     iRow0;
+        int     iRow1;
+        int     jRow0;
+        int     jRow1;
+        int     i;
+        int     j;
+        
+        for (i = iStart; i + 1 < iEnd; i += 2) {
+            iRow0 = i * nColumns;
+            iRow1 = iRow0 + nColumns;
+            
+            for (j = jStart; j + 1 < jEnd; j += 2) {
+                jRow0       = j * nColumns;
+                jRow1       = jRow0 + nColumns;
+                product00   = 0.0;
+                product01   = 0.0;
+                product10   = 0.0;
+                product11   = 0.0;
+                
+                for (int k = kStart; k < kEnd; k++) {
+                    first0      =  firstValues[iRow0 + k];
+                    first1      =  firstValues[iRow1 + k];
+                    last0       =  lastValues[jRow0 + k];
+                    last1       =  lastValues[jRow1 + k];
+                    product00   += first0 * last0;
+                    product01   += first0 * last1;
+                    product10   += first1 * last0;
+                    product11   += first1 * last1;
+                }
+                
+                products[(i * nLastRows) + j]           += product00;
+                products[(i * nLastRows) + j + 1]       += product01;
+                products[((i + 1) * nLastRows) + j]     += product10;
+                products[((i + 1) * nLastRows) + j + 1] += product11;
+            }
+            
+            if (j < jEnd) {
+                jRow0       = j * nColumns;
+                product00   = 0.0;
+                product10   = 0.0;
+                
+                for (int k = kStart; k < kEnd; k++) {
+                    last0       =  lastValues[jRow0 + k];
+                    product00   += firstValues[iRow0 + k] * last0;
+                    product10   += firstValues[iRow1 + k] * last0;
+                }
+                
+                products[(i * nLastRows) + j]       += product00;
+                products[((i + 1) * nLastRows) + j] += product10;
+            }
+        }
+        
+        if (i < iEnd) {
+            iRow0 = i * nColumns;
+            
+            for (j = jStart; j + 1 < jEnd; j += 2) {
+                jRow0       = j * nColumns;
+                jRow1       = jRow0 + nColumns;
+                product00   = 0.0;
+                product01   = 0.0;
+                
+                for (int k = kStart; k < kEnd; k++) {
+                    first0      =  firstValues[iRow0 + k];
+                    product00   += first0 * lastValues[jRow0 + k];
+                    product01   += first0 * lastValues[jRow1 + k];
+                }
+                
+                products[(i * nLastRows) + j]       += product00;
+                products[(i * nLastRows) + j + 1]   += product01;
+            }
+            
+            if (j < jEnd) {
+                jRow0       = j * nColumns;
+                product00   = 0.0;
+                
+                for (int k = kStart; k < kEnd; k++) {
+                    product00 += firstValues[iRow0 + k] *
+                            lastValues[jRow0 + k];
+                }
+                
+                products[(i * nLastRows) + j] += product00;
+            }
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Adds the product of one block of the first matrix and the transpose of
+     * one block of the last matrix to the given array.  Two rows of each matrix
+     * are combined at once, and the remaining odd rows are combined singly.
+     * The values are stored in single precision, but they are multiplied and
+     * summed in double precision.
+     * 
+     * @param   firstValues the values of the first matrix
+     * @param   lastValues  the values of the last matrix
+     * @param   nLastRows   the number of rows of the last matrix
+     * @param   nColumns    the number of columns of both matrices
+     * @param   products    the array in which the product is stored
+     * @param   iStart      the first row of the first matrix
+     * @param   iEnd        the row of the first matrix after the last one
+     * @param   jStart      the first row of the last matrix
+     * @param   jEnd        the row of the last matrix after the last one
+     * @param   kStart      the first column of both matrices
+     * @param   kEnd        the column of both matrices after the last one
+     **************************************************************************/
+    protected void multiplyBlock(float[] firstValues, float[] lastValues,
+            int nLastRows, int nColumns, double[] products, int iStart,
+            int iEnd, int jStart, int jEnd, int kStart, int kEnd) {
+        double  first0;
+        double  first1;
+        double  last0;
+        double  last1;
+        double  product00;
+        double  product01;
+        double  product10;
+        double  product11;
+        int     iRow0;
+        int     iRow1;
+        int     jRow0;
+        int     jRow1;
+        int     i;
+        int     j;
+        
+        for (i = iStart; i + 1 < iEnd; i += 2) {
+            iRow0 = i * nColumns;
+            iRow1 = iRow0 + nColumns;
+            
+            for (j = jStart; j + 1 < jEnd; j += 2) {
+                jRow0       = j * nColumns;
+                jRow1       = jRow0 + nColumns;
+                product00   = 0.0;
+                product01   = 0.0;
+                product10   = 0.0;
+                product11   = 0.0;
+                
+                for (int k = kStart; k < kEnd; k++) {
+                    first0      =  firstValues[iRow0 + k];
+                    first1      =  firstValues[iRow1 + k];
+                    last0       =  lastValues[jRow0 + k];
+                    last1       =  lastValues[jRow1 + k];
+                    product00   += first0 * last0;
+                    product01   += first0 * last1;
+                    product10   += first1 * last0;
+                    product11   += first1 * last1;
+                }
+                
+                products[(i * nLastRows) + j]           += product00;
+                products[(i * nLastRows) + j + 1]       += product01;
+                products[((i + 1) * nLastRows) + j]     += product10;
+                products[((i + 1) * nLastRows) + j + 1] += product11;
+            }
+            
+            if (j < jEnd) {
+                jRow0       = j * nColumns;
+                product00   = 0.0;
+                product10   = 0.0;
+                
+                for (int k = kStart; k < kEnd; k++) {
+                    last0       =  lastValues[jRow0 + k];
+                    product00   += firstValues[iRow0 + k] * last0;
+                    product10   += firstValues[iRow1 + k] * last0;
+                }
+                
+                products[(i * nLastRows) + j]       += product00;
+                products[((i + 1) * nLastRows) + j] += product10;
+            }
+        }
+        
+        if (i < iEnd) {
+            iRow0 = i * nColumns;
+            
+            for (j = jStart; j + 1 < jEnd; j += 2) {
+                jRow0       = j * nColumns;
+                jRow1       = jRow0 + nColumns;
+                product00   = 0.0;
+                product01   = 0.0;
+                
+                for (int k = kStart; k < kEnd; k++) {
+                    first0      =  firstValues[iRow0 + k];
+                    product00   += first0 * lastValues[jRow0 + k];
+                    product01   += first0 * lastValues[jRow1 + k];
+                }
+                
+                products[(i * nLastRows) + j]       += product00;
+                products[(i * nLastRows) + j + 1]   += product01;
+            }
+            
+            if (j < jEnd) {
+                jRow0       = j * nColumns;
+                product00   = 0.0;
+                
+                for (int k = kStart; k < kEnd; k++) {
+                    product00 += (double) firstValues[iRow0 + k] *
+                            lastValues[jRow0 + k];
+                }
+                
+                products[(i * nLastRows) + j] += product00;
+            }
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Multiplies the given block-diagonal symmetric matrix by each row of the
+     * given matrix.  The symmetric matrix is given as the packed lower
+     * triangles of its diagonal blocks, which are stored one after another in
+     * the same layout as the values of a {@link SymmetricMatrix}.  A diagonal
+     * matrix has a block size of one.  The products are returned in a single
+     * row-major array with the same layout as the given matrix.  The rows are
+     * multiplied in parallel.
+     * 
+     * @param   blockValues the lower triangles of the diagonal blocks
+     * @param   blockSize   the dimension of each diagonal block
+     * @param   values      the values of the row-major matrix
+     * @param   nRows       the number of rows of the row-major matrix
+     * @param   nColumns    the number of columns of the row-major matrix,
+     *                      which is the dimension of the symmetric matrix
+     * @return  the product of the symmetric matrix and each row
+     **************************************************************************/
+    public double[] multiplyBlockDiagonal(final double[] blockValues,
+            final int blockSize, final double[] values, int nRows,
+            final int nColumns) {
+        final double[]  products    = new double[nRows * nColumns];
+        List<Runnable>  tiles       = new ArrayList<Runnable>();
+        int             tileSize    = rowBlockSize_;
+        
+        if (nColumns % blockSize != 0) {
+            throw new IllegalArgumentException(String.format(
+                    "%d columns cannot be divided into blocks of %d",
+                    nColumns, blockSize));
+        }
+        else if (blockValues.length < (nColumns / blockSize) *
+                ((blockSize * (blockSize + 1)) / 2)) {
+            throw new IllegalArgumentException(String.format(
+                    "%d values of the diagonal blocks cannot multiply %d " +
+                    "columns", blockValues.length, nColumns));
+        }
+        
+        this.checkLength(values, nRows, nColumns);
+        
+        for (int i = 0; i < nRows; i += tileSize) {
+            final int rowStart  = i;
+            final int rowEnd    = Math.min(i + tileSize, nRows);
+            
+            tiles.add(new Runnable() {
+                public void run() {
+                    multiplyBlockDiagonal(blockValues, blockSize, values,
+                            nColumns, products, rowStart, rowEnd);
+                } // eom
+            });
+        }
+        
+        executor_.execute(tiles);
+        
+        return products;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Multiplies the given block-diagonal symmetric matrix by the given rows
+     * of the given matrix.  Each block is traversed in the same order as by
+     * the dense kernel, so that the products are summed in the same order,
+     * but the values outside of the blocks are never visited.
+     * 
+     * @param   blockValues the lower triangles of the diagonal blocks
+     * @param   blockSize   the dimension of each diagonal block
+     * @param   values      the values of the row-major matrix
+     * @param   nColumns    the number of columns of the row-major matrix
+     * @param   products    the array in which the products are stored
+     * @param   rowStart    the first row of the row-major matrix
+     * @param   rowEnd      the row after the last one
+     **************************************************************************/
+    protected void multiplyBlockDiagonal(double[] blockValues, int blockSize,
+            double[] values, int nColumns, double[] products, int rowStart,
+            int rowEnd) {
+        double  blockComponent;
+        double  component;
+        double  rowProduct;
+        int     iBlock;
+        int     kRow;
+        
+        for (int i = rowStart; i < rowEnd; i++) {
+            kRow = 0;
+            
+            for (int b = 0; b < nColumns; b += blockSize) {
+                iBlock = (i * nColumns) + b;
+                
+                for (int k = 0; k < blockSize; k++) {
+                    component   = values[iBlock + k];
+                    rowProduct  = 0.0;
+                    
+                    for (int l = 0; l < k; l++) {
+                        blockComponent          =  blockValues[kRow + l];
+                        rowProduct              += blockComponent *
+                                values[iBlock + l];
+                        products[iBlock + l]    += blockComponent *
+                                component;
+                    }
+                    
+                    products[iBlock + k] += rowProduct +
+                            (blockValues[kRow + k] * component);
+                    kRow                 += k + 1;
+                }
+            }
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Multiplies the given sparse symmetric matrix by each row of the given
+     * matrix.  The symmetric matrix is given as the stored values of each row
+     * of its lower triangle, in which row {@code k} has {@code rowLengths[k]}
+     * values in ascending order of their column indices.  The products are
+     * returned in a single row-major array with the same layout as the given
+     * matrix.  The rows are multiplied in parallel.
+     * 
+     * @param   columnIndices   the column indices of the stored values
+     * @param   symmetricValues the stored values of the lower triangle
+     * @param   rowLengths      the number of stored values in each row
+     * @param   values          the values of the row-major matrix
+     * @param   nRows           the number of rows of the row-major matrix
+     * @param   nColumns        the number of columns of the row-major matrix,
+     *                          which is the dimension of the symmetric matrix
+     * @return  the product of the symmetric matrix and each row
+     **************************************************************************/
+    public double[] multiplySparseSymmetric(final int[][] columnIndices,
+            final double[][] symmetricValues, final int[] rowLengths,
+            final double[] values, int nRows, final int nColumns) {
+        final double[]  products    = new double[nRows * nColumns];
+        List<Runnable>  tiles       = new ArrayList<Runnable>();
+        int             tileSize    = rowBlockSize_;
+        
+        if (rowLengths.length < nColumns) {
+            throw new IllegalArgumentException(String.format(
+                    "%d rows of the symmetric matrix cannot multiply %d " +
+                    "columns", rowLengths.length, nColumns));
+        }
+        
+        this.checkLength(values, nRows, nColumns);
+        
+        for (int i = 0; i < nRows; i += tileSize) {
+            final int rowStart  = i;
+            final int rowEnd    = Math.min(i + tileSize, nRows);
+            
+            tiles.add(new Runnable() {
+                public void run() {
+                    multiplySparseSymmetric(columnIndices, symmetricValues,
+                            rowLengths, values, nColumns, products, rowStart,
+                            rowEnd);
+                } // eom
+            });
+        }
+        
+        executor_.execute(tiles);
+        
+        return products;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Multiplies the given sparse symmetric matrix by the given rows of the
+     * given matrix.  Only the stored values of the lower triangle are visited,
+     * and each of them is applied to both of its symmetric positions.  The
+     * diagonal value is the last stored value of its row, so that the values
+     * are summed in the same order as by the dense kernel.
+     * 
+     * @param   columnIndices   the column indices of the stored values
+     * @param   symmetricValues the stored values of the lower triangle
+     * @param   rowLengths      the number of stored values in each row
+     * @param   values          the values of the row-major matrix
+     * @param   nColumns        the number of columns of the row-major matrix
+     * @param   products        the array in which the products are stored
+     * @param   rowStart        the first row of the row-major matrix
+     * @param   rowEnd          the row after the last one
+     **************************************************************************/
+    protected void multiplySparseSymmetric(int[][] columnIndices,
+            double[][] symmetricValues, int[] rowLengths, double[] values,
+            int nColumns, double[] products, int rowStart, int rowEnd) {
+        int[]       symmetricColumns;
+        double[]    symmetricRow;
+        double      symmetricComponent;
+        double      diagonalComponent;
+        double      component;
+        double      rowProduct;
+        int         nValues;
+        int         iRow;
+        int         l;
+        
+        for (int i = rowStart; i < rowEnd; i++) {
+            iRow = i * nColumns;
+            
+            for (int k = 0; k < nColumns; k++) {
+                symmetricColumns    = columnIndices[k];
+                symmetricRow        = symmetricValues[k];
+                nValues             = rowLengths[k];
+                component           = values[iRow + k];
+                diagonalComponent   = 0.0;
+                rowProduct          = 0.0;
+                
+                if (nValues > 0 && symmetricColumns[nValues - 1] == k) {
+                    diagonalComponent = symmetricRow[--nValues];
+                }
+                
+                for (int m = 0; m < nValues; m++) {
+                    l                   =  symmetricColumns[m];
+                    symmetricComponent  =  symmetricRow[m];
+                    rowProduct          += symmetricComponent *
+                            values[iRow + l];
+                    products[iRow + l]  += symmetricComponent * component;
+                }
+                
+                products[iRow + k] += rowProduct +
+                        (diagonalComponent * component);
+            }
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Multiplies the given symmetric matrix by each row of the given matrix.
+     * The symmetric matrix is given as its packed lower triangle, in which row
+     * {@code k} has {@code k + 1} values and starts at {@code k * (k + 1) / 2},
+     * like the values of a {@link SymmetricMatrix}.  The products are returned
+     * in a single row-major array with the same layout as the given matrix.
+     * The rows are multiplied in parallel.
+     * 
+     * @param   symmetricValues the lower triangle of the symmetric matrix
+     * @param   values          the values of the row-major matrix
+     * @param   nRows           the number of rows of the row-major matrix
+     * @param   nColumns        the number of columns of the row-major matrix,
+     *                          which is the dimension of the symmetric matrix
+     * @return  the product of the symmetric matrix and each row
+     **************************************************************************/
+    public double[] multiplySymmetric(final double[] symmetricValues,
+            final double[] values, int nRows, final int nColumns) {
+        final double[]  products    = new double[nRows * nColumns];
+        List<Runnable>  tiles       = new ArrayList<Runnable>();
+        int             tileSize    = rowBlockSize_;
+        
+        if (symmetricValues.length < (nColumns * (nColumns + 1L)) / 2) {
+            throw new IllegalArgumentException(String.format(
+                    "%d values of the symmetric matrix cannot multiply %d " +
+                    "columns", symmetricValues.length, nColumns));
+        }
+        
+        this.checkLength(values, nRows, nColumns);
+        
+        for (int i = 0; i < nRows; i += tileSize) {
+            final int rowStart  = i;
+            final int rowEnd    = Math.min(i + tileSize, nRows);
+            
+            tiles.add(new Runnable() {
+                public void run() {
+                    multiplySymmetric(symmetricValues, values, nColumns,
+                            products, rowStart, rowEnd);
+                } // eom
+            });
+        }
+        
+        executor_.execute(tiles);
+        
+        return products;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Multiplies the given symmetric matrix by the given rows of the given
+     * matrix.  The packed lower triangle of the symmetric matrix is traversed
+     * row by row, and each stored value is applied to both of its symmetric
+     * positions.  Thus, the symmetric matrix is read sequentially in the same
+     * order as it is stored.
+     * 
+     * @param   symmetricValues the lower triangle of the symmetric matrix
+     * @param   values          the values of the row-major matrix
+     * @param   nColumns        the number of columns of the row-major matrix
+     * @param   products        the array in which the products are stored
+     * @param   rowStart        the first row of the row-major matrix
+     * @param   rowEnd          the row after the last one
+     **************************************************************************/
+    protected void multiplySymmetric(double[] symmetricValues,
+            double[] values, int nColumns, double[] products, int rowStart,
+            int rowEnd) {
+        double  symmetricComponent;
+        double  component;
+        double  rowProduct;
+        int     iRow;
+        int     kRow;
+        
+        for (int i = rowStart; i < rowEnd; i++) {
+            iRow = i * nColumns;
+            kRow = 0;
+            
+            for (int k = 0; k < nColumns; k++) {
+                component   = values[iRow + k];
+                rowProduct  = 0.0;
+                
+                for (int l = 0; l < k; l++) {
+                    symmetricComponent  =  symmetricValues[kRow + l];
+                    rowProduct          += symmetricComponent *
+                            values[iRow + l];
+                    products[iRow + l]  += symmetricComponent * component;
+                }
+                
+                products[iRow + k] += rowProduct +
+                        (symmetricValues[kRow + k] * component);
+                kRow               += k + 1;
+            }
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Multiplies the first matrix by the transpose of the last matrix.  The
+     * value of the product at row {@code i} and column {@code j} is the inner
+     * product of row {@code i} of the first matrix and row {@code j} of the
+     * last matrix.  Both matrices must have the same number of columns.
+     * 
+     * @param   firstValues the values of the first matrix
+     * @param   nFirstRows  the number of rows of the first matrix
+     * @param   lastValues  the values of the last matrix
+     * @param   nLastRows   the number of rows of the last matrix
+     * @param   nColumns    the number of columns of both matrices
+     * @return  the values of the product, whose size is the number of rows of
+     *          the first matrix times the number of rows of the last matrix
+     **************************************************************************/
+    public double[] multiplyTransposed(double[] firstValues, int nFirstRows,
+            double[] lastValues, int nLastRows, int nColumns) {
+        double[] products = new double[nFirstRows * nLastRows];
+        
+        this.multiplyTransposed(firstValues, nFirstRows, lastValues,
+                nLastRows, nColumns, products);
+        
+        return products;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Multiplies the first matrix by the transpose of the last matrix and
+     * stores the product in the given array, which could be the values of a
+     * {@link RectangularMatrix} with the appropriate dimensions.
+     * 
+     * @param   firstValues the values of the first matrix
+     * @param   nFirstRows  the number of rows of the first matrix
+     * @param   lastValues  the values of the last matrix
+     * @param   nLastRows   the number of rows of the last matrix
+     * @param   nColumns    the number of columns of both matrices
+     * @param   products    the array in which the product is stored
+     * @see     #multiplyTransposed(double[], int, double[], int, int)
+     **************************************************************************/
+    public void multiplyTransposed(final double[] firstValues,
+            int nFirstRows, final double[] lastValues, final int nLastRows,
+            final int nColumns, final double[] products) {
+        List<Runnable>  tiles       = new ArrayList<Runnable>();
+        int             tileSize    = rowBlockSize_;
+        
+        this.checkLength(firstValues, nFirstRows, nColumns);
+        this.checkLength(lastValues, nLastRows, nColumns);
+        this.checkLength(products, nFirstRows, nLastRows);
+        
+        for (int i = 0; i < nFirstRows; i += tileSize) {
+            for (int j = 0; j < nLastRows; j += tileSize) {
+                final int firstStart    = i;
+                final int firstEnd      = Math.min(i + tileSize, nFirstRows);
+                final int lastStart     = j;
+                final int lastEnd       = Math.min(j + tileSize, nLastRows);
+                
+                tiles.add(new Runnable() {
+                    public void run() {
+                        multiplyTransposed(firstValues, lastValues, nLastRows,
+                                nColumns, products, firstStart, firstEnd,
+                                lastStart, lastEnd);
+                    } // eom
+                });
+            }
+        }
+        
+        executor_.execute(tiles);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Multiplies the first matrix by the transpose of the last matrix and
+     * stores the product in the given array, which could be the values of a
+     * {@link RectangularMatrix} with the appropriate dimensions.  The values of
+     * both matrices are stored in single precision, but the product is summed
+     * in double precision.
+     * 
+     * @param   firstValues the values of the first matrix
+     * @param   nFirstRows  the number of rows of the first matrix
+     * @param   lastValues  the values of the last matrix
+     * @param   nLastRows   the number of rows of the last matrix
+     * @param   nColumns    the number of columns of both matrices
+     * @param   products    the array in which the product is stored
+     * @see     #multiplyTransposed(double[], int, double[], int, int)
+     **************************************************************************/
+    public void multiplyTransposed(final float[] firstValues,
+            int nFirstRows, final float[] lastValues, final int nLastRows,
+            final int nColumns, final double[] products) {
+        List<Runnable>  tiles       = new ArrayList<Runnable>();
+        int             tileSize    = rowBlockSize_;
+        
+        this.checkLength(firstValues, nFirstRows, nColumns);
+        this.checkLength(lastValues, nLastRows, nColumns);
+        this.checkLength(products, nFirstRows, nLastRows);
+        
+        for (int i = 0; i < nFirstRows; i += tileSize) {
+            for (int j = 0; j < nLastRows; j += tileSize) {
+                final int firstStart    = i;
+                final int firstEnd      = Math.min(i + tileSize, nFirstRows);
+                final int lastStart     = j;
+                final int lastEnd       = Math.min(j + tileSize, nLastRows);
+                
+                tiles.add(new Runnable() {
+                    public void run() {
+                        multiplyTransposed(firstValues, lastValues, nLastRows,
+                                nColumns, products, firstStart, firstEnd,
+                                lastStart, lastEnd);
+                    } // eom
+                });
+            }
+        }
+        
+        executor_.execute(tiles);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Multiplies the given rows of the first matrix by the transpose of the
+     * given rows of the last matrix, and stores this block of the product in
+     * the given array.  The block is traversed in blocks of the configured
+     * sizes, and the columns are always summed in the same order, so that the
+     * value of each product does not depend on the block that contains it.
+     * 
+     * @param   firstValues the values of the first matrix
+     * @param   lastValues  the values of the last matrix
+     * @param   nLastRows   the number of rows of the last matrix
+     * @param   nColumns    the number of columns of both matrices
+     * @param   products    the array in which the product is stored
+     * @param   firstStart  the first row of the first matrix
+     * @param   firstEnd    the row of the first matrix after the last one
+     * @param   lastStart   the first row of the last matrix
+     * @param   lastEnd     the row of the last matrix after the last one
+     **************************************************************************/
+    protected void multiplyTransposed(double[] firstValues,
+            double[] lastValues, int nLastRows, int nColumns,
+            double[] products, int firstStart, int firstEnd, int lastStart,
+            int lastEnd) {
+        int iBlockEnd;
+        int jBlockEnd;
+        int kBlockEnd;
+        
+        for (int i = firstStart; i < firstEnd; i++) {
+            for (int j = lastStart; j < lastEnd; j++) {
+                products[(i * nLastRows) + j] = 0.0;
+            }
+        }
+        
+        for (int kBlock = 0; kBlock < nColumns; kBlock += columnBlockSize_) {
+            kBlockEnd = Math.min(kBlock + columnBlockSize_, nColumns);
+            
+            for (int jBlock = lastStart; jBlock < lastEnd;
+                    jBlock += rowBlockSize_) {
+                jBlockEnd = Math.min(jBlock + rowBlockSize_, lastEnd);
+                
+                for (int iBlock = firstStart; iBlock < firstEnd;
+                        iBlock += rowBlockSize_) {
+                    iBlockEnd = Math.min(iBlock + rowBlockSize_, firstEnd);
+                    
+                    this.multiplyBlock(firstValues, lastValues, nLastRows,
+                            nColumns, products, iBlock, iBlockEnd, jBlock,
+                            jBlockEnd, kBlock, kBlockEnd);
+                }
+            }
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Multiplies the given rows of the first matrix by the transpose of the
+     * given rows of the last matrix, and stores this block of the product in
+     * the given array.  The block is traversed in blocks of the configured
+     * sizes, and the columns are always summed in the same order, so that the
+     * value of each product does not depend on the block that contains it.
+     * The values are stored in single precision.
+     * 
+     * @param   firstValues the values of the first matrix
+     * @param   lastValues  the values of the last matrix
+     * @param   nLastRows   the number of rows of the last matrix
+     * @param   nColumns    the number of columns of both matrices
+     * @param   products    the array in which the product is stored
+     * @param   firstStart  the first row of the first matrix
+     * @param   firstEnd    the row of the first matrix after the last one
+     * @param   lastStart   the first row of the last matrix
+     * @param   lastEnd     the row of the last matrix after the last one
+     **************************************************************************/
+    protected void multiplyTransposed(float[] firstValues,
+            float[] lastValues, int nLastRows, int nColumns,
+            double[] products, int firstStart, int firstEnd, int lastStart,
+            int lastEnd) {
+        int iBlockEnd;
+        int jBlockEnd;
+        int kBlockEnd;
+        
+        for (int i = firstStart; i < firstEnd; i++) {
+            for (int j = lastStart; j < lastEnd; j++) {
+                products[(i * nLastRows) + j] = 0.0;
+            }
+        }
+        
+        for (int kBlock = 0; kBlock < nColumns; kBlock += columnBlockSize_) {
+            kBlockEnd = Math.min(kBlock + columnBlockSize_, nColumns);
+            
+            for (int jBlock = lastStart; jBlock < lastEnd;
+                    jBlock += rowBlockSize_) {
+                jBlockEnd = Math.min(jBlock + rowBlockSize_, lastEnd);
+                
+                for (int iBlock = firstStart; iBlock < firstEnd;
+                        iBlock += rowBlockSize_) {
+                    iBlockEnd = Math.min(iBlock + rowBlockSize_, firstEnd);
+                    
+                    this.multiplyBlock(firstValues, lastValues, nLastRows,
+                            nColumns, products, iBlock, iBlockEnd, jBlock,
+                            jBlockEnd, kBlock, kBlockEnd);
+                }
+            }
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Sets the number of columns in each block.
+     * 
+     * @param   columnBlockSize the number of columns in each block
+     * @throws  IllegalArgumentException    if the size is not positive
+     **************************************************************************/
+    public void setColumnBlockSize(int columnBlockSize) {
+        if (columnBlockSize < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Block size %d is not positive", columnBlockSize));
+        }
+        
+        columnBlockSize_ = columnBlockSize;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Sets the executor which computes the blocks in parallel.
+     * 
+     * @param   executor    the executor of this multiplier
+     **************************************************************************/
+    public void setExecutor(ParallelExecutor executor) {
+        executor_ = executor;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Sets the number of rows in each block.
+     * 
+     * @param   rowBlockSize    the number of rows in each block
+     * @throws  IllegalArgumentException    if the size is not positive
+     **************************************************************************/
+    public void setRowBlockSize(int rowBlockSize) {
+        if (rowBlockSize < 1) {
+            throw new IllegalArgumentException(String.format(
+                    "Block size %d is not positive", rowBlockSize));
+        }
+        
+        rowBlockSize_ = rowBlockSize;
+    } // eom
+} // eoc
\ No newline at end of file
@@ -11,6 +11,7 @@
  ******************************************************************************/
 package de.iabg.mesh;
 
+import de.iabg.math.GreedyMatcher;
 import de.iabg.math.RectangularMatrix;
 
 /*******************************************************************************
@@ -22,18 +23,18 @@ import de.iabg.math.RectangularMatrix;
  * This class also provides the method {@link #getPreferredConnection(double)},
  * which returns a {@link NodeConnectionMatrix}.  The returned matrix is a
  * mapping between the {@code First Nodes} and {@code Last Nodes} based on the
- * minimum correlation.  This mapping is determined by searching this matrix
- * for the minimum correlation between any two nodes and swapping the
- * corresponding row and column with the first row and column.  The first row
- * and column are omitted from the next search, which searches the remaining
- * nodes for the minimum correlation.  The corresponding row and column are
- * swapped with the second row and column.  This procedure is done iteratively
- * until the given maximum correlation tolerance is reached.  Thus, a mapping
- * based on the minimum correlation is formed along the diagonal, which is
- * ultimately returned to the user.  This procedure is robust in that it will
- * find the best mapping for any ordering of the stored nodes.  The algorithm,
- * however, requires significant memory storage and may not properly execute
- * for large systems.
+ * minimum correlation.  This mapping is determined by connecting the two nodes
+ * with the minimum correlation, omitting both nodes from any further
+ * connections, and connecting the two remaining nodes with the next smallest
+ * correlation.  This procedure is done iteratively until the given maximum
+ * correlation tolerance is reached.  The iteration is driven by a
+ * {@link GreedyMatcher}, which takes the pairs of nodes from a priority queue
+ * instead of searching and permuting this matrix.  This procedure is robust in
+ * that it will find the best mapping for any ordering of the stored nodes.
+ * The distances between all nodes, however, require significant memory
+ * storage for large systems, for which
+ * {@link NodeMatrix#computeDistanceConnection(NodeMatrix, double)} should be
+ * used instead.
  * 
  * @author  Adam C. Dick, BSE
  * @version September 10, 2008
@@ -73,32 +74,38 @@ public class NodeCorrelationMatrix extends RectangularMatrix {
     
     
     /***************************************************************************
-     * Returns the diagonal values of this matrix as a new
+     * Returns the given pairs of this matrix as a new
      * {@code NodeConnectionMatrix}.  This method simply copies the names of the
-     * {@code First Nodes} and {@code Last Nodes} and the correlation along
-     * the diagonal into the {@code NodeConnectionMatrix}.  Therefore, this
-     * method does not guarantee anything about the quality of the mapping.
+     * {@code First Nodes} and {@code Last Nodes} and the correlation of each
+     * pair into the {@code NodeConnectionMatrix}.  Therefore, this method does
+     * not guarantee anything about the quality of the mapping.
      * 
-     * @return the connection of the nodes along the diagonal
+     * @param   matcher the {@code GreedyMatcher} which matched the pairs
+     * @param   matches the indices of the matched pairs
+     * @return  the connection of the nodes of the given pairs
      **************************************************************************/
-    protected NodeConnectionMatrix getConnection() {
+    protected NodeConnectionMatrix getConnection(GreedyMatcher matcher,
+            int[] matches) {
         NodeConnectionMatrix    connection;
-        double                  value;
-        int                     dimension   = Math.min(nRows_, nColumns_);
+        int                     rowIndex;
+        int                     columnIndex;
         
-        connection = new NodeConnectionMatrix(dimension);
+        connection = new NodeConnectionMatrix(matches.length);
         
-        for (int i = 0; i < dimension; i++) {
-            if (rowNames_[i] != null) {
-                connection.setFirstNodeNameAt(rowNames_[i], i);
+        for (int i = 0; i < matches.length; i++) {
+            rowIndex    = matcher.getRowIndexOf(matches[i]);
+            columnIndex = matcher.getColumnIndexOf(matches[i]);
+            
+            if (rowNames_[rowIndex] != null) {
+                connection.setFirstNodeNameAt(rowNames_[rowIndex], i);
             }
             
-            if (columnNames_[i] != null) {
-                connection.setLastNodeNameAt(columnNames_[i], i);
+            if (columnNames_[columnIndex] != null) {
+                connection.setLastNodeNameAt(columnNames_[columnIndex], i);
             }
             
-            value = values_[(i * nColumns_) + i];
-            connection.setCorrelationAt(value, i);
+            connection.setCorrelationAt(
+                    values_[(rowIndex * nColumns_) + columnIndex], i);
         }
         
         return connection;
@@ -108,10 +115,10 @@ public class NodeCorrelationMatrix extends RectangularMatrix {
     
     /***************************************************************************
      * Returns a mapping between the {@code First Nodes} and {@code Last Nodes}
-     * based on the minimum correlation.  This method makes a copy of this class
-     * and calls {@link #sortDiagonalAscending()} with the given tolerance.  A
-     * {@code NodeConnectionMatrix} is then created from the sorted correlation
-     * and reduced to the given tolerance.
+     * based on the minimum correlation.  This method matches the nodes with a
+     * {@link GreedyMatcher} in the order of ascending correlation.  A
+     * {@code NodeConnectionMatrix} is then created from the matched pairs and
+     * reduced to the given tolerance.  This matrix is not changed.
      * 
      * @param   tolerance   the maximum correlation tolerance
      * @return  the connection of the nodes based on a minimum distanace
@@ -119,12 +126,10 @@ public class NodeCorrelationMatrix extends RectangularMatrix {
      **************************************************************************/
     public NodeConnectionMatrix getPreferredConnection(double tolerance) {
         NodeConnectionMatrix    connection;
-        NodeCorrelationMatrix   correlation;
-        
-        correlation = new NodeCorrelationMatrix(this);
-        correlation.sortDiagonalAscending();
+        GreedyMatcher           matcher;
         
-        connection = correlation.getConnection();
+        matcher     = new GreedyMatcher(values_, nRows_, nColumns_, false);
+        connection  = this.getConnection(matcher, matcher.match());
         connection.reduce(tolerance);
         
         return connection;
@@ -168,47 +173,4 @@ public class NodeCorrelationMatrix extends RectangularMatrix {
     public void setLastNodeNameAt(String nodeName, int nodeIndex) {
         this.setColumnNameAt(nodeName, nodeIndex);
     } // eom
-    
-    
-    
-    /***************************************************************************
-     * This method iteratively searches this matrix for the minimum correlation
-     * mapping and places them along the diagonal.  The algorithm begins by
-     * searching the entire matrix for the minimum value.  The corresponding row
-     * and column are swapped into the first row and first column.  The next
-     * search omits the row and column and searches the matrix for the next
-     * smallest value.  The corresponding row and column are swapped into the
-     * second row and second column.  The next search proceeds by omitting the
-     * first two rows and first two columns.  Thus, the minimum mapping between
-     * the {@code First Nodes} and {@code Last Nodes} is built along the
-     * diagonal.
-     **************************************************************************/
-    protected void sortDiagonalAscending() {
-        double  minimumValue;
-        double  value;
-        int     rowIndex;
-        int     columnIndex;
-        int     dimension       = Math.min(nRows_, nColumns_);
-        
-        for (int i = 0; i < dimension; i++) {
-            minimumValue    = values_[(i * nColumns_) + i];
-            rowIndex        = i;
-            columnIndex     = i;
-            
-            for (int j = i; j < nRows_; j++) {
-                for (int k = i; k < nColumns_; k++) {
-                    value = values_[(j * nColumns_) + k];
-                    
-                    if (value < minimumValue) {
-                        minimumValue    = value;
-                        rowIndex        = j;
-                        columnIndex     = k;
-                    }
-                }
-            }
-            
-            this.swapRows(i, rowIndex);
-            this.swapColumns(i, columnIndex);
-        }
-    } // eom
 } // eoc
\ No newline at end of file
@@ -13,11 +13,14 @@ package de.iabg.mesh;
 
 import de.iabg.j3d.ColorConstants;
 
+import de.iabg.math.GreedyMatcher;
+import de.iabg.math.ParallelExecutor;
 import de.iabg.math.RectangularMatrix;
 
 import de.iabg.swing.KeyList;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.media.j3d.Appearance;
 import javax.media.j3d.Background;
@@ -53,9 +56,15 @@ import javax.vecmath.Point3d;
  * @version September 10, 2008
  ******************************************************************************/
 public class NodeMatrix extends RectangularMatrix {
+    /** The executor which computes the distance correlation in parallel */
+    protected ParallelExecutor executor_;
+    
     /** The number of components in 3D space */
     protected static final int N_COMPONENTS = 3;
     
+    /** The number of nodes of this matrix in each parallel task */
+    protected static final int N_TILE_NODES = 64;
+    
     /** The color of the nodes */
     protected Color3f nodeColor_;
     
@@ -92,6 +101,8 @@ public class NodeMatrix extends RectangularMatrix {
         this.setColumnNameAt("Y-Coordinate", Y_INDEX);
         this.setColumnNameAt("Z-Coordinate", Z_INDEX);
         this.setNodeColor(ColorConstants.WHITE_COLOR);
+        
+        executor_ = ParallelExecutor.getSharedExecutor();
     } // eom
     
     
@@ -107,6 +118,8 @@ public class NodeMatrix extends RectangularMatrix {
         System.arraycopy(nodes.rowNames_, 0, rowNames_, 0, nRows_);
         System.arraycopy(nodes.columnNames_, 0, columnNames_, 0, nColumns_);
         System.arraycopy(nodes.values_, 0, values_, 0, nRows_ * nColumns_);
+        
+        executor_ = nodes.executor_;
     } // eom
     
     
@@ -124,24 +137,111 @@ public class NodeMatrix extends RectangularMatrix {
     
     
     
+    /***************************************************************************
+     * Computes a connection between the nodes of this {@code NodeMatrix} and
+     * the given {@code NodeMatrix}, whose distances are no more than the given
+     * tolerance.  This connection is the same as the connection returned by
+     * {@link NodeCorrelationMatrix#getPreferredConnection(double)} for the
+     * distance correlation of both matrices, but the distances between all
+     * nodes are neither computed nor stored.  Instead, the nodes of the given
+     * matrix are indexed in a {@link NodeTree}, which finds the candidate
+     * nodes within the tolerance of each node of this matrix.  The candidate
+     * pairs are then connected in the order of ascending distance, skipping
+     * any pair whose nodes are already connected.
+     * 
+     * @param   nodes       the {@code NodeMatrix} that will be connected to
+     *                      this {@code NodeMatrix}
+     * @param   tolerance   the maximum distance tolerance
+     * @return  the connection of the nodes based on a minimum distance
+     **************************************************************************/
+    public NodeConnectionMatrix computeDistanceConnection(NodeMatrix nodes,
+            double tolerance) {
+        NodeTree        tree            = new NodeTree(nodes);
+        int[]           firstIndices    = new int[Math.max(nRows_, 1)];
+        int[]           lastIndices     = new int[firstIndices.length];
+        double[]        distances       = new double[firstIndices.length];
+        double[]        lastValues      = nodes.values_;
+        int[]           nodeIndices;
+        double          distanceSquared;
+        double          dComponent;
+        int             nCandidates     = 0;
+        int             lastIndex;
+        
+        for (int i = 0; i < nRows_; i++) {
+            nodeIndices = tree.findNodesWithin(values_[(i * nColumns_) +
+                    X_INDEX], values_[(i * nColumns_) + Y_INDEX],
+                    values_[(i * nColumns_) + Z_INDEX], tolerance);
+            
+            if (nCandidates + nodeIndices.length > firstIndices.length) {
+                firstIndices    = this.resize(firstIndices, 2 *
+                        (nCandidates + nodeIndices.length));
+                lastIndices     = this.resize(lastIndices, firstIndices.length);
+                distances       = this.resize(distances, firstIndices.length);
+            }
+            
+            for (int j = 0; j < nodeIndices.length; j++) {
+                lastIndex       = nodeIndices[j];
+                distanceSquared = 0.0;
+                
+                for (int k = 0; k < N_COMPONENTS; k++) {
+                    dComponent      =  values_[(i * nColumns_) + k];
+                    dComponent      -= lastValues[(lastIndex * nColumns_) + k];
+                    dComponent      *= dComponent;
+                    distanceSquared += dComponent;
+                }
+                
+                firstIndices[nCandidates]   = i;
+                lastIndices[nCandidates]    = lastIndex;
+                distances[nCandidates]      = Math.sqrt(distanceSquared);
+                nCandidates++;
+            }
+        }
+        
+        return this.connectCandidates(nodes, firstIndices, lastIndices,
+                distances, nCandidates);
+    } // eom
+    
+    
+    
     /***************************************************************************
      * Computes a matrix of the distances between each node in this
      * {@code NodeMatrix} and the given {@code NodeMatrix}.  The nodes of this
      * matrix are the rows of the returned {@link NodeCorrelationMatrix}, while
      * the nodes of the given matrix are the columns.
      * 
+     * The coordinates of the given nodes are first split into one array per
+     * component, so that the distances from each node of this matrix are
+     * computed in a loop over consecutive values, which the compiler can
+     * vectorize.  The components are summed in the same order as before.
+     * 
      * @param   nodes   the {@code NodeMatrix} that will be correlated to this
      *                  {@code NodeMatrix}
      * @return  the matrix of the distance correlation
      **************************************************************************/
     public NodeCorrelationMatrix computeDistanceCorrelation(NodeMatrix nodes) {
         NodeCorrelationMatrix   correlation;
-        double                  distanceSquared;
-        double                  dComponent;
+        List<Runnable>          tiles;
+        final double[]          distances;
+        final double[]          lastValues          = nodes.values_;
+        final double[]          lastXCoordinates;
+        final double[]          lastYCoordinates;
+        final double[]          lastZCoordinates;
         int                     nFirstNodes         = nRows_;
-        int                     nLastNodes          = nodes.nRows_;
+        final int               nLastNodes          = nodes.nRows_;
+        
+        correlation         = new NodeCorrelationMatrix(nFirstNodes,
+                nLastNodes);
+        distances           = correlation.values();
+        tiles               = new ArrayList<Runnable>();
+        lastXCoordinates    = new double[nLastNodes];
+        lastYCoordinates    = new double[nLastNodes];
+        lastZCoordinates    = new double[nLastNodes];
         
-        correlation = new NodeCorrelationMatrix(nFirstNodes, nLastNodes);
+        for (int j = 0; j < nLastNodes; j++) {
+            lastXCoordinates[j] = lastValues[(j * nColumns_) + X_INDEX];
+            lastYCoordinates[j] = lastValues[(j * nColumns_) + Y_INDEX];
+            lastZCoordinates[j] = lastValues[(j * nColumns_) + Z_INDEX];
+        }
         
         for (int i = 0; i < nFirstNodes; i++) {
             if (rowNames_[i] != null) {
@@ -155,26 +255,94 @@ public class NodeMatrix extends RectangularMatrix {
             }
         }
         
-        for (int i = 0; i < nFirstNodes; i++) {
-            for (int j = 0; j < nLastNodes; j++) {
-                distanceSquared = 0.0;
-                
-                for (int k = 0; k < N_COMPONENTS; k++) {
-                    dComponent      =  values_[(i * nColumns_) + k];
-                    dComponent      -= nodes.values_[(j * nColumns_) + k];
-                    dComponent      *= dComponent;
-                    distanceSquared += dComponent;
-                }
-                
-                correlation.setCorrelationAt(Math.sqrt(distanceSquared), i, j);
-            }
+        for (int i = 0; i < nFirstNodes; i += N_TILE_NODES) {
+            final int firstStart    = i;
+            final int firstEnd      = Math.min(i + N_TILE_NODES, nFirstNodes);
+            
+            tiles.add(new Runnable() {
+                public void run() {
+                    double  dX;
+                    double  dY;
+                    double  dZ;
+                    double  xCoordinate;
+                    double  yCoordinate;
+                    double  zCoordinate;
+                    int     iRow;
+                    
+                    for (int i = firstStart; i < firstEnd; i++) {
+                        iRow        = i * nLastNodes;
+                        xCoordinate = values_[(i * nColumns_) + X_INDEX];
+                        yCoordinate = values_[(i * nColumns_) + Y_INDEX];
+                        zCoordinate = values_[(i * nColumns_) + Z_INDEX];
+                        
+                        for (int j = 0; j < nLastNodes; j++) {
+                            dX = xCoordinate - lastXCoordinates[j];
+                            dY = yCoordinate - lastYCoordinates[j];
+                            dZ = zCoordinate - lastZCoordinates[j];
+                            
+                            distances[iRow + j] = Math.sqrt((dX * dX) +
+                                    (dY * dY) + (dZ * dZ));
+                        }
+                    }
+                } // eom
+            });
         }
         
+        executor_.execute(tiles);
+        
         return correlation;
     } // eom
     
     
     
+    /***************************************************************************
+     * Connects the given candidate pairs of nodes in the order of ascending
+     * distance with a {@link GreedyMatcher}.  A pair is skipped if either of
+     * its nodes is already connected.  Pairs with equal distances are taken in
+     * the order of their node indices in this matrix and then in the given
+     * matrix.
+     * 
+     * @param   nodes           the {@code NodeMatrix} of the {@code Last Nodes}
+     * @param   firstIndices    the indices of the nodes of this matrix
+     * @param   lastIndices     the indices of the nodes of the given matrix
+     * @param   distances       the distances of the candidate pairs
+     * @param   nCandidates     the number of candidate pairs
+     * @return  the connection of the nodes in the order of ascending distance
+     **************************************************************************/
+    protected NodeConnectionMatrix connectCandidates(NodeMatrix nodes,
+            int[] firstIndices, int[] lastIndices, double[] distances,
+            int nCandidates) {
+        NodeConnectionMatrix    connection;
+        GreedyMatcher           matcher;
+        int[]                   matches;
+        int                     candidate;
+        
+        matcher     = new GreedyMatcher(firstIndices, lastIndices, distances,
+                nCandidates, nRows_, nodes.nRows_, false);
+        matches     = matcher.match();
+        connection  = new NodeConnectionMatrix(matches.length);
+        
+        for (int i = 0; i < matches.length; i++) {
+            candidate = matches[i];
+            
+            if (rowNames_[firstIndices[candidate]] != null) {
+                connection.setFirstNodeNameAt(
+                        rowNames_[firstIndices[candidate]], i);
+            }
+            
+            if (nodes.rowNames_[lastIndices[candidate]] != null) {
+                connection.setLastNodeNameAt(
+                        nodes.rowNames_[lastIndices[candidate]], i);
+            }
+            
+            connection.setCorrelationAt(distances[candidate], i);
+        }
+        
+        return connection;
+    } // eom
+    
+    
+    
     /***************************************************************************
      * Returns {@code true} if this matrix contains all of the node names
      * specified in the given subset.
@@ -184,7 +352,7 @@ public class NodeMatrix extends RectangularMatrix {
      *          {@code false} otherwise
      **************************************************************************/
     public boolean containsAll(KeyList nodeKeys) {
-        return Arrays.asList(rowNames_).containsAll(nodeKeys.values());
+        return this.containsAllRows(nodeKeys.values());
     } // eom
     
     
@@ -240,6 +408,18 @@ public class NodeMatrix extends RectangularMatrix {
     
     
     
+    /***************************************************************************
+     * Returns the executor which computes the distance correlation in
+     * parallel.
+     * 
+     * @return  the executor of this matrix
+     **************************************************************************/
+    public ParallelExecutor getExecutor() {
+        return executor_;
+    } // eom
+    
+    
+    
     /***************************************************************************
      * A convenience method which wraps {@link #getRowCount()}.
      * 
@@ -262,6 +442,32 @@ public class NodeMatrix extends RectangularMatrix {
     
     
     
+    /***************************************************************************
+     * Makes a copy of this {@code NodeMatrix} and the given one, sorts each by
+     * the corresponding given node names, and computes the resulting
+     * {@link NodeConnectionMatrix} from
+     * {@link #computeDistanceConnection(de.iabg.mesh.NodeMatrix, double)}.
+     * 
+     * @param   nodes           the {@code NodeMatrix} that will be connected
+     *                          to this {@code NodeMatrix}
+     * @param   firstNodeKeys   the new order of the nodes of this matrix
+     * @param   lastNodeKeys    the new order of the nodes of the given matrix
+     * @param   tolerance       the maximum distance tolerance
+     * @return  the connection of the nodes based on a minimum distance
+     **************************************************************************/
+    public NodeConnectionMatrix getReducedDistanceConnection(NodeMatrix nodes,
+            KeyList firstNodeKeys, KeyList lastNodeKeys, double tolerance) {
+        NodeMatrix firstNodes   = new NodeMatrix(this);
+        NodeMatrix lastNodes    = new NodeMatrix(nodes);
+        
+        firstNodes.sortNodes(firstNodeKeys);
+        lastNodes.sortNodes(lastNodeKeys);
+        
+        return firstNodes.computeDistanceConnection(lastNodes, tolerance);
+    } // eom
+    
+    
+    
     /***************************************************************************
      * Makes a copy of this {@code NodeMatrix} and the given one, sorts each by
      * the corresponding given node names, and computes the resulting
@@ -374,6 +580,55 @@ public class NodeMatrix extends RectangularMatrix {
     
     
     
+    /***************************************************************************
+     * This method does nothing and overrides the previous implementation
+     * because the columns (coordinates) should not be rearranged.
+     **************************************************************************/
+    @Override
+    public void permuteColumns(int[] columnIndices) {
+        
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns a copy of the given array with the given length.  The array is
+     * truncated or padded with zeros as necessary.
+     * 
+     * @param   values  the array to be copied
+     * @param   length  the length of the copy
+     * @return  the resized copy of the array
+     **************************************************************************/
+    protected double[] resize(double[] values, int length) {
+        double[] resizedValues = new double[length];
+        
+        System.arraycopy(values, 0, resizedValues, 0,
+                Math.min(values.length, length));
+        
+        return resizedValues;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns a copy of the given array with the given length.  The array is
+     * truncated or padded with zeros as necessary.
+     * 
+     * @param   values  the array to be copied
+     * @param   length  the length of the copy
+     * @return  the resized copy of the array
+     **************************************************************************/
+    protected int[] resize(int[] values, int length) {
+        int[] resizedValues = new int[length];
+        
+        System.arraycopy(values, 0, resizedValues, 0,
+                Math.min(values.length, length));
+        
+        return resizedValues;
+    } // eom
+    
+    
+    
     /***************************************************************************
      * This method does nothing and overrides the previous implementation
      * because the number of columns (coordinates) should not change.
@@ -385,6 +640,17 @@ public class NodeMatrix extends RectangularMatrix {
     
     
     
+    /***************************************************************************
+     * Sets the executor which computes the distance correlation in parallel.
+     * 
+     * @param   executor    the executor of this matrix
+     **************************************************************************/
+    public void setExecutor(ParallelExecutor executor) {
+        executor_ = executor;
+    } // eom
+    
+    
+    
     /***************************************************************************
      * Replaces the color with which the nodes will be rendered in
      * {@link #getScene2D(double, javax.vecmath.Color3f)} or
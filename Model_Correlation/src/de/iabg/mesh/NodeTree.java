@@ -0,0 +1,392 @@
+/*******************************************************************************
+ * Student:             Adam C. Dick, BSE
+ * Master's Thesis:     Validating and Updating Structural FE Models
+ *                      for Dynamic Analysis
+ * 
+ * Industry Partner:    Industrieanlagen-Betriebsgesellschaft mbH in Ottobrunn
+ * Supervisor:          Dr.-Ing. Manfred Kroiss
+ * 
+ * Academic Partner:    Technische Universitaet Muenchen
+ * Supervisor:          Dr.-Ing. Martin Ruess
+ ******************************************************************************/
+package de.iabg.mesh;
+
+import java.util.Arrays;
+
+/*******************************************************************************
+ * This class is a spatial index of the nodes of a {@link NodeMatrix}, which is
+ * implemented as a balanced k-d tree.  The tree answers which nodes lie within
+ * a given distance of a point and which node is nearest to a point, without
+ * computing the distance to every node.  Thus, two meshes can be connected
+ * without storing the distances between all of their nodes.
+ * 
+ * The tree is stored implicitly in arrays.  Each subtree occupies a range of
+ * the arrays, whose middle element is the splitting node.  The nodes before
+ * the splitting node do not lie beyond it along the splitting axis, and the
+ * nodes after it do not lie before it.  The splitting axis of each subtree is
+ * the axis along which its nodes are most widely spread, which keeps the tree
+ * efficient for flat and slender meshes.  The coordinates are copied in tree
+ * order, so that the tree does not change if the {@code NodeMatrix} changes.
+ * 
+ * @author  Adam C. Dick, BSE
+ * @version November 17, 2008
+ ******************************************************************************/
+public class NodeTree {
+    /** The number of components in 3D space */
+    protected static final int N_COMPONENTS = 3;
+    
+    /** The node coordinates in tree order */
+    protected double[] coordinates_;
+    
+    /** The maximum depth of the tree */
+    protected int depth_;
+    
+    /** The node indices in tree order */
+    protected int[] nodeIndices_;
+    
+    /** The number of nodes in the tree */
+    protected int nNodes_;
+    
+    /** The splitting axis of each subtree, stored at its splitting node */
+    protected byte[] splitAxes_;
+    
+    
+    
+    /***************************************************************************
+     * Constructs a {@code NodeTree} of the nodes of the given
+     * {@code NodeMatrix}.  The tree is built in {@code O(n log n)} time.
+     * 
+     * @param   nodes   the {@code NodeMatrix} to be indexed
+     **************************************************************************/
+    public NodeTree(NodeMatrix nodes) {
+        double[] values = nodes.values();
+        
+        nNodes_         = nodes.getNodeCount();
+        nodeIndices_    = new int[nNodes_];
+        splitAxes_      = new byte[nNodes_];
+        coordinates_    = new double[nNodes_ * N_COMPONENTS];
+        depth_          = 0;
+        
+        for (int i = 0; i < nNodes_; i++) {
+            nodeIndices_[i] = i;
+        }
+        
+        this.build(values, 0, nNodes_, 1);
+        
+        for (int i = 0; i < nNodes_; i++) {
+            System.arraycopy(values, nodeIndices_[i] * N_COMPONENTS,
+                    coordinates_, i * N_COMPONENTS, N_COMPONENTS);
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Builds the subtree in the given range of the node indices.  The axis of
+     * the widest spread is chosen, and the node indices are partitioned about
+     * their median along this axis.  Both halves are then built recursively.
+     * 
+     * @param   values  the coordinates of the indexed nodes
+     * @param   start   the first position of the subtree
+     * @param   end     the position after the last one of the subtree
+     * @param   depth   the depth of the subtree
+     **************************************************************************/
+    protected void build(double[] values, int start, int end, int depth) {
+        double  minimum;
+        double  maximum;
+        double  spread;
+        double  maximumSpread   = -1.0;
+        double  value;
+        int     axis            = 0;
+        int     middle;
+        
+        if (start >= end) {
+            return;
+        }
+        
+        depth_ = Math.max(depth_, depth);
+        middle = (start + end) >>> 1;
+        
+        for (int k = 0; k < N_COMPONENTS; k++) {
+            minimum = Double.POSITIVE_INFINITY;
+            maximum = Double.NEGATIVE_INFINITY;
+            
+            for (int i = start; i < end; i++) {
+                value   = values[(nodeIndices_[i] * N_COMPONENTS) + k];
+                minimum = Math.min(minimum, value);
+                maximum = Math.max(maximum, value);
+            }
+            
+            spread = maximum - minimum;
+            
+            if (spread > maximumSpread) {
+                maximumSpread   = spread;
+                axis            = k;
+            }
+        }
+        
+        this.select(values, axis, start, end, middle);
+        splitAxes_[middle] = (byte) axis;
+        
+        this.build(values, start, middle, depth + 1);
+        this.build(values, middle + 1, end, depth + 1);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the index of the node which is nearest to the given point, or
+     * {@code -1} if this tree is empty.  If several nodes are equally near,
+     * the one with the smallest index is returned.
+     * 
+     * @param   x   the x-coordinate of the point
+     * @param   y   the y-coordinate of the point
+     * @param   z   the z-coordinate of the point
+     * @return  the index of the nearest node in the {@code NodeMatrix}
+     **************************************************************************/
+    public int findNearestNode(double x, double y, double z) {
+        double[]    point       = {x, y, z};
+        double[]    nearest     = {Double.POSITIVE_INFINITY, -1};
+        
+        this.findNearestNode(point, 0, nNodes_, nearest);
+        
+        return (int) nearest[1];
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Searches the subtree in the given range for a node which is nearer to
+     * the given point than the nearest node found so far.  The half of the
+     * subtree on the side of the point is searched first, and the other half
+     * is only searched if it could contain a nearer node.
+     * 
+     * @param   point   the coordinates of the point
+     * @param   start   the first position of the subtree
+     * @param   end     the position after the last one of the subtree
+     * @param   nearest the squared distance and index of the nearest node
+     **************************************************************************/
+    protected void findNearestNode(double[] point, int start, int end,
+            double[] nearest) {
+        double  distanceSquared;
+        double  dSplit;
+        int     middle;
+        int     nodeIndex;
+        
+        if (start >= end) {
+            return;
+        }
+        
+        middle          = (start + end) >>> 1;
+        nodeIndex       = nodeIndices_[middle];
+        distanceSquared = this.getDistanceSquared(point, middle);
+        
+        if (distanceSquared < nearest[0] || (distanceSquared == nearest[0] &&
+                nodeIndex < nearest[1])) {
+            nearest[0] = distanceSquared;
+            nearest[1] = nodeIndex;
+        }
+        
+        dSplit = point[splitAxes_[middle]] -
+                coordinates_[(middle * N_COMPONENTS) + splitAxes_[middle]];
+        
+        if (dSplit <= 0.0) {
+            this.findNearestNode(point, start, middle, nearest);
+            
+            if (dSplit * dSplit <= nearest[0]) {
+                this.findNearestNode(point, middle + 1, end, nearest);
+            }
+        }
+        else {
+            this.findNearestNode(point, middle + 1, end, nearest);
+            
+            if (dSplit * dSplit <= nearest[0]) {
+                this.findNearestNode(point, start, middle, nearest);
+            }
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the indices of all nodes whose distance to the given point is no
+     * more than the given radius.  The distance is computed in the same way
+     * as in {@link NodeMatrix#computeDistanceCorrelation(NodeMatrix)}, so that
+     * the same nodes are found as in a distance correlation.  The returned
+     * indices are sorted in ascending order.
+     * 
+     * @param   x       the x-coordinate of the point
+     * @param   y       the y-coordinate of the point
+     * @param   z       the z-coordinate of the point
+     * @param   radius  the maximum distance of the nodes to the point
+     * @return  the indices of the nodes in the {@code NodeMatrix}
+     **************************************************************************/
+    public int[] findNodesWithin(double x, double y, double z, double radius) {
+        double[]    point       = {x, y, z};
+        int[]       nodeIndices = new int[8];
+        int[]       stack       = new int[2 * (depth_ + 2)];
+        double      dSplit;
+        int         nFound      = 0;
+        int         nStack      = 0;
+        int         start;
+        int         end;
+        int         middle;
+        
+        stack[nStack++] = 0;
+        stack[nStack++] = nNodes_;
+        
+        while (nStack > 0) {
+            end     = stack[--nStack];
+            start   = stack[--nStack];
+            
+            if (start >= end) {
+                continue;
+            }
+            
+            middle = (start + end) >>> 1;
+            
+            if (Math.sqrt(this.getDistanceSquared(point, middle)) <= radius) {
+                if (nFound == nodeIndices.length) {
+                    nodeIndices = this.resize(nodeIndices, 2 * nFound);
+                }
+                
+                nodeIndices[nFound++] = nodeIndices_[middle];
+            }
+            
+            dSplit = point[splitAxes_[middle]] -
+                    coordinates_[(middle * N_COMPONENTS) + splitAxes_[middle]];
+            
+            if (dSplit <= radius) {
+                stack[nStack++] = start;
+                stack[nStack++] = middle;
+            }
+            
+            if (-dSplit <= radius) {
+                stack[nStack++] = middle + 1;
+                stack[nStack++] = end;
+            }
+        }
+        
+        nodeIndices = this.resize(nodeIndices, nFound);
+        Arrays.sort(nodeIndices);
+        
+        return nodeIndices;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the squared distance between the given point and the node at
+     * the given position of the tree.  The components are summed in the same
+     * order as in {@link NodeMatrix#computeDistanceCorrelation(NodeMatrix)}.
+     * 
+     * @param   point       the coordinates of the point
+     * @param   position    the position of the node in the tree
+     * @return  the squared distance between the point and the node
+     **************************************************************************/
+    protected double getDistanceSquared(double[] point, int position) {
+        double  distanceSquared = 0.0;
+        double  dComponent;
+        
+        for (int k = 0; k < N_COMPONENTS; k++) {
+            dComponent      =  point[k];
+            dComponent      -= coordinates_[(position * N_COMPONENTS) + k];
+            dComponent      *= dComponent;
+            distanceSquared += dComponent;
+        }
+        
+        return distanceSquared;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the number of nodes in this tree.
+     * 
+     * @return  the number of nodes
+     **************************************************************************/
+    public int getNodeCount() {
+        return nNodes_;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns a copy of the given array with the given length.  The array is
+     * truncated or padded with zeros as necessary.
+     * 
+     * @param   values  the array to be copied
+     * @param   length  the length of the copy
+     * @return  the resized copy of the array
+     **************************************************************************/
+    protected int[] resize(int[] values, int length) {
+        int[] resizedValues = new int[length];
+        
+        System.arraycopy(values, 0, resizedValues, 0,
+                Math.min(values.length, length));
+        
+        return resizedValues;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Partially sorts the given range of the node indices along the given axis,
+     * so that the node at the given position is the one that would be there if
+     * the range were completely sorted.  No node before this position lies
+     * beyond it, and no node after it lies before it.  The selection takes
+     * linear time on average.
+     * 
+     * @param   values      the coordinates of the indexed nodes
+     * @param   axis        the axis along which the nodes are compared
+     * @param   start       the first position of the range
+     * @param   end         the position after the last one of the range
+     * @param   position    the position to be selected
+     **************************************************************************/
+    protected void select(double[] values, int axis, int start, int end,
+            int position) {
+        double  pivot;
+        int     left;
+        int     right;
+        int     swap;
+        
+        end--;
+        
+        while (start < end) {
+            pivot   = values[(nodeIndices_[(start + end) >>> 1] *
+                    N_COMPONENTS) + axis];
+            left    = start;
+            right   = end;
+            
+            while (left <= right) {
+                while (values[(nodeIndices_[left] * N_COMPONENTS) + axis] <
+                        pivot) {
+                    left++;
+                }
+                
+                while (values[(nodeIndices_[right] * N_COMPONENTS) + axis] >
+                        pivot) {
+                    right--;
+                }
+                
+                if (left <= right) {
+                    swap                = nodeIndices_[left];
+                    nodeIndices_[left]  = nodeIndices_[right];
+                    nodeIndices_[right] = swap;
+                    left++;
+                    right--;
+                }
+            }
+            
+            if (position <= right) {
+                end = right;
+            }
+            else if (position >= left) {
+                start = left;
+            }
+            else {
+                return;
+            }
+        }
+    } // eom
+} // eoc
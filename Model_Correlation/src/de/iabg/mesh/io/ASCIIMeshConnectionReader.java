@@ -44,6 +44,9 @@ public class ASCIIMeshConnectionReader extends FileReader
     /** Storage for the node connections */
     protected NodeConnectionMatrix nodeConnections_;
     
+    /** The parser of the correlation values */
+    protected NastranNumberParser parser_;
+    
     
     
     /***************************************************************************
@@ -56,6 +59,8 @@ public class ASCIIMeshConnectionReader extends FileReader
     public ASCIIMeshConnectionReader(File file)
             throws FileNotFoundException {
         super(file);
+        
+        parser_ = new NastranNumberParser();
     } // eom
     
     
@@ -74,7 +79,7 @@ public class ASCIIMeshConnectionReader extends FileReader
         
         firstName   = line.substring(0, 8).trim();
         lastName    = line.substring(11, 19).trim();
-        correlation = Double.parseDouble(line.substring(22, 30).trim());
+        correlation = parser_.parseDouble(line, 22, 30);
         
         nodeConnections_.setFirstNodeNameAt(firstName, nodeConnectionIndex);
         nodeConnections_.setLastNodeNameAt(lastName, nodeConnectionIndex);
@@ -0,0 +1,609 @@
+/*******************************************************************************
+ * Student:             Adam C. Dick, BSE
+ * Master's Thesis:     Validating and Updating Structural FE Models
+ *                      for Dynamic Analysis
+ * 
+ * Industry Partner:    Industrieanlagen-Betriebsgesellschaft mbH in Ottobrunn
+ * Supervisor:          Dr.-Ing. Manfred Kroiss
+ * 
+ * Academic Partner:    Technische Universitaet Muenchen
+ * Supervisor:          Dr.-Ing. Martin Ruess
+ ******************************************************************************/
+package de.iabg.mesh.io;
+
+/*******************************************************************************
+ * This class splits a Nastran card into its fields without creating a string
+ * for each field.  The lines of a card are appended to a character buffer,
+ * which is reused for every card, and the card is then split into small
+ * fields of 8 characters, large fields of 16 characters after the 8 character
+ * card name, or free fields separated by commas.  Each field is stored as the
+ * offsets of its first and last characters, without leading or trailing white
+ * space, from which the field can be compared, parsed as a number by a
+ * {@link NastranNumberParser}, or copied into a string if it must be kept.
+ * 
+ * The card names are matched ignoring case, so that neither the line nor the
+ * name must be converted to upper case.  A tokenizer is not thread safe, so
+ * each reader keeps its own.
+ * 
+ * @author  Adam C. Dick, BSE
+ * @version November 27, 2008
+ ******************************************************************************/
+public class NastranCardTokenizer {
+    /** The characters of the card */
+    protected char[] chars_;
+    
+    /** The offset after the last character of each field */
+    protected int[] fieldEnds_;
+    
+    /** The offset of the first character of each field */
+    protected int[] fieldStarts_;
+    
+    /** The initial number of characters and fields which can be stored */
+    protected static final int INITIAL_CAPACITY = 128;
+    
+    /** The width of a large field */
+    protected static final int LARGE_FIELD_WIDTH = 16;
+    
+    /** The number of characters of the card */
+    protected int length_;
+    
+    /** The number of fields of the card */
+    protected int nFields_;
+    
+    /** The parser of the numbers of the card */
+    protected NastranNumberParser parser_;
+    
+    /** The width of a small field */
+    protected static final int SMALL_FIELD_WIDTH = 8;
+    
+    
+    
+    /***************************************************************************
+     * Constructs an empty {@code NastranCardTokenizer}.
+     **************************************************************************/
+    public NastranCardTokenizer() {
+        chars_          = new char[INITIAL_CAPACITY];
+        fieldEnds_      = new int[INITIAL_CAPACITY];
+        fieldStarts_    = new int[INITIAL_CAPACITY];
+        parser_         = new NastranNumberParser();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Adds a field between the given offsets, without its leading and trailing
+     * white space.
+     * 
+     * @param   start   the offset of the first character of the field
+     * @param   end     the offset after the last character of the field
+     **************************************************************************/
+    protected void addField(int start, int end) {
+        if (nFields_ == fieldStarts_.length) {
+            fieldEnds_      = this.growOffsets(fieldEnds_);
+            fieldStarts_    = this.growOffsets(fieldStarts_);
+        }
+        
+        fieldStarts_[nFields_]  = this.trimStart(start, end);
+        fieldEnds_[nFields_]    = this.trimEnd(fieldStarts_[nFields_], end);
+        nFields_++;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Appends the given line to the card.
+     * 
+     * @param   line    the line to be appended
+     **************************************************************************/
+    public void append(String line) {
+        this.append(line, 0, 0);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Appends the characters of the given line, beginning at the given column,
+     * to the card.  If the line is shorter than the given length, white space
+     * characters are appended until the line would reach that length.
+     * 
+     * @param   line        the line to be appended
+     * @param   start       the column of the first appended character
+     * @param   lineLength  the length to which the line is filled
+     **************************************************************************/
+    public void append(String line, int start, int lineLength) {
+        int end     = Math.max(line.length(), lineLength);
+        int lineEnd = line.length();
+        
+        if (start >= end) {
+            return;
+        }
+        
+        this.ensureCapacity(length_ + end - start);
+        
+        if (start < lineEnd) {
+            line.getChars(start, lineEnd, chars_, length_);
+            length_ += lineEnd - start;
+            start   =  lineEnd;
+        }
+        
+        for (; start < end; start++) {
+            chars_[length_++] = ' ';
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Appends the given line to the card, without its leading and trailing
+     * white space.
+     * 
+     * @param   line    the line to be appended
+     **************************************************************************/
+    public void appendTrimmed(String line) {
+        int start   = 0;
+        int end     = line.length();
+        
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
+        }
+        
+        while (end > start && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        
+        this.ensureCapacity(length_ + end - start);
+        
+        line.getChars(start, end, chars_, length_);
+        length_ += end - start;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the character of the card at the given offset.
+     * 
+     * @param   index   the offset of the character
+     * @return  the character
+     **************************************************************************/
+    public char charAt(int index) {
+        if (index < 0 || index >= length_) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        
+        return chars_[index];
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Checks that the given offsets lie within the card.
+     * 
+     * @param   start                       the offset of the first character
+     * @param   end                         the offset after the last character
+     * @throws  IndexOutOfBoundsException   if the offsets are out of range
+     **************************************************************************/
+    protected void checkRange(int start, int end) {
+        if (start < 0 || start > end || end > length_) {
+            throw new IndexOutOfBoundsException(String.format(
+                    "Range [%d, %d) is not within the card of length %d",
+                    start, end, length_));
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Removes all characters and fields of the card, so that the next card can
+     * be appended.
+     **************************************************************************/
+    public void clear() {
+        length_     = 0;
+        nFields_    = 0;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns whether the last character of the card is the given character.
+     * 
+     * @param   c   the character to be matched
+     * @return  {@code true} if the card ends with the character
+     **************************************************************************/
+    public boolean endsWith(char c) {
+        return length_ > 0 && chars_[length_ - 1] == c;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Grows the character buffer so that it can store at least the given
+     * number of characters.
+     * 
+     * @param   length  the required number of characters
+     **************************************************************************/
+    protected void ensureCapacity(int length) {
+        char[] chars;
+        
+        if (length > chars_.length) {
+            chars = new char[Math.max(length, 2 * chars_.length)];
+            System.arraycopy(chars_, 0, chars, 0, length_);
+            chars_ = chars;
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the field at the given index as a string.
+     * 
+     * @param   fieldIndex  the index of the field
+     * @return  the field without leading and trailing white space
+     **************************************************************************/
+    public String getField(int fieldIndex) {
+        return this.getString(this.getFieldStart(fieldIndex),
+                this.getFieldEnd(fieldIndex));
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the number of fields into which the card was last split.
+     * 
+     * @return  the number of fields
+     **************************************************************************/
+    public int getFieldCount() {
+        return nFields_;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the offset after the last character of the field at the given
+     * index, without trailing white space.
+     * 
+     * @param   fieldIndex  the index of the field
+     * @return  the end offset of the field
+     **************************************************************************/
+    public int getFieldEnd(int fieldIndex) {
+        if (fieldIndex < 0 || fieldIndex >= nFields_) {
+            throw new ArrayIndexOutOfBoundsException(fieldIndex);
+        }
+        
+        return fieldEnds_[fieldIndex];
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the offset of the first character of the field at the given
+     * index, without leading white space.
+     * 
+     * @param   fieldIndex  the index of the field
+     * @return  the start offset of the field
+     **************************************************************************/
+    public int getFieldStart(int fieldIndex) {
+        if (fieldIndex < 0 || fieldIndex >= nFields_) {
+            throw new ArrayIndexOutOfBoundsException(fieldIndex);
+        }
+        
+        return fieldStarts_[fieldIndex];
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the characters of the card between the given offsets as a
+     * string, without leading and trailing white space.
+     * 
+     * @param   start   the offset of the first character
+     * @param   end     the offset after the last character
+     * @return  the trimmed string
+     **************************************************************************/
+    public String getString(int start, int end) {
+        this.checkRange(start, end);
+        
+        start   = this.trimStart(start, end);
+        end     = this.trimEnd(start, end);
+        
+        return new String(chars_, start, end - start);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns a copy of the given offsets with twice their length.
+     * 
+     * @param   offsets the offsets to be copied
+     * @return  the grown offsets
+     **************************************************************************/
+    protected int[] growOffsets(int[] offsets) {
+        int[] grownOffsets = new int[2 * offsets.length];
+        
+        System.arraycopy(offsets, 0, grownOffsets, 0, nFields_);
+        
+        return grownOffsets;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the offset of the first occurrence of the given character at or
+     * after the given offset.
+     * 
+     * @param   c           the character to be found
+     * @param   fromIndex   the offset at which the search starts
+     * @return  the offset of the character, or {@code -1} if it does not occur
+     **************************************************************************/
+    public int indexOf(char c, int fromIndex) {
+        for (int i = Math.max(fromIndex, 0); i < length_; i++) {
+            if (chars_[i] == c) {
+                return i;
+            }
+        }
+        
+        return -1;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the offset of the first occurrence of the given name between the
+     * given offsets, ignoring case.
+     * 
+     * @param   name                        the name to be found
+     * @param   start                       the offset at which the search
+     *                                      starts
+     * @param   end                         the offset at which the search ends
+     * @return  the offset of the name, or {@code -1} if it does not occur
+     * @throws  IndexOutOfBoundsException   if the offsets are out of range
+     **************************************************************************/
+    public int indexOf(String name, int start, int end) {
+        this.checkRange(start, end);
+        
+        for (int i = start; i + name.length() <= end; i++) {
+            if (this.regionMatches(i, name)) {
+                return i;
+            }
+        }
+        
+        return -1;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the number of characters of the card.
+     * 
+     * @return  the length of the card
+     **************************************************************************/
+    public int length() {
+        return length_;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Parses the characters of the card between the given offsets as a real
+     * number, which may be written in any of the forms of
+     * {@link NastranNumberParser}.
+     * 
+     * @param   start                   the offset of the first character
+     * @param   end                     the offset after the last character
+     * @return  the parsed number
+     * @throws  NumberFormatException   if the characters are not a number
+     **************************************************************************/
+    public double parseDouble(int start, int end) {
+        this.checkRange(start, end);
+        
+        return parser_.parseDouble(chars_, start, end);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Parses the field at the given index as a real number, as by
+     * {@link #parseDouble(int, int)}.
+     * 
+     * @param   fieldIndex              the index of the field
+     * @return  the parsed number
+     * @throws  NumberFormatException   if the field is not a number
+     **************************************************************************/
+    public double parseDoubleField(int fieldIndex) {
+        return this.parseDouble(this.getFieldStart(fieldIndex),
+                this.getFieldEnd(fieldIndex));
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Parses the characters of the card between the given offsets as a
+     * decimal integer.
+     * 
+     * @param   start                   the offset of the first character
+     * @param   end                     the offset after the last character
+     * @return  the parsed integer
+     * @throws  NumberFormatException   if the characters are not an integer
+     **************************************************************************/
+    public int parseInt(int start, int end) {
+        this.checkRange(start, end);
+        
+        return parser_.parseInt(chars_, start, end);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Parses the field at the given index as a decimal integer, as by
+     * {@link #parseInt(int, int)}.
+     * 
+     * @param   fieldIndex              the index of the field
+     * @return  the parsed integer
+     * @throws  NumberFormatException   if the field is not an integer
+     **************************************************************************/
+    public int parseIntField(int fieldIndex) {
+        return this.parseInt(this.getFieldStart(fieldIndex),
+                this.getFieldEnd(fieldIndex));
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns whether the card contains the given name at the given offset,
+     * ignoring case.
+     * 
+     * @param   offset  the offset of the name
+     * @param   name    the name to be matched
+     * @return  {@code true} if the card contains the name at the offset
+     **************************************************************************/
+    public boolean regionMatches(int offset, String name) {
+        char c;
+        char d;
+        
+        if (offset < 0 || offset + name.length() > length_) {
+            return false;
+        }
+        
+        for (int i = 0; i < name.length(); i++) {
+            c = chars_[offset + i];
+            d = name.charAt(i);
+            
+            if (c != d &&
+                    Character.toUpperCase(c) != Character.toUpperCase(d)) {
+                return false;
+            }
+        }
+        
+        return true;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Splits the card, beginning at the given offset, into free fields which
+     * are separated by commas.  As for a {@link java.util.Scanner} which is
+     * delimited by commas, the leading and trailing white space of the card is
+     * ignored, a leading comma is skipped, empty fields between two commas are
+     * kept, and a trailing comma does not begin another field.
+     * 
+     * @param   start   the offset at which the free fields begin
+     **************************************************************************/
+    public void splitFreeFields(int start) {
+        int end = this.trimEnd(start, length_);
+        
+        nFields_    = 0;
+        start       = this.trimStart(start, end);
+        
+        if (start < end && chars_[start] == ',') {
+            start++;
+        }
+        
+        for (int i = start; i < end; i++) {
+            if (chars_[i] == ',') {
+                this.addField(start, i);
+                start = i + 1;
+            }
+        }
+        
+        if (start < end) {
+            this.addField(start, end);
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Splits the card into an 8 character field for the card name, followed by
+     * large fields of 16 characters.  The last field ends with the card.
+     **************************************************************************/
+    public void splitLargeFields() {
+        nFields_ = 0;
+        
+        this.addField(0, Math.min(SMALL_FIELD_WIDTH, length_));
+        
+        for (int i = SMALL_FIELD_WIDTH; i < length_; i += LARGE_FIELD_WIDTH) {
+            this.addField(i, Math.min(i + LARGE_FIELD_WIDTH, length_));
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Splits the card into small fields of 8 characters.  The last field ends
+     * with the card.
+     **************************************************************************/
+    public void splitSmallFields() {
+        nFields_ = 0;
+        
+        for (int i = 0; i < length_; i += SMALL_FIELD_WIDTH) {
+            this.addField(i, Math.min(i + SMALL_FIELD_WIDTH, length_));
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns whether the card begins with the given name, ignoring case.
+     * 
+     * @param   name    the name to be matched
+     * @return  {@code true} if the card begins with the name
+     **************************************************************************/
+    public boolean startsWith(String name) {
+        return this.regionMatches(0, name);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns whether the given line begins with the given name, ignoring
+     * case, without converting the line to upper case.
+     * 
+     * @param   line    the line to be tested
+     * @param   name    the name to be matched
+     * @return  {@code true} if the line begins with the name
+     **************************************************************************/
+    public static boolean startsWith(String line, String name) {
+        return line.regionMatches(true, 0, name, 0, name.length());
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    public String toString() {
+        return new String(chars_, 0, length_);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the given end offset, moved back over trailing white space.
+     * 
+     * @param   start   the offset of the first character
+     * @param   end     the offset after the last character
+     * @return  the trimmed end offset
+     **************************************************************************/
+    protected int trimEnd(int start, int end) {
+        while (end > start && chars_[end - 1] <= ' ') {
+            end--;
+        }
+        
+        return end;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the given start offset, moved forward over leading white space.
+     * 
+     * @param   start   the offset of the first character
+     * @param   end     the offset after the last character
+     * @return  the trimmed start offset
+     **************************************************************************/
+    protected int trimStart(int start, int end) {
+        while (start < end && chars_[start] <= ' ') {
+            start++;
+        }
+        
+        return start;
+    } // eom
+} // eoc
\ No newline at end of file
@@ -0,0 +1,366 @@
+/*******************************************************************************
+ * Student:             Adam C. Dick, BSE
+ * Master's Thesis:     Validating and Updating Structural FE Models
+ *                      for Dynamic Analysis
+ * 
+ * Industry Partner:    Industrieanlagen-Betriebsgesellschaft mbH in Ottobrunn
+ * Supervisor:          Dr.-Ing. Manfred Kroiss
+ * 
+ * Academic Partner:    Technische Universitaet Muenchen
+ * Supervisor:          Dr.-Ing. Martin Ruess
+ ******************************************************************************/
+package de.iabg.mesh.io;
+
+/*******************************************************************************
+ * This class parses the numbers of a Nastran field directly from a range of
+ * characters, without creating a string for each number.  Besides the usual
+ * forms such as {@code 1.5E-3}, a real number may mark its exponent by
+ * {@code D} as in {@code 1.5D-3}, or may omit the exponent letter entirely as
+ * in {@code 1.5-3} or {@code 2.+4}.  Leading and trailing white space is
+ * ignored.
+ * 
+ * A real number whose digits fit exactly into a double and whose decimal
+ * exponent is at most 22, which covers nearly every field of a Nastran file,
+ * is computed as a single multiplication or division of two exactly
+ * representable doubles, so that it is rounded exactly as by
+ * {@link Double#parseDouble(String)}.  Any other number is handed to
+ * {@code Double.parseDouble}, so that the result never differs from it.
+ * Characters which are not a Nastran number are handed to it as well, so that
+ * it either parses them or throws its exception.
+ * 
+ * A parser is not thread safe, so each reader keeps its own.
+ * 
+ * @author  Adam C. Dick, BSE
+ * @version November 28, 2008
+ ******************************************************************************/
+public class NastranNumberParser {
+    /** The initial number of characters which can be copied from a string */
+    protected static final int INITIAL_CAPACITY = 32;
+    
+    /** The largest exponent which is parsed, beyond which a number overflows */
+    protected static final int MAXIMUM_EXPONENT = 99999;
+    
+    /** The largest decimal exponent of an exactly computed number */
+    protected static final int MAXIMUM_FAST_EXPONENT = 22;
+    
+    /** The largest mantissa of an exactly computed number */
+    protected static final long MAXIMUM_FAST_MANTISSA = 1L << 53;
+    
+    /** The largest number of significant digits which are accumulated */
+    protected static final int MAXIMUM_MANTISSA_DIGITS = 18;
+    
+    /** The powers of ten which are exactly representable as doubles */
+    protected static final double[] POWERS_OF_TEN = {
+        1.0E0,  1.0E1,  1.0E2,  1.0E3,  1.0E4,  1.0E5,  1.0E6,  1.0E7,
+        1.0E8,  1.0E9,  1.0E10, 1.0E11, 1.0E12, 1.0E13, 1.0E14, 1.0E15,
+        1.0E16, 1.0E17, 1.0E18, 1.0E19, 1.0E20, 1.0E21, 1.0E22
+    };
+    
+    /** The characters which are copied from a string to be parsed */
+    protected char[] stringChars_;
+    
+    
+    
+    /***************************************************************************
+     * Constructs a {@code NastranNumberParser}.
+     **************************************************************************/
+    public NastranNumberParser() {
+        stringChars_ = new char[INITIAL_CAPACITY];
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Copies the characters of the given string between the given offsets, so
+     * that they can be parsed without creating a substring.
+     * 
+     * @param   string  the string to be copied
+     * @param   start   the offset of the first character
+     * @param   end     the offset after the last character
+     **************************************************************************/
+    protected void copyString(String string, int start, int end) {
+        if (end - start > stringChars_.length) {
+            stringChars_ = new char[Math.max(end - start,
+                    2 * stringChars_.length)];
+        }
+        
+        string.getChars(start, end, stringChars_, 0);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Parses the given digits of a mantissa, which may contain a decimal
+     * point, with the given decimal exponent as by
+     * {@link Double#parseDouble(String)}.
+     * 
+     * @param   chars       the characters to be parsed
+     * @param   start       the offset of the first digit
+     * @param   end         the offset after the last digit
+     * @param   isNegative  whether the number is negative
+     * @param   exponent    the decimal exponent of the last digit
+     * @return  the parsed number
+     **************************************************************************/
+    protected double parseDigits(char[] chars, int start, int end,
+            boolean isNegative, int exponent) {
+        StringBuilder number = new StringBuilder(end - start + 8);
+        
+        if (isNegative) {
+            number.append('-');
+        }
+        
+        for (int i = start; i < end; i++) {
+            if (chars[i] != '.') {
+                number.append(chars[i]);
+            }
+        }
+        
+        number.append('E').append(exponent);
+        
+        return Double.parseDouble(number.toString());
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Parses the characters between the given offsets as a real number, as
+     * described in the class API.
+     * 
+     * @param   chars                   the characters to be parsed
+     * @param   start                   the offset of the first character
+     * @param   end                     the offset after the last character
+     * @return  the parsed number
+     * @throws  NumberFormatException   if the characters are not a number
+     **************************************************************************/
+    public double parseDouble(char[] chars, int start, int end) {
+        boolean hasPoint            = false;
+        boolean isExponentNegative  = false;
+        boolean isNegative          = false;
+        long    mantissa            = 0L;
+        double  value;
+        int     exponent            = 0;
+        int     nDigits             = 0;
+        int     nFractionDigits     = 0;
+        int     nSignificantDigits  = 0;
+        int     mantissaStart;
+        int     mantissaEnd;
+        int     i;
+        char    c;
+        
+        while (start < end && chars[start] <= ' ') {
+            start++;
+        }
+        
+        while (end > start && chars[end - 1] <= ' ') {
+            end--;
+        }
+        
+        i = start;
+        
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            isNegative = chars[i] == '-';
+            i++;
+        }
+        
+        mantissaStart = i;
+        
+        for (; i < end; i++) {
+            c = chars[i];
+            
+            if (c == '.' && !hasPoint) {
+                hasPoint = true;
+            }
+            else if (c >= '0' && c <= '9') {
+                nDigits++;
+                
+                if (hasPoint) {
+                    nFractionDigits++;
+                }
+                
+                if (mantissa != 0L || c != '0') {
+                    nSignificantDigits++;
+                }
+                
+                if (nSignificantDigits <= MAXIMUM_MANTISSA_DIGITS) {
+                    mantissa = (10L * mantissa) + (c - '0');
+                }
+            }
+            else {
+                break;
+            }
+        }
+        
+        mantissaEnd = i;
+        
+        if (nDigits == 0) {
+            return this.parseOtherNumber(chars, start, end);
+        }
+        
+        if (i < end) {
+            c = chars[i];
+            
+            if (c == 'E' || c == 'e' || c == 'D' || c == 'd') {
+                i++;
+            }
+            else if (c != '+' && c != '-') {
+                return this.parseOtherNumber(chars, start, end);
+            }
+            
+            if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+                isExponentNegative = chars[i] == '-';
+                i++;
+            }
+            
+            if (i == end) {
+                return this.parseOtherNumber(chars, start, end);
+            }
+            
+            for (; i < end; i++) {
+                c = chars[i];
+                
+                if (c < '0' || c > '9') {
+                    return this.parseOtherNumber(chars, start, end);
+                }
+                
+                if (exponent < MAXIMUM_EXPONENT) {
+                    exponent = (10 * exponent) + (c - '0');
+                }
+            }
+        }
+        
+        exponent = isExponentNegative ? -exponent : exponent;
+        exponent -= nFractionDigits;
+        
+        if (nSignificantDigits == 0) {
+            return isNegative ? -0.0 : 0.0;
+        }
+        
+        if (nSignificantDigits > MAXIMUM_MANTISSA_DIGITS ||
+                mantissa > MAXIMUM_FAST_MANTISSA ||
+                exponent < -MAXIMUM_FAST_EXPONENT ||
+                exponent > MAXIMUM_FAST_EXPONENT) {
+            return this.parseDigits(chars, mantissaStart, mantissaEnd,
+                    isNegative, exponent);
+        }
+        
+        if (exponent >= 0) {
+            value = mantissa * POWERS_OF_TEN[exponent];
+        }
+        else {
+            value = mantissa / POWERS_OF_TEN[-exponent];
+        }
+        
+        return isNegative ? -value : value;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Parses the characters of the given string between the given offsets as
+     * a real number, as described in the class API.
+     * 
+     * @param   string                  the string to be parsed
+     * @param   start                   the offset of the first character
+     * @param   end                     the offset after the last character
+     * @return  the parsed number
+     * @throws  NumberFormatException   if the characters are not a number
+     **************************************************************************/
+    public double parseDouble(String string, int start, int end) {
+        this.copyString(string, start, end);
+        
+        return this.parseDouble(stringChars_, 0, end - start);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Parses the characters between the given offsets as a decimal integer.
+     * 
+     * @param   chars                   the characters to be parsed
+     * @param   start                   the offset of the first character
+     * @param   end                     the offset after the last character
+     * @return  the parsed integer
+     * @throws  NumberFormatException   if the characters are not an integer
+     **************************************************************************/
+    public int parseInt(char[] chars, int start, int end) {
+        boolean isNegative  = false;
+        long    value       = 0L;
+        int     i;
+        
+        while (start < end && chars[start] <= ' ') {
+            start++;
+        }
+        
+        while (end > start && chars[end - 1] <= ' ') {
+            end--;
+        }
+        
+        i = start;
+        
+        if (i < end && (chars[i] == '-' || chars[i] == '+')) {
+            isNegative = chars[i] == '-';
+            i++;
+        }
+        
+        if (i == end) {
+            throw new NumberFormatException(String.format(
+                    "Not an integer: \"%s\"",
+                    new String(chars, start, end - start)));
+        }
+        
+        for (; i < end; i++) {
+            if (chars[i] < '0' || chars[i] > '9' ||
+                    value > Integer.MAX_VALUE + 1L) {
+                throw new NumberFormatException(String.format(
+                        "Not an integer: \"%s\"",
+                        new String(chars, start, end - start)));
+            }
+            
+            value = (10L * value) + (chars[i] - '0');
+        }
+        
+        value = isNegative ? -value : value;
+        
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException(String.format(
+                    "Not an integer: \"%s\"",
+                    new String(chars, start, end - start)));
+        }
+        
+        return (int) value;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Parses the characters of the given string between the given offsets as
+     * a decimal integer.
+     * 
+     * @param   string                  the string to be parsed
+     * @param   start                   the offset of the first character
+     * @param   end                     the offset after the last character
+     * @return  the parsed integer
+     * @throws  NumberFormatException   if the characters are not an integer
+     **************************************************************************/
+    public int parseInt(String string, int start, int end) {
+        this.copyString(string, start, end);
+        
+        return this.parseInt(stringChars_, 0, end - start);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Parses the characters between the given offsets, which are not a
+     * Nastran number, as by {@link Double#parseDouble(String)}.
+     * 
+     * @param   chars                   the characters to be parsed
+     * @param   start                   the offset of the first character
+     * @param   end                     the offset after the last character
+     * @return  the parsed number
+     * @throws  NumberFormatException   if the characters are not a number
+     **************************************************************************/
+    protected double parseOtherNumber(char[] chars, int start, int end) {
+        return Double.parseDouble(new String(chars, start, end - start));
+    } // eom
+} // eoc
\ No newline at end of file
@@ -0,0 +1,518 @@
+/*******************************************************************************
+ * Student:             Adam C. Dick, BSE
+ * Master's Thesis:     Validating and Updating Structural FE Models
+ *                      for Dynamic Analysis
+ * 
+ * Industry Partner:    Industrieanlagen-Betriebsgesellschaft mbH in Ottobrunn
+ * Supervisor:          Dr.-Ing. Manfred Kroiss
+ * 
+ * Academic Partner:    Technische Universitaet Muenchen
+ * Supervisor:          Dr.-Ing. Martin Ruess
+ ******************************************************************************/
+package de.iabg.mode;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+
+/*******************************************************************************
+ * This {@link ModeMatrix} stores its mode shape coordinates outside of the
+ * Java heap, in a temporary file which is mapped into memory.  The operating
+ * system pages the values in and out as they are needed, so that the size of
+ * a mode shape matrix is limited neither by the maximum heap size nor by the
+ * maximum length of a single array, and its values are never moved by the
+ * garbage collector.
+ * 
+ * The values are mapped in blocks of whole modes, each of which holds at most
+ * {@link #BLOCK_LENGTH} values.  The correlations visit the modes one block at
+ * a time, so that only the values of one block of each matrix are copied onto
+ * the heap at once.  A correlation with a {@link FloatModeMatrix} is computed
+ * in double precision, for which the other matrix is widened one block at a
+ * time.
+ * 
+ * The double array of {@code RectangularMatrix} is not used, so the
+ * {@link #values()} method returns an empty array.
+ * 
+ * A matrix maps a single temporary file at a time.  Whenever the matrix is
+ * resized or permuted, the previous file is deleted before a new one is
+ * mapped, and the file of a cleared matrix is deleted as well.  Thus, a
+ * matrix should be cleared before it is discarded.  A platform which cannot
+ * delete a file while it is still mapped deletes it when the virtual machine
+ * exits.  The modes
+ * gathered from this matrix by {@link ModeMatrixView#createModes()} are
+ * stored on the heap, since they are only as large as the selected modes and
+ * nodes.
+ * 
+ * @author  Adam C. Dick, BSE
+ * @version November 23, 2008
+ ******************************************************************************/
+public class MappedModeMatrix extends ModeMatrix {
+    /** The mapped values of each block of rows */
+    protected DoubleBuffer[] buffers_;
+    
+    /** The number of rows of each block */
+    protected int nBlockRows_;
+    
+    /** The largest number of values of a block */
+    public static final int BLOCK_LENGTH = 1 << 24;
+    
+    /** The number of bytes of a double value */
+    protected static final int BYTES_PER_VALUE = 8;
+    
+    /** The temporary file which is currently mapped, or {@code null} */
+    protected File file_;
+    
+    
+    
+    /***************************************************************************
+     * Constructs a default {@code MappedModeMatrix} with no modes or nodes.
+     **************************************************************************/
+    public MappedModeMatrix() {
+        this(0, 0);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Constructs a {@code MappedModeMatrix} containing the given number of
+     * modes and nodes.
+     * 
+     * @param   nModes  the number of modes in this matrix
+     * @param   nNodes  the number of nodes in this matrix
+     **************************************************************************/
+    public MappedModeMatrix(int nModes, int nNodes) {
+        super();
+        
+        this.setNodeCount(nNodes);
+        this.setRowCount(nModes);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Constructs a mapped copy of the given {@code ModeMatrix}.
+     * 
+     * @param   modes   the {@code ModeMatrix} to be copied
+     **************************************************************************/
+    public MappedModeMatrix(ModeMatrix modes) {
+        this(modes.getModeCount(), modes.getNodeCount());
+        
+        double[]    buffer          = null;
+        int         nModeBlockRows  = modes.getBlockRowCount();
+        int         nRows;
+        
+        System.arraycopy(modes.getRowNames(), 0, rowNames_, 0, nRows_);
+        System.arraycopy(modes.getColumnNames(), 0, columnNames_, 0,
+                nColumns_);
+        System.arraycopy(modes.modeFrequencies_, 0, modeFrequencies_, 0,
+                nRows_);
+        
+        for (int i = 0; i < nRows_; i += nModeBlockRows) {
+            nRows   = Math.min(nModeBlockRows, nRows_ - i);
+            buffer  = modes.getRowBlock(i, nRows, buffer);
+            this.setRowBlock(i, nRows, buffer);
+        }
+        
+        multiplier_ = modes.getMultiplier();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    public void clear() {
+        nRows_              = 0;
+        nColumns_           = 0;
+        rowNames_           = new String[nRows_];
+        columnNames_        = new String[nColumns_];
+        modeFrequencies_    = new double[nRows_];
+        
+        this.createBuffers();
+        this.clearCachedProducts();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    protected void copyRowValuesTo(int rowIndex, int columnIndex,
+            double[] values, int offset, int nValues) {
+        DoubleBuffer buffer = this.getRowBuffer(rowIndex);
+        
+        buffer.position(buffer.position() + columnIndex);
+        buffer.get(values, offset, nValues);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    protected void copyValuesTo(double[] values) {
+        for (int i = 0; i < nRows_; i++) {
+            this.getRowBuffer(i).get(values, i * nColumns_, nColumns_);
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    protected void copyValuesTo(float[] values) {
+        double[]    row     = new double[nColumns_];
+        int         iRow;
+        
+        for (int i = 0; i < nRows_; i++) {
+            iRow = i * nColumns_;
+            this.getRowBuffer(i).get(row);
+            
+            for (int j = 0; j < nColumns_; j++) {
+                values[iRow + j] = (float) row[j];
+            }
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Maps a new temporary file for the current number of rows and columns of
+     * this matrix, whose values are all zero.  The previous file is deleted
+     * first, so that its values are discarded, although the previous buffers
+     * may still be read until they are no longer referenced.
+     * 
+     * @throws  IllegalStateException   if the file cannot be mapped
+     **************************************************************************/
+    protected void createBuffers() {
+        RandomAccessFile    file;
+        FileChannel         channel;
+        File                fileName;
+        long                position    = 0;
+        int                 nBlocks;
+        int                 nValues;
+        
+        nBlockRows_ = Math.max(1, BLOCK_LENGTH / Math.max(1, nColumns_));
+        nBlocks     = (nRows_ + nBlockRows_ - 1) / nBlockRows_;
+        buffers_    = new DoubleBuffer[nBlocks];
+        values_     = new double[0];
+        
+        this.deleteFile();
+        
+        if (nBlocks == 0 || nColumns_ == 0) {
+            for (int k = 0; k < nBlocks; k++) {
+                buffers_[k] = DoubleBuffer.allocate(0);
+            }
+            
+            return;
+        }
+        
+        try {
+            fileName = File.createTempFile("modes", ".tmp");
+            fileName.deleteOnExit();
+            file_   = fileName;
+            file    = new RandomAccessFile(fileName, "rw");
+            channel = file.getChannel();
+            
+            try {
+                for (int k = 0; k < nBlocks; k++) {
+                    nValues     = Math.min(nBlockRows_,
+                            nRows_ - (k * nBlockRows_)) * nColumns_;
+                    buffers_[k] = channel.map(FileChannel.MapMode.READ_WRITE,
+                            position, (long) nValues * BYTES_PER_VALUE).order(
+                            ByteOrder.nativeOrder()).asDoubleBuffer();
+                    position    += (long) nValues * BYTES_PER_VALUE;
+                }
+            }
+            finally {
+                file.close();
+            }
+        }
+        catch (IOException e) {
+            throw new IllegalStateException(String.format(
+                    "%d modes with %d columns cannot be mapped", nRows_,
+                    nColumns_), e);
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Deletes the temporary file which is currently mapped, if any.  If the
+     * file cannot be deleted while it is mapped, it is deleted when the
+     * virtual machine exits.
+     **************************************************************************/
+    protected void deleteFile() {
+        if (file_ != null) {
+            file_.delete();
+            file_ = null;
+        }
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the values of this matrix in a new array.
+     * 
+     * @return  the values of the cells of this matrix
+     * @throws  IllegalStateException   if the values do not fit into a single
+     *                                  array
+     **************************************************************************/
+    @Override
+    protected double[] doubleValues() {
+        double[] values;
+        
+        if ((long) nRows_ * nColumns_ > Integer.MAX_VALUE) {
+            throw new IllegalStateException(String.format(
+                    "%d modes with %d columns do not fit into an array",
+                    nRows_, nColumns_));
+        }
+        
+        values = new double[nRows_ * nColumns_];
+        this.copyValuesTo(values);
+        
+        return values;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    protected int getBlockRowCount() {
+        return nBlockRows_;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Returns the mapped values of this matrix, positioned at the first value
+     * of the given row.  The buffer is a duplicate, so that its position may
+     * be changed independently of any other buffer.
+     * 
+     * @param   rowIndex    the index of the row
+     * @return  the buffer containing the given row
+     **************************************************************************/
+    protected DoubleBuffer getRowBuffer(int rowIndex) {
+        DoubleBuffer buffer = buffers_[rowIndex / nBlockRows_].duplicate();
+        
+        buffer.position((rowIndex % nBlockRows_) * nColumns_);
+        
+        return buffer;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Copies the values of the given consecutive rows of this matrix into the
+     * given array, which is allocated if it is {@code null} or too short.
+     * 
+     * @param   firstRow    the index of the first row
+     * @param   nRows       the number of rows
+     * @param   values      the array into which the rows are copied
+     * @return  the array containing the given rows
+     **************************************************************************/
+    @Override
+    protected double[] getRowBlock(int firstRow, int nRows, double[] values) {
+        if (values == null || values.length < nRows * nColumns_) {
+            values = new double[nRows * nColumns_];
+        }
+        
+        for (int i = 0; i < nRows; i++) {
+            this.getRowBuffer(firstRow + i).get(values, i * nColumns_,
+                    nColumns_);
+        }
+        
+        return values;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    public double getValueAt(int rowIndex, int columnIndex) {
+        if (rowIndex < 0 || rowIndex >= nRows_) {
+            throw new ArrayIndexOutOfBoundsException(rowIndex);
+        }
+        
+        if (columnIndex < 0 || columnIndex >= nColumns_) {
+            throw new ArrayIndexOutOfBoundsException(columnIndex);
+        }
+        
+        return buffers_[rowIndex / nBlockRows_].get(
+                ((rowIndex % nBlockRows_) * nColumns_) + columnIndex);
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    public void permuteColumns(int[] columnIndices) {
+        DoubleBuffer[]  buffers         = buffers_;
+        String[]        columnNames;
+        double[]        row             = new double[nColumns_];
+        double[]        values;
+        int             nBlockRows      = nBlockRows_;
+        int             nColumns        = columnIndices.length;
+        int             oldColumns      = nColumns_;
+        DoubleBuffer    buffer;
+        
+        columnNames = new String[nColumns];
+        values      = new double[nColumns];
+        
+        for (int j = 0; j < nColumns; j++) {
+            columnNames[j] = columnNames_[columnIndices[j]];
+        }
+        
+        columnNames_    = columnNames;
+        nColumns_       = nColumns;
+        this.createBuffers();
+        
+        for (int i = 0; i < nRows_; i++) {
+            buffer = buffers[i / nBlockRows].duplicate();
+            buffer.position((i % nBlockRows) * oldColumns);
+            buffer.get(row);
+            
+            for (int j = 0; j < nColumns; j++) {
+                values[j] = row[columnIndices[j]];
+            }
+            
+            this.getRowBuffer(i).put(values);
+        }
+        
+        this.clearCachedProducts();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    public void permuteRows(int[] rowIndices) {
+        DoubleBuffer[]  buffers         = buffers_;
+        String[]        rowNames;
+        double[]        modeFrequencies;
+        double[]        row             = new double[nColumns_];
+        int             nBlockRows      = nBlockRows_;
+        int             nRows           = rowIndices.length;
+        DoubleBuffer    buffer;
+        
+        rowNames        = new String[nRows];
+        modeFrequencies = new double[nRows];
+        
+        for (int i = 0; i < nRows; i++) {
+            rowNames[i]         = rowNames_[rowIndices[i]];
+            modeFrequencies[i]  = modeFrequencies_[rowIndices[i]];
+        }
+        
+        rowNames_           = rowNames;
+        modeFrequencies_    = modeFrequencies;
+        nRows_              = nRows;
+        this.createBuffers();
+        
+        for (int i = 0; i < nRows; i++) {
+            buffer = buffers[rowIndices[i] / nBlockRows].duplicate();
+            buffer.position((rowIndices[i] % nBlockRows) * nColumns_);
+            buffer.get(row);
+            this.getRowBuffer(i).put(row);
+        }
+        
+        this.clearCachedProducts();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    public void setNodeCount(int nNodes) {
+        columnNames_    = new String[nNodes * N_COMPONENTS];
+        nColumns_       = nNodes * N_COMPONENTS;
+        
+        this.createBuffers();
+        this.clearCachedProducts();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    protected void setRowBlock(int firstRow, int nRows, double[] values) {
+        for (int i = 0; i < nRows; i++) {
+            this.getRowBuffer(firstRow + i).put(values, i * nColumns_,
+                    nColumns_);
+        }
+        
+        this.clearCachedProducts();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    public void setRowCount(int nRows) {
+        rowNames_           = new String[nRows];
+        modeFrequencies_    = new double[nRows];
+        nRows_              = nRows;
+        
+        this.createBuffers();
+        this.clearCachedProducts();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    public void setValueAt(double value, int rowIndex, int columnIndex) {
+        if (rowIndex < 0 || rowIndex >= nRows_) {
+            throw new ArrayIndexOutOfBoundsException(rowIndex);
+        }
+        
+        if (columnIndex < 0 || columnIndex >= nColumns_) {
+            throw new ArrayIndexOutOfBoundsException(columnIndex);
+        }
+        
+        buffers_[rowIndex / nBlockRows_].put(
+                ((rowIndex % nBlockRows_) * nColumns_) + columnIndex, value);
+        
+        this.clearCachedProducts();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     **************************************************************************/
+    @Override
+    public void swapRows(int firstIndex, int lastIndex) {
+        double[]    firstRow        = new double[nColumns_];
+        double[]    lastRow         = new double[nColumns_];
+        String      rowName;
+        double      modeFrequency;
+        
+        rowName                 = rowNames_[firstIndex];
+        rowNames_[firstIndex]   = rowNames_[lastIndex];
+        rowNames_[lastIndex]    = rowName;
+        this.clearRowIndex();
+        
+        modeFrequency                   = modeFrequencies_[firstIndex];
+        modeFrequencies_[firstIndex]    = modeFrequencies_[lastIndex];
+        modeFrequencies_[lastIndex]     = modeFrequency;
+        
+        this.getRowBuffer(firstIndex).get(firstRow);
+        this.getRowBuffer(lastIndex).get(lastRow);
+        this.getRowBuffer(firstIndex).put(lastRow);
+        this.getRowBuffer(lastIndex).put(firstRow);
+        
+        this.clearCachedProducts();
+    } // eom
+} // eoc
\ No newline at end of file
@@ -11,12 +11,9 @@
  ******************************************************************************/
 package de.iabg.mode;
 
+import de.iabg.math.GreedyMatcher;
 import de.iabg.math.RectangularMatrix;
 
-import de.iabg.swing.KeyList;
-
-import java.util.Arrays;
-
 import javax.media.j3d.BranchGroup;
 
 import javax.vecmath.Color3f;
@@ -30,18 +27,23 @@ import javax.vecmath.Color3f;
  * This class also provides the method {@link #getPreferredConnection(double)},
  * which returns a {@link ModeConnectionMatrix}.  The returned matrix is a
  * mapping between the {@code First Nodes} and {@code Last Nodes} based on the
- * maximum correlation.  This mapping is determined by searching this matrix
- * for the maximum correlation between any two modes and swapping the
- * corresponding row and column with the first row and column.  The first row
- * and column are omitted from the next search, which searches the remaining
- * nodes for the maximum correlation.  The corresponding row and column are
- * swapped with the second row and column.  This procedure is done iteratively
- * until the given minimum correlation tolerance is reached.  Thus, a mapping
- * based on the maximum correlation is formed along the diagonal, which is
- * ultimately returned to the user.  This procedure is robust in that it will
- * find the best mapping for any ordering of the stored modes.  The algorithm,
- * however, requires significant memory storage and may not properly execute
- * for large systems.
+ * maximum correlation.  This mapping is determined by connecting the two modes
+ * with the maximum correlation, omitting both modes from any further
+ * connections, and connecting the two remaining modes with the next largest
+ * correlation.  This procedure is done iteratively until the given minimum
+ * correlation tolerance is reached.  The iteration is driven by a
+ * {@link GreedyMatcher}, which takes the pairs of modes from a priority queue
+ * instead of searching and permuting this matrix.  This procedure is robust in
+ * that it will find the best mapping for any ordering of the stored modes.
+ * 
+ * The order in which the modes are connected does not depend on the
+ * tolerance, which only determines where the iteration stops.  Therefore, the
+ * complete order is computed once and stored, so that the connection for
+ * another tolerance is found by walking the stored order until the tolerance
+ * is reached.  The stored order is discarded whenever the values, names or
+ * size of this matrix are changed through its methods.  Changes made directly
+ * to the array returned by {@link #values()} must be followed by a call to
+ * {@link #clearPreferredConnection()}.
  * 
  * The 2D matrix that this correlation represents can also be rendered in Java3D
  * by calling {@link #getScene2D(double, javax.vecmath.Color3f)} or
@@ -69,6 +71,12 @@ public class ModeCorrelationMatrix extends RectangularMatrix {
     /** The lower tolerance of the cell values */
     protected double lowerTolerance_;
     
+    /** The {@code Last Mode} indices of the preferred connection, or null */
+    protected int[] preferredColumns_;
+    
+    /** The {@code First Mode} indices of the preferred connection, or null */
+    protected int[] preferredRows_;
+    
     /** The upper tolerance of teh cell values */
     protected double upperTolerance_;
     
@@ -142,6 +150,21 @@ public class ModeCorrelationMatrix extends RectangularMatrix {
         lastFrequencies_    = new double[nColumns_];
         lowerTolerance_     = 0.0;
         upperTolerance_     = 1.0;
+        
+        this.clearPreferredConnection();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Discards the stored order of the preferred connection, so that it is
+     * computed again by the next call of {@link #getPreferredConnection(
+     * double)}.  This method is called whenever this matrix is changed
+     * through its methods.
+     **************************************************************************/
+    public void clearPreferredConnection() {
+        preferredColumns_   = null;
+        preferredRows_      = null;
     } // eom
     
     
@@ -369,23 +392,55 @@ public class ModeCorrelationMatrix extends RectangularMatrix {
     
     /***************************************************************************
      * Returns a mapping between the {@code First Modes} and {@code Last Modes}
-     * based on the maximum correlation.  This method makes a copy of this class
-     * and calls {@link #sortDiagonalDescending()} with the given tolerance.  A
-     * {@code ModeConnectionMatrix} is then created from the sorted correlation
-     * and reduced to the given tolerance.
+     * based on the maximum correlation.  The first call of this method matches
+     * the modes with a {@link GreedyMatcher} in the order of descending
+     * correlation, and stores this order.  A {@code ModeConnectionMatrix} is
+     * then created from the stored order up to the first connection which is
+     * less than the given tolerance.  This matrix is not changed.
      * 
      * @param   tolerance   the minimum correlation tolerance
      * @return  the connection of the modes based on a maximum correlation
      **************************************************************************/
     public ModeConnectionMatrix getPreferredConnection(double tolerance) {
         ModeConnectionMatrix    connection;
-        ModeCorrelationMatrix   correlation;
+        int                     nConnections    = 0;
+        int                     rowIndex;
+        int                     columnIndex;
+        
+        if (preferredRows_ == null) {
+            this.matchModes();
+        }
         
-        correlation = new ModeCorrelationMatrix(this);
-        correlation.sortDiagonalDescending();
+        while (nConnections < preferredRows_.length) {
+            rowIndex    = preferredRows_[nConnections];
+            columnIndex = preferredColumns_[nConnections];
+            
+            if (!(values_[(rowIndex * nColumns_) + columnIndex] >= tolerance)) {
+                break;
+            }
+            
+            nConnections++;
+        }
         
-        connection = correlation.getConnection();
-        connection.reduce(tolerance);
+        connection = new ModeConnectionMatrix(nConnections);
+        
+        for (int i = 0; i < nConnections; i++) {
+            rowIndex    = preferredRows_[i];
+            columnIndex = preferredColumns_[i];
+            
+            if (rowNames_[rowIndex] != null) {
+                connection.setFirstModeNameAt(rowNames_[rowIndex], i);
+            }
+            
+            if (columnNames_[columnIndex] != null) {
+                connection.setLastModeNameAt(columnNames_[columnIndex], i);
+            }
+            
+            connection.setCorrelationAt(
+                    values_[(rowIndex * nColumns_) + columnIndex], i);
+            connection.setFirstModeFrequencyAt(firstFrequencies_[rowIndex], i);
+            connection.setLastModeFrequencyAt(lastFrequencies_[columnIndex], i);
+        }
         
         return connection;
     } // eom
@@ -424,6 +479,29 @@ public class ModeCorrelationMatrix extends RectangularMatrix {
     
     
     
+    /***************************************************************************
+     * Matches the {@code First Modes} and {@code Last Modes} in the order of
+     * descending correlation and stores this order as the preferred
+     * connection.
+     **************************************************************************/
+    protected void matchModes() {
+        GreedyMatcher   matcher;
+        int[]           matches;
+        
+        matcher             = new GreedyMatcher(values_, nRows_, nColumns_,
+                true);
+        matches             = matcher.match();
+        preferredRows_      = new int[matches.length];
+        preferredColumns_   = new int[matches.length];
+        
+        for (int i = 0; i < matches.length; i++) {
+            preferredRows_[i]       = matcher.getRowIndexOf(matches[i]);
+            preferredColumns_[i]    = matcher.getColumnIndexOf(matches[i]);
+        }
+    } // eom
+    
+    
+    
     /***************************************************************************
      **************************************************************************/
     @Override
@@ -464,6 +542,52 @@ public class ModeCorrelationMatrix extends RectangularMatrix {
     
     
     
+    /***************************************************************************
+     * Rearranges the columns of this matrix according to the given column
+     * indices.  This method overrides the previous implementation to include
+     * the mode frequencies.
+     * 
+     * @param   columnIndices   the index of the column for each new position
+     **************************************************************************/
+    @Override
+    public void permuteColumns(int[] columnIndices) {
+        double[] lastFrequencies = new double[columnIndices.length];
+        
+        for (int i = 0; i < columnIndices.length; i++) {
+            lastFrequencies[i] = lastFrequencies_[columnIndices[i]];
+        }
+        
+        super.permuteColumns(columnIndices);
+        lastFrequencies_ = lastFrequencies;
+        
+        this.clearPreferredConnection();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Rearranges the rows of this matrix according to the given row indices.
+     * This method overrides the previous implementation to include the mode
+     * frequencies.
+     * 
+     * @param   rowIndices  the index of the row for each new position
+     **************************************************************************/
+    @Override
+    public void permuteRows(int[] rowIndices) {
+        double[] firstFrequencies = new double[rowIndices.length];
+        
+        for (int i = 0; i < rowIndices.length; i++) {
+            firstFrequencies[i] = firstFrequencies_[rowIndices[i]];
+        }
+        
+        super.permuteRows(rowIndices);
+        firstFrequencies_ = firstFrequencies;
+        
+        this.clearPreferredConnection();
+    } // eom
+    
+    
+    
     /***************************************************************************
      * Sets the number of columns to the specified amount.  This method
      * overrides the existing implementation to also clear the mode frequencies.
@@ -477,6 +601,8 @@ public class ModeCorrelationMatrix extends RectangularMatrix {
         nColumns_           = nColumns;
         values_             = new double[nRows_ * nColumns];
         lastFrequencies_    = new double[nColumns];
+        
+        this.clearPreferredConnection();
     } // eom
     
     
@@ -594,6 +720,8 @@ public class ModeCorrelationMatrix extends RectangularMatrix {
         nRows_              = nRows;
         values_             = new double[nRows * nColumns_];
         firstFrequencies_   = new double[nRows];
+        
+        this.clearPreferredConnection();
     } // eom
     
     
@@ -615,156 +743,19 @@ public class ModeCorrelationMatrix extends RectangularMatrix {
     
     
     /***************************************************************************
-     * Sorts and resizes the number of columns in this matrix according to the
-     * order of the given column names.  This method overrides the previous
-     * implementation to include the mode frequencies.  The number of given
-     * column names may be smaller than the number of column names in this
-     * matrix, thus reducing the number of columns.  The corresponding cells of
-     * the given columns are also sorted in the same way.  The data of any
-     * column which is omitted will be lost.
-     * 
-     * @param   columnKeys  the new order of the column names
-     **************************************************************************/
-    @Override
-    public void sortColumns(KeyList columnKeys) {
-        String[]    columnNames;
-        double[]    values;
-        double[]    lastFrequencies;
-        int         nColumns            = 0;
-        int         nValues             = 0;
-        
-        for (String column : columnNames_) {
-            if (columnKeys.contains(column)) {
-                nColumns++;
-            }
-        }
-        
-        columnNames     = new String[nColumns];
-        values          = new double[nRows_ * nColumns];
-        lastFrequencies = new double[nColumns];
-        nColumns        = 0;
-        
-        for (String columnKey : columnKeys.values()) {
-            for (int i = 0; i < nColumns_; i++) {
-                if (columnKey.equals(columnNames_[i])) {
-                    columnNames[nColumns]       = columnNames_[i];
-                    lastFrequencies[nColumns]   = lastFrequencies_[i];
-                    nColumns++;
-                }
-            }
-        }
-        
-        for (int i = 0; i < nRows_; i++) {
-            for (String columnKey : columnKeys.values()) {
-                for (int j = 0; j < nColumns_; j++) {
-                    if (columnKey.equals(columnNames_[j])) {
-                        values[nValues] = values_[(i * nColumns_) + j];
-                        nValues++;
-                    }
-                }
-            }
-        }
-        
-        columnNames_        = columnNames;
-        nColumns_           = nColumns;
-        values_             = values;
-        lastFrequencies_    = lastFrequencies;
-    } // eom
-    
-    
-    
-    /***************************************************************************
-     * This method iteratively searches this matrix for the maximum correlation
-     * mapping and places them along the diagonal.  The algorithm begins by
-     * searching the entire matrix for the maximum value.  The corresponding row
-     * and column are swapped into the first row and first column.  The next
-     * search omits the row and column and searches the matrix for the next
-     * largest value.  The corresponding row and column are swapped into the
-     * second row and second column.  The next search proceeds by omitting the
-     * first two rows and first two columns.  Thus, the maximum mapping between
-     * the {@code First Modes} and {@code Last Modes} is built along the
-     * diagonal.
-     **************************************************************************/
-    protected void sortDiagonalDescending() {
-        double  maximumValue;
-        double  value;
-        int     rowIndex;
-        int     columnIndex;
-        int     dimension       = Math.min(nRows_, nColumns_);
-        
-        for (int i = 0; i < dimension; i++) {
-            maximumValue    = values_[(i * nColumns_) + i];
-            rowIndex        = i;
-            columnIndex     = i;
-            
-            for (int j = i; j < nRows_; j++) {
-                for (int k = i; k < nColumns_; k++) {
-                    value = values_[(j * nColumns_) + k];
-                    
-                    if (value > maximumValue) {
-                        maximumValue    = value;
-                        rowIndex        = j;
-                        columnIndex     = k;
-                    }
-                }
-            }
-            
-            this.swapRows(i, rowIndex);
-            this.swapColumns(i, columnIndex);
-        }
-    } // eom
-    
-    
-    
-    /***************************************************************************
-     * Sorts and resizes the number of rows in this matrix according to the
-     * order of the given row names.  This method overrides the previous
-     * implementation to include the mode frequencies.  The number of given row
-     * names may be smaller than the number of row names in this matrix, thus
-     * reducing the number of rows.  The number of given row names may also
-     * contain duplicate values, thus increasing the number of rows.  The
-     * corresponding cells of the given rows are also sorted in the same way.
-     * The data of any row which is omitted will be lost.
+     * Sets the value of the cell at the given indices.  This method overrides
+     * the existing implementation to discard the stored order of the
+     * preferred connection.
      * 
-     * @param   rowKeys  the new order of the row names
+     * @param   value       the new value of the cell
+     * @param   rowIndex    the row index of the cell
+     * @param   columnIndex the column index of the cell
      **************************************************************************/
     @Override
-    public void sortRows(KeyList rowKeys) {
-        String[]    rowNames;
-        double[]    values;
-        double[]    firstFrequencies;
-        int         nRows               = 0;
-        int         iRow;
-        int         nRow;
-        
-        for (String row : rowKeys.values()) {
-            if (Arrays.asList(rowNames_).contains(row)) {
-                nRows++;
-            }
-        }
+    public void setValueAt(double value, int rowIndex, int columnIndex) {
+        super.setValueAt(value, rowIndex, columnIndex);
         
-        rowNames            = new String[nRows];
-        values              = new double[nRows * nColumns_];
-        firstFrequencies    = new double[nRows];
-        nRows               = 0;
-        
-        for (String rowKey : rowKeys.values()) {
-            for (int i = 0; i < nRows_; i++) {
-                if (rowKey.equals(rowNames_[i])) {
-                    rowNames[nRows]         = rowNames_[i];
-                    firstFrequencies[nRows] = firstFrequencies_[i];
-                    iRow                    = i * nColumns_;
-                    nRow                    = nRows * nColumns_;
-                    System.arraycopy(values_, iRow, values, nRow, nColumns_);
-                    nRows++;
-                }
-            }
-        }
-        
-        rowNames_           = rowNames;
-        nRows_              = nRows;
-        values_             = values;
-        firstFrequencies_   = firstFrequencies;
+        this.clearPreferredConnection();
     } // eom
     
     
@@ -787,6 +778,7 @@ public class ModeCorrelationMatrix extends RectangularMatrix {
         columnName                  = columnNames_[firstIndex];
         columnNames_[firstIndex]    = columnNames_[lastIndex];
         columnNames_[lastIndex]     = columnName;
+        this.clearColumnIndex();
         
         lastFrequency                   = lastFrequencies_[firstIndex];
         lastFrequencies_[firstIndex]    = lastFrequencies_[lastIndex];
@@ -798,6 +790,8 @@ public class ModeCorrelationMatrix extends RectangularMatrix {
             values_[rowIndex + firstIndex]  = values_[rowIndex + lastIndex];
             values_[rowIndex + lastIndex]   = columnValue;
         }
+        
+        this.clearPreferredConnection();
     } // eom
     
     
@@ -818,6 +812,7 @@ public class ModeCorrelationMatrix extends RectangularMatrix {
         rowName                 = rowNames_[firstIndex];
         rowNames_[firstIndex]   = rowNames_[lastIndex];
         rowNames_[lastIndex]    = rowName;
+        this.clearRowIndex();
         
         firstFrequency                  = firstFrequencies_[firstIndex];
         firstFrequencies_[firstIndex]   = firstFrequencies_[lastIndex];
@@ -829,5 +824,7 @@ public class ModeCorrelationMatrix extends RectangularMatrix {
         System.arraycopy(values_, firstIndex, row, 0, nColumns_);
         System.arraycopy(values_, lastIndex, values_, firstIndex, nColumns_);
         System.arraycopy(row, 0, values_, lastIndex, nColumns_);
+        
+        this.clearPreferredConnection();
     } // eom
 } // eoc
\ No newline at end of file
@@ -54,6 +54,12 @@ import javax.swing.table.TableModel;
  * The rows of this table reflect the total number of modes that are currently
  * stored.
  * 
+ * Mode files larger than {@link #SINGLE_PRECISION_FILE_LENGTH} are imported
+ * into a {@link FloatModeMatrix}, which stores the mode shapes in single
+ * precision and thus needs half of the memory of a {@code ModeMatrix}.  Mode
+ * files which are larger than the maximum heap size are imported into a
+ * {@link MappedModeMatrix}, which stores the mode shapes outside of the heap.
+ * 
  * @author  Adam C. Dick, BSE
  * @version September 13, 2008
  ******************************************************************************/
@@ -77,6 +83,10 @@ public class ModeTableModel extends AbstractTableModel
     /** An array of the selected mode keys */
     protected boolean[] selectedModeKeys_;
     
+    /** The smallest length of a mode file imported in single precision */
+    protected static final long SINGLE_PRECISION_FILE_LENGTH =
+            256L * 1024L * 1024L;
+    
     
     
     /***************************************************************************
@@ -269,7 +279,8 @@ public class ModeTableModel extends AbstractTableModel
     
     /***************************************************************************
      * Selects the appropriate {@link ModeReader} for the given file and imports
-     * all modes contained in the file.
+     * all modes contained in the file.  The previous modes are cleared first,
+     * which deletes the temporary file of a {@link MappedModeMatrix}.
      * 
      * @param   fileName                        the file to be imported
      * @throws  java.io.FileNotFoundException   if the file could not be found
@@ -282,6 +293,16 @@ public class ModeTableModel extends AbstractTableModel
         
         modes_.clear();
         
+        if (fileName.length() >= Runtime.getRuntime().maxMemory()) {
+            modes_ = new MappedModeMatrix();
+        }
+        else if (fileName.length() >= SINGLE_PRECISION_FILE_LENGTH) {
+            modes_ = new FloatModeMatrix();
+        }
+        else {
+            modes_ = new ModeMatrix();
+        }
+        
         if (fileName.getPath().toUpperCase().endsWith(ModeFilter.UNV)) {
             modeReader = new UniversalModeReader(fileName);
         }
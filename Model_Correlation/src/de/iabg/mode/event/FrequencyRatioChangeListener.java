@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Student:             Adam C. Dick, BSE
+ * Master's Thesis:     Validating and Updating Structural FE Models
+ *                      for Dynamic Analysis
+ * 
+ * Industry Partner:    Industrieanlagen-Betriebsgesellschaft mbH in Ottobrunn
+ * Supervisor:          Dr.-Ing. Manfred Kroiss
+ * 
+ * Academic Partner:    Technische Universitaet Muenchen
+ * Supervisor:          Dr.-Ing. Martin Ruess
+ ******************************************************************************/
+package de.iabg.mode.event;
+
+import de.iabg.mode.JModeCorrelationPanel;
+
+import java.awt.event.ItemEvent;
+import java.awt.event.ItemListener;
+
+import javax.swing.JCheckBox;
+import javax.swing.JSpinner;
+
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+/*******************************************************************************
+ * This listener updates the frequency ratio of the
+ * {@link JModeCorrelationPanel} whenever the {@link JSpinner} of the ratio
+ * changes or the {@link JCheckBox} for no limit is toggled.  While the check
+ * box is selected, the ratio is infinite, so that all pairs of modes are
+ * correlated, and the spinner is disabled.  Otherwise, the ratio is the value
+ * of the spinner.  The new ratio is used by the next correlation of the
+ * modes.
+ * 
+ * @author  Adam C. Dick, BSE
+ * @version November 25, 2008
+ ******************************************************************************/
+public class FrequencyRatioChangeListener
+        implements ChangeListener, ItemListener {
+    /** The {@code JModeCorrelationPanel} that this listener was designed for */
+    protected JModeCorrelationPanel correlationPanel_;
+    
+    /** The check box which correlates all pairs of modes */
+    protected JCheckBox noLimitCheckBox_;
+    
+    /** The spinner of the largest frequency ratio of correlated modes */
+    protected JSpinner ratioSpinner_;
+    
+    
+    
+    /***************************************************************************
+     * Constructs a {@code FrequencyRatioChangeListener} from the given
+     * {@code JModeCorrelationPanel}, spinner, and check box.
+     * 
+     * @param   correlationPanel    the {@code JModeCorrelationPanel} that this
+     *                              listener is designed for
+     * @param   ratioSpinner        the spinner of the frequency ratio
+     * @param   noLimitCheckBox     the check box which correlates all pairs
+     *                              of modes
+     **************************************************************************/
+    public FrequencyRatioChangeListener(JModeCorrelationPanel correlationPanel,
+            JSpinner ratioSpinner, JCheckBox noLimitCheckBox) {
+        correlationPanel_   = correlationPanel;
+        ratioSpinner_       = ratioSpinner;
+        noLimitCheckBox_    = noLimitCheckBox;
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Invoked when an item has been selected or deselected by the user.
+     * 
+     * @param   itemEvent   the {@link ItemEvent} from the item source
+     **************************************************************************/
+    public void itemStateChanged(ItemEvent itemEvent) {
+        this.updateFrequencyRatio();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Invoked when the target of this listener has changed its state.
+     * 
+     * @param   changeEvent the {@link ChangeEvent} from the change source
+     **************************************************************************/
+    public void stateChanged(ChangeEvent changeEvent) {
+        this.updateFrequencyRatio();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Sets the frequency ratio of the {@code JModeCorrelationPanel} from the
+     * spinner and the check box, as described in the class API.
+     **************************************************************************/
+    protected void updateFrequencyRatio() {
+        ratioSpinner_.setEnabled(!noLimitCheckBox_.isSelected());
+        
+        if (noLimitCheckBox_.isSelected()) {
+            correlationPanel_.setFrequencyRatio(Double.POSITIVE_INFINITY);
+        }
+        else {
+            correlationPanel_.setFrequencyRatio(
+                    (Double) ratioSpinner_.getValue());
+        }
+    } // eom
+} // eoc
\ No newline at end of file
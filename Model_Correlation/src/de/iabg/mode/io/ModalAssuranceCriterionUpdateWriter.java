@@ -16,6 +16,7 @@ import de.iabg.mode.ModeConnectionWriter;
 import de.iabg.mode.ModeConnectionMatrix;
 import de.iabg.mode.ModeCorrelationMatrix;
 import de.iabg.mode.ModeMatrix;
+import de.iabg.mode.ModeMatrixView;
 
 import de.iabg.mesh.NodeConnectionMatrix;
 
@@ -280,14 +281,12 @@ public class ModalAssuranceCriterionUpdateWriter extends FileWriter
     protected void writeCorrelationFunction(int modeIndex) {
         ModeConnectionMatrix    modeConnections;
         ModeCorrelationMatrix   modeCorrelations;
-        ModeMatrix              firstModes;
         KeyList                 firstModeKeys;
         KeyList                 firstNodeKeys;
         
-        firstModes          = new ModeMatrix(firstModes_);
         firstModeKeys       = modeConnections_.getFirstModeNames();
         firstNodeKeys       = nodeConnections_.getFirstNodeKeys();
-        modeCorrelations    = firstModes.getReducedDotProduct(firstModes,
+        modeCorrelations    = firstModes_.getReducedDotProduct(firstModes_,
                 firstModeKeys, firstNodeKeys, firstModeKeys, firstNodeKeys);
         modeConnections     = modeCorrelations.getConnection();
         
@@ -566,11 +565,11 @@ public class ModalAssuranceCriterionUpdateWriter extends FileWriter
      * @param   modeIndex   the index of the mode
      **************************************************************************/
     protected void writeMixedProductEquation(int modeIndex) {
-        ModeMatrix  firstModes  = new ModeMatrix(firstModes_);
-        int         nNodes      = nodeConnections_.getConnectionCount();
-        double      x;
-        double      y;
-        double      z;
+        ModeMatrixView  firstModes;
+        int             nNodes      = nodeConnections_.getConnectionCount();
+        double          x;
+        double          y;
+        double          z;
         
         printWriter_.format("%-8s", "DEQATN");
         printWriter_.format("%8d", equationIdentifier_++);
@@ -593,7 +592,8 @@ public class ModalAssuranceCriterionUpdateWriter extends FileWriter
         printWriter_.format("M%02dDz%03d)=", modeIndex + 1, nNodes);
         printWriter_.format("%n");
         
-        firstModes.sortNodes(nodeConnections_.getFirstNodeKeys());
+        firstModes = new ModeMatrixView(firstModes_,
+                nodeConnections_.getFirstNodeKeys());
         
         for (int i = 0; i < nNodes - 1; i++) {
             x = firstModes.getXTranslationAt(modeIndex, i);
@@ -11,9 +11,12 @@
  ******************************************************************************/
 package de.iabg.mode.io;
 
+import de.iabg.mesh.io.NastranCardTokenizer;
+
 import de.iabg.mode.MassMatrix;
 import de.iabg.mode.MassMatrixMap;
 import de.iabg.mode.MaterialReader;
+import de.iabg.mode.SparseMassMatrix;
 
 import java.io.BufferedReader;
 import java.io.File;
@@ -35,6 +38,16 @@ import java.util.List;
  * force vectors, are omitted.  Refer to the latest version of the MSC.Nastran
  * Quick Reference Guide for more information for the file format.
  * 
+ * The DMIG entries only list the nonzero mass influences, so each mass matrix
+ * is read into a {@link SparseMassMatrix}.  A mass matrix whose density
+ * exceeds {@link #MAXIMUM_SPARSE_DENSITY} is stored as a dense
+ * {@code MassMatrix} instead, because its packed triangle is then smaller and
+ * faster to multiply.
+ * 
+ * The mass rows of each column are collected with the column in a
+ * {@link NastranCardTokenizer}, which splits the column into its large fields
+ * without creating a string for each field.
+ * 
  * @author  Adam C. Dick, BSE
  * @version Septmeber 13, 2008
  ******************************************************************************/
@@ -61,6 +74,9 @@ public class NastranDirectMatrixReader extends FileReader
     /** The number of components in 3D space */
     protected static final int N_COMPONENTS = 3;
     
+    /** The largest density of a mass matrix which is stored sparsely */
+    protected static final double MAXIMUM_SPARSE_DENSITY = 0.5;
+    
     /** A list of the node names */
     protected List<String> nodeNames_;
     
@@ -73,6 +89,9 @@ public class NastranDirectMatrixReader extends FileReader
     /** A constant for symmetric matrices */
     protected static final int SYMMETRIC_FORMAT = 6;
     
+    /** The tokenizer which collects and splits the mass columns */
+    protected NastranCardTokenizer tokenizer_;
+    
     /** A constant for undefined lines */
     protected static final int UNDEFINED_FORMAT = 1099;
     
@@ -87,6 +106,26 @@ public class NastranDirectMatrixReader extends FileReader
     public NastranDirectMatrixReader(File file)
             throws FileNotFoundException {
         super(file);
+        
+        tokenizer_ = new NastranCardTokenizer();
+    } // eom
+    
+    
+    
+    /***************************************************************************
+     * Adds the given line to the data.  If mass rows have been collected for
+     * the line, the line is added together with its mass rows instead.
+     * 
+     * @param   line    the line to be added, or {@code null} if there is none
+     * @param   hasRows whether mass rows have been collected for the line
+     **************************************************************************/
+    protected void addLine(String line, boolean hasRows) {
+        if (hasRows) {
+            data_.add(tokenizer_.toString());
+        }
+        else if (line != null) {
+            data_.add(line);
+        }
     } // eom
     
     
@@ -98,28 +137,27 @@ public class NastranDirectMatrixReader extends FileReader
      * @param   lineIndex   the index of the line to be parsed
      **************************************************************************/
     protected void addMassColumn(int lineIndex) {
-        String  line;
         String  columnName;
-        String  rowName;
         int     columnIndex;
         int     rowIndex;
         double  massValue;
         
-        line        = data_.get(lineIndex);
-        columnName  = line.substring(24, 40).trim();
+        tokenizer_.clear();
+        tokenizer_.append(data_.get(lineIndex));
+        tokenizer_.splitLargeFields();
+        
+        columnName  = tokenizer_.getField(2);
         columnIndex = nodeNames_.indexOf(columnName);
         masses_.setNodeNameAt(columnName, columnIndex);
         
         columnIndex *= N_COMPONENTS;
-        columnIndex += Integer.parseInt(line.substring(40, 56).trim()) - 1;
+        columnIndex += tokenizer_.parseIntField(3) - 1;
         
-        line = line.substring(56);
-        while (line.length() > 0) {
-            rowName     =  line.substring(0, 16).trim();
-            rowIndex    =  nodeNames_.indexOf(rowName) * N_COMPONENTS;
-            rowIndex    += Integer.parseInt(line.substring(16, 32).trim()) - 1;
-            massValue   =  Double.parseDouble(line.substring(32, 48).trim());
-            line        =  line.substring(48);
+        for (int i = 4; i + 2 < tokenizer_.getFieldCount(); i += 3) {
+            rowIndex    =  nodeNames_.indexOf(tokenizer_.getField(i));
+            rowIndex    *= N_COMPONENTS;
+            rowIndex    += tokenizer_.parseIntField(i + 1) - 1;
+            massValue   =  tokenizer_.parseDoubleField(i + 2);
             masses_.setMassAt(massValue, rowIndex, columnIndex);
         }
     } // eom
@@ -133,16 +171,21 @@ public class NastranDirectMatrixReader extends FileReader
      * @param   lineIndex   the index of the line to be parsed
      **************************************************************************/
     protected void addMassMatrix(int lineIndex) {
-        String  line;
-        String  name;
-        int     format;
-        int     type;
+        SparseMassMatrix    sparseMasses;
+        String              line;
+        String              name;
+        int                 format;
+        int                 type;
+        
+        tokenizer_.clear();
+        tokenizer_.append(data_.get(lineIndex));
+        tokenizer_.splitSmallFields();
         
-        line    = data_.get(lineIndex);
-        name    = line.substring(8, 16).trim();
-        format  = Integer.parseInt(line.substring(24, 32).trim());
-        type    = Integer.parseInt(line.substring(32, 40).trim());
-        masses_ = new MassMatrix(this.getNodeCount(++lineIndex));
+        name            = tokenizer_.getField(1);
+        format          = tokenizer_.parseIntField(3);
+        type            = tokenizer_.parseIntField(4);
+        sparseMasses    = new SparseMassMatrix(this.getNodeCount(++lineIndex));
+        masses_         = sparseMasses;
         
         switch (format) {
             case SYMMETRIC_FORMAT:
@@ -160,6 +203,11 @@ public class NastranDirectMatrixReader extends FileReader
                             }
                         }
                         
+                        if (sparseMasses.getDensity() >
+                                MAXIMUM_SPARSE_DENSITY) {
+                            masses_ = new MassMatrix(sparseMasses);
+                        }
+                        
                         massMatrices_.put(name, masses_);
                         break;
                     default:
@@ -179,10 +227,10 @@ public class NastranDirectMatrixReader extends FileReader
      * @return  the line format
      **************************************************************************/
     protected int getFormat(String line) {
-        if (line.toUpperCase().startsWith("DMIG ")) {
+        if (NastranCardTokenizer.startsWith(line, "DMIG ")) {
             return MASS_MATRIX_FORMAT;
         }
-        else if (line.toUpperCase().startsWith("DMIG*")) {
+        else if (NastranCardTokenizer.startsWith(line, "DMIG*")) {
             return MASS_COLUMN_FORMAT;
         }
         else if (line.startsWith("*")) {
@@ -256,10 +304,12 @@ public class NastranDirectMatrixReader extends FileReader
      **************************************************************************/
     public void readFile()
             throws IOException {
-        data_                           = new ArrayList<String>();
         BufferedReader  bufferedReader  = null;
+        String          card            = null;
+        boolean         hasRows         = false;
         String          line;
-        StringBuilder   commandLine;
+        
+        data_ = new ArrayList<String>();
         
         try {
             bufferedReader = new BufferedReader(this);
@@ -268,19 +318,26 @@ public class NastranDirectMatrixReader extends FileReader
             while (line != null) {
                 switch (this.getFormat(line)) {
                     case MASS_ROW_FORMAT:
-                        commandLine = new StringBuilder();
-                        commandLine.append(data_.get(data_.size() - 1));
-                        commandLine.append(line.replace('D', 'E').substring(8));
-                        data_.set(data_.size() - 1, commandLine.toString());
+                        if (!hasRows) {
+                            tokenizer_.clear();
+                            tokenizer_.append(card);
+                            hasRows = true;
+                        }
+                        
+                        tokenizer_.append(line, 8, 0);
                         break;
                     case MASS_COLUMN_FORMAT:
                     case MASS_MATRIX_FORMAT:
                     default:
-                        data_.add(line);
+                        this.addLine(card, hasRows);
+                        card    = line;
+                        hasRows = false;
                 }
                 
                 line = bufferedReader.readLine();
             }
+            
+            this.addLine(card, hasRows);
         }
         finally {
             if (bufferedReader != null) {
@@ -16,6 +16,7 @@ import de.iabg.mode.ModeConnectionWriter;
 import de.iabg.mode.ModeConnectionMatrix;
 import de.iabg.mode.ModeCorrelationMatrix;
 import de.iabg.mode.ModeMatrix;
+import de.iabg.mode.ModeMatrixView;
 
 import de.iabg.mesh.NodeConnectionMatrix;
 
@@ -286,16 +287,14 @@ public class OrthogonalityCheckUpdateWriter extends FileWriter
     protected void writeCorrelationFunction(int modeIndex) {
         ModeConnectionMatrix    modeConnections;
         ModeCorrelationMatrix   modeCorrelations;
-        ModeMatrix              firstModes;
         KeyList                 firstModeKeys;
         KeyList                 firstNodeKeys;
         int                     nNodes;
         
-        firstModes          = new ModeMatrix(firstModes_);
         firstModeKeys       = modeConnections_.getFirstModeNames();
         firstNodeKeys       = nodeConnections_.getFirstNodeKeys();
-        modeCorrelations    = firstModes.getReducedGeneralizedMass(masses_,
-                firstModes, firstModeKeys, firstNodeKeys, firstModeKeys,
+        modeCorrelations    = firstModes_.getReducedGeneralizedMass(masses_,
+                firstModes_, firstModeKeys, firstNodeKeys, firstModeKeys,
                 firstNodeKeys);
         modeConnections     = modeCorrelations.getConnection();
         nNodes              = nodeConnections_.getConnectionCount();
@@ -519,7 +518,7 @@ public class OrthogonalityCheckUpdateWriter extends FileWriter
             printWriter_.format("M%02dDy%03d,", modeIndex + 1, nNodes);
             printWriter_.format("M%02dDz%03d)=", modeIndex + 1, nNodes);
             printWriter_.format("%n");
-        
+            
             for (int j = 0; j < nNodes; j++) {
                 xx = masses_.getXXMassAt(i, j);
                 xy = masses_.getXYMassAt(i, j);
@@ -702,22 +701,23 @@ public class OrthogonalityCheckUpdateWriter extends FileWriter
      * @param   modeIndex   the index of the mode
      **************************************************************************/
     protected void writeMixedProductEquation(int modeIndex) {
-        ModeMatrix  firstModes  = new ModeMatrix(firstModes_);
-        int         nNodes      = nodeConnections_.getConnectionCount();
-        double      x;
-        double      y;
-        double      z;
-        double      xx;
-        double      xy;
-        double      xz;
-        double      yx;
-        double      yy;
-        double      yz;
-        double      zx;
-        double      zy;
-        double      zz;
-        
-        firstModes.sortNodes(nodeConnections_.getFirstNodeKeys());
+        ModeMatrixView  firstModes;
+        int             nNodes      = nodeConnections_.getConnectionCount();
+        double          x;
+        double          y;
+        double          z;
+        double          xx;
+        double          xy;
+        double          xz;
+        double          yx;
+        double          yy;
+        double          yz;
+        double          zx;
+        double          zy;
+        double          zz;
+        
+        firstModes = new ModeMatrixView(firstModes_,
+                nodeConnections_.getFirstNodeKeys());
         
         for (int i = 0; i < nNodes; i++) {
             x = firstModes.getXTranslationAt(modeIndex, i);
@@ -744,7 +744,7 @@ public class OrthogonalityCheckUpdateWriter extends FileWriter
             printWriter_.format("M%02dDy%03d,", modeIndex + 1, nNodes);
             printWriter_.format("M%02dDz%03d)=", modeIndex + 1, nNodes);
             printWriter_.format("%n");
-                
+            
             for (int j = 0; j < nNodes; j++) {
                 xx = masses_.getXXMassAt(i, j);
                 xy = masses_.getXYMassAt(i, j);
@@ -11,17 +11,18 @@
  ******************************************************************************/
 package de.iabg.mode.io;
 
+import de.iabg.mesh.io.NastranNumberParser;
+
 import de.iabg.mode.ModeMatrix;
 import de.iabg.mode.ModeReader;
 
 import java.io.BufferedReader;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
 
-import java.util.ArrayList;
-
 /*******************************************************************************
  * This implementation of {@link ModeReader} parses a Universal Dataset Number
  * 55 file containing mode shape data.  Refer to {@code ModeReader}
@@ -33,23 +34,40 @@ import java.util.ArrayList;
  * guide for Universal File Formats for Modal Analysis Testing for more
  * information for the file format.
  * 
+ * No line of the file is stored.  When the file is read, only the number of
+ * modes and the number of nodes of the first mode are counted, and each mode
+ * is checked to have the same number of nodes.  When the modes are imported,
+ * the file is read again and the translations of each mode are parsed into a
+ * single row, which is written into the given {@link ModeMatrix} at once.
+ * Thus, the mode shapes are never held on the heap apart from the matrix,
+ * which may store them in single precision or outside of the heap.
+ * 
  * @author  Adam C. Dick, BSE
  * @version November 10, 2008
  ******************************************************************************/
 public class UniversalModeReader extends FileReader
         implements ModeReader {
-    /** A list for the data from the file */
-    protected ArrayList<String> data_;
-    
     /** A constant for dataset lines */
     protected static final int DATASET_FORMAT = 1000;
     
+    /** The file to be imported */
+    protected File file_;
+    
     /** A constant for mode lines */
     protected static final int MODE_FORMAT = 1001;
     
     /** Storage for the modes */
     protected ModeMatrix modes_;
     
+    /** The number of modes of the file */
+    protected int nModes_;
+    
+    /** The number of nodes of each mode of the file */
+    protected int nNodes_;
+    
+    /** The parser of the frequencies and translations */
+    protected NastranNumberParser parser_;
+    
     /** A constant for undefined lines */
     protected static final int UNDEFINED_FORMAT = 1099;
     
@@ -64,6 +82,9 @@ public class UniversalModeReader extends FileReader
     public UniversalModeReader(File file)
             throws FileNotFoundException {
         super(file);
+        
+        file_   = file;
+        parser_ = new NastranNumberParser();
     } // eom
     
     
@@ -89,156 +110,173 @@ public class UniversalModeReader extends FileReader
     
     
     /***************************************************************************
-     * Returns the number of modes in the data.
-     * 
-     * @return  the number of modes
+     * Reads the file again and writes the modes into the given matrix, as
+     * described in the class API.
      **************************************************************************/
-    protected int getModeCount() {
-        String  line;
-        int     nModes = 0;
+    public void importModes(ModeMatrix modes)
+            throws IOException {
+        BufferedReader bufferedReader = null;
         
-        for (int i = 0; i < data_.size(); i++) {
-            line = data_.get(i);
+        modes_ = modes;
+        modes_.setModeCount(nModes_);
+        modes_.setNodeCount(nNodes_);
+        
+        try {
+            bufferedReader = new BufferedReader(new FileReader(file_));
             
-            switch (this.getFormat(line)) {
-                case DATASET_FORMAT:
-                    if (i < data_.size() - 1) {
-                        line = data_.get(i + 1);
-                    }
-                    
-                    switch (this.getFormat(line)) {
-                        case MODE_FORMAT:
-                            nModes++;
-                            break;
-                        default:
-                    }
-                    
-                    break;
-                default:
+            this.readModes(bufferedReader, true);
+        }
+        finally {
+            if (bufferedReader != null) {
+                bufferedReader.close();
             }
         }
-        
-        return nModes;
     } // eom
     
     
     
     /***************************************************************************
-     * Returns the number of nodes in the data.
-     * 
-     * @return  the number of nodes
+     * Counts the modes and nodes of the file, as described in the class API.
      **************************************************************************/
-    protected int getNodeCount() {
-        String  line;
-        int     nNodes      = 0;
-        int     nFieldLines = 8;
+    public void readFile()
+            throws IOException {
+        BufferedReader bufferedReader = null;
         
-        nodeCount:
-            for (int i = 0; i < data_.size(); i++) {
-                line = data_.get(i);
-                
-                switch (this.getFormat(line)) {
-                    case DATASET_FORMAT:
-                        if (i < data_.size() - 1) {
-                            line = data_.get(i + 1);
-                        }
-                        
-                        switch (this.getFormat(line)) {
-                            case MODE_FORMAT:
-                                i += nFieldLines + 2;
-                                line = data_.get(i);
-                                
-                                while (this.getFormat(line) != DATASET_FORMAT) {
-                                    nNodes++;
-                                    i       += 2;
-                                    line    =  data_.get(i);
-                                }
-                                
-                                break nodeCount;
-                            default:
-                        }
-                        
-                        break;
-                    default:
-                }
-            }
+        try {
+            bufferedReader = new BufferedReader(this);
             
-        return nNodes;
+            this.readModes(bufferedReader, false);
+        }
+        finally {
+            if (bufferedReader != null) {
+                bufferedReader.close();
+            }
+        }
     } // eom
     
     
     
     /***************************************************************************
+     * Returns the next line of the given reader within a mode dataset.
+     * 
+     * @param   reader                      the reader of the file
+     * @return  the next line
+     * @throws  java.io.EOFException        if the file ends within the dataset
+     * @throws  java.io.IOException         if the file could not be read
      **************************************************************************/
-    public void importModes(ModeMatrix modes) {
-        modes_ = modes;
-        modes_.setModeCount(this.getModeCount());
-        modes_.setNodeCount(this.getNodeCount());
-        
-        int     modeIndex   = -1;
-        int     nodeIndex   = 0;
-        int     nFieldLines = 8;
-        String  line;
+    protected String readLine(BufferedReader reader)
+            throws IOException {
+        String line = reader.readLine();
         
-        for (int i = 0; i < data_.size(); i++) {
-            line = data_.get(i);
-            
-            switch (this.getFormat(line)) {
-                case DATASET_FORMAT:
-                    if (i < data_.size() - 1) {
-                        line = data_.get(i + 1);
-                    }
-                    
-                    switch (this.getFormat(line)) {
-                        case MODE_FORMAT:
-                            modeIndex++;
-                            nodeIndex   =  0;
-                            i           += nFieldLines;
-                            this.setModeAt(i, modeIndex);
-                            
-                            i       += 2;
-                            line    =  data_.get(i);
-                            
-                            while (this.getFormat(line) != DATASET_FORMAT) {
-                                this.setNodeAt(i, modeIndex, nodeIndex);
-                                nodeIndex++;
-                                i       += 2;
-                                line    =  data_.get(i);
-                            }
-                            
-                            break;
-                        default:
-                    }
-                    
-                    break;
-                default:
-            }
+        if (line == null) {
+            throw new EOFException(String.format(
+                    "%s ends within a mode dataset", file_));
         }
+        
+        return line;
     } // eom
     
     
     
     /***************************************************************************
+     * Reads the mode datasets of the given reader in a single pass.  If the
+     * modes are not imported, the modes and the nodes of the first mode are
+     * counted.  Otherwise, each mode is parsed into a row and written into the
+     * matrix of the imported modes.  In either case, each mode must have as
+     * many nodes as the first mode.
+     * 
+     * @param   reader                  the reader of the file
+     * @param   isImported              whether the modes are imported
+     * @throws  IllegalStateException   if a mode has a different number of
+     *                                  nodes than the first mode, or if the
+     *                                  file has more modes than when it was
+     *                                  read
+     * @throws  java.io.IOException     if the file could not be read
      **************************************************************************/
-    public void readFile()
+    protected void readModes(BufferedReader reader, boolean isImported)
             throws IOException {
-        data_                           = new ArrayList<String>();
-        BufferedReader  bufferedReader  = null;
-        String          line;
+        double[]    values          = null;
+        String      previousLine    = null;
+        String      line;
+        int         modeIndex       = 0;
+        int         nodeIndex;
+        int         nFieldLines     = 8;
         
-        try {
-            bufferedReader = new BufferedReader(this);
-            
-            line = bufferedReader.readLine();
-            while (line != null) {
-                data_.add(line);
+        if (isImported) {
+            values = new double[3 * nNodes_];
+        }
+        
+        line = reader.readLine();
+        while (line != null) {
+            if (previousLine != null &&
+                    this.getFormat(previousLine) == DATASET_FORMAT &&
+                    this.getFormat(line) == MODE_FORMAT) {
+                if (isImported && modeIndex == nModes_) {
+                    throw new IllegalStateException(String.format(
+                            "%s has more than %d modes since it was read",
+                            file_, nModes_));
+                }
+                
+                for (int k = 2; k < nFieldLines; k++) {
+                    this.readLine(reader);
+                }
+                
+                line = this.readLine(reader);
+                
+                if (isImported) {
+                    this.setModeAt(line, this.readLine(reader), modeIndex);
+                }
+                else {
+                    this.readLine(reader);
+                }
+                
+                nodeIndex   = 0;
+                line        = this.readLine(reader);
+                
+                while (this.getFormat(line) != DATASET_FORMAT) {
+                    if (nodeIndex == nNodes_ && (isImported || modeIndex > 0)) {
+                        throw new IllegalStateException(String.format(
+                                "Mode %d has more than the %d nodes of the " +
+                                "first mode", modeIndex + 1, nNodes_));
+                    }
+                    
+                    if (isImported) {
+                        this.setNodeAt(line, this.readLine(reader), nodeIndex,
+                                values);
+                    }
+                    else {
+                        this.readLine(reader);
+                    }
+                    
+                    nodeIndex++;
+                    line = this.readLine(reader);
+                }
+                
+                if (modeIndex == 0 && !isImported) {
+                    nNodes_ = nodeIndex;
+                }
+                else if (nodeIndex < nNodes_) {
+                    throw new IllegalStateException(String.format(
+                            "Mode %d has fewer than the %d nodes of the " +
+                            "first mode", modeIndex + 1, nNodes_));
+                }
+                
+                if (isImported) {
+                    modes_.setModeValuesAt(values, modeIndex);
+                }
                 
-                line = bufferedReader.readLine();
+                modeIndex++;
             }
+            
+            previousLine    = line;
+            line            = reader.readLine();
         }
-        finally {
-            if (bufferedReader != null) {
-                bufferedReader.close();
+        
+        if (!isImported) {
+            nModes_ = modeIndex;
+            
+            if (nModes_ == 0) {
+                nNodes_ = 0;
             }
         }
     } // eom
@@ -246,55 +284,39 @@ public class UniversalModeReader extends FileReader
     
     
     /***************************************************************************
-     * Parses the line at the given index and sets the mode name and frequency
-     * at the given mode index.
+     * Parses the given lines and sets the mode name and frequency at the given
+     * mode index.
      * 
-     * @param   lineIndex   the index of the line to be parsed
-     * @param   modeIndex   the index of the mode
+     * @param   nameLine        the line containing the name of the mode
+     * @param   frequencyLine   the line containing the frequency of the mode
+     * @param   modeIndex       the index of the mode
      **************************************************************************/
-    protected void setModeAt(int lineIndex, int modeIndex) {
-        double frequency;
-        String line;
-        String name;
-        
-        line = data_.get(lineIndex);
-        name = line.substring(30, 40).trim();
-        
-        line        = data_.get(++lineIndex);
-        frequency   = Double.parseDouble(line.substring(1, 13).trim());
+    protected void setModeAt(String nameLine, String frequencyLine,
+            int modeIndex) {
+        String name = nameLine.substring(30, 40).trim();
         
         modes_.setModeNameAt(name, modeIndex);
-        modes_.setModeFrequencyAt(frequency, modeIndex);
+        modes_.setModeFrequencyAt(parser_.parseDouble(frequencyLine, 1, 13),
+                modeIndex);
     } // eom
     
     
     
     /***************************************************************************
-     * Parses the line at the given index and sets the x, y, and z-translations
-     * at the given mode and node indices.
+     * Parses the given lines, sets the name of the node at the given index,
+     * and stores its x, y, and z-translations at the node in the given row.
      * 
-     * @param   lineIndex   the index of the line to be parsed
-     * @param   modeIndex   the index of the mode
+     * @param   nameLine    the line containing the name of the node
+     * @param   valueLine   the line containing the translations of the node
      * @param   nodeIndex   the index of the node
+     * @param   values      the translations of the parsed mode
      **************************************************************************/
-    protected void setNodeAt(int lineIndex, int modeIndex, int nodeIndex) {
-        String line;
-        String name;
-        double x;
-        double y;
-        double z;
-        
-        line = data_.get(lineIndex);
-        name = line.substring(0, 10).trim();
-        
-        line    = data_.get(++lineIndex);
-        x       = Double.parseDouble(line.substring(1, 13).trim());
-        y       = Double.parseDouble(line.substring(14, 26).trim());
-        z       = Double.parseDouble(line.substring(27, 39).trim());
+    protected void setNodeAt(String nameLine, String valueLine, int nodeIndex,
+            double[] values) {
+        modes_.setNodeNameAt(nameLine.substring(0, 10).trim(), nodeIndex);
         
-        modes_.setNodeNameAt(name, nodeIndex);
-        modes_.setXTranslationAt(x, modeIndex, nodeIndex);
-        modes_.setYTranslationAt(y, modeIndex, nodeIndex);
-        modes_.setZTranslationAt(z, modeIndex, nodeIndex);
+        values[3 * nodeIndex + 0] = parser_.parseDouble(valueLine, 1, 13);
+        values[3 * nodeIndex + 1] = parser_.parseDouble(valueLine, 14, 26);
+        values[3 * nodeIndex + 2] = parser_.parseDouble(valueLine, 27, 39);
     } // eom
 } // eoc
\ No newline at end of file